@@ -0,0 +1,172 @@
+/**
+ * @author sliva
+ */
+package compiler;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Batch compilation.
+ *
+ * If more than one source file or a directory is given on the command line,
+ * all source files (directories are searched for files ending with
+ * {@code .prev}) are compiled concurrently, each within its own compilation
+ * context, using a work-stealing pool of threads. The messages produced while
+ * compiling each source file are printed out together once all files have
+ * been compiled, in the order the files have been given, followed by a
+ * summary of the throughput. Statistics requested by {@code --stats=FILE} are
+ * written into a separate file for each source file, named after the source
+ * file as the output files are: the statistics of {@code dir/prg.prev} are
+ * written into {@code dir/prg.stats.json} (or {@code .csv}, depending on the
+ * extension of {@code FILE}).
+ *
+ * @author sliva
+ */
+public class Batch {
+
+	/**
+	 * The outcome of a compilation of a single source file.
+	 *
+	 * @author sliva
+	 */
+	private static class Outcome {
+
+		/** Whether the source file has been compiled successfully. */
+		boolean done = false;
+
+		/** The number of lines of the source file. */
+		long numOfLines = 0;
+
+		/** The information messages printed out. */
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		/** The warnings and errors printed out. */
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+	}
+
+	/**
+	 * Checks whether the command line requests a batch compilation.
+	 *
+	 * @param args Command line arguments.
+	 * @return {@code true} if more than one source file or a directory has been
+	 *         specified, {@code false} otherwise.
+	 */
+	public static boolean isBatch(String[] args) {
+		int numOfSrcs = 0;
+		for (String arg : args) {
+			if (arg.startsWith("--"))
+				continue;
+			if (new File(arg).isDirectory())
+				return true;
+			numOfSrcs++;
+		}
+		return numOfSrcs > 1;
+	}
+
+	/**
+	 * Compiles all source files specified on the command line.
+	 *
+	 * @param args Command line arguments.
+	 * @return {@code true} if all source files have been compiled successfully,
+	 *         {@code false} otherwise.
+	 */
+	public static boolean compile(String[] args) {
+		// Separate switches from source files.
+		Vector<String> switches = new Vector<String>();
+		Vector<String> srcFileNames = new Vector<String>();
+		int numOfJobs = Runtime.getRuntime().availableProcessors();
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				if (arg.matches("--(xml|dst-file-name)=.*")) {
+					System.err.println(":-o Command line argument '" + arg + "' ignored in batch mode.");
+					continue;
+				}
+				if (arg.matches("--jobs=[1-9][0-9]*"))
+					numOfJobs = Integer.parseInt(arg.replaceFirst("^[^=]*=", ""));
+				switches.add(arg);
+			} else if (new File(arg).isDirectory()) {
+				try (Stream<Path> paths = Files.walk(Paths.get(arg))) {
+					paths.filter(path -> path.toString().endsWith(".prev") && Files.isRegularFile(path)).sorted()
+							.forEach(path -> srcFileNames.add(path.toString()));
+				} catch (IOException __) {
+					System.err.println(":-o Cannot read directory '" + arg + "'.");
+				}
+			} else
+				srcFileNames.add(arg);
+		}
+
+		// Compile all source files.
+		long begTime = System.nanoTime();
+		ExecutorService pool = Executors.newWorkStealingPool(numOfJobs);
+		Vector<Future<Outcome>> outcomes = new Vector<Future<Outcome>>();
+		for (String srcFileName : srcFileNames) {
+			Vector<String> fileArgs = new Vector<String>();
+			for (String arg : switches) {
+				// Every source file gets its own file of statistics.
+				if (arg.matches("--stats=.*\\.(json|csv)"))
+					arg = "--stats=" + srcFileName.replaceFirst("\\.prev$", "")
+							+ arg.replaceFirst("^.*(\\.[^.]*)$", ".stats$1");
+				fileArgs.add(arg);
+			}
+			fileArgs.add(srcFileName);
+			outcomes.add(pool.submit(() -> compile(srcFileName, fileArgs.toArray(new String[0]))));
+		}
+
+		// Report.
+		int numOfFailed = 0;
+		long numOfLines = 0;
+		for (int src = 0; src < srcFileNames.size(); src++) {
+			Outcome outcome;
+			try {
+				outcome = outcomes.get(src).get();
+			} catch (InterruptedException | ExecutionException ex) {
+				outcome = new Outcome();
+				ex.printStackTrace(new PrintStream(outcome.err, true, StandardCharsets.UTF_8));
+			}
+			System.out.println("==> " + srcFileNames.get(src) + " <==");
+			System.out.print(outcome.out.toString(StandardCharsets.UTF_8));
+			System.out.flush();
+			System.err.print(outcome.err.toString(StandardCharsets.UTF_8));
+			System.err.flush();
+			if (!outcome.done)
+				numOfFailed++;
+			numOfLines += outcome.numOfLines;
+		}
+		pool.shutdown();
+		double time = (System.nanoTime() - begTime) / 1e9;
+		System.out.printf(":-) %d file(s) compiled, %d failed, %d line(s) in %.3f s (%.1f files/s, %.0f lines/s, %d jobs).\n",
+				srcFileNames.size(), numOfFailed, numOfLines, time, srcFileNames.size() / time, numOfLines / time,
+				numOfJobs);
+		return numOfFailed == 0;
+	}
+
+	/**
+	 * Compiles a single source file.
+	 *
+	 * @param srcFileName The name of the source file.
+	 * @param args        Command line arguments for this source file.
+	 * @return The outcome of the compilation.
+	 */
+	private static Outcome compile(String srcFileName, String[] args) {
+		Outcome outcome = new Outcome();
+		PrintStream out = new PrintStream(outcome.out, true, StandardCharsets.UTF_8);
+		PrintStream err = new PrintStream(outcome.err, true, StandardCharsets.UTF_8);
+		try {
+			outcome.done = Main.compile(args, out, err);
+		} catch (Throwable ex) {
+			ex.printStackTrace(err);
+		}
+		try (Stream<String> lines = Files.lines(Paths.get(srcFileName))) {
+			outcome.numOfLines = lines.count();
+		} catch (IOException | UncheckedIOException __) {
+		}
+		return outcome;
+	}
+
+}
@@ -0,0 +1,363 @@
+/**
+ * @author sliva
+ */
+package compiler;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+import compiler.common.report.*;
+import compiler.data.symbol.*;
+import compiler.data.dertree.*;
+import compiler.data.abstree.*;
+import compiler.data.abstree.attribute.*;
+import compiler.data.type.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+import compiler.data.asmcode.*;
+
+/**
+ * The state of a single compilation.
+ *
+ * Everything a compilation of one program produces or depends on, i.e., the
+ * command line arguments, the counters of messages, temporary variables and
+ * labels, and the results of all phases, is kept in a compilation context. A
+ * context is bound to the thread performing the compilation, so several
+ * programs can be compiled in a single virtual machine, one after another or
+ * concurrently, without interfering with each other.
+ *
+ * @author sliva
+ */
+public class CompilationContext {
+
+	/** The context bound to the current thread. */
+	private static final ThreadLocal<CompilationContext> current = new ThreadLocal<CompilationContext>();
+
+	/** Messages of the task of {@link #map} run by the current thread. */
+	private static final ThreadLocal<Messages> taskMessages = new ThreadLocal<Messages>();
+
+	/**
+	 * Returns the context bound to the current thread.
+	 *
+	 * @return The context bound to the current thread or {@code null} if no
+	 *         context is bound to the current thread.
+	 */
+	public static CompilationContext current() {
+		return current.get();
+	}
+
+	/**
+	 * Binds this context to the current thread, runs the specified task and
+	 * restores the binding that has been in effect before.
+	 *
+	 * @param <Result> The type of the result of the task.
+	 * @param task     The task.
+	 * @return The result of the task.
+	 */
+	public <Result> Result run(Supplier<Result> task) {
+		return run(task, null);
+	}
+
+	/**
+	 * Binds this context to the current thread, runs the specified task printing
+	 * messages to the specified buffer and restores the binding that has been in
+	 * effect before.
+	 *
+	 * @param <Result> The type of the result of the task.
+	 * @param task     The task.
+	 * @param messages The buffer messages are printed to (or {@code null} if
+	 *                 messages should be printed out as usual).
+	 * @return The result of the task.
+	 */
+	private <Result> Result run(Supplier<Result> task, Messages messages) {
+		CompilationContext outer = current.get();
+		Messages outerMessages = taskMessages.get();
+		current.set(this);
+		taskMessages.set(messages);
+		try {
+			// A thread stealing this task must not be collecting temporary variables
+			// or messages of another task.
+			return Temp.collect(null, task);
+		} finally {
+			if (outer == null)
+				current.remove();
+			else
+				current.set(outer);
+			if (outerMessages == null)
+				taskMessages.remove();
+			else
+				taskMessages.set(outerMessages);
+		}
+	}
+
+	/**
+	 * Applies a function to each element of a list, possibly in parallel.
+	 *
+	 * Unless {@code --jobs=1} is specified, each element is processed by a
+	 * separate fork-join task within this context (in the pool of the batch
+	 * compilation or in the common pool). Temporary variables created by
+	 * individual tasks are renumbered in the order of elements once all tasks are
+	 * done, so that the result is the same as if the elements had been processed
+	 * one after another. Likewise, messages printed by individual tasks are
+	 * buffered and printed out in the order of elements: if a task fails, the
+	 * messages of the preceding elements and of the failed one are printed out
+	 * and its exception is rethrown, while the messages of the subsequent
+	 * elements are dropped. The CPU time and the memory allocated by the tasks
+	 * are added to the resource usage of the phase currently running (see
+	 * {@link Stats#measure}). The function must not create labels.
+	 *
+	 * @param <Elem>   The type of elements.
+	 * @param <Result> The type of results.
+	 * @param elems    The list of elements.
+	 * @param function The function.
+	 * @return The list of results in the order of elements.
+	 */
+	public <Elem, Result> Vector<Result> map(List<Elem> elems, Function<Elem, Result> function) {
+		Vector<Result> results = new Vector<Result>();
+		if (elems.size() <= 1 || "1".equals(cmdLine.get("--jobs"))) {
+			for (Elem elem : elems)
+				results.add(function.apply(elem));
+			return results;
+		}
+
+		Vector<Vector<Temp>> temps = new Vector<Vector<Temp>>();
+		Vector<Messages> messages = new Vector<Messages>();
+		Vector<ForkJoinTask<Result>> tasks = new Vector<ForkJoinTask<Result>>();
+		for (Elem elem : elems) {
+			Vector<Temp> elemTemps = new Vector<Temp>();
+			temps.add(elemTemps);
+			Messages elemMessages = new Messages();
+			messages.add(elemMessages);
+			tasks.add(ForkJoinTask.adapt(() -> run(() -> Stats.measure(() -> {
+				try {
+					return Temp.collect(elemTemps, () -> function.apply(elem));
+				} catch (RuntimeException | Error ex) {
+					// Rethrown once the messages of the preceding elements are printed out.
+					elemMessages.failure = ex;
+					return null;
+				}
+			}), elemMessages)));
+		}
+		ForkJoinTask.invokeAll(tasks);
+		for (int elem = 0; elem < elems.size(); elem++) {
+			messages.get(elem).print();
+			results.add(tasks.get(elem).join());
+			Temp.renumber(temps.get(elem));
+		}
+		return results;
+	}
+
+	/**
+	 * Messages printed by a task of {@link #map}.
+	 */
+	private class Messages {
+
+		/** The information messages (or {@code null} if none). */
+		ByteArrayOutputStream outBytes = null;
+
+		/** The warnings and errors (or {@code null} if none). */
+		ByteArrayOutputStream errBytes = null;
+
+		/** The stream information messages are printed to (created when needed). */
+		PrintStream out = null;
+
+		/** The stream warnings and errors are printed to (created when needed). */
+		PrintStream err = null;
+
+		/** Counter of information messages. */
+		int numOfInfos = 0;
+
+		/** Counter of warnings. */
+		int numOfWarnings = 0;
+
+		/** The exception the task has failed with (or {@code null} if none). */
+		Throwable failure = null;
+
+		/**
+		 * Prints out the messages and counts them within the context. If the task
+		 * has failed, its exception is rethrown.
+		 */
+		void print() {
+			if (outBytes != null)
+				CompilationContext.this.out.print(outBytes.toString(StandardCharsets.UTF_8));
+			if (errBytes != null)
+				CompilationContext.this.err.print(errBytes.toString(StandardCharsets.UTF_8));
+			CompilationContext.this.numOfInfos += numOfInfos;
+			CompilationContext.this.numOfWarnings += numOfWarnings;
+			if (failure instanceof Error)
+				throw (Error) failure;
+			if (failure != null)
+				throw (RuntimeException) failure;
+		}
+
+	}
+
+	/**
+	 * Returns the stream information messages are printed to by the current
+	 * thread.
+	 *
+	 * @return The stream information messages are printed to.
+	 */
+	public PrintStream messageOut() {
+		Messages messages = taskMessages.get();
+		if (messages == null)
+			return out;
+		if (messages.out == null) {
+			messages.outBytes = new ByteArrayOutputStream();
+			messages.out = new PrintStream(messages.outBytes, true, StandardCharsets.UTF_8);
+		}
+		return messages.out;
+	}
+
+	/**
+	 * Returns the stream warnings and errors are printed to by the current
+	 * thread.
+	 *
+	 * @return The stream warnings and errors are printed to.
+	 */
+	public PrintStream messageErr() {
+		Messages messages = taskMessages.get();
+		if (messages == null)
+			return err;
+		if (messages.err == null) {
+			messages.errBytes = new ByteArrayOutputStream();
+			messages.err = new PrintStream(messages.errBytes, true, StandardCharsets.UTF_8);
+		}
+		return messages.err;
+	}
+
+	/**
+	 * Counts a message printed by the current thread.
+	 *
+	 * @param info {@code true} for an information message, {@code false} for a
+	 *             warning.
+	 */
+	public void count(boolean info) {
+		Messages messages = taskMessages.get();
+		if (info) {
+			if (messages == null)
+				numOfInfos++;
+			else
+				messages.numOfInfos++;
+		} else {
+			if (messages == null)
+				numOfWarnings++;
+			else
+				messages.numOfWarnings++;
+		}
+	}
+
+	// Command line.
+
+	/** Values of command line arguments. */
+	public final HashMap<String, String> cmdLine = new HashMap<String, String>();
+
+	// Reporting.
+
+	/** The stream information messages are printed to. */
+	public final PrintStream out;
+
+	/** The stream warnings and errors are printed to. */
+	public final PrintStream err;
+
+	/** Counter of information messages printed out. */
+	public int numOfInfos = 0;
+
+	/** Counter of warnings printed out. */
+	public int numOfWarnings = 0;
+
+	/** Resource usage of phases completed so far. */
+	public final Vector<Stats.Sample> stats = new Vector<Stats.Sample>();
+
+	/** The measurement of the phase currently running (or {@code null} if none). */
+	public Stats.Sample openStats = null;
+
+	// Names.
+
+	/** The names of identifiers. */
+	public final NameTable names = new NameTable();
+
+	// Types.
+
+	/** Interned types (see {@link SemTypeFactory}). */
+	public final SemTypeFactory semTypes = new SemTypeFactory();
+
+	// Memory layout.
+
+	/** Counter of temporary variables. */
+	public long numOfTemps = 0;
+
+	/** Counter of anonymous labels. */
+	public long numOfLabels = 0;
+
+	// Results of individual phases.
+
+	/** The derivation tree of the program being compiled. */
+	public DerTree derTree = null;
+
+	/** The abstract syntax tree of the program being compiled. */
+	public AbsTree absTree = null;
+
+	/** Counter of abstract syntax tree nodes. */
+	public int numOfNodes = 0;
+
+	/** Maps names (except component names) to declarations. */
+	public final AbsAttribute<AbsName, AbsDecl> declaredAt = new AbsAttribute<AbsName, AbsDecl>();
+
+	/** Maps type declarations to a {@link SemNamedType} types. */
+	public final AbsAttribute<AbsTypDecl, SemNamedType> declaresType = new AbsAttribute<AbsTypDecl, SemNamedType>();
+
+	/** Maps type expressions to types. */
+	public final AbsAttribute<AbsType, SemType> isType = new AbsAttribute<AbsType, SemType>();
+
+	/** Maps value expressions to types. */
+	public final AbsAttribute<AbsExpr, SemType> isOfType = new AbsAttribute<AbsExpr, SemType>();
+
+	/** Denotes whether a value expression can denote an address. */
+	public final AbsBoolAttribute<AbsExpr> isAddr = new AbsBoolAttribute<AbsExpr>();
+
+	/** Maps component declarations to their corresponding record types. */
+	public final AbsAttribute<AbsCompDecl, AbsRecType> compOf = new AbsAttribute<AbsCompDecl, AbsRecType>();
+
+	/** Maps function declarations to frames. */
+	public final AbsAttribute<AbsFunDecl, Frame> frames = new AbsAttribute<AbsFunDecl, Frame>();
+
+	/** Maps variable declarations to accesses. */
+	public final AbsAttribute<AbsVarDecl, Access> accesses = new AbsAttribute<AbsVarDecl, Access>();
+
+	/** Maps statements to intermediate code. */
+	public final AbsAttribute<AbsStmt, ImcStmt> stmtImCode = new AbsAttribute<AbsStmt, ImcStmt>();
+
+	/** Maps expressions to intermediate code. */
+	public final AbsAttribute<AbsExpr, ImcExpr> exprImCode = new AbsAttribute<AbsExpr, ImcExpr>();
+
+	/** Maps function definitions to the optimized intermediate code of their bodies. */
+	public final AbsAttribute<AbsFunDef, ImcExpr> funImCode = new AbsAttribute<AbsFunDef, ImcExpr>();
+
+	/** Top-level function definitions whose code is taken from the cache. */
+	public final HashSet<AbsFunDef> cachedFunDefs = new HashSet<AbsFunDef>();
+
+	/** Data chunks. */
+	public final Vector<DataChunk> dataChunks = new Vector<DataChunk>();
+
+	/** Code chunks. */
+	public final Vector<CodeChunk> codeChunks = new Vector<CodeChunk>();
+
+	/** Assembly code of individual functions. */
+	public final Vector<Code> codes = new Vector<Code>();
+
+	/**
+	 * Constructs a new compilation context.
+	 *
+	 * @param out The stream information messages are printed to.
+	 * @param err The stream warnings and errors are printed to.
+	 */
+	public CompilationContext(PrintStream out, PrintStream err) {
+		this.out = out;
+		this.err = err;
+	}
+
+}
@@ -3,8 +3,11 @@
  */
 package compiler;
 
+import java.io.*;
 import java.util.*;
 import compiler.common.report.*;
+import compiler.data.abstree.*;
+import compiler.data.abstree.visitor.*;
 import compiler.phases.lexan.*;
 import compiler.phases.synan.*;
 import compiler.phases.abstr.*;
@@ -12,9 +15,11 @@ import compiler.phases.asmcode.*;
 import compiler.phases.seman.*;
 import compiler.phases.frames.*;
 import compiler.phases.imcgen.*;
+import compiler.phases.imcopt.*;
 import compiler.phases.chunks.*;
 import compiler.phases.livean.*;
 import compiler.phases.ralloc.*;
+import compiler.phases.cache.*;
 import compiler.phases.mmixasmgen.*;
 
 /**
@@ -25,10 +30,7 @@ import compiler.phases.mmixasmgen.*;
 public class Main {
 
 	/** All valid phases of the compiler. */
-	private static final String phases = "lexan|synan|abstr|seman|frames|imcgen|chunks|asmgen|livean|ralloc|mmxisasmgen";
-
-	/** Values of command line arguments. */
-	private static HashMap<String, String> cmdLine = new HashMap<String, String>();
+	private static final String phases = "lexan|synan|abstr|seman|frames|imcgen|imcopt|chunks|asmgen|livean|ralloc|mmxisasmgen";
 
 	/** The number of general-purpose registers. */
 	public final int numOfRegs = 8;
@@ -41,15 +43,51 @@ public class Main {
 	 *         the specified command line argument has not been used.
 	 */
 	public static String cmdLineArgValue(String cmdLineArgName) {
-		return cmdLine.get(cmdLineArgName);
+		return CompilationContext.current().cmdLine.get(cmdLineArgName);
 	}
 
 	/**
-	 * The compiler's {@code main} method.
+	 * The compiler's {@code main} method. The compiler exits with status 1 if
+	 * any source file has not been compiled successfully.
 	 * 
 	 * @param args Command line arguments.
 	 */
 	public static void main(String[] args) {
+		boolean done;
+		if (Batch.isBatch(args))
+			done = Batch.compile(args);
+		else
+			done = compile(args, System.out, System.err);
+		if (!done)
+			System.exit(1);
+	}
+
+	/**
+	 * Compiles a single program within its own compilation context, so this
+	 * method can be called repeatedly or even concurrently, e.g., by the compile
+	 * server.
+	 * 
+	 * @param args Command line arguments.
+	 * @param out  The stream information messages are printed to.
+	 * @param err  The stream warnings and errors are printed to.
+	 * @return {@code true} if the program has been compiled successfully,
+	 *         {@code false} otherwise.
+	 */
+	public static boolean compile(String[] args, PrintStream out, PrintStream err) {
+		return new CompilationContext(out, err).run(() -> compile(args));
+	}
+
+	/**
+	 * Compiles a single program within the compilation context bound to the
+	 * current thread.
+	 * 
+	 * @param args Command line arguments.
+	 * @return {@code true} if the program has been compiled successfully,
+	 *         {@code false} otherwise.
+	 */
+	private static boolean compile(String[] args) {
+		HashMap<String, String> cmdLine = CompilationContext.current().cmdLine;
+		boolean done = false;
 		try {
 			Report.info("This is PREV compiler:");
 
@@ -75,12 +113,84 @@ public class Main {
 							continue;
 						}
 					}
+					if (args[argc].matches("--log-format=(xml|bin)")) {
+						if (cmdLine.get("--log-format") == null) {
+							cmdLine.put("--log-format", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
 					if (args[argc].matches("--xsl=.*")) {
 						if (cmdLine.get("--xsl") == null) {
 							cmdLine.put("--xsl", args[argc].replaceFirst("^[^=]*=", ""));
 							continue;
 						}
 					}
+					if (args[argc].matches("--dst-file-name=.*")) {
+						if (cmdLine.get("--dst-file-name") == null) {
+							cmdLine.put("--dst-file-name", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--jobs=[1-9][0-9]*")) {
+						if (cmdLine.get("--jobs") == null) {
+							cmdLine.put("--jobs", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--cache=.+")) {
+						if (cmdLine.get("--cache") == null) {
+							cmdLine.put("--cache", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--opt-level=[01]")) {
+						if (cmdLine.get("--opt-level") == null) {
+							cmdLine.put("--opt-level", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--inline-size=[0-9]+")) {
+						if (cmdLine.get("--inline-size") == null) {
+							cmdLine.put("--inline-size", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--inline-growth=[0-9]+")) {
+						if (cmdLine.get("--inline-growth") == null) {
+							cmdLine.put("--inline-growth", args[argc].replaceFirst("^[^=]*=", ""));
+							continue;
+						}
+					}
+					if (args[argc].matches("--inline-report")) {
+						if (cmdLine.get("--inline-report") == null) {
+							cmdLine.put("--inline-report", "");
+							continue;
+						}
+					}
+					if (args[argc].matches("--interpret")) {
+						if (cmdLine.get("--interpret") == null) {
+							cmdLine.put("--interpret", "");
+							continue;
+						}
+					}
+					if (args[argc].matches("--token-buffer")) {
+						if (cmdLine.get("--token-buffer") == null) {
+							cmdLine.put("--token-buffer", "");
+							continue;
+						}
+					}
+					if (args[argc].matches("--lr-parser")) {
+						if (cmdLine.get("--lr-parser") == null) {
+							cmdLine.put("--lr-parser", "");
+							continue;
+						}
+					}
+					if (args[argc].matches("--stats(=.*\\.(json|csv))?")) {
+						if (cmdLine.get("--stats") == null) {
+							cmdLine.put("--stats", args[argc].replaceFirst("^--stats=?", ""));
+							continue;
+						}
+					}
 					Report.warning("Command line argument '" + args[argc] + "' ignored.");
 				} else {
 					// Source file name.
@@ -95,7 +205,7 @@ public class Main {
 				throw new Report.Error("Source file not specified.");
 			}
 			if (cmdLine.get("--dst-file-name") == null) {
-				cmdLine.put("--dst-file-name", cmdLine.get("--src-file-name").replaceFirst("\\.[^./]*$", "") + ".asm");
+				cmdLine.put("--dst-file-name", cmdLine.get("--src-file-name").replaceFirst("\\.[^./]*$", "") + ".mms");
 			}
 			if (cmdLine.get("--target-phase") == null) {
 				cmdLine.put("--target-phase", phases.replaceFirst("^.*\\|", ""));
@@ -108,8 +218,13 @@ public class Main {
 				// Lexical analysis.
 				if (cmdLine.get("--target-phase").equals("lexan")) {
 					try (LexAn lexan = new LexAn()) {
-						while (lexan.lexer().token != compiler.data.symbol.Symbol.Term.EOF)
-							;
+						if (cmdLine.get("--token-buffer") != null) {
+							TokenBuffer tokens = lexan.tokens();
+							for (int index = 0; tokens.token(index) != compiler.data.symbol.Symbol.Term.EOF; index++)
+								;
+						} else
+							while (lexan.lexer().token != compiler.data.symbol.Symbol.Term.EOF)
+								;
 					}
 					break;
 				}
@@ -117,76 +232,114 @@ public class Main {
 				// Syntax analysis.
 				try (SynAn synan = new SynAn()) {
 					synan.parser();
-					SynAn.derTree.accept(new DerLogger(synan.logger), null);
+					if (SynAn.derTree() != null)
+						SynAn.derTree().accept(new DerLogger(synan.logger), null);
 				}
 				if (cmdLine.get("--target-phase").equals("synan"))
 					break;
 
 				// Abstract syntax.
 				try (Abstr abstr = new Abstr()) {
-					Abstr.absTree = SynAn.derTree.accept(new AbsTreeConstructor(), null);
+					if (Abstr.absTree() == null)
+						CompilationContext.current().absTree = SynAn.derTree().accept(new AbsTreeConstructor(), null);
 					AbsLogger logger = new AbsLogger(abstr.logger);
-					Abstr.absTree.accept(logger, null);
+					Abstr.absTree().accept(logger, null);
 				}
 				if (cmdLine.get("--target-phase").equals("abstr"))
 					break;
 
 				// Semantic analysis.
 				try (SemAn seman = new SemAn()) {
-					Abstr.absTree.accept(new NameResolver(), null);
-					Abstr.absTree.accept(new TypeResolver(), null);
-					Abstr.absTree.accept(new AddrResolver(), null);
-					SemAn.declaredAt.lock();
-					SemAn.declaresType.lock();
-					SemAn.isType.lock();
-					SemAn.isOfType.lock();
-					SemAn.isAddr.lock();
+					// Names must be resolved in the whole tree before types, and types of
+					// value expressions before addresses.
+					TypeResolver typeResolver = new TypeResolver();
+					Abstr.absTree().accept(new NameResolver(), null);
+					Abstr.absTree().accept(new AbsFusedVisitor<Object>()
+							.addPreVisitor(typeResolver.typDeclResolver())
+							.addPreVisitor(typeResolver.typeResolver()), null);
+
+					// Once type expressions are resolved, top-level declarations (and thus
+					// function bodies) are checked in parallel.
+					int numOfNodes = CompilationContext.current().numOfNodes;
+					SemAn.declaredAt().reserve(numOfNodes);
+					SemAn.isOfType().reserve(numOfNodes);
+					Vector<AbsDecl> decls = ((AbsSource) Abstr.absTree()).decls.decls();
+					CompilationContext.current().map(decls, decl -> decl.accept(typeResolver, 4));
+					CompilationContext.current().map(decls, decl -> decl.accept(new AbsFusedVisitor<Object>()
+							.addPreVisitor(typeResolver.funDeclChecker())
+							.addPreVisitor(new AddrResolver()), null));
+					SemAn.declaredAt().lock();
+					SemAn.declaresType().lock();
+					SemAn.isType().lock();
+					SemAn.isOfType().lock();
+					SemAn.isAddr().lock();
 
 					AbsLogger logger = new AbsLogger(seman.logger);
 					logger.addSubvisitor(new SemLogger(seman.logger));
-					Abstr.absTree.accept(logger, null);
+					Abstr.absTree().accept(logger, null);
 				}
 				if (cmdLine.get("--target-phase").equals("seman"))
 					break;
 
 				// Memory layout, i.e., frames and accesses.
 				try (Frames frames = new Frames()) {
-					Abstr.absTree.accept(new FrmEvaluator(), null);
-					Frames.frames.lock();
-					Frames.accesses.lock();
+					Abstr.absTree().accept(new FrmEvaluator(), null);
+					Frames.frames().lock();
+					Frames.accesses().lock();
 				///	Frames.strings.lock();
 
 					AbsLogger logger = new AbsLogger(frames.logger);
 					logger.addSubvisitor(new SemLogger(frames.logger));
 					logger.addSubvisitor(new FrmLogger(frames.logger));
-					Abstr.absTree.accept(logger, null);
+					Abstr.absTree().accept(logger, null);
 				}
 				if (cmdLine.get("--target-phase").equals("frames"))
 					break;
 
+				// Functions compiled before are taken from the cache (only if the program
+				// is compiled all the way and no phase is logged).
+				CodeCache cache = null;
+				if (cmdLine.get("--cache") != null && cmdLine.get("--logged-phase") == null
+						&& cmdLine.get("--target-phase").matches(phases.replaceFirst("^.*\\|", "") + "|all")) {
+					cache = new CodeCache(cmdLine.get("--cache"));
+					cache.load();
+				}
+
 				// Intermediate code generation.
 				try (ImcGen imcGen = new ImcGen()) {
-					Abstr.absTree.accept(new CodeGenerator(), new Stack<compiler.data.layout.Frame>());
-					ImcGen.stmtImCode.lock();
-					ImcGen.exprImCode.lock();
+					Abstr.absTree().accept(new CodeGenerator(), new Stack<compiler.data.layout.Frame>());
+					ImcGen.stmtImCode().lock();
+					ImcGen.exprImCode().lock();
 
 					AbsLogger logger = new AbsLogger(imcGen.logger);
 					logger.addSubvisitor(new SemLogger(imcGen.logger));
 					logger.addSubvisitor(new FrmLogger(imcGen.logger));
 					logger.addSubvisitor(new ImcLogger(imcGen.logger));
-					Abstr.absTree.accept(logger, null);
+					Abstr.absTree().accept(logger, null);
 
 				}
 				if (cmdLine.get("--target-phase").equals("imcgen"))
 					break;
 
+				// Intermediate code optimization.
+				try (ImcOpt imcOpt = new ImcOpt()) {
+					imcOpt.optimize();
+					ImcOpt.funImCode().lock();
+					imcOpt.log();
+				}
+				if (cmdLine.get("--target-phase").equals("imcopt"))
+					break;
+
 				// Chunks.
 				try (Chunks chunks = new Chunks()) {
-					Abstr.absTree.accept(new ChunkGenerator(), null);
+					Abstr.absTree().accept(new ChunkGenerator(), null);
 					chunks.log();
 
-				///	Interpreter interpreter = new Interpreter(Chunks.dataChunks, Chunks.codeChunks);
-				///	System.out.println("EXIT CODE: " + interpreter.run("_main"));
+					// Functions taken from the cache have no code chunks to interpret.
+					if (cmdLine.get("--interpret") != null && cache == null) {
+						Interpreter interpreter = new Interpreter(Chunks.dataChunks(), Chunks.codeChunks());
+						CompilationContext.current().out.println("EXIT CODE: " + interpreter.run("_main"));
+					}
 				}
 				if (cmdLine.get("--target-phase").equals("chunks"))
 					break;
@@ -213,6 +366,9 @@ public class Main {
 					ralloc.log();
 				}
 
+				if (cache != null)
+					cache.store();
+
 				try (MMIXAsmGen mmixasmgen = new MMIXAsmGen()) {
 					mmixasmgen.out();
 
@@ -229,8 +385,19 @@ public class Main {
 			} while (false);
 
 			Report.info("Done.");
+			done = true;
 		} catch (Report.Error __) {
 		}
+
+		// Resource usage of individual phases.
+		if (cmdLine.get("--stats") != null) {
+			if (cmdLine.get("--stats").equals(""))
+				Stats.printTable(CompilationContext.current().out);
+			else
+				Stats.write(cmdLine.get("--stats"));
+		}
+
+		return done;
 	}
 
 }
@@ -0,0 +1,196 @@
+/**
+ * @author sliva
+ */
+package compiler.common.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * A logger used for producing compact binary logs of compiler internal data
+ * structures (see {@link LogConverter} for converting them to XML).
+ *
+ * A binary log starts with a header consisting of the magic bytes
+ * {@code PREVLOG}, the format version, the capacity of the string table, the
+ * tag name of the topmost element (i.e., the name of the phase being logged)
+ * and the name of the relating XSL file. The header is followed by records of
+ * the elements within the topmost element, each record starting with a single
+ * byte:
+ * <ul>
+ * <li>{@link #BEG} followed by the tag name starts an element,</li>
+ * <li>{@link #ATTR} followed by the attribute name and value adds an
+ * attribute,</li>
+ * <li>{@link #END} ends an element.</li>
+ * </ul>
+ * The topmost element ends at the end of the log. All numbers are written as
+ * unsigned LEB128 varints. A string is written as a number {@code n}: if
+ * {@code n} is odd, the string is the {@code n/2}-th string in the string
+ * table, otherwise {@code n/2} bytes of the UTF-8 encoding of the string
+ * follow and the string is appended to the string table unless the table is
+ * full. Thus each distinct tag name, attribute name and attribute value is
+ * written out in full only once as long as the string table is not full.
+ *
+ * @author sliva
+ */
+public class BinLogger extends Logger {
+
+	/** The magic bytes at the beginning of a binary log. */
+	public static final byte[] MAGIC = "PREVLOG".getBytes(StandardCharsets.US_ASCII);
+
+	/** The version of the format. */
+	public static final int VERSION = 1;
+
+	/** The record starting an element. */
+	public static final int BEG = 1;
+
+	/** The record adding an attribute. */
+	public static final int ATTR = 2;
+
+	/** The record ending an element. */
+	public static final int END = 3;
+
+	/** The capacity of the string table. */
+	private static final int numOfStrings = 1 << 16;
+
+	/** The string table, i.e., the indexes of strings written out in full. */
+	private final HashMap<String, Integer> strings = new HashMap<String, Integer>();
+
+	/** The bytes not written to the temporary file yet. */
+	private final byte[] buffer = new byte[1 << 16];
+
+	/** The number of bytes in {@link #buffer}. */
+	private int bufferSize = 0;
+
+	/** The number of elements started but not ended yet. */
+	private int depth = 1;
+
+	/** Whether attributes can be added to the active element. */
+	private boolean attrsAllowed = true;
+
+	/**
+	 * Constructs a new logger.
+	 *
+	 * @param phaseName   The name of the phase being logged.
+	 * @param binFileName The name of the binary log file to be produced.
+	 * @param xslFileName The name of the relating XSL file.
+	 */
+	public BinLogger(String phaseName, String binFileName, String xslFileName) {
+		super(binFileName);
+		ensure(MAGIC.length);
+		System.arraycopy(MAGIC, 0, buffer, 0, MAGIC.length);
+		bufferSize = MAGIC.length;
+		writeNum(VERSION);
+		writeNum(numOfStrings);
+		writeString(phaseName);
+		writeString(xslFileName);
+	}
+
+	@Override
+	public void close() {
+		if (depth != 1) {
+			discard();
+			throw new InternalError();
+		}
+		depth--;
+		flush();
+		commit();
+	}
+
+	@Override
+	public void begElement(String tagName) {
+		ensure(1);
+		buffer[bufferSize++] = BEG;
+		writeString(tagName);
+		depth++;
+		attrsAllowed = true;
+	}
+
+	@Override
+	public void endElement() {
+		if (depth == 0)
+			throw new InternalError();
+		ensure(1);
+		buffer[bufferSize++] = END;
+		depth--;
+		attrsAllowed = false;
+	}
+
+	@Override
+	public void addAttribute(String attrName, String attrValue) {
+		if (!attrsAllowed)
+			throw new InternalError();
+		ensure(1);
+		buffer[bufferSize++] = ATTR;
+		writeString(attrName);
+		writeString(attrValue == null ? "" : attrValue);
+	}
+
+	/**
+	 * Writes out a string.
+	 *
+	 * @param string The string.
+	 */
+	private void writeString(String string) {
+		Integer index = strings.get(string);
+		if (index != null) {
+			writeNum(2L * index + 1);
+			return;
+		}
+		if (strings.size() < numOfStrings)
+			strings.put(string, strings.size());
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeNum(2L * bytes.length);
+		if (bytes.length > buffer.length) {
+			flush();
+			try {
+				if (stream != null)
+					stream.write(bytes);
+			} catch (IOException ex) {
+				fail();
+			}
+			return;
+		}
+		ensure(bytes.length);
+		System.arraycopy(bytes, 0, buffer, bufferSize, bytes.length);
+		bufferSize += bytes.length;
+	}
+
+	/**
+	 * Writes out a number as an unsigned LEB128 varint.
+	 *
+	 * @param num The number.
+	 */
+	private void writeNum(long num) {
+		ensure(10);
+		while ((num & ~0x7FL) != 0) {
+			buffer[bufferSize++] = (byte) ((num & 0x7F) | 0x80);
+			num >>>= 7;
+		}
+		buffer[bufferSize++] = (byte) num;
+	}
+
+	/**
+	 * Makes room for the specified number of bytes in the buffer.
+	 *
+	 * @param size The number of bytes.
+	 */
+	private void ensure(int size) {
+		if (bufferSize + size > buffer.length)
+			flush();
+	}
+
+	/**
+	 * Writes the buffer to the temporary file.
+	 */
+	private void flush() {
+		try {
+			if (stream != null)
+				stream.write(buffer, 0, bufferSize);
+		} catch (IOException ex) {
+			fail();
+		}
+		bufferSize = 0;
+	}
+
+}
@@ -0,0 +1,167 @@
+/**
+ * @author sliva
+ */
+package compiler.common.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import compiler.*;
+
+/**
+ * The converter of binary logs (see {@link BinLogger}) to XML logs. The XML
+ * log produced is the same as the one the compiler produces by default.
+ *
+ * Usage:
+ * {@code java compiler.common.logger.LogConverter prg.seman.bin prg.imcgen.bin ...}
+ * converts each binary log into an XML log named as the binary log but with
+ * extension {@code .xml}. Binary logs are produced by the compiler if
+ * {@code --log-format=bin} is specified together with {@code --logged-phase}.
+ *
+ * The converter is compiled into {@code bins} by {@code make logconverter} and
+ * run by {@code java -classpath bins compiler.common.logger.LogConverter ...}.
+ * {@code make logcheck} checks that converted logs are identical to the XML
+ * logs produced by the compiler.
+ *
+ * @author sliva
+ */
+public class LogConverter {
+
+	/** The binary log. */
+	private final DataInputStream in;
+
+	/** The string table. */
+	private final Vector<String> strings = new Vector<String>();
+
+	/** The capacity of the string table. */
+	private int numOfStrings;
+
+	/**
+	 * Constructs a new converter.
+	 *
+	 * @param in The binary log.
+	 */
+	private LogConverter(InputStream in) {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+	}
+
+	/**
+	 * The converter's {@code main} method.
+	 *
+	 * @param args The names of binary logs.
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: java compiler.common.logger.LogConverter LOG...");
+			System.exit(1);
+		}
+		boolean done = new CompilationContext(System.out, System.err).run(() -> {
+			for (String binFileName : args) {
+				String xmlFileName = binFileName.replaceFirst("(\\.[^./]*)?$", ".xml");
+				try (InputStream in = new FileInputStream(binFileName)) {
+					new LogConverter(in).convert(xmlFileName);
+				} catch (IOException ex) {
+					System.err.println("Cannot convert log file '" + binFileName + "': " + ex.getMessage());
+					return false;
+				}
+			}
+			return true;
+		});
+		if (!done)
+			System.exit(1);
+	}
+
+	/**
+	 * Converts the binary log to an XML log.
+	 *
+	 * @param xmlFileName The name of the XML file to be produced.
+	 * @throws IOException If the binary log cannot be read or is malformed.
+	 */
+	private void convert(String xmlFileName) throws IOException {
+		byte[] magic = new byte[BinLogger.MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, BinLogger.MAGIC))
+			throw new IOException("Not a binary log.");
+		if (readNum() != BinLogger.VERSION)
+			throw new IOException("Unsupported version.");
+		numOfStrings = (int) readNum();
+		String phaseName = readString();
+		String xslFileName = readString();
+
+		XMLLogger logger = new XMLLogger(phaseName, xmlFileName, xslFileName);
+		try {
+			int depth = 0;
+			boolean attrsAllowed = true;
+			for (int record = in.read(); record != -1; record = in.read()) {
+				switch (record) {
+					case BinLogger.BEG:
+						logger.begElement(readString());
+						depth++;
+						attrsAllowed = true;
+						break;
+					case BinLogger.ATTR:
+						if (!attrsAllowed)
+							throw new IOException("Misplaced attribute.");
+						logger.addAttribute(readString(), readString());
+						break;
+					case BinLogger.END:
+						if (depth == 0)
+							throw new IOException("Unbalanced elements.");
+						logger.endElement();
+						depth--;
+						attrsAllowed = false;
+						break;
+					default:
+						throw new IOException("Unknown record " + record + ".");
+				}
+			}
+			if (depth != 0)
+				throw new IOException("Unbalanced elements.");
+		} catch (IOException ex) {
+			logger.discard();
+			throw ex;
+		}
+		logger.close();
+	}
+
+	/**
+	 * Reads an unsigned LEB128 varint.
+	 *
+	 * @return The number.
+	 * @throws IOException If the number cannot be read.
+	 */
+	private long readNum() throws IOException {
+		long num = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.readUnsignedByte();
+			num |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return num;
+		}
+		throw new IOException("Malformed number.");
+	}
+
+	/**
+	 * Reads a string.
+	 *
+	 * @return The string.
+	 * @throws IOException If the string cannot be read.
+	 */
+	private String readString() throws IOException {
+		long num = readNum();
+		if ((num & 1) == 1) {
+			if (num / 2 >= strings.size())
+				throw new IOException("Malformed string reference.");
+			return strings.get((int) (num / 2));
+		}
+		if (num / 2 > Integer.MAX_VALUE)
+			throw new IOException("Malformed string.");
+		byte[] bytes = new byte[(int) (num / 2)];
+		in.readFully(bytes);
+		String string = new String(bytes, StandardCharsets.UTF_8);
+		if (strings.size() < numOfStrings)
+			strings.add(string);
+		return string;
+	}
+
+}
@@ -4,125 +4,110 @@
 package compiler.common.logger;
 
 import java.io.*;
-import java.util.*;
-import javax.xml.parsers.*;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.*;
-import javax.xml.transform.stream.*;
-import org.w3c.dom.*;
+import java.nio.file.*;
 import compiler.common.report.*;
 
 /**
- * A logger used for producing XML/XSL logs of compiler internal data
- * structures.
- * 
+ * A logger used for producing logs of compiler internal data structures.
+ *
+ * A log is a tree of elements, each with a tag name and a set of attributes.
+ * It is written out while it is being produced into a temporary file which
+ * replaces the log file once the logger is closed, so a log file appears only
+ * if the phase being logged has been completed.
+ *
  * @author sliva
  */
-public class Logger implements AutoCloseable {
+public abstract class Logger implements AutoCloseable {
 
-	/** The name of the XML file to be produced. */
-	private final String xmlFileName;
+	/** The name of the log file to be produced. */
+	protected final String fileName;
 
-	/** The name of the relating XSL file (to be included in the XML header). */
-	private final String xslFileName;
+	/** The temporary file the log is written into (or {@code null} if none). */
+	private File tmpFile = null;
 
-	/** The entire XML document being constructed. */
-	private final Document doc;
-
-	/** The stack of the XML documents (used during construction). */
-	private final Stack<Element> elements = new Stack<Element>();
+	/** The output stream of the temporary file (or {@code null} if none). */
+	protected OutputStream stream = null;
 
 	/**
 	 * Constructs a new logger.
-	 * 
-	 * @param phaseName   The name of the phase being logged.
-	 * @param xmlFileName The name of the XML file to be produced.
-	 * @param xslFileName The name of the relating XSL file.
+	 *
+	 * @param fileName The name of the log file to be produced.
 	 */
-	public Logger(String phaseName, String xmlFileName, String xslFileName) {
-		this.xmlFileName = xmlFileName;
-		this.xslFileName = xslFileName;
-
-		// Prepare a new log document.
+	protected Logger(String fileName) {
+		this.fileName = fileName;
 		try {
-			doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-		} catch (ParserConfigurationException ex) {
-			throw new Report.InternalError();
+			File file = new File(fileName).getAbsoluteFile();
+			tmpFile = File.createTempFile(file.getName() + ".", ".tmp", file.getParentFile());
+			stream = new BufferedOutputStream(new FileOutputStream(tmpFile), 1 << 16);
+		} catch (IOException ex) {
+			fail();
 		}
-
-		// Create the root element representing the entire phase.
-		Element phase = doc.createElement(phaseName);
-		doc.appendChild(phase);
-		elements.push(phase);
-
-		// Add XSL declaration.
-		ProcessingInstruction xsl = doc.createProcessingInstruction("xml-stylesheet",
-				"type=\"text/xsl\" href=\"" + this.xslFileName + "\"");
-		doc.insertBefore(xsl, phase);
 	}
 
+	/**
+	 * Ends the log, i.e., the topmost element, and produces the log file.
+	 */
 	@Override
-	public void close() {
-		try {
-			elements.pop();
-		} catch (EmptyStackException ex) {
-			throw new InternalError();
-		}
-		if (!elements.empty())
-			throw new InternalError();
+	public abstract void close();
 
-		// Dump the log document out.
-		try {
-			TransformerFactory transformerFactory = TransformerFactory.newInstance();
-			javax.xml.transform.Transformer transformer = transformerFactory.newTransformer();
-			DOMSource source = new DOMSource(doc);
-			StreamResult result = new StreamResult(new File(xmlFileName));
-			transformer.transform(source, result);
-		} catch (TransformerException ex) {
-			Report.warning("Cannot open log file '" + xmlFileName + "'.");
-		}
-	}
+	/**
+	 * Starts a new element (within the active element) and makes it active. Only
+	 * one element can be active at each moment.
+	 *
+	 * @param tagName The tag name of a new element.
+	 */
+	public abstract void begElement(String tagName);
 
 	/**
-	 * Starts a new XML element (within the active XML element) and makes it active.
-	 * Only one XML element can be active at each moment.
-	 * 
-	 * @param tagName The tag name of a new XML element.
+	 * Ends the current element and makes its parent element active. Only one
+	 * element can be active at each moment.
 	 */
-	public void begElement(String tagName) {
+	public abstract void endElement();
+
+	/**
+	 * Adds an attribute to the active element. All attributes must be added
+	 * before the first child element of the active element is started.
+	 *
+	 * @param attrName  The name of an attribute.
+	 * @param attrValue The value of an attribute.
+	 */
+	public abstract void addAttribute(String attrName, String attrValue);
+
+	/**
+	 * Closes the temporary file and moves it to the log file.
+	 */
+	protected void commit() {
+		if (stream == null)
+			return;
 		try {
-			Element element = doc.createElement(tagName);
-			elements.peek().appendChild(element);
-			elements.push(element);
-		} catch (EmptyStackException ex) {
-			throw new InternalError();
+			stream.close();
+			stream = null;
+			Files.move(tmpFile.toPath(), Paths.get(fileName), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException ex) {
+			fail();
 		}
 	}
 
 	/**
-	 * Ends the current XML element and makes its parent element active. Only one
-	 * XML element can be active at each moment.
+	 * Reports that the log file cannot be written and stops writing it.
 	 */
-	public void endElement() {
-		try {
-			elements.pop();
-		} catch (EmptyStackException ex) {
-			throw new InternalError();
-		}
+	protected void fail() {
+		Report.warning("Cannot open log file '" + fileName + "'.");
+		discard();
 	}
 
 	/**
-	 * Adds an attribute to the active XML element.
-	 * 
-	 * @param attrName  The name of an attribute.
-	 * @param attrValue The value of an attribute.
+	 * Stops writing the log file and removes the temporary file.
 	 */
-	public void addAttribute(String attrName, String attrValue) {
+	protected void discard() {
 		try {
-			elements.peek().setAttribute(attrName, attrValue);
-		} catch (EmptyStackException ex) {
-			throw new InternalError();
+			if (stream != null)
+				stream.close();
+		} catch (IOException ex) {
 		}
+		stream = null;
+		if (tmpFile != null)
+			tmpFile.delete();
 	}
 
 }
@@ -0,0 +1,218 @@
+/**
+ * @author sliva
+ */
+package compiler.common.logger;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+import javax.xml.stream.*;
+
+/**
+ * A logger used for producing XML/XSL logs of compiler internal data
+ * structures.
+ *
+ * The log is written out while it is being produced, i.e., each XML element is
+ * written as soon as its first child element is started or as soon as it is
+ * ended, so only the attributes of the active XML element are kept in memory.
+ * The XML produced is the same as the one produced by serializing a DOM
+ * document: attributes of an XML element are sorted by their names and control
+ * characters are written out as character references.
+ *
+ * @author sliva
+ */
+public class XMLLogger extends Logger {
+
+	/**
+	 * A writer writing control characters and characters outside the Basic
+	 * Multilingual Plane as character references.
+	 *
+	 * @author sliva
+	 */
+	private static class CharRefWriter extends FilterWriter {
+
+		/** The high surrogate preceding the next character (or 0 if none). */
+		private char highSurrogate = 0;
+
+		CharRefWriter(Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			if (highSurrogate != 0) {
+				if (Character.isLowSurrogate((char) c)) {
+					out.write("&#" + Character.toCodePoint(highSurrogate, (char) c) + ";");
+					highSurrogate = 0;
+					return;
+				}
+				out.write(highSurrogate);
+				highSurrogate = 0;
+			}
+			if (Character.isHighSurrogate((char) c))
+				highSurrogate = (char) c;
+			else if (c < 0x20)
+				out.write("&#" + c + ";");
+			else
+				out.write(c);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			int beg = off;
+			for (int pos = off; pos < off + len; pos++) {
+				char c = cbuf[pos];
+				if (c < 0x20 || Character.isSurrogate(c) || highSurrogate != 0) {
+					out.write(cbuf, beg, pos - beg);
+					write(c);
+					beg = pos + 1;
+				}
+			}
+			out.write(cbuf, beg, off + len - beg);
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			write(str.toCharArray(), off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (highSurrogate != 0)
+				out.write(highSurrogate);
+			super.close();
+		}
+
+	}
+
+	/** The name of the relating XSL file (to be included in the XML header). */
+	private final String xslFileName;
+
+	/** The character stream of the temporary file. */
+	private Writer writer;
+
+	/** The XML writer (or {@code null} if the log cannot be written). */
+	private XMLStreamWriter xml;
+
+	/** The number of XML elements started but not ended yet. */
+	private int depth = 0;
+
+	/**
+	 * The tag name of the active XML element if it has not been written out yet
+	 * (or {@code null} if it has).
+	 */
+	private String tagName = null;
+
+	/** The attributes of the active XML element not written out yet. */
+	private final TreeMap<String, String> attrs = new TreeMap<String, String>();
+
+	/**
+	 * Constructs a new logger.
+	 *
+	 * @param phaseName   The name of the phase being logged.
+	 * @param xmlFileName The name of the XML file to be produced.
+	 * @param xslFileName The name of the relating XSL file.
+	 */
+	public XMLLogger(String phaseName, String xmlFileName, String xslFileName) {
+		super(xmlFileName);
+		this.xslFileName = xslFileName;
+
+		// Prepare a new log file.
+		if (stream != null) {
+			try {
+				writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+				writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+				xml = XMLOutputFactory.newInstance().createXMLStreamWriter(new CharRefWriter(writer));
+
+				// Add XSL declaration.
+				xml.writeProcessingInstruction("xml-stylesheet", "type=\"text/xsl\" href=\"" + this.xslFileName + "\"");
+			} catch (IOException | XMLStreamException ex) {
+				fail();
+			}
+		}
+
+		// Start the root element representing the entire phase.
+		begElement(phaseName);
+	}
+
+	@Override
+	public void close() {
+		if (depth != 1) {
+			discard();
+			throw new InternalError();
+		}
+		endElement();
+
+		// Finish the log file.
+		if (xml == null)
+			return;
+		try {
+			xml.writeEndDocument();
+			xml.close();
+			writer.flush();
+		} catch (IOException | XMLStreamException ex) {
+			fail();
+		}
+		commit();
+	}
+
+	@Override
+	public void begElement(String tagName) {
+		if (this.tagName != null)
+			writeElement(false);
+		this.tagName = tagName;
+		depth++;
+	}
+
+	@Override
+	public void endElement() {
+		if (depth == 0)
+			throw new InternalError();
+		if (tagName != null)
+			writeElement(true);
+		else if (xml != null) {
+			try {
+				xml.writeEndElement();
+			} catch (XMLStreamException ex) {
+				fail();
+			}
+		}
+		depth--;
+	}
+
+	@Override
+	public void addAttribute(String attrName, String attrValue) {
+		if (tagName == null)
+			throw new InternalError();
+		attrs.put(attrName, attrValue == null ? "" : attrValue);
+	}
+
+	/**
+	 * Writes out the start tag of the active XML element.
+	 *
+	 * @param empty Whether the active XML element has no child elements.
+	 */
+	private void writeElement(boolean empty) {
+		if (xml != null) {
+			try {
+				if (empty)
+					xml.writeEmptyElement(tagName);
+				else
+					xml.writeStartElement(tagName);
+				for (Map.Entry<String, String> attr : attrs.entrySet())
+					xml.writeAttribute(attr.getKey(), attr.getValue());
+			} catch (XMLStreamException ex) {
+				fail();
+			}
+		}
+		tagName = null;
+		attrs.clear();
+	}
+
+	@Override
+	protected void discard() {
+		xml = null;
+		super.discard();
+	}
+
+}
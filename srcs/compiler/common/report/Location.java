@@ -16,7 +16,7 @@ public class Location implements Locatable, Loggable {
 	 * The line number of the first character of the specified part of the source
 	 * file.
 	 */
-	private final int begLine;
+	private int begLine;
 
 	/**
 	 * The column number of the first character of the specified part of the source
@@ -28,7 +28,7 @@ public class Location implements Locatable, Loggable {
 	 * The line number of the last character of the specified part of the source
 	 * file.
 	 */
-	private final int endLine;
+	private int endLine;
 
 	/**
 	 * The column number of the last character of the specified part of the source
@@ -89,6 +89,22 @@ public class Location implements Locatable, Loggable {
 		this(beg.location().begLine, beg.location().begColumn, end.location().endLine, end.location().endColumn);
 	}
 
+	/**
+	 * Moves this location by the specified number of lines. A location at line 0
+	 * (used for empty parts of the source file) is not moved.
+	 * 
+	 * Used by the incremental parser to relocate the parts of the abstract syntax
+	 * tree it reuses after lines have been inserted or removed above them.
+	 * 
+	 * @param lines The number of lines (negative to move the location up).
+	 */
+	public void shiftLines(int lines) {
+		if (begLine == 0)
+			return;
+		begLine += lines;
+		endLine += lines;
+	}
+
 	@Override
 	public Location location() {
 		return this;
@@ -3,15 +3,40 @@
  */
 package compiler.common.report;
 
+import java.io.*;
+import compiler.*;
+
 /**
  * Reporting to the user.
  * 
+ * Messages are printed to the streams of the compilation context bound to the
+ * current thread (or to the standard streams if there is none) and are counted
+ * per compilation. Messages printed by parallel tasks are buffered by the
+ * context (see {@link CompilationContext#map}).
+ * 
  * @author sliva
  */
 public class Report {
 
-	/** Counter of information messages printed out. */
-	private static int numOfInfos = 0;
+	/**
+	 * Returns the stream information messages are printed to.
+	 * 
+	 * @return The stream information messages are printed to.
+	 */
+	private static PrintStream out() {
+		CompilationContext context = CompilationContext.current();
+		return context == null ? System.out : context.messageOut();
+	}
+
+	/**
+	 * Returns the stream warnings and errors are printed to.
+	 * 
+	 * @return The stream warnings and errors are printed to.
+	 */
+	private static PrintStream err() {
+		CompilationContext context = CompilationContext.current();
+		return context == null ? System.err : context.messageErr();
+	}
 
 	/**
 	 * Returns the number of information messages printed out.
@@ -19,7 +44,20 @@ public class Report {
 	 * @return The number of information messages printed out.
 	 */
 	public static int numOfInfos() {
-		return numOfInfos;
+		return CompilationContext.current().numOfInfos;
+	}
+
+	/**
+	 * Counts a message within the compilation context bound to the current
+	 * thread.
+	 * 
+	 * @param info {@code true} for an information message, {@code false} for a
+	 *             warning.
+	 */
+	private static void count(boolean info) {
+		CompilationContext context = CompilationContext.current();
+		if (context != null)
+			context.count(info);
 	}
 
 	/**
@@ -28,9 +66,9 @@ public class Report {
 	 * @param message The information message to be printed.
 	 */
 	public static void info(String message) {
-		numOfInfos++;
-		System.out.print(":-) ");
-		System.out.println(message);
+		count(true);
+		out().print(":-) ");
+		out().println(message);
 	}
 
 	/**
@@ -41,22 +79,19 @@ public class Report {
 	 * @param message  The information message to be printed.
 	 */
 	public static void info(Locatable location, String message) {
-		numOfInfos++;
-		System.out.print(":-) ");
-		System.out.print("[" + location.location() + "] ");
-		System.out.println(message);
+		count(true);
+		out().print(":-) ");
+		out().print("[" + location.location() + "] ");
+		out().println(message);
 	}
 
-	/** Counter of warnings printed out. */
-	private static int numOfWarnings = 0;
-
 	/**
 	 * Returns the number of warnings printed out.
 	 * 
 	 * @return The number of warnings printed out.
 	 */
 	public static int numOfWarnings() {
-		return numOfWarnings;
+		return CompilationContext.current().numOfWarnings;
 	}
 
 	/**
@@ -65,9 +100,9 @@ public class Report {
 	 * @param message The warning message.
 	 */
 	public static void warning(String message) {
-		numOfWarnings++;
-		System.err.print(":-o ");
-		System.err.println(message);
+		count(false);
+		err().print(":-o ");
+		err().println(message);
 	}
 
 	/**
@@ -77,10 +112,10 @@ public class Report {
 	 * @param message  The warning message to be printed.
 	 */
 	public static void warning(Locatable location, String message) {
-		numOfWarnings++;
-		System.err.print(":-o ");
-		System.err.print("[" + location.location() + "] ");
-		System.err.println(message);
+		count(false);
+		err().print(":-o ");
+		err().print("[" + location.location() + "] ");
+		err().println(message);
 	}
 
 	/**
@@ -101,8 +136,8 @@ public class Report {
 		 * @param message The error message.
 		 */
 		public Error(String message) {
-			System.err.print(":-( ");
-			System.err.println(message);
+			err().print(":-( ");
+			err().println(message);
 		}
 
 		/**
@@ -112,9 +147,9 @@ public class Report {
 		 * @param message  The error message.
 		 */
 		public Error(Locatable location, String message) {
-			System.err.print(":-( ");
-			System.err.print("[" + location.location() + "] ");
-			System.err.println(message);
+			err().print(":-( ");
+			err().print("[" + location.location() + "] ");
+			err().println(message);
 		}
 
 	}
@@ -135,7 +170,7 @@ public class Report {
 		 */
 		public InternalError() {
 			super("Internal error.");
-			this.printStackTrace();
+			this.printStackTrace(err());
 		}
 
 	}
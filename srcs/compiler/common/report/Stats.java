@@ -0,0 +1,237 @@
+/**
+ * @author sliva
+ */
+package compiler.common.report;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.*;
+import compiler.*;
+
+/**
+ * Resource usage statistics of individual compiler phases.
+ *
+ * For each phase the wall-clock time, the CPU time and the number of bytes
+ * allocated by the compiling thread and by the tasks the phase runs in
+ * parallel (see {@link #measure}) are measured together with the peak usage
+ * of the heap while the phase is running. Measurements are collected within
+ * the compilation context bound to the current thread.
+ *
+ * The peak heap usage is that of the entire virtual machine: if several
+ * programs are compiled concurrently (in batch mode or by the compile server),
+ * it includes the memory used by all of them.
+ *
+ * @author sliva
+ */
+public class Stats {
+
+	/**
+	 * A measurement of a single phase.
+	 *
+	 * @author sliva
+	 */
+	public static class Sample {
+
+		/** The name of the phase. */
+		public final String phaseName;
+
+		/** The wall-clock time in nanoseconds. */
+		private long wallTime;
+
+		/** The CPU time in nanoseconds (or {@code -1} if not supported). */
+		private long cpuTime;
+
+		/** The number of bytes allocated (or {@code -1} if not supported). */
+		private long allocatedBytes;
+
+		/** The peak heap usage of the virtual machine in bytes. */
+		private long peakHeapBytes;
+
+		/** Whether the measurement has been completed. */
+		private boolean ended = false;
+
+		/** The thread the phase is running on. */
+		private final Thread thread;
+
+		/** The measurement of the enclosing phase (or {@code null} if none). */
+		private final Sample outer;
+
+		/**
+		 * Starts a new measurement.
+		 *
+		 * @param phaseName The name of the phase.
+		 */
+		private Sample(String phaseName) {
+			this.phaseName = phaseName;
+			this.thread = Thread.currentThread();
+			this.outer = CompilationContext.current().openStats;
+			CompilationContext.current().openStats = this;
+			for (MemoryPoolMXBean pool : heapPools)
+				pool.resetPeakUsage();
+			// The counters start negative, so the usage of other threads can be added
+			// before the counters of this thread are read again.
+			long startAllocatedBytes = allocatedBytes();
+			long startCpuTime = cpuTime();
+			this.allocatedBytes = startAllocatedBytes == -1 ? -1 : -startAllocatedBytes;
+			this.cpuTime = startCpuTime == -1 ? -1 : -startCpuTime;
+			this.wallTime = System.nanoTime();
+		}
+
+		/**
+		 * Completes the measurement and records it. Completing the measurement for
+		 * the second time has no effect.
+		 */
+		public synchronized void end() {
+			if (ended)
+				return;
+			ended = true;
+			wallTime = System.nanoTime() - wallTime;
+			cpuTime = cpuTime == -1 ? -1 : cpuTime + cpuTime();
+			allocatedBytes = allocatedBytes == -1 ? -1 : allocatedBytes + allocatedBytes();
+			peakHeapBytes = 0;
+			for (MemoryPoolMXBean pool : heapPools)
+				peakHeapBytes += pool.getPeakUsage().getUsed();
+			CompilationContext.current().openStats = outer;
+			CompilationContext.current().stats.add(this);
+		}
+
+		/**
+		 * Adds the resource usage of a task run on another thread.
+		 *
+		 * @param taskCpuTime        The CPU time of the task in nanoseconds.
+		 * @param taskAllocatedBytes The number of bytes allocated by the task.
+		 */
+		private synchronized void add(long taskCpuTime, long taskAllocatedBytes) {
+			if (ended)
+				return;
+			if (cpuTime != -1)
+				cpuTime += taskCpuTime;
+			if (allocatedBytes != -1)
+				allocatedBytes += taskAllocatedBytes;
+		}
+
+	}
+
+	/** The thread management bean. */
+	private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+	/** Memory pools of the heap. */
+	private static final Vector<MemoryPoolMXBean> heapPools = new Vector<MemoryPoolMXBean>();
+
+	static {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP)
+				heapPools.add(pool);
+		}
+	}
+
+	/**
+	 * Returns the CPU time of the current thread.
+	 *
+	 * @return The CPU time in nanoseconds or {@code -1} if not supported.
+	 */
+	private static long cpuTime() {
+		return threadBean.isCurrentThreadCpuTimeSupported() ? threadBean.getCurrentThreadCpuTime() : -1;
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 *
+	 * @return The number of bytes or {@code -1} if not supported.
+	 */
+	private static long allocatedBytes() {
+		if (threadBean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+			if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+				return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Starts measuring a phase.
+	 *
+	 * @param phaseName The name of the phase.
+	 * @return The measurement that must be ended when the phase is done.
+	 */
+	public static Sample begin(String phaseName) {
+		return new Sample(phaseName);
+	}
+
+	/**
+	 * Runs a task of the phase currently running in the context bound to the
+	 * current thread and adds the CPU time and the number of bytes allocated by
+	 * the task to the measurement of the phase. If no phase is being measured or
+	 * the task runs on the thread of the phase itself, whose usage is measured
+	 * anyway, the task is just run.
+	 *
+	 * @param <Result> The type of the result of the task.
+	 * @param task     The task.
+	 * @return The result of the task.
+	 */
+	public static <Result> Result measure(Supplier<Result> task) {
+		Sample sample = CompilationContext.current().openStats;
+		if (sample == null || sample.thread == Thread.currentThread())
+			return task.get();
+		long startCpuTime = cpuTime();
+		long startAllocatedBytes = allocatedBytes();
+		try {
+			return task.get();
+		} finally {
+			sample.add(startCpuTime == -1 ? 0 : cpuTime() - startCpuTime,
+					startAllocatedBytes == -1 ? 0 : allocatedBytes() - startAllocatedBytes);
+		}
+	}
+
+	/**
+	 * Prints out all measurements as a table.
+	 *
+	 * @param out The stream the table is printed to.
+	 */
+	public static void printTable(PrintStream out) {
+		Vector<Sample> samples = CompilationContext.current().stats;
+		String format = "%-12s %12s %12s %14s %14s\n";
+		out.printf(format, "phase", "wall [ms]", "cpu [ms]", "alloc [KiB]", "peak [KiB]");
+		for (Sample sample : samples) {
+			out.printf(format, sample.phaseName, String.format("%.3f", sample.wallTime / 1e6),
+					sample.cpuTime == -1 ? "-" : String.format("%.3f", sample.cpuTime / 1e6),
+					sample.allocatedBytes == -1 ? "-" : Long.toString(sample.allocatedBytes / 1024),
+					Long.toString(sample.peakHeapBytes / 1024));
+		}
+	}
+
+	/**
+	 * Writes all measurements to a file. The format, i.e., JSON or CSV, is
+	 * selected by the extension of the file name.
+	 *
+	 * @param fileName The name of the file ending with {@code .json} or
+	 *                 {@code .csv}.
+	 */
+	public static void write(String fileName) {
+		Vector<Sample> samples = CompilationContext.current().stats;
+		try (PrintWriter out = new PrintWriter(fileName, "UTF-8")) {
+			if (fileName.endsWith(".csv")) {
+				out.println("phase,wall_ns,cpu_ns,allocated_bytes,peak_heap_bytes");
+				for (Sample sample : samples)
+					out.println(sample.phaseName + "," + sample.wallTime + "," + sample.cpuTime + ","
+							+ sample.allocatedBytes + "," + sample.peakHeapBytes);
+			} else {
+				out.println("{");
+				out.println("  \"phases\": [");
+				for (int s = 0; s < samples.size(); s++) {
+					Sample sample = samples.get(s);
+					out.println("    { \"phase\": \"" + sample.phaseName + "\", \"wall_ns\": " + sample.wallTime
+							+ ", \"cpu_ns\": " + sample.cpuTime + ", \"allocated_bytes\": " + sample.allocatedBytes
+							+ ", \"peak_heap_bytes\": " + sample.peakHeapBytes + " }"
+							+ (s < samples.size() - 1 ? "," : ""));
+				}
+				out.println("  ]");
+				out.println("}");
+			}
+		} catch (IOException __) {
+			Report.warning("Cannot write statistics to '" + fileName + "'.");
+		}
+	}
+
+}
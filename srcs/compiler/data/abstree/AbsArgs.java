@@ -9,6 +9,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsArgs extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	private final Vector<AbsExpr> args;
 
 	public AbsArgs(Locatable location, Vector<AbsExpr> args) {
@@ -33,4 +35,9 @@ public class AbsArgs extends Location implements AbsTree {
 		return visitor.visit(this, accArg);
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
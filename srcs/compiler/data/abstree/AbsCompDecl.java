@@ -8,8 +8,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsCompDecl extends AbsVarDecl {
 
-	public AbsCompDecl(Locatable location, String name, AbsType type) {
-		super(location, name, type);
+	public AbsCompDecl(Locatable location, int nameId, AbsType type) {
+		super(location, nameId, type);
 	}
 
 	@Override
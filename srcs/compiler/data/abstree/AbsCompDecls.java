@@ -9,6 +9,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsCompDecls extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	private final Vector<AbsCompDecl> compDecls;
 
 	public AbsCompDecls(Locatable location, Vector<AbsCompDecl> compDecls) {
@@ -33,4 +35,9 @@ public class AbsCompDecls extends Location implements AbsTree {
 		return visitor.visit(this, accArg);
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
@@ -4,17 +4,28 @@
 package compiler.data.abstree;
 
 import compiler.common.report.*;
+import compiler.data.symbol.*;
 
 public abstract class AbsDecl extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	public final String name;
 
+	public final int nameId;
+
 	public final AbsType type;
 
-	public AbsDecl(Locatable location, String name, AbsType type) {
+	public AbsDecl(Locatable location, int nameId, AbsType type) {
 		super(location);
-		this.name = name;
+		this.name = NameTable.current().name(nameId);
+		this.nameId = nameId;
 		this.type = type;
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
@@ -10,8 +10,8 @@ public class AbsFunDecl extends AbsDecl {
 
 	public final AbsParDecls parDecls;
 
-	public AbsFunDecl(Locatable location, String name, AbsParDecls parDecls, AbsType type) {
-		super(location, name, type);
+	public AbsFunDecl(Locatable location, int nameId, AbsParDecls parDecls, AbsType type) {
+		super(location, nameId, type);
 		this.parDecls = parDecls;
 	}
 
@@ -10,8 +10,8 @@ public class AbsFunDef extends AbsFunDecl {
 
 	public final AbsExpr value;
 
-	public AbsFunDef(Locatable location, String name, AbsParDecls parDecls, AbsType type, AbsExpr value) {
-		super(location, name, parDecls, type);
+	public AbsFunDef(Locatable location, int nameId, AbsParDecls parDecls, AbsType type, AbsExpr value) {
+		super(location, nameId, parDecls, type);
 		this.value = value;
 	}
 
@@ -10,14 +10,14 @@ public class AbsFunName extends AbsVarName implements AbsName {
 
 	public final AbsArgs args;
 
-	public AbsFunName(Locatable location, String name, AbsArgs args) {
-		super(location, name);
+	public AbsFunName(Locatable location, int nameId, AbsArgs args) {
+		super(location, nameId);
 		this.args = args;
 	}
 	
 	@Override
 	public AbsExpr relocate(Locatable location) {
-		return new AbsFunName(location, name, args);
+		return new AbsFunName(location, nameId, args);
 	}
 
 	@Override
@@ -8,8 +8,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsParDecl extends AbsVarDecl {
 
-	public AbsParDecl(Locatable location, String name, AbsType type) {
-		super(location, name, type);
+	public AbsParDecl(Locatable location, int nameId, AbsType type) {
+		super(location, nameId, type);
 	}
 
 	@Override
@@ -9,6 +9,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsParDecls extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	private final Vector<AbsParDecl> parDecls;
 
 	public AbsParDecls(Locatable location, Vector<AbsParDecl> parDecls) {
@@ -33,4 +35,9 @@ public class AbsParDecls extends Location implements AbsTree {
 		return visitor.visit(this, accArg);
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
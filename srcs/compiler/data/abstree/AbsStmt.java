@@ -7,8 +7,15 @@ import compiler.common.report.*;
 
 public abstract class AbsStmt extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	public AbsStmt(Locatable location) {
 		super(location);
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
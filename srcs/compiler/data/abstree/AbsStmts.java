@@ -9,6 +9,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsStmts extends Location implements AbsTree {
 
+	private final int id = AbsTree.newId();
+
 	private final Vector<AbsStmt> stmts;
 
 	public AbsStmts(Locatable location, Vector<AbsStmt> stmts) {
@@ -33,4 +35,9 @@ public class AbsStmts extends Location implements AbsTree {
 		return visitor.visit(this, accArg);
 	}
 
+	@Override
+	public int id() {
+		return id;
+	}
+
 }
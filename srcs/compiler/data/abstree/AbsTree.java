@@ -3,6 +3,7 @@
  */
 package compiler.data.abstree;
 
+import compiler.*;
 import compiler.common.report.*;
 import compiler.data.abstree.visitor.*;
 
@@ -11,6 +12,25 @@ import compiler.data.abstree.visitor.*;
  */
 public interface AbsTree extends Locatable {
 
+	/**
+	 * Returns the ID of a new node. Nodes are numbered densely in the order they
+	 * are constructed within a compilation, so that attributes of nodes can be
+	 * stored in arrays indexed by node IDs (see
+	 * {@link compiler.data.abstree.attribute.AbsAttribute}).
+	 * 
+	 * @return The ID of a new node.
+	 */
+	public static int newId() {
+		return CompilationContext.current().numOfNodes++;
+	}
+
+	/**
+	 * Returns the ID of this node.
+	 * 
+	 * @return The ID of this node.
+	 */
+	public abstract int id();
+
 	public abstract <Result, Arg> Result accept(AbsVisitor<Result, Arg> visitor, Arg accArg);
 
 }
@@ -8,8 +8,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsTypDecl extends AbsDecl {
 
-	public AbsTypDecl(Locatable location, String name, AbsType type) {
-		super(location, name, type);
+	public AbsTypDecl(Locatable location, int nameId, AbsType type) {
+		super(location, nameId, type);
 	}
 
 	@Override
@@ -4,20 +4,24 @@
 package compiler.data.abstree;
 
 import compiler.common.report.*;
+import compiler.data.symbol.*;
 import compiler.data.abstree.visitor.*;
 
 public class AbsTypName extends AbsType implements AbsName {
 
 	public final String name;
 
-	public AbsTypName(Locatable location, String name) {
+	public final int nameId;
+
+	public AbsTypName(Locatable location, int nameId) {
 		super(location);
-		this.name = name;
+		this.name = NameTable.current().name(nameId);
+		this.nameId = nameId;
 	}
 
 	@Override
 	public AbsType relocate(Locatable location) {
-		return new AbsTypName(location, name);
+		return new AbsTypName(location, nameId);
 	}
 
 	@Override
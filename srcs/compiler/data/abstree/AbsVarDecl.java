@@ -8,8 +8,8 @@ import compiler.data.abstree.visitor.*;
 
 public class AbsVarDecl extends AbsDecl {
 
-	public AbsVarDecl(Locatable location, String name, AbsType type) {
-		super(location, name, type);
+	public AbsVarDecl(Locatable location, int nameId, AbsType type) {
+		super(location, nameId, type);
 	}
 
 	@Override
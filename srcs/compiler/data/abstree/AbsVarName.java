@@ -4,20 +4,24 @@
 package compiler.data.abstree;
 
 import compiler.common.report.*;
+import compiler.data.symbol.*;
 import compiler.data.abstree.visitor.*;
 
 public class AbsVarName extends AbsExpr implements AbsName {
 
 	public final String name;
 
-	public AbsVarName(Locatable location, String name) {
+	public final int nameId;
+
+	public AbsVarName(Locatable location, int nameId) {
 		super(location);
-		this.name = name;
+		this.name = NameTable.current().name(nameId);
+		this.nameId = nameId;
 	}
 
 	@Override
 	public AbsExpr relocate(Locatable location) {
-		return new AbsVarName(location, name);
+		return new AbsVarName(location, nameId);
 	}
 
 	@Override
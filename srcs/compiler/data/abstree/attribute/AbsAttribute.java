@@ -10,6 +10,12 @@ import compiler.data.abstree.*;
 /**
  * An attribute of the abstract syntax tree node.
  * 
+ * Values are stored in an array indexed by node IDs (see
+ * {@link AbsTree#id()}), so that associating a value with a node or looking
+ * it up is a single array access. The array grows as values are associated
+ * with nodes of higher IDs unless room has been reserved in advance (see
+ * {@link #reserve}).
+ * 
  * @author sliva
  *
  * @param <Node> Nodes that values are associated with.
@@ -17,15 +23,15 @@ import compiler.data.abstree.*;
  */
 public class AbsAttribute<Node extends AbsTree, Value> {
 
-	/** Mapping of nodes to values. */
-	private HashMap<Node, Value> mapping;
+	/** Values indexed by node IDs. */
+	private Object[] values;
 
 	/** Whether this attribute can no longer be modified or not. */
 	private boolean lock;
 
 	/** Constructs a new attribute. */
 	public AbsAttribute() {
-		mapping = new HashMap<Node, Value>();
+		values = new Object[64];
 		lock = false;
 	}
 
@@ -39,18 +45,35 @@ public class AbsAttribute<Node extends AbsTree, Value> {
 	public Value put(Node node, Value value) {
 		if (lock)
 			throw new Report.InternalError();
-		mapping.put(node, value);
+		int id = node.id();
+		if (id >= values.length)
+			values = Arrays.copyOf(values, Math.max(2 * values.length, id + 1));
+		values[id] = value;
 		return value;
 	}
 
+	/**
+	 * Makes room for values of nodes with IDs below the specified number. Once
+	 * room is reserved, values can be associated with distinct nodes of lower IDs
+	 * by concurrent threads.
+	 * 
+	 * @param numOfNodes The number of nodes.
+	 */
+	public void reserve(int numOfNodes) {
+		if (numOfNodes > values.length)
+			values = Arrays.copyOf(values, numOfNodes);
+	}
+
 	/**
 	 * Returns a value associated with the specified abstract syntax tree node.
 	 * 
 	 * @param node The specified abstract syntax tree node.
 	 * @return The value.
 	 */
+	@SuppressWarnings("unchecked")
 	public Value get(Node node) {
-		return mapping.get(node);
+		int id = node.id();
+		return id < values.length ? (Value) values[id] : null;
 	}
 
 	/**
@@ -60,4 +83,13 @@ public class AbsAttribute<Node extends AbsTree, Value> {
 		lock = true;
 	}
 
+	/**
+	 * Checks whether this attribute can no longer be modified.
+	 * 
+	 * @return {@code true} if this attribute is locked, {@code false} otherwise.
+	 */
+	protected boolean locked() {
+		return lock;
+	}
+
 }
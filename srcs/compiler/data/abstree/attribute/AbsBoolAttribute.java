@@ -0,0 +1,46 @@
+/**
+ * @author sliva
+ */
+package compiler.data.abstree.attribute;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.abstree.*;
+
+/**
+ * A boolean attribute of the abstract syntax tree node.
+ * 
+ * Values are stored as two bit sets indexed by node IDs: one denoting the
+ * nodes a value is associated with and the other denoting the nodes associated
+ * with {@code true}. As bits of distinct nodes share words, values are
+ * associated with nodes under a lock.
+ * 
+ * @author sliva
+ *
+ * @param <Node> Nodes that values are associated with.
+ */
+public class AbsBoolAttribute<Node extends AbsTree> extends AbsAttribute<Node, Boolean> {
+
+	/** Nodes a value is associated with. */
+	private final BitSet defined = new BitSet();
+
+	/** Nodes associated with {@code true}. */
+	private final BitSet values = new BitSet();
+
+	@Override
+	public synchronized Boolean put(Node node, Boolean value) {
+		if (locked())
+			throw new Report.InternalError();
+		defined.set(node.id());
+		values.set(node.id(), value);
+		return value;
+	}
+
+	@Override
+	public Boolean get(Node node) {
+		if (!defined.get(node.id()))
+			return null;
+		return values.get(node.id());
+	}
+
+}
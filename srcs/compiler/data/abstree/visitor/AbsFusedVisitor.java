@@ -0,0 +1,410 @@
+package compiler.data.abstree.visitor;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.abstree.*;
+
+/**
+ * A visitor that fuses several analyses into a single traversal.
+ * 
+ * The visitor visits every node (in the same order as {@link AbsFullVisitor})
+ * and lets each of its subvisitors, in the order they have been added, handle
+ * the node twice: the subvisitor's pre-visitor is called when the node is
+ * entered and its post-visitor after all descendants of the node have been
+ * visited. A subvisitor's visitors must thus not traverse the tree themselves
+ * (they might descend into other parts of the tree by calling other visitors,
+ * though). A pre-visitor returning {@code false} for a node prunes the
+ * subtree: neither of the subvisitor's visitors is called for the descendants
+ * of the node. A subtree pruned by all subvisitors is not traversed at all.
+ * 
+ * Passes that do not depend on each other's results within the same subtree
+ * can thus share a single walk over the tree instead of walking it one after
+ * another.
+ * 
+ * @author sliva
+ *
+ * @param <Arg> The argument the visitor carries around.
+ */
+public class AbsFusedVisitor<Arg> extends AbsFullVisitor<Object, Arg> {
+
+	/** The number of subvisitors. */
+	private int numOfSubvisitors = 0;
+
+	/** The pre-visitors of subvisitors ({@code null} if there is none). */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private AbsVisitor<Boolean, Arg>[] preVisitors = new AbsVisitor[0];
+
+	/** The post-visitors of subvisitors ({@code null} if there is none). */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private AbsVisitor<?, Arg>[] postVisitors = new AbsVisitor[0];
+
+	/** The set of subvisitors that have not pruned the current subtree. */
+	private long active = 0;
+
+	/**
+	 * Adds a subvisitor.
+	 * 
+	 * @param preVisitor  The visitor called when a node is entered (or
+	 *                    {@code null}).
+	 * @param postVisitor The visitor called when a node is left (or
+	 *                    {@code null}).
+	 * @return This visitor.
+	 */
+	public AbsFusedVisitor<Arg> addSubvisitor(AbsVisitor<Boolean, Arg> preVisitor, AbsVisitor<?, Arg> postVisitor) {
+		if (numOfSubvisitors == Long.SIZE)
+			throw new Report.InternalError();
+		preVisitors = Arrays.copyOf(preVisitors, numOfSubvisitors + 1);
+		postVisitors = Arrays.copyOf(postVisitors, numOfSubvisitors + 1);
+		preVisitors[numOfSubvisitors] = preVisitor;
+		postVisitors[numOfSubvisitors] = postVisitor;
+		active |= 1L << numOfSubvisitors;
+		numOfSubvisitors++;
+		return this;
+	}
+
+	/**
+	 * Adds a subvisitor called when nodes are entered.
+	 * 
+	 * @param preVisitor The visitor called when a node is entered.
+	 * @return This visitor.
+	 */
+	public AbsFusedVisitor<Arg> addPreVisitor(AbsVisitor<Boolean, Arg> preVisitor) {
+		return addSubvisitor(preVisitor, null);
+	}
+
+	/**
+	 * Adds a subvisitor called when nodes are left.
+	 * 
+	 * @param postVisitor The visitor called when a node is left.
+	 * @return This visitor.
+	 */
+	public AbsFusedVisitor<Arg> addPostVisitor(AbsVisitor<?, Arg> postVisitor) {
+		return addSubvisitor(null, postVisitor);
+	}
+
+	/**
+	 * Calls the pre-visitors of active subvisitors and deactivates those pruning
+	 * the subtree.
+	 * 
+	 * @param node   The node entered.
+	 * @param visArg The argument.
+	 * @return The set of subvisitors active before the node was entered.
+	 */
+	private long enter(AbsTree node, Arg visArg) {
+		long outer = active;
+		for (int index = 0; index < numOfSubvisitors; index++) {
+			AbsVisitor<Boolean, Arg> preVisitor = preVisitors[index];
+			if (preVisitor == null || (outer & (1L << index)) == 0)
+				continue;
+			if (Boolean.FALSE.equals(node.accept(preVisitor, visArg)))
+				active &= ~(1L << index);
+		}
+		return outer;
+	}
+
+	/**
+	 * Calls the post-visitors of subvisitors active when the node was entered.
+	 * 
+	 * @param node   The node left.
+	 * @param visArg The argument.
+	 * @param outer  The set of subvisitors active before the node was entered.
+	 */
+	private void leave(AbsTree node, Arg visArg, long outer) {
+		active = outer;
+		for (int index = 0; index < numOfSubvisitors; index++) {
+			AbsVisitor<?, Arg> postVisitor = postVisitors[index];
+			if (postVisitor == null || (outer & (1L << index)) == 0)
+				continue;
+			node.accept(postVisitor, visArg);
+		}
+	}
+
+	@Override
+	public Object visit(AbsArgs args, Arg visArg) {
+		long outer = enter(args, visArg);
+		if (active != 0)
+			super.visit(args, visArg);
+		leave(args, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsArrExpr arrExpr, Arg visArg) {
+		long outer = enter(arrExpr, visArg);
+		if (active != 0)
+			super.visit(arrExpr, visArg);
+		leave(arrExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsArrType arrType, Arg visArg) {
+		long outer = enter(arrType, visArg);
+		if (active != 0)
+			super.visit(arrType, visArg);
+		leave(arrType, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAssignStmt assignStmt, Arg visArg) {
+		long outer = enter(assignStmt, visArg);
+		if (active != 0)
+			super.visit(assignStmt, visArg);
+		leave(assignStmt, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAtomExpr atomExpr, Arg visArg) {
+		long outer = enter(atomExpr, visArg);
+		if (active != 0)
+			super.visit(atomExpr, visArg);
+		leave(atomExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAtomType atomType, Arg visArg) {
+		long outer = enter(atomType, visArg);
+		if (active != 0)
+			super.visit(atomType, visArg);
+		leave(atomType, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsBinExpr binExpr, Arg visArg) {
+		long outer = enter(binExpr, visArg);
+		if (active != 0)
+			super.visit(binExpr, visArg);
+		leave(binExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsBlockExpr blockExpr, Arg visArg) {
+		long outer = enter(blockExpr, visArg);
+		if (active != 0)
+			super.visit(blockExpr, visArg);
+		leave(blockExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCastExpr castExpr, Arg visArg) {
+		long outer = enter(castExpr, visArg);
+		if (active != 0)
+			super.visit(castExpr, visArg);
+		leave(castExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCompDecl compDecl, Arg visArg) {
+		long outer = enter(compDecl, visArg);
+		if (active != 0)
+			super.visit(compDecl, visArg);
+		leave(compDecl, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCompDecls compDecls, Arg visArg) {
+		long outer = enter(compDecls, visArg);
+		if (active != 0)
+			super.visit(compDecls, visArg);
+		leave(compDecls, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsDecls decls, Arg visArg) {
+		long outer = enter(decls, visArg);
+		if (active != 0)
+			super.visit(decls, visArg);
+		leave(decls, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsDelExpr delExpr, Arg visArg) {
+		long outer = enter(delExpr, visArg);
+		if (active != 0)
+			super.visit(delExpr, visArg);
+		leave(delExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsExprStmt exprStmt, Arg visArg) {
+		long outer = enter(exprStmt, visArg);
+		if (active != 0)
+			super.visit(exprStmt, visArg);
+		leave(exprStmt, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunDecl funDecl, Arg visArg) {
+		long outer = enter(funDecl, visArg);
+		if (active != 0)
+			super.visit(funDecl, visArg);
+		leave(funDecl, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunDef funDef, Arg visArg) {
+		long outer = enter(funDef, visArg);
+		if (active != 0)
+			super.visit(funDef, visArg);
+		leave(funDef, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunName funName, Arg visArg) {
+		long outer = enter(funName, visArg);
+		if (active != 0)
+			super.visit(funName, visArg);
+		leave(funName, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsIfStmt ifStmt, Arg visArg) {
+		long outer = enter(ifStmt, visArg);
+		if (active != 0)
+			super.visit(ifStmt, visArg);
+		leave(ifStmt, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsNewExpr newExpr, Arg visArg) {
+		long outer = enter(newExpr, visArg);
+		if (active != 0)
+			super.visit(newExpr, visArg);
+		leave(newExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsParDecl parDecl, Arg visArg) {
+		long outer = enter(parDecl, visArg);
+		if (active != 0)
+			super.visit(parDecl, visArg);
+		leave(parDecl, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsParDecls parDecls, Arg visArg) {
+		long outer = enter(parDecls, visArg);
+		if (active != 0)
+			super.visit(parDecls, visArg);
+		leave(parDecls, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsPtrType ptrType, Arg visArg) {
+		long outer = enter(ptrType, visArg);
+		if (active != 0)
+			super.visit(ptrType, visArg);
+		leave(ptrType, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsRecExpr recExpr, Arg visArg) {
+		long outer = enter(recExpr, visArg);
+		if (active != 0)
+			super.visit(recExpr, visArg);
+		leave(recExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsRecType recType, Arg visArg) {
+		long outer = enter(recType, visArg);
+		if (active != 0)
+			super.visit(recType, visArg);
+		leave(recType, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsSource source, Arg visArg) {
+		long outer = enter(source, visArg);
+		if (active != 0)
+			super.visit(source, visArg);
+		leave(source, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsStmts stmts, Arg visArg) {
+		long outer = enter(stmts, visArg);
+		if (active != 0)
+			super.visit(stmts, visArg);
+		leave(stmts, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsTypDecl typDecl, Arg visArg) {
+		long outer = enter(typDecl, visArg);
+		if (active != 0)
+			super.visit(typDecl, visArg);
+		leave(typDecl, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsTypName typName, Arg visArg) {
+		long outer = enter(typName, visArg);
+		if (active != 0)
+			super.visit(typName, visArg);
+		leave(typName, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsUnExpr unExpr, Arg visArg) {
+		long outer = enter(unExpr, visArg);
+		if (active != 0)
+			super.visit(unExpr, visArg);
+		leave(unExpr, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsVarDecl varDecl, Arg visArg) {
+		long outer = enter(varDecl, visArg);
+		if (active != 0)
+			super.visit(varDecl, visArg);
+		leave(varDecl, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsVarName varName, Arg visArg) {
+		long outer = enter(varName, visArg);
+		if (active != 0)
+			super.visit(varName, visArg);
+		leave(varName, visArg, outer);
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsWhileStmt whileStmt, Arg visArg) {
+		long outer = enter(whileStmt, visArg);
+		if (active != 0)
+			super.visit(whileStmt, visArg);
+		leave(whileStmt, visArg, outer);
+		return null;
+	}
+
+}
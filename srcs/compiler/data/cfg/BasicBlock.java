@@ -0,0 +1,105 @@
+/**
+ * @author sliva
+ */
+package compiler.data.cfg;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+
+/**
+ * A basic block.
+ * 
+ * A basic block starts with a label and ends with a jump or a conditional jump.
+ * No other statement within a basic block is a label or a jump.
+ * 
+ * @author sliva
+ */
+public class BasicBlock {
+
+	/** The label the basic block starts with. */
+	public final Label label;
+
+	/** The statements of the basic block. */
+	private final Vector<ImcStmt> stmts;
+
+	/** The successors of the basic block (within the same graph). */
+	final Vector<BasicBlock> succs = new Vector<BasicBlock>();
+
+	/** The predecessors of the basic block (within the same graph). */
+	final Vector<BasicBlock> preds = new Vector<BasicBlock>();
+
+	/**
+	 * Constructs a new basic block.
+	 * 
+	 * @param stmts The statements of the basic block, i.e., a label, followed by
+	 *              statements that are neither labels nor jumps, followed by a
+	 *              jump or a conditional jump.
+	 */
+	public BasicBlock(Vector<ImcStmt> stmts) {
+		this.label = ((ImcLABEL) stmts.firstElement()).label;
+		this.stmts = new Vector<ImcStmt>(stmts);
+	}
+
+	/**
+	 * Returns the statements of the basic block.
+	 * 
+	 * @return The statements of the basic block.
+	 */
+	public Vector<ImcStmt> stmts() {
+		return new Vector<ImcStmt>(stmts);
+	}
+
+	/**
+	 * Returns the number of statements of the basic block.
+	 * 
+	 * @return The number of statements of the basic block.
+	 */
+	public int size() {
+		return stmts.size();
+	}
+
+	/**
+	 * Returns the jump or the conditional jump the basic block ends with.
+	 * 
+	 * @return The jump or the conditional jump the basic block ends with.
+	 */
+	public ImcStmt last() {
+		return stmts.lastElement();
+	}
+
+	/**
+	 * Returns the labels the basic block jumps to.
+	 * 
+	 * @return The labels the basic block jumps to: the positive label followed
+	 *         by the negative label for a conditional jump.
+	 */
+	public Vector<Label> jumpLabels() {
+		Vector<Label> labels = new Vector<Label>();
+		if (last() instanceof ImcCJUMP) {
+			labels.add(((ImcCJUMP) last()).posLabel);
+			labels.add(((ImcCJUMP) last()).negLabel);
+		} else
+			labels.add(((ImcJUMP) last()).label);
+		return labels;
+	}
+
+	/**
+	 * Returns the successors of the basic block.
+	 * 
+	 * @return The successors of the basic block.
+	 */
+	public Vector<BasicBlock> succs() {
+		return new Vector<BasicBlock>(succs);
+	}
+
+	/**
+	 * Returns the predecessors of the basic block.
+	 * 
+	 * @return The predecessors of the basic block.
+	 */
+	public Vector<BasicBlock> preds() {
+		return new Vector<BasicBlock>(preds);
+	}
+
+}
@@ -0,0 +1,110 @@
+/**
+ * @author sliva
+ */
+package compiler.data.cfg;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+
+/**
+ * The control-flow graph of a code chunk.
+ * 
+ * The statements of a code chunk are split into basic blocks in the order they
+ * appear. A basic block that does not start with a label is given a new one,
+ * and a basic block that does not end with a jump gets a jump to the basic
+ * block that follows it (or to the exit label of the code chunk). Jumps to the
+ * exit label lead out of the graph.
+ * 
+ * @author sliva
+ */
+public class ControlFlowGraph {
+
+	/** The code chunk the graph belongs to. */
+	public final CodeChunk codeChunk;
+
+	/** The basic blocks in the order of the code chunk. */
+	private final Vector<BasicBlock> blocks = new Vector<BasicBlock>();
+
+	/** Maps labels to basic blocks starting with them. */
+	private final HashMap<Label, BasicBlock> blockAt = new HashMap<Label, BasicBlock>();
+
+	/**
+	 * Constructs the control-flow graph of a code chunk.
+	 * 
+	 * @param codeChunk The code chunk.
+	 */
+	public ControlFlowGraph(CodeChunk codeChunk) {
+		this.codeChunk = codeChunk;
+
+		Vector<Vector<ImcStmt>> blockStmts = new Vector<Vector<ImcStmt>>();
+		Vector<ImcStmt> stmts = null;
+		for (ImcStmt stmt : codeChunk.stmts()) {
+			if (stmt instanceof ImcLABEL) {
+				if (stmts != null) {
+					stmts.add(new ImcJUMP(((ImcLABEL) stmt).label));
+					blockStmts.add(stmts);
+				}
+				stmts = new Vector<ImcStmt>();
+			} else if (stmts == null) {
+				stmts = new Vector<ImcStmt>();
+				stmts.add(new ImcLABEL(new Label()));
+			}
+			stmts.add(stmt);
+			if (stmt instanceof ImcJUMP || stmt instanceof ImcCJUMP) {
+				blockStmts.add(stmts);
+				stmts = null;
+			}
+		}
+		if (stmts != null) {
+			stmts.add(new ImcJUMP(codeChunk.exitLabel));
+			blockStmts.add(stmts);
+		}
+
+		for (Vector<ImcStmt> bStmts : blockStmts) {
+			BasicBlock block = new BasicBlock(bStmts);
+			blocks.add(block);
+			blockAt.put(block.label, block);
+		}
+		for (BasicBlock block : blocks) {
+			for (Label label : block.jumpLabels()) {
+				BasicBlock succ = blockAt.get(label);
+				if (succ == null || block.succs.contains(succ))
+					continue;
+				block.succs.add(succ);
+				succ.preds.add(block);
+			}
+		}
+	}
+
+	/**
+	 * Returns the basic block the code chunk is entered at.
+	 * 
+	 * @return The basic block the code chunk is entered at.
+	 */
+	public BasicBlock entry() {
+		return blockAt.get(codeChunk.entryLabel);
+	}
+
+	/**
+	 * Returns the basic blocks in the order of the code chunk.
+	 * 
+	 * @return The basic blocks in the order of the code chunk.
+	 */
+	public Vector<BasicBlock> blocks() {
+		return new Vector<BasicBlock>(blocks);
+	}
+
+	/**
+	 * Returns the basic block starting with the specified label.
+	 * 
+	 * @param label The label.
+	 * @return The basic block starting with the label or {@code null} if the
+	 *         label leads out of the graph.
+	 */
+	public BasicBlock block(Label label) {
+		return blockAt.get(label);
+	}
+
+}
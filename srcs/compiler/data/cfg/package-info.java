@@ -0,0 +1,6 @@
+/**
+ * Basic blocks and control-flow graphs of code chunks.
+ * 
+ * @author sliva
+ */
+package compiler.data.cfg;
@@ -48,7 +48,7 @@ public class Frame implements Loggable {
 		this.depth = depth;
 		this.locsSize = locsSize;
 		this.argsSize = argsSize;
-		this.size = this.locsSize + 2 * (new SemPtrType(new SemVoidType())).size() + this.argsSize;
+		this.size = this.locsSize + 2 * SemTypeFactory.ptrType(SemTypeFactory.voidType()).size() + this.argsSize;
 		this.FP = new Temp();
 		this.RV = new Temp();
 	}
@@ -3,6 +3,8 @@
  */
 package compiler.data.layout;
 
+import compiler.*;
+
 /**
  * A label.
  * 
@@ -13,13 +15,9 @@ public class Label {
 	/** The name of a label. */
 	public final String name;
 
-	/** Counter of anonymous labels. */
-	private static long count = 0;
-
 	/** Creates a new anonymous label. */
 	public Label() {
-		this.name = "L" + count;
-		count++;
+		this.name = "L" + CompilationContext.current().numOfLabels++;
 	}
 
 	/**
@@ -3,23 +3,70 @@
  */
 package compiler.data.layout;
 
+import java.util.*;
+import java.util.function.*;
+import compiler.*;
+
 /**
  * A temporary variable.
  * 
+ * Temporary variables are numbered in the order they are created. While a
+ * function is being processed by a parallel task, temporary variables are
+ * numbered provisionally; once all tasks are done, they are renumbered in the
+ * order of functions, so that the numbering is the same as if the functions
+ * had been processed one after another.
+ * 
  * @author sliva
  */
 public class Temp implements Comparable<Temp> {
 
-	/** The name of a temporary variable. */
-	public final long temp;
+	/** Temporary variables created by the task running in the current thread. */
+	private static final ThreadLocal<Vector<Temp>> taskTemps = new ThreadLocal<Vector<Temp>>();
 
-	/** Counter of temporary variables. */
-	private static long count = 0;
+	/** The name of a temporary variable. */
+	public long temp;
 
 	/** Creates a new temporary variable. */
 	public Temp() {
-		this.temp = count;
-		count++;
+		Vector<Temp> temps = taskTemps.get();
+		if (temps == null)
+			this.temp = CompilationContext.current().numOfTemps++;
+		else {
+			this.temp = CompilationContext.current().numOfTemps + temps.size();
+			temps.add(this);
+		}
+	}
+
+	/**
+	 * Runs a task and collects temporary variables created by it. Temporary
+	 * variables created by the task are numbered provisionally, i.e., their names
+	 * are unique within the task only.
+	 * 
+	 * @param <Result> The type of the result of the task.
+	 * @param temps    The collection of temporary variables created by the task
+	 *                 (or {@code null} if temporary variables should be numbered
+	 *                 as usual).
+	 * @param task     The task.
+	 * @return The result of the task.
+	 */
+	public static <Result> Result collect(Vector<Temp> temps, Supplier<Result> task) {
+		Vector<Temp> outer = taskTemps.get();
+		taskTemps.set(temps);
+		try {
+			return task.get();
+		} finally {
+			taskTemps.set(outer);
+		}
+	}
+
+	/**
+	 * Assigns the final names to temporary variables collected by a task.
+	 * 
+	 * @param temps The collection of temporary variables created by the task.
+	 */
+	public static void renumber(Vector<Temp> temps) {
+		for (Temp temp : temps)
+			temp.temp = CompilationContext.current().numOfTemps++;
 	}
 
 	@Override
@@ -0,0 +1,181 @@
+/**
+ * @author sliva
+ */
+package compiler.data.symbol;
+
+import java.util.*;
+import compiler.*;
+
+/**
+ * A table of names.
+ *
+ * Each identifier is interned by the lexical analyzer and thus denoted by a
+ * dense integer ID: the IDs of distinct names are 0, 1, 2, ... in the order
+ * the names first appear in the source file. All later phases compare and look
+ * up names by their IDs and use the name strings only for messages and logs,
+ * so that each distinct name is hashed once per compilation and stored once in
+ * the heap.
+ *
+ * A name table belongs to a compilation context and is not thread-safe: names
+ * are interned by the front end only.
+ *
+ * @author sliva
+ */
+public class NameTable {
+
+	/**
+	 * Returns the name table of the compilation context bound to the current
+	 * thread.
+	 *
+	 * @return The name table.
+	 */
+	public static NameTable current() {
+		return CompilationContext.current().names;
+	}
+
+	/** The names indexed by their IDs. */
+	private String[] names = new String[256];
+
+	/** The hash codes of names indexed by their IDs. */
+	private int[] hashes = new int[256];
+
+	/** The number of names. */
+	private int size = 0;
+
+	/** The open-addressing hash table of IDs incremented by 1 (0 is empty). */
+	private int[] table = new int[512];
+
+	/**
+	 * Returns the ID of a name, interning the name if it has not been seen yet.
+	 *
+	 * @param src The characters.
+	 * @param beg The index of the first character of the name.
+	 * @param end The index of the character following the name.
+	 * @return The ID of the name.
+	 */
+	public int id(char[] src, int beg, int end) {
+		// The same hash code as String.hashCode().
+		int hash = 0;
+		for (int pos = beg; pos < end; pos++)
+			hash = 31 * hash + src[pos];
+
+		int mask = table.length - 1;
+		for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+			int id = table[slot] - 1;
+			if (id == -1) {
+				id = add(new String(src, beg, end - beg), hash);
+				table[slot] = id + 1;
+				if (2 * size > table.length)
+					rehash();
+				return id;
+			}
+			if (hashes[id] == hash && equals(names[id], src, beg, end))
+				return id;
+		}
+	}
+
+	/**
+	 * Returns the ID of a name, interning the name if it has not been seen yet.
+	 *
+	 * @param name The name.
+	 * @return The ID of the name.
+	 */
+	public int id(String name) {
+		int hash = name.hashCode();
+		int mask = table.length - 1;
+		for (int slot = mix(hash) & mask;; slot = (slot + 1) & mask) {
+			int id = table[slot] - 1;
+			if (id == -1) {
+				id = add(name, hash);
+				table[slot] = id + 1;
+				if (2 * size > table.length)
+					rehash();
+				return id;
+			}
+			if (hashes[id] == hash && names[id].equals(name))
+				return id;
+		}
+	}
+
+	/**
+	 * Returns the name with the specified ID.
+	 *
+	 * @param id The ID of the name.
+	 * @return The name.
+	 */
+	public String name(int id) {
+		return names[id];
+	}
+
+	/**
+	 * Returns the number of names, i.e., the ID the next new name will get.
+	 *
+	 * @return The number of names.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Appends a new name.
+	 *
+	 * @param name The name.
+	 * @param hash The hash code of the name.
+	 * @return The ID of the name.
+	 */
+	private int add(String name, int hash) {
+		if (size == names.length) {
+			names = Arrays.copyOf(names, 2 * size);
+			hashes = Arrays.copyOf(hashes, 2 * size);
+		}
+		names[size] = name;
+		hashes[size] = hash;
+		return size++;
+	}
+
+	/**
+	 * Doubles the hash table.
+	 */
+	private void rehash() {
+		table = new int[2 * table.length];
+		int mask = table.length - 1;
+		for (int id = 0; id < size; id++) {
+			int slot = mix(hashes[id]) & mask;
+			while (table[slot] != 0)
+				slot = (slot + 1) & mask;
+			table[slot] = id + 1;
+		}
+	}
+
+	/**
+	 * Spreads the bits of a hash code, as consecutive names often have similar
+	 * hash codes.
+	 *
+	 * @param hash The hash code.
+	 * @return The spread hash code.
+	 */
+	private static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Checks whether a name consists of the specified characters.
+	 *
+	 * @param name The name.
+	 * @param src  The characters.
+	 * @param beg  The index of the first character.
+	 * @param end  The index of the character following the last one.
+	 * @return {@code true} if the name consists of the characters, {@code false}
+	 *         otherwise.
+	 */
+	private static boolean equals(String name, char[] src, int beg, int end) {
+		if (name.length() != end - beg)
+			return false;
+		for (int pos = beg; pos < end; pos++)
+			if (name.charAt(pos - beg) != src[pos])
+				return false;
+		return true;
+	}
+
+}
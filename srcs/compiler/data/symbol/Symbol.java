@@ -31,6 +31,12 @@ public class Symbol implements Locatable, Loggable {
 	/** The lexeme. */
 	public final String lexeme;
 
+	/**
+	 * The ID of the name in the {@link NameTable} if this symbol is an
+	 * identifier, {@code -1} otherwise.
+	 */
+	public final int nameId;
+
 	/** The location within a source file. */
 	private Location location;
 
@@ -42,8 +48,22 @@ public class Symbol implements Locatable, Loggable {
 	 * @param location The location within a source file.
 	 */
 	public Symbol(Term token, String lexeme, Locatable location) {
+		this(token, lexeme, -1, location);
+	}
+
+	/**
+	 * Constructs a new symbol.
+	 * 
+	 * @param token    The token.
+	 * @param lexeme   The lexeme.
+	 * @param nameId   The ID of the name if the symbol is an identifier,
+	 *                 {@code -1} otherwise.
+	 * @param location The location within a source file.
+	 */
+	public Symbol(Term token, String lexeme, int nameId, Locatable location) {
 		this.token = token;
 		this.lexeme = lexeme;
+		this.nameId = nameId;
 		this.location = location.location();
 	}
 
@@ -19,6 +19,9 @@ public class SemArrType extends SemType {
 	/** The type of an array element. */
 	public final SemType elemType;
 
+	/** The size of this type (or {@code -1} if not computed yet). */
+	private volatile long size = -1;
+
 	/**
 	 * Constructs a new array type.
 	 * 
@@ -32,7 +35,9 @@ public class SemArrType extends SemType {
 
 	@Override
 	public long size() {
-		return len * elemType.size();
+		if (size < 0)
+			size = len * elemType.size();
+		return size;
 	}
 
 	@Override
@@ -20,6 +20,9 @@ public class SemNamedType extends SemType {
 	/** The type this type is a synonym for. */
 	public SemType type;
 
+	/** The actual type of this type (or {@code null} if not computed yet). */
+	private volatile SemType actualType = null;
+
 	/**
 	 * Constructs a new representation of a type synonym.
 	 * 
@@ -48,7 +51,9 @@ public class SemNamedType extends SemType {
 
 	@Override
 	public SemType actualType() {
-		return type.actualType();
+		if (actualType == null)
+			actualType = type.actualType();
+		return actualType;
 	}
 
 	@Override
@@ -16,6 +16,9 @@ public class SemRecType extends SemType {
 	/** The types of all components. */
 	private final Vector<SemType> compTypes;
 
+	/** The size of this type (or {@code -1} if not computed yet). */
+	private volatile long size = -1;
+
 	/**
 	 * Constructs a new record type.
 	 * 
@@ -55,11 +58,14 @@ public class SemRecType extends SemType {
 
 	@Override
 	public long size() {
-		long size = 0;
-		for (int comp = 0; comp < compTypes.size(); comp++) {
-			size = size + compTypes.elementAt(comp).size();
+		if (this.size < 0) {
+			long size = 0;
+			for (int comp = 0; comp < compTypes.size(); comp++) {
+				size = size + compTypes.elementAt(comp).size();
+			}
+			this.size = size;
 		}
-		return size;
+		return this.size;
 	}
 
 	@Override
@@ -32,15 +32,63 @@ public abstract class SemType implements Loggable {
 	 */
 	public abstract SemType actualType();
 
+	/** The number of recent results of matching kept by each type. */
+	private static final int numOfMatchings = 8;
+
+	/**
+	 * Recent results of matching this type against other types (or {@code null}
+	 * if none), indexed by the identity hash codes of other types.
+	 */
+	private volatile Matching[] matchings = null;
+
+	/**
+	 * A result of matching a type against another type.
+	 */
+	private static final class Matching {
+
+		/** The other type. */
+		final SemType that;
+
+		/** Whether the types match. */
+		final boolean matches;
+
+		Matching(SemType that, boolean matches) {
+			this.that = that;
+			this.matches = matches;
+		}
+
+	}
+
 	/**
 	 * Checks whether this type matches another type (wrapper for
 	 * {@link matches(SemType, TypeMatching)}).
 	 * 
+	 * Only array, record and pointer types need a history of type matching, so
+	 * other types are matched directly. Results of matching arrays, records and
+	 * pointers are kept by the actual type of this type, so that matching it
+	 * against the same type again takes a single lookup.
+	 * 
 	 * @param that A type to be matched.
 	 * @return {@code true} if types match, {@code false} otherwise.
 	 */
 	public final boolean matches(SemType that) {
-		return matches(that, new TypeMatching());
+		SemType actThis = actualType();
+		SemType actThat = that.actualType();
+		if (!(actThis instanceof SemArrType || actThis instanceof SemRecType || actThis instanceof SemPtrType))
+			return actThis.matches(actThat, null);
+
+		Matching[] matchings = actThis.matchings;
+		if (matchings == null) {
+			matchings = new Matching[numOfMatchings];
+			actThis.matchings = matchings;
+		}
+		int index = System.identityHashCode(actThat) & (numOfMatchings - 1);
+		Matching matching = matchings[index];
+		if (matching != null && matching.that == actThat)
+			return matching.matches;
+		boolean matches = actThis.matches(actThat, new TypeMatching());
+		matchings[index] = new Matching(actThat, matches);
+		return matches;
 	}
 
 	/**
@@ -57,11 +105,22 @@ public abstract class SemType implements Loggable {
 	 * type matching query. An object of this class contains pairs of types which
 	 * have been assumed matching.
 	 * 
+	 * As a cycle of types can only be matched against another type infinitely
+	 * many times, the first few pairs of types need not be stored: a cycle is
+	 * merely followed a few more times before matching stops. Thus no history is
+	 * allocated when small types are matched.
+	 * 
 	 * @author sliva
 	 */
 	protected class TypeMatching {
 
-		private final HashMap<SemType, HashSet<SemType>> matching = new HashMap<SemType, HashSet<SemType>>();
+		/** The number of pairs of types that are not stored. */
+		private static final int numOfUnstoredPairs = 16;
+
+		/** The number of pairs of types added so far. */
+		private int numOfPairs = 0;
+
+		private HashMap<SemType, HashSet<SemType>> matching = null;
 
 		/**
 		 * Stores a pair of matching types in the type matching history.
@@ -70,6 +129,10 @@ public abstract class SemType implements Loggable {
 		 * @param type2 The second type.
 		 */
 		public void add(SemType type1, SemType type2) {
+			if (++numOfPairs <= numOfUnstoredPairs)
+				return;
+			if (matching == null)
+				matching = new HashMap<SemType, HashSet<SemType>>();
 			HashSet<SemType> types1 = matching.get(type1);
 			if (types1 == null) {
 				types1 = new HashSet<SemType>();
@@ -93,6 +156,8 @@ public abstract class SemType implements Loggable {
 		 * @return {@code true} if the two types , {@code false} otherwise.
 		 */
 		public boolean contains(SemType type1, SemType type2) {
+			if (matching == null)
+				return false;
 			HashSet<SemType> types1 = matching.get(type1);
 			return (types1 != null) && (types1.contains(type2));
 		}
@@ -103,13 +168,24 @@ public abstract class SemType implements Loggable {
 		CHECKING, TRUE, FALSE
 	};
 
+	/**
+	 * Whether this type is infinite (or {@code null} if not checked yet).
+	 */
+	private volatile Boolean infinite = null;
+
 	/**
 	 * Checks whether a type is infinite (wrapper for {@link isInfinite(HashSet)}.
+	 * The result is kept by the type, so it is computed only once.
 	 * 
 	 * @return {@code true} if the type is infinite, {@code false} otherwise.
 	 */
 	public final boolean isInfinite() {
-		return isInfinite(new HashMap<SemNamedType, Infinite>());
+		Boolean infinite = this.infinite;
+		if (infinite == null) {
+			infinite = isInfinite(new HashMap<SemNamedType, Infinite>());
+			this.infinite = infinite;
+		}
+		return infinite;
 	}
 
 	/**
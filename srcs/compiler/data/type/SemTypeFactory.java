@@ -0,0 +1,109 @@
+/**
+ * @author sliva
+ */
+package compiler.data.type;
+
+import java.util.concurrent.*;
+import compiler.*;
+
+/**
+ * A factory of types.
+ *
+ * Types {@code int}, {@code char}, {@code bool} and {@code void} are each
+ * represented by a single shared object. Pointer and array types are interned
+ * within a compilation, i.e., all pointer types pointing to the same type
+ * object and all array types of the same length and the same element type
+ * object are represented by the same object. Thus types are not allocated over
+ * and over again, and types obtained from this factory can be compared by
+ * identity.
+ *
+ * Record types are not interned as names of components are resolved within
+ * each record type separately (see
+ * {@link compiler.phases.seman.TypeResolver}).
+ *
+ * @author sliva
+ */
+public class SemTypeFactory {
+
+	/** Type {@code int}. */
+	private static final SemIntType intType = new SemIntType();
+
+	/** Type {@code char}. */
+	private static final SemCharType charType = new SemCharType();
+
+	/** Type {@code bool}. */
+	private static final SemBoolType boolType = new SemBoolType();
+
+	/** Type {@code void}. */
+	private static final SemVoidType voidType = new SemVoidType();
+
+	/** Interned pointer types indexed by types they point to. */
+	private final ConcurrentHashMap<SemType, SemPtrType> ptrTypes = new ConcurrentHashMap<SemType, SemPtrType>();
+
+	/** Interned array types indexed by element types and lengths. */
+	private final ConcurrentHashMap<SemType, ConcurrentHashMap<Long, SemArrType>> arrTypes = new ConcurrentHashMap<SemType, ConcurrentHashMap<Long, SemArrType>>();
+
+	/**
+	 * Returns type {@code int}.
+	 *
+	 * @return Type {@code int}.
+	 */
+	public static SemIntType intType() {
+		return intType;
+	}
+
+	/**
+	 * Returns type {@code char}.
+	 *
+	 * @return Type {@code char}.
+	 */
+	public static SemCharType charType() {
+		return charType;
+	}
+
+	/**
+	 * Returns type {@code bool}.
+	 *
+	 * @return Type {@code bool}.
+	 */
+	public static SemBoolType boolType() {
+		return boolType;
+	}
+
+	/**
+	 * Returns type {@code void}.
+	 *
+	 * @return Type {@code void}.
+	 */
+	public static SemVoidType voidType() {
+		return voidType;
+	}
+
+	/**
+	 * Returns the pointer type pointing to the specified type.
+	 *
+	 * @param ptdType The type of a data a pointer points to.
+	 * @return The pointer type.
+	 */
+	public static SemPtrType ptrType(SemType ptdType) {
+		if (ptdType == null)
+			return new SemPtrType(null);
+		return CompilationContext.current().semTypes.ptrTypes.computeIfAbsent(ptdType, type -> new SemPtrType(type));
+	}
+
+	/**
+	 * Returns the array type of the specified length and element type.
+	 *
+	 * @param len      The number of elements in an array.
+	 * @param elemType The type of an array element.
+	 * @return The array type.
+	 */
+	public static SemArrType arrType(long len, SemType elemType) {
+		if (elemType == null)
+			return new SemArrType(len, null);
+		return CompilationContext.current().semTypes.arrTypes
+				.computeIfAbsent(elemType, type -> new ConcurrentHashMap<Long, SemArrType>())
+				.computeIfAbsent(len, length -> new SemArrType(length, elemType));
+	}
+
+}
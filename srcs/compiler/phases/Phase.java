@@ -4,6 +4,7 @@
 package compiler.phases;
 
 import compiler.common.logger.*;
+import compiler.common.report.*;
 
 /**
  * An abstract compiler phase. All concrete compiler phases should be
@@ -17,21 +18,29 @@ public abstract class Phase implements AutoCloseable {
 	/** The logger used to produce the log of this phase. */
 	public final Logger logger;
 
+	/** The measurement of resource usage of this phase (if requested). */
+	private final Stats.Sample stats;
+
 	/**
 	 * Constructs a new phase of a compiler. If logging of this phase has been
 	 * requested, it prepares a logger using the phase name for naming the XML and
-	 * XSL files as well as for the topmost XML element within the XML file.
+	 * XSL files as well as for the topmost XML element within the XML file. If
+	 * statistics have been requested, it starts measuring the resource usage of
+	 * this phase.
 	 * 
 	 * @param phaseName The phase name.
 	 */
 	protected Phase(String phaseName) {
+		stats = compiler.Main.cmdLineArgValue("--stats") == null ? null : Stats.begin(phaseName);
+
 		String loggedPhase = compiler.Main.cmdLineArgValue("--logged-phase");
 		if ((loggedPhase != null) && loggedPhase.matches(phaseName + "|all")) {
-			// Prepare the name of the xml file.
+			// Prepare the name of the log file.
+			boolean binary = "bin".equals(compiler.Main.cmdLineArgValue("--log-format"));
 			String xmlFileName = compiler.Main.cmdLineArgValue("--xml");
 			if (xmlFileName == null) {
 				xmlFileName = compiler.Main.cmdLineArgValue("--src-file-name").replaceFirst("\\.[^./]*$", "") + "."
-						+ phaseName + ".xml";
+						+ phaseName + (binary ? ".bin" : ".xml");
 			}
 
 			// Prepare the name of the supporting xsl file.
@@ -40,7 +49,10 @@ public abstract class Phase implements AutoCloseable {
 				xslDirName = "";
 			}
 
-			logger = new Logger(phaseName, xmlFileName, xslDirName + phaseName + ".xsl");
+			if (binary)
+				logger = new BinLogger(phaseName, xmlFileName, xslDirName + phaseName + ".xsl");
+			else
+				logger = new XMLLogger(phaseName, xmlFileName, xslDirName + phaseName + ".xsl");
 		} else {
 			logger = null;
 		}
@@ -48,6 +60,8 @@ public abstract class Phase implements AutoCloseable {
 
 	@Override
 	public void close() {
+		if (stats != null)
+			stats.end();
 		if (logger != null)
 			logger.close();
 	}
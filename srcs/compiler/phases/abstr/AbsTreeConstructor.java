@@ -54,22 +54,22 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 			case Declaration: {
 				switch (((DerLeaf) node.subtree(0)).symb.token) {
 					case VAR: return new AbsVarDecl(new Location(node.subtree(0), node.subtree(4)),
-									((DerLeaf) node.subtree(1)).symb.lexeme,
+									((DerLeaf) node.subtree(1)).symb.nameId,
 									(AbsType) node.subtree(3).accept(this, null));
 					case TYP: return new AbsTypDecl(new Location(node.subtree(0), node.subtree(4)),
-									((DerLeaf) node.subtree(1)).symb.lexeme,
+									((DerLeaf) node.subtree(1)).symb.nameId,
 									(AbsType) node.subtree(3).accept(this, null));
 					case FUN: {
 						AbsExpr exp = (AbsExpr) node.subtree(7).accept(this, null);
 
 						if (exp == null)
 							return new AbsFunDecl(new Location(node, node),
-										((DerLeaf) node.subtree(1)).symb.lexeme,
+										((DerLeaf) node.subtree(1)).symb.nameId,
 										(AbsParDecls) node.subtree(3).accept(this, null),
 										(AbsType) node.subtree(6).accept(this, null));
 
 						return new AbsFunDef(new Location(node, node),
-										((DerLeaf) node.subtree(1)).symb.lexeme,
+										((DerLeaf) node.subtree(1)).symb.nameId,
 										(AbsParDecls) node.subtree(3).accept(this, null),
 										(AbsType) node.subtree(6).accept(this, null),
 										exp);
@@ -398,7 +398,7 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 				if (node.numSubtrees() == 0) return visArg;
 
 				if (node.numSubtrees() == 3) {
-					AbsVarName comp = new AbsVarName(new Location(node.subtree(1), node.subtree(1)), ((DerLeaf) node.subtree(1)).symb.lexeme);
+					AbsVarName comp = new AbsVarName(new Location(node.subtree(1), node.subtree(1)), ((DerLeaf) node.subtree(1)).symb.nameId);
 					AbsRecExpr recExpr = new AbsRecExpr(new Location(visArg, comp), (AbsExpr) visArg, comp);
 					return node.subtree(2).accept(this, recExpr);
 				}
@@ -428,10 +428,10 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 					AbsArgs args = (AbsArgs) node.subtree(1).accept(this, visArg);
 
 					/// Identifier
-					if (args == null) return new AbsVarName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.lexeme);
+					if (args == null) return new AbsVarName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.nameId);
 
 					/// Identifier ( Argumments )
-					return new AbsFunName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.lexeme, args);
+					return new AbsFunName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.nameId, args);
 				}
 
 				if (node.numSubtrees() == 6) {
@@ -456,7 +456,7 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 						case CHAR: return new AbsAtomType(new Location(node, node), AbsAtomType.Type.CHAR);
 						case BOOL: return new AbsAtomType(new Location(node, node), AbsAtomType.Type.BOOL);
 						case VOID: return new AbsAtomType(new Location(node, node), AbsAtomType.Type.VOID);
-						case IDENTIFIER: return new AbsTypName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.lexeme);
+						case IDENTIFIER: return new AbsTypName(new Location(node, node), ((DerLeaf) node.subtree(0)).symb.nameId);
 					}
 				}
 
@@ -476,7 +476,7 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 					Vector<AbsParDecl> pars = parDecls.parDecls();
 					Vector<AbsCompDecl> compDecls = new Vector<AbsCompDecl>();
 					for (AbsParDecl par : pars) {
-						compDecls.add(new AbsCompDecl(new Location((Locatable) par), ((AbsDecl) par).name, ((AbsDecl) par).type));
+						compDecls.add(new AbsCompDecl(new Location((Locatable) par), ((AbsDecl) par).nameId, ((AbsDecl) par).type));
 					}
 
 					return new AbsRecType(new Location(node, node),
@@ -500,9 +500,9 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 			}
 
 			case Parameters: {
-				String name = (String) ((DerLeaf) node.subtree(0)).symb.lexeme;
+				int nameId = ((DerLeaf) node.subtree(0)).symb.nameId;
 				AbsType type = (AbsType) node.subtree(2).accept(this, null);
-				AbsParDecl decl = new AbsParDecl(new Location(node.subtree(0), node.subtree(2)), name, type);
+				AbsParDecl decl = new AbsParDecl(new Location(node.subtree(0), node.subtree(2)), nameId, type);
 
 				Vector<AbsParDecl> allDecls = new Vector<AbsParDecl>();
 				allDecls.add(decl);
@@ -517,9 +517,9 @@ public class AbsTreeConstructor implements DerVisitor<AbsTree, AbsTree> {
 			case ParametersP: {
 				if (node.numSubtrees() == 0) return null;
 
-				String name = (String) ((DerLeaf) node.subtree(1)).symb.lexeme;
+				int nameId = ((DerLeaf) node.subtree(1)).symb.nameId;
 				AbsType type = (AbsType) node.subtree(3).accept(this, null);
-				AbsParDecl decl = new AbsParDecl(new Location(node.subtree(1), node.subtree(3)), name, type);
+				AbsParDecl decl = new AbsParDecl(new Location(node.subtree(1), node.subtree(3)), nameId, type);
 
 				Vector<AbsParDecl> allDecls = new Vector<AbsParDecl>();
 				allDecls.add(decl);
@@ -4,6 +4,7 @@
 package compiler.phases.abstr;
 
 import compiler.data.abstree.*;
+import compiler.*;
 import compiler.phases.*;
 
 /**
@@ -13,8 +14,14 @@ import compiler.phases.*;
  */
 public class Abstr extends Phase {
 
-	/** The abstract syntax tree of the program being compiled. */
-	public static AbsTree absTree = null;
+	/**
+	 * Returns the abstract syntax tree of the program being compiled.
+	 * 
+	 * @return The abstract syntax tree of the program being compiled.
+	 */
+	public static AbsTree absTree() {
+		return CompilationContext.current().absTree;
+	}
 
 	/**
 	 * Constructs a new phase of abstract syntax.
@@ -8,6 +8,7 @@ import java.util.*;
 import compiler.data.imcode.*;
 import compiler.data.chunk.*;
 import compiler.data.asmcode.*;
+import compiler.*;
 import compiler.phases.*;
 import compiler.phases.chunks.*;
 
@@ -18,17 +19,25 @@ import compiler.phases.chunks.*;
  */
 public class AsmGen extends Phase {
 
-	public static Vector<Code> codes = new Vector<Code>();
+	/**
+	 * Returns the assembly code of individual functions.
+	 * 
+	 * @return The assembly code of individual functions.
+	 */
+	public static Vector<Code> codes() {
+		return CompilationContext.current().codes;
+	}
 
 	public AsmGen() {
 		super("asmgen");
 	}
 
+	/**
+	 * Generates the assembly code of all functions. Functions are translated in
+	 * parallel.
+	 */
 	public void genAsmCodes() {
-		for (CodeChunk codeChunk : Chunks.codeChunks) {
-			Code code = genAsmCode(codeChunk);
-			codes.add(code);
-		}
+		codes().addAll(CompilationContext.current().map(Chunks.codeChunks(), codeChunk -> genAsmCode(codeChunk)));
 	}
 
 	public Code genAsmCode(CodeChunk codeChunk) {
@@ -42,7 +51,7 @@ public class AsmGen extends Phase {
 	public void log() {
 		if (logger == null)
 			return;
-		for (Code code : AsmGen.codes) {
+		for (Code code : AsmGen.codes()) {
 			logger.begElement("code");
 			logger.addAttribute("entrylabel", code.entryLabel.name);
 			logger.addAttribute("exitlabel", code.exitLabel.name);
@@ -21,7 +21,6 @@ public class StmtGenerator implements ImcVisitor<Vector<AsmInstr>, Object> {
 
 	int numOfRegs = 8;
 
-	boolean resolveAddr = false;
 	Stack<Temp> itemp = new Stack<Temp>();
 	Stack<Vector<AsmInstr>> instr = new Stack<Vector<AsmInstr>>();
 
@@ -270,28 +269,24 @@ public class StmtGenerator implements ImcVisitor<Vector<AsmInstr>, Object> {
 
 		Vector<AsmInstr> cinstr = new Vector<AsmInstr>();
 		cinstr.addAll(is0);
+		cinstr.add(new AsmOPER("LDO `d0,`s0,0", uses, defs, null));
 
-		if (resolveAddr) {
-			cinstr.add(new AsmOPER("LDO `d0,`s0,0", uses, defs, null));
-			itemp.add(d0);
-			instr.add(cinstr);
-		} else {
-			itemp.push(s0);
-			instr.push(is0);
-		}
+		itemp.push(d0);
+		instr.push(cinstr);
 
 		return null;
 	}
 
 	public Vector<AsmInstr> visit(ImcMOVE move, Object visArg) {
-		move.dst.accept(this, visArg);
+		/// the address is computed for a store, the value of a temporary variable is not needed.
+		if (move.dst instanceof ImcMEM)
+			((ImcMEM) move.dst).addr.accept(this, visArg);
+		else
+			move.dst.accept(this, visArg);
 		Temp dst = itemp.pop();
 		Vector<AsmInstr> idst = instr.pop();
 
-		boolean oldResolve = resolveAddr;
-		resolveAddr = move.src instanceof ImcMEM;
 		move.src.accept(this, visArg);
-		resolveAddr = oldResolve;
 		Temp src = itemp.pop();
 		Vector<AsmInstr> isrc = instr.pop();
 
@@ -0,0 +1,409 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.cache;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.security.*;
+import java.util.*;
+import java.util.regex.*;
+import compiler.*;
+import compiler.common.report.*;
+import compiler.data.abstree.*;
+import compiler.data.abstree.visitor.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+import compiler.data.asmcode.*;
+import compiler.phases.abstr.*;
+import compiler.phases.frames.*;
+import compiler.phases.imcgen.*;
+import compiler.phases.imcopt.*;
+import compiler.phases.chunks.*;
+import compiler.phases.asmcode.*;
+
+/**
+ * Incremental compilation cache.
+ *
+ * The cache is a directory containing the finished code of top-level functions
+ * after register allocation, i.e., the assembly instructions together with the
+ * mapping of temporary variables to registers and the size of temporaries,
+ * including the code of all nested functions and the string constants used
+ * within. Each top-level function is stored under the key computed from the
+ * canonical text of the function and of all declarations it depends on (see
+ * {@link KeyPrinter}), the version of code generation and the values of all
+ * command line arguments that affect the generated code.
+ *
+ * Before the intermediate code is generated, functions found in the cache are
+ * loaded and marked as clean: intermediate code generation, chunk generation,
+ * code generation, liveness analysis and register allocation skip them. After
+ * register allocation, the code of dirty functions is stored in the cache and
+ * the code of clean functions is spliced in, so that the final assembly code is
+ * produced for the whole program. Anonymous labels and temporary variables of
+ * functions taken from the cache are renamed to avoid clashes with the ones
+ * created during this compilation.
+ *
+ * @author sliva
+ */
+public class CodeCache {
+
+	/** The format of cache entries. */
+	private static final String FORMAT = "PREV-CACHE 1";
+
+	/**
+	 * The version of code generation. It must be changed whenever a phase,
+	 * including any optimization, starts generating different code for the same
+	 * function, so that code generated by the previous version is not taken from
+	 * the cache.
+	 */
+	private static final String CODEGEN = "4 (imcopt, canonizer, traces, ssa, inlining, spilling, nested calls)";
+
+	/**
+	 * The code of a top-level function.
+	 *
+	 * @author sliva
+	 */
+	private static class Entry {
+
+		/** The code of the function and all its nested functions. */
+		final Vector<Code> codes = new Vector<Code>();
+
+		/** The string constants used within the function. */
+		final Vector<DataChunk> strings = new Vector<DataChunk>();
+
+	}
+
+	/**
+	 * Returns whether the code of a function definition is taken from the cache.
+	 *
+	 * @param funDef The function definition.
+	 * @return {@code true} if the code is taken from the cache, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean isCached(AbsFunDef funDef) {
+		return CompilationContext.current().cachedFunDefs.contains(funDef);
+	}
+
+	/** The cache directory. */
+	private final File dir;
+
+	/** Top-level function definitions. */
+	private final Vector<AbsFunDef> funDefs = new Vector<AbsFunDef>();
+
+	/** Keys of top-level function definitions. */
+	private final HashMap<AbsFunDef, String> keys = new HashMap<AbsFunDef, String>();
+
+	/** Code of top-level function definitions taken from the cache. */
+	private final HashMap<AbsFunDef, Entry> entries = new HashMap<AbsFunDef, Entry>();
+
+	/** The command line arguments that affect the generated code. */
+	private final String options;
+
+	/**
+	 * Constructs a new cache.
+	 *
+	 * @param dirName The name of the cache directory.
+	 */
+	public CodeCache(String dirName) {
+		this.dir = new File(dirName);
+		String inlineSize = Main.cmdLineArgValue("--inline-size");
+		String inlineGrowth = Main.cmdLineArgValue("--inline-growth");
+		this.options = "--opt-level=" + (ImcOpt.enabled() ? 1 : 0)
+				+ "\n--inline-size=" + (inlineSize == null ? ImcOpt.defaultInlineSize : Long.parseLong(inlineSize))
+				+ "\n--inline-growth="
+				+ (inlineGrowth == null ? ImcOpt.defaultInlineGrowth : Long.parseLong(inlineGrowth));
+		for (AbsDecl decl : ((AbsSource) Abstr.absTree()).decls.decls())
+			if (decl instanceof AbsFunDef)
+				funDefs.add((AbsFunDef) decl);
+	}
+
+	/**
+	 * Computes the keys of all top-level functions and loads the code of
+	 * functions found in the cache.
+	 */
+	public void load() {
+		for (AbsFunDef funDef : funDefs) {
+			String key = key(new KeyPrinter().print(funDef));
+			keys.put(funDef, key);
+			Entry entry = read(new File(dir, key + ".code"));
+			if (entry != null) {
+				entries.put(funDef, entry);
+				CompilationContext.current().cachedFunDefs.add(funDef);
+			}
+		}
+		Report.info("Functions taken from cache: " + entries.size() + " of " + funDefs.size() + ".");
+	}
+
+	/**
+	 * Stores the code of functions not found in the cache and replaces code and
+	 * data chunks with the ones of the whole program.
+	 */
+	public void store() {
+		dir.mkdirs();
+
+		HashMap<Label, DataChunk> dataChunks = new HashMap<Label, DataChunk>();
+		for (DataChunk dataChunk : Chunks.dataChunks())
+			dataChunks.put(dataChunk.label, dataChunk);
+
+		Vector<DataChunk> allDataChunks = new Vector<DataChunk>();
+		Vector<Code> allCodes = new Vector<Code>();
+		for (AbsDecl decl : ((AbsSource) Abstr.absTree()).decls.decls()) {
+			if (decl instanceof AbsVarDecl) {
+				Access access = Frames.accesses().get((AbsVarDecl) decl);
+				if (access instanceof AbsAccess)
+					allDataChunks.add(dataChunks.get(((AbsAccess) access).label));
+			}
+			if (decl instanceof AbsFunDef) {
+				AbsFunDef funDef = (AbsFunDef) decl;
+				Entry entry = entries.get(funDef);
+				if (entry == null) {
+					entry = collect(funDef, dataChunks);
+					write(new File(dir, keys.get(funDef) + ".code"), entry);
+				}
+				allDataChunks.addAll(entry.strings);
+				allCodes.addAll(entry.codes);
+			}
+		}
+
+		Chunks.dataChunks().clear();
+		Chunks.dataChunks().addAll(allDataChunks);
+		AsmGen.codes().clear();
+		AsmGen.codes().addAll(allCodes);
+	}
+
+	/**
+	 * Computes the key of a canonical text compiled with the current version of
+	 * code generation and the current command line arguments.
+	 *
+	 * @param text The canonical text.
+	 * @return The key.
+	 */
+	private String key(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(
+					(FORMAT + "\n" + CODEGEN + "\n" + options + "\n" + text).getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder();
+			for (byte b : hash)
+				key.append(String.format("%02x", b));
+			return key.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new Report.InternalError();
+		}
+	}
+
+	/**
+	 * Collects the code of a top-level function compiled during this compilation.
+	 *
+	 * @param funDef     The function definition.
+	 * @param dataChunks The data chunks of the program.
+	 * @return The code of the function.
+	 */
+	private static Entry collect(AbsFunDef funDef, HashMap<Label, DataChunk> dataChunks) {
+		Entry entry = new Entry();
+		HashSet<Frame> frames = new HashSet<Frame>();
+		funDef.accept(new AbsFullVisitor<Object, Object>() {
+			@Override
+			public Object visit(AbsFunDef funDef, Object visArg) {
+				frames.add(Frames.frames().get(funDef));
+				return super.visit(funDef, visArg);
+			}
+
+			@Override
+			public Object visit(AbsAtomExpr atomExpr, Object visArg) {
+				if (atomExpr.type == AbsAtomExpr.Type.STR)
+					entry.strings.add(dataChunks.get(((ImcNAME) ImcGen.exprImCode().get(atomExpr)).label));
+				return null;
+			}
+		}, null);
+		for (Code code : AsmGen.codes())
+			if (frames.contains(code.frame))
+				entry.codes.add(code);
+		return entry;
+	}
+
+	/**
+	 * Writes the code of a top-level function to the cache.
+	 *
+	 * @param file  The cache file.
+	 * @param entry The code of the function.
+	 */
+	private static void write(File file, Entry entry) {
+		File tmpFile = new File(file.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+		try (PrintWriter out = new PrintWriter(tmpFile, "UTF-8")) {
+			out.println(FORMAT);
+			for (DataChunk string : entry.strings)
+				out.println("data\t" + string.label.name + "\t" + string.size + "\t" + string.init);
+			for (Code code : entry.codes) {
+				out.println("code\t" + code.frame.label.name + "\t" + code.frame.depth + "\t" + code.frame.locsSize
+						+ "\t" + code.frame.argsSize + "\t" + code.frame.FP.temp + "\t" + code.frame.RV.temp + "\t"
+						+ code.entryLabel.name + "\t" + code.exitLabel.name + "\t" + code.tempSize);
+				for (AsmInstr instr : code.instrs) {
+					if (instr instanceof AsmLABEL) {
+						out.println("label\t" + ((AsmLABEL) instr).label.name);
+						continue;
+					}
+					StringBuilder line = new StringBuilder("oper\t");
+					for (Temp temp : instr.uses())
+						line.append(temp.temp).append(' ');
+					line.append('\t');
+					for (Temp temp : instr.defs())
+						line.append(temp.temp).append(' ');
+					line.append('\t');
+					for (Label label : instr.jumps())
+						line.append(label.name).append(' ');
+					line.append('\t').append(((AsmOPER) instr).instr);
+					out.println(line);
+				}
+				StringBuilder line = new StringBuilder("regs\t");
+				for (Map.Entry<Temp, Integer> reg : new TreeMap<Temp, Integer>(code.regs).entrySet())
+					line.append(reg.getKey().temp).append('=').append(reg.getValue()).append(' ');
+				out.println(line);
+			}
+			out.println("end");
+		} catch (IOException __) {
+			Report.info("Cannot write cache file '" + file + "'.");
+			return;
+		}
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException __) {
+			tmpFile.delete();
+		}
+	}
+
+	/**
+	 * Reads the code of a top-level function from the cache. Anonymous labels and
+	 * temporary variables are renamed.
+	 *
+	 * @param file The cache file.
+	 * @return The code of the function or {@code null} if the function is not in
+	 *         the cache.
+	 */
+	private static Entry read(File file) {
+		if (!file.isFile())
+			return null;
+		try {
+			List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+			if (lines.isEmpty() || !lines.get(0).equals(FORMAT) || !lines.get(lines.size() - 1).equals("end"))
+				return null;
+
+			Entry entry = new Entry();
+			HashMap<String, Label> labels = new HashMap<String, Label>();
+			HashMap<String, Temp> temps = null;
+			Frame frame = null;
+			Label entryLabel = null;
+			Label exitLabel = null;
+			long tempSize = 0;
+			Vector<AsmInstr> instrs = null;
+			for (String line : lines.subList(1, lines.size() - 1)) {
+				String[] fields = line.split("\t", -1);
+				switch (fields[0]) {
+				case "data":
+					entry.strings.add(new DataChunk(new AbsAccess(Long.parseLong(fields[2]), label(labels, fields[1]),
+							line.substring(fields[0].length() + fields[1].length() + fields[2].length() + 3))));
+					break;
+				case "code":
+					frame = new Frame(label(labels, fields[1]), Integer.parseInt(fields[2]), Long.parseLong(fields[3]),
+							Long.parseLong(fields[4]));
+					temps = new HashMap<String, Temp>();
+					temps.put(fields[5], frame.FP);
+					temps.put(fields[6], frame.RV);
+					entryLabel = label(labels, fields[7]);
+					exitLabel = label(labels, fields[8]);
+					tempSize = Long.parseLong(fields[9]);
+					instrs = new Vector<AsmInstr>();
+					break;
+				case "label":
+					instrs.add(new AsmLABEL(label(labels, fields[1])));
+					break;
+				case "oper": {
+					Vector<Temp> uses = new Vector<Temp>();
+					for (String temp : fields[1].split(" "))
+						if (!temp.isEmpty())
+							uses.add(temp(temps, temp));
+					Vector<Temp> defs = new Vector<Temp>();
+					for (String temp : fields[2].split(" "))
+						if (!temp.isEmpty())
+							defs.add(temp(temps, temp));
+					Vector<Label> jumps = new Vector<Label>();
+					for (String label : fields[3].split(" "))
+						if (!label.isEmpty())
+							jumps.add(label(labels, label));
+					String instr = line.substring(fields[0].length() + fields[1].length() + fields[2].length()
+							+ fields[3].length() + 4);
+					instrs.add(new AsmOPER(rename(labels, instr), uses, defs, jumps));
+					break;
+				}
+				case "regs": {
+					HashMap<Temp, Integer> regs = new HashMap<Temp, Integer>();
+					for (String reg : fields[1].split(" "))
+						if (!reg.isEmpty())
+							regs.put(temp(temps, reg.replaceFirst("=.*$", "")),
+									Integer.parseInt(reg.replaceFirst("^.*=", "")));
+					entry.codes.add(new Code(frame, entryLabel, exitLabel, instrs, regs, tempSize));
+					break;
+				}
+				default:
+					return null;
+				}
+			}
+			return entry;
+		} catch (IOException | RuntimeException __) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the label with the specified name stored in the cache. Anonymous
+	 * labels are replaced with new anonymous labels.
+	 *
+	 * @param labels The labels read so far.
+	 * @param name   The name of the label stored in the cache.
+	 * @return The label.
+	 */
+	private static Label label(HashMap<String, Label> labels, String name) {
+		Label label = labels.get(name);
+		if (label == null) {
+			label = name.matches("L[0-9]+") ? new Label() : new Label(name.substring(1));
+			labels.put(name, label);
+		}
+		return label;
+	}
+
+	/**
+	 * Returns the temporary variable with the specified name stored in the cache.
+	 *
+	 * @param temps The temporary variables of the function read so far.
+	 * @param name  The name of the temporary variable stored in the cache.
+	 * @return The temporary variable.
+	 */
+	private static Temp temp(HashMap<String, Temp> temps, String name) {
+		Temp temp = temps.get(name);
+		if (temp == null) {
+			temp = new Temp();
+			temps.put(name, temp);
+		}
+		return temp;
+	}
+
+	/**
+	 * Renames anonymous labels within an instruction.
+	 *
+	 * @param labels The labels read so far.
+	 * @param instr  The instruction stored in the cache.
+	 * @return The instruction with anonymous labels renamed.
+	 */
+	private static String rename(HashMap<String, Label> labels, String instr) {
+		StringBuilder renamed = new StringBuilder();
+		Matcher matcher = Pattern.compile("\\bL[0-9]+\\b").matcher(instr);
+		while (matcher.find())
+			matcher.appendReplacement(renamed, label(labels, matcher.group()).name);
+		matcher.appendTail(renamed);
+		return renamed.toString();
+	}
+
+}
@@ -0,0 +1,344 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.cache;
+
+import java.util.*;
+import compiler.data.abstree.*;
+import compiler.data.abstree.visitor.*;
+import compiler.phases.seman.*;
+
+/**
+ * Prints out the canonical text of a top-level function definition used to
+ * compute its key in the cache.
+ *
+ * The canonical text contains everything the code of a function depends on
+ * but nothing else, e.g., locations are omitted. Declarations the function
+ * refers to but which are declared outside the function are printed after the
+ * function itself: types and variables in full, functions by their headers
+ * only. The declarations these declarations refer to are printed as well.
+ *
+ * @author sliva
+ */
+class KeyPrinter extends AbsFullVisitor<Object, Object> {
+
+	/** The canonical text. */
+	final StringBuilder text = new StringBuilder();
+
+	/** Declarations printed out so far. */
+	private final HashSet<AbsDecl> printed = new HashSet<AbsDecl>();
+
+	/** Declarations referred to so far (in the order of first reference). */
+	private final LinkedHashSet<AbsDecl> referred = new LinkedHashSet<AbsDecl>();
+
+	/**
+	 * Prints out the canonical text of a top-level function definition.
+	 *
+	 * @param funDef The function definition.
+	 * @return The canonical text.
+	 */
+	String print(AbsFunDef funDef) {
+		funDef.accept(this, null);
+		while (true) {
+			AbsDecl next = null;
+			for (AbsDecl decl : referred)
+				if (!printed.contains(decl)) {
+					next = decl;
+					break;
+				}
+			if (next == null)
+				break;
+			text.append('\n');
+			if (next instanceof AbsFunDecl) {
+				AbsFunDecl funDecl = (AbsFunDecl) next;
+				printed.add(funDecl);
+				text.append("(fun ").append(funDecl.name);
+				funDecl.parDecls.accept(this, null);
+				funDecl.type.accept(this, null);
+				text.append(')');
+			} else
+				next.accept(this, null);
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Notes a reference to a declaration.
+	 *
+	 * @param name The name referring to the declaration.
+	 */
+	private void refer(AbsName name) {
+		AbsDecl decl = SemAn.declaredAt().get(name);
+		if (decl != null)
+			referred.add(decl);
+	}
+
+	@Override
+	public Object visit(AbsArgs args, Object visArg) {
+		text.append("(args");
+		for (AbsExpr arg : args.args())
+			arg.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsArrExpr arrExpr, Object visArg) {
+		text.append("(arr");
+		arrExpr.array.accept(this, visArg);
+		arrExpr.index.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsArrType arrType, Object visArg) {
+		text.append("(arrtype");
+		arrType.len.accept(this, visArg);
+		arrType.elemType.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAssignStmt assignStmt, Object visArg) {
+		text.append("(assign");
+		assignStmt.dst.accept(this, visArg);
+		assignStmt.src.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAtomExpr atomExpr, Object visArg) {
+		text.append("(atom ").append(atomExpr.type).append(' ').append(atomExpr.expr).append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsAtomType atomType, Object visArg) {
+		text.append("(atomtype ").append(atomType.type).append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsBinExpr binExpr, Object visArg) {
+		text.append("(bin ").append(binExpr.oper);
+		binExpr.fstExpr.accept(this, visArg);
+		binExpr.sndExpr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsBlockExpr blockExpr, Object visArg) {
+		text.append("(block");
+		blockExpr.decls.accept(this, visArg);
+		blockExpr.stmts.accept(this, visArg);
+		blockExpr.expr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCastExpr castExpr, Object visArg) {
+		text.append("(cast");
+		castExpr.type.accept(this, visArg);
+		castExpr.expr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCompDecl compDecl, Object visArg) {
+		printed.add(compDecl);
+		text.append("(comp ").append(compDecl.name);
+		compDecl.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsCompDecls compDecls, Object visArg) {
+		text.append("(comps");
+		for (AbsCompDecl compDecl : compDecls.compDecls())
+			compDecl.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsDecls decls, Object visArg) {
+		text.append("(decls");
+		for (AbsDecl decl : decls.decls())
+			decl.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsDelExpr delExpr, Object visArg) {
+		text.append("(del");
+		delExpr.expr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsExprStmt exprStmt, Object visArg) {
+		text.append("(expr");
+		exprStmt.expr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunDecl funDecl, Object visArg) {
+		printed.add(funDecl);
+		text.append("(fundecl ").append(funDecl.name);
+		funDecl.parDecls.accept(this, visArg);
+		funDecl.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunDef funDef, Object visArg) {
+		printed.add(funDef);
+		text.append("(fundef ").append(funDef.name);
+		funDef.parDecls.accept(this, visArg);
+		funDef.type.accept(this, visArg);
+		funDef.value.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsFunName funName, Object visArg) {
+		refer(funName);
+		text.append("(call ").append(funName.name);
+		funName.args.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsIfStmt ifStmt, Object visArg) {
+		text.append("(if");
+		ifStmt.cond.accept(this, visArg);
+		ifStmt.thenStmts.accept(this, visArg);
+		ifStmt.elseStmts.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsNewExpr newExpr, Object visArg) {
+		text.append("(new");
+		newExpr.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsParDecl parDecl, Object visArg) {
+		printed.add(parDecl);
+		text.append("(par ").append(parDecl.name);
+		parDecl.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsParDecls parDecls, Object visArg) {
+		text.append("(pars");
+		for (AbsParDecl parDecl : parDecls.parDecls())
+			parDecl.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsPtrType ptrType, Object visArg) {
+		text.append("(ptrtype");
+		ptrType.ptdType.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsRecExpr recExpr, Object visArg) {
+		text.append("(rec");
+		recExpr.record.accept(this, visArg);
+		text.append(' ').append(recExpr.comp.name);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsRecType recType, Object visArg) {
+		text.append("(rectype");
+		recType.compDecls.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsStmts stmts, Object visArg) {
+		text.append("(stmts");
+		for (AbsStmt stmt : stmts.stmts())
+			stmt.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsTypDecl typDecl, Object visArg) {
+		printed.add(typDecl);
+		text.append("(typ ").append(typDecl.name);
+		typDecl.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsTypName typName, Object visArg) {
+		refer(typName);
+		text.append("(typname ").append(typName.name).append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsUnExpr unExpr, Object visArg) {
+		text.append("(un ").append(unExpr.oper);
+		unExpr.subExpr.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsVarDecl varDecl, Object visArg) {
+		printed.add(varDecl);
+		text.append("(var ").append(varDecl.name);
+		varDecl.type.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsVarName varName, Object visArg) {
+		refer(varName);
+		text.append("(varname ").append(varName.name).append(')');
+		return null;
+	}
+
+	@Override
+	public Object visit(AbsWhileStmt whileStmt, Object visArg) {
+		text.append("(while");
+		whileStmt.cond.accept(this, visArg);
+		whileStmt.stmts.accept(this, visArg);
+		text.append(')');
+		return null;
+	}
+
+}
@@ -12,6 +12,9 @@ import compiler.data.imcode.*;
 import compiler.data.chunk.*;
 import compiler.phases.frames.*;
 import compiler.phases.imcgen.*;
+import compiler.phases.imcopt.*;
+import compiler.phases.ssa.*;
+import compiler.phases.cache.*;
 
 /**
  * @author sliva
@@ -20,12 +23,12 @@ import compiler.phases.imcgen.*;
 public class ChunkGenerator extends AbsFullVisitor<Object, Object> {
 
 	/**
-	1 ... Chunks.dataChunks. Global variables & string constants.
-	2 ... Chunks.codeChunks. Canonize functions' code.
+	1 ... Chunks.dataChunks(). Global variables & string constants.
+	2 ... Chunks.codeChunks(). Canonize functions' code.
 	**/
 
-	private static AbsSource src;
-	private static Stack<Integer> state = new Stack<Integer>();
+	private AbsSource src;
+	private Stack<Integer> state = new Stack<Integer>();
 
 	@Override
 	public Object visit(AbsArgs args, Object visArg) {
@@ -73,9 +76,9 @@ public class ChunkGenerator extends AbsFullVisitor<Object, Object> {
 			case 1: {
 				if (atomExpr.type == AbsAtomExpr.Type.STR) {
 					String init = atomExpr.expr;
-					ImcNAME imc = (ImcNAME) ImcGen.exprImCode.get(atomExpr);
+					ImcNAME imc = (ImcNAME) ImcGen.exprImCode().get(atomExpr);
 
-					Chunks.dataChunks.add(new DataChunk(new AbsAccess((init.length() + 1) * (new SemCharType()).size(), imc.label, init)));
+					Chunks.dataChunks().add(new DataChunk(new AbsAccess((init.length() + 1) * SemTypeFactory.charType().size(), imc.label, init)));
 				}
 
 				return null;
@@ -184,15 +187,18 @@ public class ChunkGenerator extends AbsFullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsFunDef funDef, Object visArg) {
+		if (CodeCache.isCached(funDef))
+			return null;
 		switch (state.peek()) {
 			case 2: {
-				Frame frame = Frames.frames.get(funDef);
+				Frame frame = Frames.frames().get(funDef);
 
 				funDef.value.accept(this, visArg);
 
-				ImcGen.exprImCode.get(funDef.value).accept(new StmtCanonizer(), null);
-				ImcExpr fExpr = StmtCanonizer.iexpr.pop();
-				Vector<ImcStmt> fStmt = StmtCanonizer.istmt.pop();
+				StmtCanonizer canonizer = new StmtCanonizer();
+				ImcOpt.funImCode().get(funDef).accept(canonizer, null);
+				ImcExpr fExpr = canonizer.iexpr.pop();
+				Vector<ImcStmt> fStmt = canonizer.istmt.pop();
 
 				Label entryLabel = new Label();
 				Label exitLabel = new Label();
@@ -203,7 +209,18 @@ public class ChunkGenerator extends AbsFullVisitor<Object, Object> {
 				stmt.add(new ImcMOVE(new ImcTEMP(frame.RV), fExpr));
 				stmt.add(new ImcJUMP(exitLabel));
 
-				Chunks.codeChunks.add(new CodeChunk(Frames.frames.get(funDef), stmt, entryLabel, exitLabel));
+				if (!ImcOpt.enabled()) {
+					Chunks.codeChunks().add(new CodeChunk(frame, stmt, entryLabel, exitLabel));
+					return null;
+				}
+
+				// Constants held in temporary variables only appear after canonization,
+				// so the statements are optimized once again to propagate them.
+				stmt = new ImcOptimizer().optimize(stmt, frame);
+
+				CodeChunk codeChunk = new CodeChunk(frame, stmt, entryLabel, exitLabel);
+				codeChunk = new SsaOptimizer().optimize(codeChunk);
+				Chunks.codeChunks().add(new TraceScheduler().schedule(codeChunk));
 
 				return null;
 			}
@@ -347,10 +364,10 @@ public class ChunkGenerator extends AbsFullVisitor<Object, Object> {
 	public Object visit(AbsVarDecl varDecl, Object visArg) {
 		switch (state.peek()) {
 			case 1: {
-				Access acs = Frames.accesses.get(varDecl);
+				Access acs = Frames.accesses().get(varDecl);
 
 				if (acs instanceof AbsAccess) {
-					Chunks.dataChunks.add(new DataChunk((AbsAccess) acs));
+					Chunks.dataChunks().add(new DataChunk((AbsAccess) acs));
 				}
 
 				return null;
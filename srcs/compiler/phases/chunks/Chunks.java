@@ -5,6 +5,7 @@ package compiler.phases.chunks;
 
 import java.util.*;
 import compiler.data.chunk.*;
+import compiler.*;
 import compiler.phases.*;
 
 /**
@@ -12,9 +13,23 @@ import compiler.phases.*;
  */
 public class Chunks extends Phase {
 
-	public static Vector<DataChunk> dataChunks = new Vector<DataChunk>();
+	/**
+	 * Returns the data chunks.
+	 * 
+	 * @return The data chunks.
+	 */
+	public static Vector<DataChunk> dataChunks() {
+		return CompilationContext.current().dataChunks;
+	}
 
-	public static Vector<CodeChunk> codeChunks = new Vector<CodeChunk>();
+	/**
+	 * Returns the code chunks.
+	 * 
+	 * @return The code chunks.
+	 */
+	public static Vector<CodeChunk> codeChunks() {
+		return CompilationContext.current().codeChunks;
+	}
 
 	public Chunks() {
 		super("chunks");
@@ -22,9 +37,9 @@ public class Chunks extends Phase {
 
 	public void log() {
 		ChunkLogger chunkLogger = new ChunkLogger(logger);
-		for (DataChunk dataChunk : dataChunks)
+		for (DataChunk dataChunk : dataChunks())
 			chunkLogger.log(dataChunk);
-		for (CodeChunk codeChunk : codeChunks)
+		for (CodeChunk codeChunk : codeChunks())
 			chunkLogger.log(codeChunk);
 	}
 
@@ -3,7 +3,9 @@
  */
 package compiler.phases.chunks;
 
+import java.io.*;
 import java.util.*;
+import compiler.*;
 import compiler.common.report.*;
 import compiler.data.layout.*;
 import compiler.data.imcode.*;
@@ -17,6 +19,8 @@ public class Interpreter {
 
 	private boolean debug = false;
 
+	private PrintStream out;
+
 	private Random random;
 
 	private HashMap<Long, Byte> memory;
@@ -39,6 +43,7 @@ public class Interpreter {
 
 	public Interpreter(Vector<DataChunk> dataChunks, Vector<CodeChunk> codeChunks) {
 		random = new Random();
+		out = CompilationContext.current().out;
 
 		this.memory = new HashMap<Long, Byte>();
 		this.temps = new HashMap<Temp, Long>();
@@ -51,7 +56,7 @@ public class Interpreter {
 		this.dataLabels = new HashMap<Label, Long>();
 		for (DataChunk dataChunk : dataChunks) {
 			if (debug) {
-				System.out.printf("### %s @ %d\n", dataChunk.label.name, tempLD(HP, false));
+				out.printf("### %s @ %d\n", dataChunk.label.name, tempLD(HP, false));
 			}
 			this.dataLabels.put(dataChunk.label, tempLD(HP, false));
 			if (dataChunk.init != null) {
@@ -59,10 +64,10 @@ public class Interpreter {
 					memST(tempLD(HP, false) + 8 * c, (long) dataChunk.init.charAt(c + 1), false);
 				memST(tempLD(HP, false) + 8 * (dataChunk.init.length() - 2), 0L, false);
 			}
-			tempST(HP, tempLD(HP, false) + dataChunk.size, true);
+			tempST(HP, tempLD(HP, false) + dataChunk.size, debug);
 		}
 		if (debug)
-			System.out.printf("###\n");
+			out.printf("###\n");
 
 		this.jumpLabels = new HashMap<Label, Integer>();
 		this.callLabels = new HashMap<Label, CodeChunk>();
@@ -82,7 +87,7 @@ public class Interpreter {
 
 	private void memST(Long address, Long value, boolean debug) {
 		if (debug)
-			System.out.printf("### [%d] <- %d\n", address, value);
+			out.printf("### [%d] <- %d\n", address, value);
 		for (int b = 0; b <= 7; b++) {
 			long longval = value % 0x100;
 			byte byteval = (byte) longval;
@@ -107,7 +112,7 @@ public class Interpreter {
 			value = (value * 0x100) + (longval < 0 ? longval + 0x100 : longval);
 		}
 		if (debug)
-			System.out.printf("### %d <- [%d]\n", value, address);
+			out.printf("### %d <- [%d]\n", value, address);
 		return value;
 	}
 
@@ -119,22 +124,22 @@ public class Interpreter {
 		temps.put(temp, value);
 		if (debug) {
 			if (temp == SP) {
-				System.out.printf("### SP <- %d\n", value);
+				out.printf("### SP <- %d\n", value);
 				return;
 			}
 			if (temp == FP) {
-				System.out.printf("### FP <- %d\n", value);
+				out.printf("### FP <- %d\n", value);
 				return;
 			}
 			if (temp == RV) {
-				System.out.printf("### RV <- %d\n", value);
+				out.printf("### RV <- %d\n", value);
 				return;
 			}
 			if (temp == HP) {
-				System.out.printf("### HP <- %d\n", value);
+				out.printf("### HP <- %d\n", value);
 				return;
 			}
-			System.out.printf("### T%d <- %d\n", temp.temp, value);
+			out.printf("### T%d <- %d\n", temp.temp, value);
 			return;
 		}
 	}
@@ -151,22 +156,22 @@ public class Interpreter {
 		}
 		if (debug) {
 			if (temp == SP) {
-				System.out.printf("### %d <- SP\n", value);
+				out.printf("### %d <- SP\n", value);
 				return value;
 			}
 			if (temp == FP) {
-				System.out.printf("### %d <- FP\n", value);
+				out.printf("### %d <- FP\n", value);
 				return value;
 			}
 			if (temp == RV) {
-				System.out.printf("### %d <- RV\n", value);
+				out.printf("### %d <- RV\n", value);
 				return value;
 			}
 			if (temp == HP) {
-				System.out.printf("### %d <- HP\n", value);
+				out.printf("### %d <- HP\n", value);
 				return value;
 			}
-			System.out.printf("### %d <- T%d\n", value, temp.temp);
+			out.printf("### %d <- T%d\n", value, temp.temp);
 			return value;
 		}
 		return value;
@@ -260,7 +265,7 @@ public class Interpreter {
 		@Override
 		public Label visit(ImcCJUMP imcCJump, Object arg) {
 			if (debug)
-				System.out.println(imcCJump);
+				out.println(imcCJump);
 			Long cond = imcCJump.cond.accept(new ExprInterpreter(), null);
 			return (cond != 0) ? imcCJump.posLabel : imcCJump.negLabel;
 		}
@@ -268,7 +273,7 @@ public class Interpreter {
 		@Override
 		public Label visit(ImcESTMT imcEStmt, Object arg) {
 			if (debug)
-				System.out.println(imcEStmt);
+				out.println(imcEStmt);
 			if (imcEStmt.expr instanceof ImcCALL) {
 				call((ImcCALL) imcEStmt.expr);
 				return null;
@@ -280,21 +285,21 @@ public class Interpreter {
 		@Override
 		public Label visit(ImcJUMP imcJump, Object arg) {
 			if (debug)
-				System.out.println(imcJump);
+				out.println(imcJump);
 			return imcJump.label;
 		}
 
 		@Override
 		public Label visit(ImcLABEL imcLabel, Object arg) {
 			if (debug)
-				System.out.println(imcLabel);
+				out.println(imcLabel);
 			return null;
 		}
 
 		@Override
 		public Label visit(ImcMOVE imcMove, Object arg) {
 			if (debug)
-				System.out.println(imcMove);
+				out.println(imcMove);
 			if (imcMove.dst instanceof ImcMEM) {
 				Long dst = ((ImcMEM) (imcMove.dst)).addr.accept(new ExprInterpreter(), null);
 				Long src;
@@ -323,7 +328,7 @@ public class Interpreter {
 		@Override
 		public Label visit(ImcSTMTS imcStmts, Object arg) {
 			if (debug)
-				System.out.println(imcStmts);
+				out.println(imcStmts);
 			throw new Report.InternalError();
 		}
 
@@ -346,12 +351,12 @@ public class Interpreter {
 			}
 			if (imcCall.label.name.equals("_putInt")) {
 				Long i = memLD(tempLD(SP, false) + 1 * 8, false);
-				System.out.printf("%d", i);
+				out.printf("%d", i);
 				return;
 			}
 			if (imcCall.label.name.equals("_putChar")) {
 				Long c = memLD(tempLD(SP, false) + 1 * 8, false);
-				System.out.printf("%c", (char) ((long) c) % 0x100);
+				out.printf("%c", (char) ((long) c) % 0x100);
 				return;
 			}
 			if (imcCall.label.name.equals("_putString")) {
@@ -361,7 +366,7 @@ public class Interpreter {
 					addr += 8;
 					if (c == 0)
 						break;
-					System.out.printf("%c", (char) c);
+					out.printf("%c", (char) c);
 				} while (true);
 				return;
 			}
@@ -384,7 +389,7 @@ public class Interpreter {
 		/* PROLOGUE */
 		{
 			if (debug)
-				System.out.printf("###\n### CALL: %s\n", entryLabel.name);
+				out.printf("###\n### CALL: %s\n", entryLabel.name);
 
 			// Store registers and FP.
 			storedTemps = temps;
@@ -407,7 +412,7 @@ public class Interpreter {
 			while (label != chunk.exitLabel) {
 				if (debug) {
 					pc++;
-					System.out.printf("### %s (%d):\n", chunk.frame.label.name, pc);
+					out.printf("### %s (%d):\n", chunk.frame.label.name, pc);
 					if (pc == 1000000)
 						break;
 				}
@@ -441,7 +446,7 @@ public class Interpreter {
 			// Return.
 
 			if (debug)
-				System.out.printf("### RETURN: %s\n###\n", entryLabel.name);
+				out.printf("### RETURN: %s\n###\n", entryLabel.name);
 		}
 
 	}
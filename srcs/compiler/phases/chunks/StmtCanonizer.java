@@ -4,72 +4,52 @@
 package compiler.phases.chunks;
 
 import java.util.*;
-import compiler.common.report.*;
 import compiler.data.layout.*;
 import compiler.data.imcode.*;
 import compiler.data.imcode.visitor.*;
 
 /**
+ * Canonizes the intermediate code.
+ *
+ * Statements and expressions that are not allowed within expressions of the
+ * canonized code, i.e., {@link ImcSEXPR}, {@link ImcSTMTS} and
+ * {@link ImcESTMT}, are lifted into a linear sequence of statements. Calls are
+ * lifted as well: each call becomes the source of a move to a temporary
+ * variable. The remaining expressions are left in place.
+ *
+ * An expression is evaluated into a new temporary variable only if its value
+ * could be changed by the statements lifted out of the expressions evaluated
+ * after it, i.e., if these statements store into memory or call a function
+ * while the expression reads memory, or if they assign a temporary variable
+ * the expression reads.
+ *
  * @author sliva
  */
 public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 
-	public boolean skip = false;
-	public static Stack<ImcExpr> iexpr = new Stack<ImcExpr>();
-	public static Stack<Vector<ImcStmt>> istmt = new Stack<Vector<ImcStmt>>();
+	public Stack<ImcExpr> iexpr = new Stack<ImcExpr>();
+	public Stack<Vector<ImcStmt>> istmt = new Stack<Vector<ImcStmt>>();
 
 	public Vector<ImcStmt> visit(ImcBINOP binOp, Object visArg) {
-		binOp.fstExpr.accept(this, visArg);
-		Temp fst = new Temp();
-		ImcExpr fstExpr = iexpr.pop();
-		Vector<ImcStmt> fstStmt = istmt.pop();
+		Vector<ImcExpr> exprs = new Vector<ImcExpr>();
+		exprs.add(binOp.fstExpr);
+		exprs.add(binOp.sndExpr);
+		Vector<ImcStmt> stmt = reorder(exprs, visArg);
 
-		binOp.sndExpr.accept(this, visArg);
-		Temp snd = new Temp();
-		ImcExpr sndExpr = iexpr.pop();
-		Vector<ImcStmt> sndStmt = istmt.pop();
-
-		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-		stmt.addAll(fstStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(fst), fstExpr));
-		stmt.addAll(sndStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(snd), sndExpr));
-
-		iexpr.push(new ImcBINOP(binOp.oper, new ImcTEMP(fst), new ImcTEMP(snd)));
+		iexpr.push(new ImcBINOP(binOp.oper, exprs.get(0), exprs.get(1)));
 		istmt.push(stmt);
 
 		return null;
 	}
 
 	public Vector<ImcStmt> visit(ImcCALL call, Object visArg) {
-		Vector<ImcExpr> args = new Vector<ImcExpr>();
-		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-
-		for (int i = 0; i < call.args().size(); i++) {
-			Vector<ImcStmt> aStmt = new Vector<ImcStmt>();
+		Vector<ImcExpr> args = call.args();
+		Vector<ImcStmt> stmt = reorder(args, visArg);
 
-			if (i == 0) {
-				Temp temp = new Temp();
-				aStmt.add(new ImcMOVE(new ImcTEMP(temp), call.args().get(i)));
-				args.add(new ImcTEMP(temp));
-				stmt.addAll(aStmt);
-				continue;
-			}
-
-			ImcExpr expr = call.args().get(i);
-			expr.accept(this, visArg);
-			Temp argv = new Temp();
-			ImcExpr argExpr = iexpr.pop();
-			Vector<ImcStmt> argStmt = istmt.pop();
-
-			aStmt.addAll(argStmt);
-			aStmt.add(new ImcMOVE(new ImcTEMP(argv), argExpr));
-
-			args.add(new ImcTEMP(argv));
-			stmt.addAll(aStmt);
-		}
+		Temp temp = new Temp();
+		stmt.add(new ImcMOVE(new ImcTEMP(temp), new ImcCALL(call.label, args)));
 
-		iexpr.push(new ImcCALL(call.label, args));
+		iexpr.push(new ImcTEMP(temp));
 		istmt.push(stmt);
 
 		return null;
@@ -77,16 +57,14 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 
 	public Vector<ImcStmt> visit(ImcCJUMP cjump, Object visArg) {
 		cjump.cond.accept(this, visArg);
-		Temp temp = new Temp();
 		ImcExpr cExpr = iexpr.pop();
 		Vector<ImcStmt> cStmt = istmt.pop();
 
 		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
 		stmt.addAll(cStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(temp), cExpr));
 
 		Label fLabel = new Label();
-		stmt.add(new ImcCJUMP(new ImcTEMP(temp), cjump.posLabel, fLabel));
+		stmt.add(new ImcCJUMP(cExpr, cjump.posLabel, fLabel));
 		stmt.add(new ImcLABEL(fLabel));
 		stmt.add(new ImcJUMP(cjump.negLabel));
 
@@ -96,7 +74,7 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 	}
 
 	public Vector<ImcStmt> visit(ImcCONST constant, Object visArg) {
-		iexpr.push(new ImcCONST(constant.value));
+		iexpr.push(constant);
 		istmt.push(new Vector<ImcStmt>());
 
 		return null;
@@ -104,16 +82,11 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 
 	public Vector<ImcStmt> visit(ImcESTMT eStmt, Object visArg) {
 		eStmt.expr.accept(this, visArg);
-		ImcExpr exExpr = iexpr.pop();
+		iexpr.pop();
 		Vector<ImcStmt> exStmt = istmt.pop();
 
-		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-		stmt.addAll(exStmt);
-
-		/// execute the expression in case it modifies the environment.
-		stmt.add(new ImcMOVE(new ImcTEMP(new Temp()), exExpr));
-
-		istmt.push(stmt);
+		/// calls are lifted, so the value itself has no effect on the environment.
+		istmt.push(exStmt);
 
 		return null;
 	}
@@ -138,64 +111,41 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 
 	public Vector<ImcStmt> visit(ImcMEM mem, Object visArg) {
 		mem.addr.accept(this, visArg);
-		Temp temp = new Temp();
 		ImcExpr addrExpr = iexpr.pop();
 		Vector<ImcStmt> addrStmt = istmt.pop();
 
-		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-		stmt.addAll(addrStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(temp), addrExpr));
-
-		iexpr.push(new ImcMEM(new ImcTEMP(temp)));
-		istmt.push(stmt);
+		iexpr.push(new ImcMEM(addrExpr));
+		istmt.push(addrStmt);
 
 		return null;
 	}
 
 	public Vector<ImcStmt> visit(ImcMOVE move, Object visArg) {
 		if (move.dst instanceof ImcMEM) {
-			boolean prevSkip = skip;
-			skip = true;
-			move.dst.accept(this, visArg);
-			skip = prevSkip;
-			Temp dst = new Temp();
-			ImcExpr dstExpr = iexpr.pop();
-			Vector<ImcStmt> dstStmt = istmt.pop();
+			Vector<ImcExpr> exprs = new Vector<ImcExpr>();
+			exprs.add(((ImcMEM) move.dst).addr);
+			exprs.add(move.src);
+			Vector<ImcStmt> stmt = reorder(exprs, visArg);
 
-			move.src.accept(this, visArg);
-			Temp src = new Temp();
-			ImcExpr srcExpr = iexpr.pop();
-			Vector<ImcStmt> srcStmt = istmt.pop();
-	
-			Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-			stmt.addAll(dstStmt);
-			stmt.addAll(srcStmt);
-			stmt.add(new ImcMOVE(new ImcTEMP(src), srcExpr));
-	
-			stmt.add(new ImcMOVE(dstExpr, new ImcTEMP(src)));
+			stmt.add(new ImcMOVE(new ImcMEM(exprs.get(0)), exprs.get(1)));
 
 			istmt.push(stmt);
 
 			return null;
 		}
 
-		move.dst.accept(this, visArg);
-		Temp dst = new Temp();
-		ImcExpr dstExpr = iexpr.pop();
-		Vector<ImcStmt> dstStmt = istmt.pop();
-
-		move.src.accept(this, visArg);
-		Temp src = new Temp();
-		ImcExpr srcExpr = iexpr.pop();
-		Vector<ImcStmt> srcStmt = istmt.pop();
-
 		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-		stmt.addAll(dstStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(dst), dstExpr));
-		stmt.addAll(srcStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(src), srcExpr));
-
-		stmt.add(new ImcMOVE(new ImcTEMP(dst), new ImcTEMP(src)));
+		if (move.src instanceof ImcCALL) {
+			ImcCALL call = (ImcCALL) move.src;
+			Vector<ImcExpr> args = call.args();
+			stmt.addAll(reorder(args, visArg));
+			stmt.add(new ImcMOVE(move.dst, new ImcCALL(call.label, args)));
+		} else {
+			move.src.accept(this, visArg);
+			ImcExpr srcExpr = iexpr.pop();
+			stmt.addAll(istmt.pop());
+			stmt.add(new ImcMOVE(move.dst, srcExpr));
+		}
 
 		istmt.push(stmt);
 
@@ -203,7 +153,7 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 	}
 
 	public Vector<ImcStmt> visit(ImcNAME name, Object visArg) {
-		iexpr.push(new ImcNAME(name.label));
+		iexpr.push(name);
 		istmt.push(new Vector<ImcStmt>());
 
 		return null;
@@ -214,16 +164,14 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 		Vector<ImcStmt> sStmt = istmt.pop();
 
 		sExpr.expr.accept(this, visArg);
-		Temp temp = new Temp();
 		ImcExpr sexprExpr = iexpr.pop();
 		Vector<ImcStmt> sexprStmt = istmt.pop();
 
 		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
 		stmt.addAll(sStmt);
 		stmt.addAll(sexprStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(temp), sexprExpr));
 
-		iexpr.push(new ImcTEMP(temp));
+		iexpr.push(sexprExpr);
 		istmt.push(stmt);
 
 		return null;
@@ -244,7 +192,7 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 	}
 
 	public Vector<ImcStmt> visit(ImcTEMP temp, Object visArg) {
-		iexpr.push(new ImcTEMP(temp.temp));
+		iexpr.push(temp);
 		istmt.push(new Vector<ImcStmt>());
 
 		return null;
@@ -252,18 +200,145 @@ public class StmtCanonizer implements ImcVisitor<Vector<ImcStmt>, Object> {
 
 	public Vector<ImcStmt> visit(ImcUNOP unOp, Object visArg) {
 		unOp.subExpr.accept(this, visArg);
-		Temp temp = new Temp();
 		ImcExpr subExpr = iexpr.pop();
 		Vector<ImcStmt> subStmt = istmt.pop();
 
+		iexpr.push(new ImcUNOP(unOp.oper, subExpr));
+		istmt.push(subStmt);
+
+		return null;
+	}
+
+	/**
+	 * Canonizes expressions evaluated one after another, e.g., operands or
+	 * arguments. Each expression is replaced by its canonized counterpart, which
+	 * is evaluated into a temporary variable if the statements lifted out of the
+	 * subsequent expressions might change its value.
+	 *
+	 * @param exprs  The expressions, replaced by the canonized ones.
+	 * @param visArg The visitor argument.
+	 * @return The statements that must be executed before the expressions are
+	 *         evaluated.
+	 */
+	private Vector<ImcStmt> reorder(Vector<ImcExpr> exprs, Object visArg) {
 		Vector<ImcStmt> stmt = new Vector<ImcStmt>();
-		stmt.addAll(subStmt);
-		stmt.add(new ImcMOVE(new ImcTEMP(temp), subExpr));
+		for (int i = 0; i < exprs.size(); i++) {
+			exprs.get(i).accept(this, visArg);
+			ImcExpr expr = iexpr.pop();
+			Vector<ImcStmt> exStmt = istmt.pop();
+
+			if (!exStmt.isEmpty()) {
+				Effects stmtEffects = new Effects();
+				for (ImcStmt cStmt : exStmt)
+					cStmt.accept(stmtEffects, null);
+				for (int j = 0; j < i; j++) {
+					if (commutes(exprs.get(j), stmtEffects))
+						continue;
+					Temp temp = new Temp();
+					stmt.add(new ImcMOVE(new ImcTEMP(temp), exprs.get(j)));
+					exprs.set(j, new ImcTEMP(temp));
+				}
+			}
+			stmt.addAll(exStmt);
+			exprs.set(i, expr);
+		}
+		return stmt;
+	}
 
-		iexpr.push(new ImcUNOP(unOp.oper, new ImcTEMP(temp)));
-		istmt.push(stmt);
+	/**
+	 * Checks whether a canonized expression yields the same value if it is
+	 * evaluated after some statements instead of before them.
+	 *
+	 * @param expr        The canonized expression.
+	 * @param stmtEffects The effects of the canonized statements.
+	 * @return {@code true} if the expression and the statements commute,
+	 *         {@code false} otherwise.
+	 */
+	private static boolean commutes(ImcExpr expr, Effects stmtEffects) {
+		if (expr instanceof ImcCONST || expr instanceof ImcNAME)
+			return true;
+		Effects exprEffects = new Effects();
+		expr.accept(exprEffects, null);
+
+		if (exprEffects.readsMem && (stmtEffects.writesMem || stmtEffects.calls))
+			return false;
+		for (Temp temp : exprEffects.readTemps)
+			if (stmtEffects.writtenTemps.contains(temp))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Collects what canonized code reads and writes.
+	 */
+	private static class Effects implements ImcVisitor<Object, Object> {
+
+		boolean readsMem = false;
+		boolean writesMem = false;
+		boolean calls = false;
+		final HashSet<Temp> readTemps = new HashSet<Temp>();
+		final HashSet<Temp> writtenTemps = new HashSet<Temp>();
+
+		public Object visit(ImcBINOP binOp, Object visArg) {
+			binOp.fstExpr.accept(this, visArg);
+			binOp.sndExpr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCALL call, Object visArg) {
+			calls = true;
+			for (ImcExpr arg : call.args())
+				arg.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCJUMP cjump, Object visArg) {
+			cjump.cond.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCONST constant, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcJUMP jump, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcLABEL label, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcMEM mem, Object visArg) {
+			readsMem = true;
+			mem.addr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcMOVE move, Object visArg) {
+			if (move.dst instanceof ImcMEM) {
+				writesMem = true;
+				((ImcMEM) move.dst).addr.accept(this, visArg);
+			} else
+				writtenTemps.add(((ImcTEMP) move.dst).temp);
+			move.src.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcNAME name, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcTEMP temp, Object visArg) {
+			readTemps.add(temp.temp);
+			return null;
+		}
+
+		public Object visit(ImcUNOP unOp, Object visArg) {
+			unOp.subExpr.accept(this, visArg);
+			return null;
+		}
 
-		return null;
 	}
-    
+
 }
@@ -0,0 +1,158 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.chunks;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+import compiler.data.cfg.*;
+
+/**
+ * Orders the basic blocks of a code chunk into traces.
+ *
+ * Jumps to basic blocks consisting of a single jump are redirected to the
+ * final target first, and basic blocks that cannot be reached from the entry
+ * are dropped. A trace is then grown from each remaining basic block by
+ * following the negative successor of a conditional jump or the target of a
+ * jump as long as it has not been placed yet. Once the basic blocks are
+ * placed, every conditional jump is followed by its negative label (its
+ * condition is negated if the positive label follows instead), jumps to the
+ * basic block that follows are removed, and so are labels no longer jumped to.
+ *
+ * @author sliva
+ */
+public class TraceScheduler {
+
+	/** The control-flow graph being scheduled. */
+	private ControlFlowGraph cfg;
+
+	/**
+	 * Schedules the statements of a code chunk.
+	 *
+	 * @param codeChunk The code chunk.
+	 * @return The code chunk with the statements in the order of traces.
+	 */
+	public CodeChunk schedule(CodeChunk codeChunk) {
+		cfg = new ControlFlowGraph(codeChunk);
+		BasicBlock entry = cfg.entry();
+
+		// Basic blocks reachable from the entry.
+		HashSet<BasicBlock> reachable = new HashSet<BasicBlock>();
+		Stack<BasicBlock> pending = new Stack<BasicBlock>();
+		reachable.add(entry);
+		pending.push(entry);
+		while (!pending.isEmpty()) {
+			for (Label label : pending.pop().jumpLabels()) {
+				BasicBlock succ = cfg.block(target(label));
+				if (succ != null && reachable.add(succ))
+					pending.push(succ);
+			}
+		}
+
+		// Traces.
+		Vector<BasicBlock> order = new Vector<BasicBlock>();
+		HashSet<BasicBlock> placed = new HashSet<BasicBlock>();
+		Vector<BasicBlock> seeds = cfg.blocks();
+		seeds.add(0, entry);
+		for (BasicBlock seed : seeds) {
+			BasicBlock block = seed;
+			while (block != null && reachable.contains(block) && placed.add(block)) {
+				order.add(block);
+				Vector<Label> labels = block.jumpLabels();
+				BasicBlock next = cfg.block(target(labels.lastElement()));
+				if ((next == null || placed.contains(next)) && labels.size() == 2)
+					next = cfg.block(target(labels.firstElement()));
+				block = next;
+			}
+		}
+
+		// Statements.
+		Vector<ImcStmt> stmts = new Vector<ImcStmt>();
+		for (int b = 0; b < order.size(); b++) {
+			Vector<ImcStmt> bStmts = order.get(b).stmts();
+			Label next = b + 1 < order.size() ? order.get(b + 1).label : null;
+			stmts.addAll(bStmts.subList(0, bStmts.size() - 1));
+
+			if (bStmts.lastElement() instanceof ImcJUMP) {
+				Label label = target(((ImcJUMP) bStmts.lastElement()).label);
+				if (label != next)
+					stmts.add(new ImcJUMP(label));
+				continue;
+			}
+
+			ImcCJUMP cjump = (ImcCJUMP) bStmts.lastElement();
+			Label posLabel = target(cjump.posLabel);
+			Label negLabel = target(cjump.negLabel);
+			if (posLabel == negLabel) {
+				if (posLabel != next)
+					stmts.add(new ImcJUMP(posLabel));
+			} else if (negLabel == next)
+				stmts.add(new ImcCJUMP(cjump.cond, posLabel, negLabel));
+			else if (posLabel == next)
+				stmts.add(new ImcCJUMP(negate(cjump.cond), negLabel, posLabel));
+			else {
+				Label fLabel = new Label();
+				stmts.add(new ImcCJUMP(cjump.cond, posLabel, fLabel));
+				stmts.add(new ImcLABEL(fLabel));
+				stmts.add(new ImcJUMP(negLabel));
+			}
+		}
+
+		// Labels no longer jumped to.
+		HashSet<Label> used = new HashSet<Label>();
+		used.add(codeChunk.entryLabel);
+		for (ImcStmt stmt : stmts) {
+			if (stmt instanceof ImcJUMP)
+				used.add(((ImcJUMP) stmt).label);
+			if (stmt instanceof ImcCJUMP) {
+				used.add(((ImcCJUMP) stmt).posLabel);
+				used.add(((ImcCJUMP) stmt).negLabel);
+			}
+		}
+		stmts.removeIf(stmt -> stmt instanceof ImcLABEL && !used.contains(((ImcLABEL) stmt).label));
+
+		return new CodeChunk(codeChunk.frame, stmts, codeChunk.entryLabel, codeChunk.exitLabel);
+	}
+
+	/**
+	 * Follows jumps through basic blocks consisting of a single jump.
+	 *
+	 * @param label The label jumped to.
+	 * @return The label the jump eventually leads to.
+	 */
+	private Label target(Label label) {
+		HashSet<Label> visited = new HashSet<Label>();
+		while (visited.add(label)) {
+			BasicBlock block = cfg.block(label);
+			if (block == null || block.size() != 2 || !(block.last() instanceof ImcJUMP))
+				break;
+			label = ((ImcJUMP) block.last()).label;
+		}
+		return label;
+	}
+
+	/**
+	 * Negates a condition.
+	 *
+	 * @param cond The condition.
+	 * @return The negated condition.
+	 */
+	private static ImcExpr negate(ImcExpr cond) {
+		if (cond instanceof ImcBINOP) {
+			ImcBINOP binOp = (ImcBINOP) cond;
+			switch (binOp.oper) {
+				case EQU: return new ImcBINOP(ImcBINOP.Oper.NEQ, binOp.fstExpr, binOp.sndExpr);
+				case NEQ: return new ImcBINOP(ImcBINOP.Oper.EQU, binOp.fstExpr, binOp.sndExpr);
+				case LTH: return new ImcBINOP(ImcBINOP.Oper.GEQ, binOp.fstExpr, binOp.sndExpr);
+				case GTH: return new ImcBINOP(ImcBINOP.Oper.LEQ, binOp.fstExpr, binOp.sndExpr);
+				case LEQ: return new ImcBINOP(ImcBINOP.Oper.GTH, binOp.fstExpr, binOp.sndExpr);
+				case GEQ: return new ImcBINOP(ImcBINOP.Oper.LTH, binOp.fstExpr, binOp.sndExpr);
+				default: break;
+			}
+		}
+		return new ImcBINOP(ImcBINOP.Oper.EQU, cond, new ImcCONST(0));
+	}
+
+}
@@ -6,6 +6,7 @@ package compiler.phases.frames;
 import compiler.data.abstree.*;
 import compiler.data.abstree.attribute.*;
 import compiler.data.layout.*;
+import compiler.*;
 import compiler.phases.*;
 
 /**
@@ -15,11 +16,23 @@ import compiler.phases.*;
  */
 public class Frames extends Phase {
 
-	/** Maps function declarations to frames. */
-	public static final AbsAttribute<AbsFunDecl, Frame> frames = new AbsAttribute<AbsFunDecl, Frame>();
+	/**
+	 * Returns the mapping of function declarations to frames.
+	 * 
+	 * @return The mapping of function declarations to frames.
+	 */
+	public static AbsAttribute<AbsFunDecl, Frame> frames() {
+		return CompilationContext.current().frames;
+	}
 
-	/** Maps variable declarations to accesses. */
-	public static final AbsAttribute<AbsVarDecl, Access> accesses = new AbsAttribute<AbsVarDecl, Access>();
+	/**
+	 * Returns the mapping of variable declarations to accesses.
+	 * 
+	 * @return The mapping of variable declarations to accesses.
+	 */
+	public static AbsAttribute<AbsVarDecl, Access> accesses() {
+		return CompilationContext.current().accesses;
+	}
 
 	/**
 	 * Constructs a new phase for computing layout.
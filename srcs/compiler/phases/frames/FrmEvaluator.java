@@ -36,7 +36,7 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 		public int depth = 0;
 		public long locsSize = 0;
 		public long argsSize = 0;
-		public long parsSize = new SemPtrType(new SemVoidType()).size();
+		public long parsSize = SemTypeFactory.ptrType(SemTypeFactory.voidType()).size();
 	}
 
 	/**
@@ -49,20 +49,96 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 		public long compsSize = 0;
 	}
 
+	/**
+	 * Within a function, finds MAX(SIZE(ARGS) + SL) for every function call.
+	 * 
+	 * @author sliva
+	 */
+	private class ArgsSizer extends AbsNullVisitor<Boolean, FrmEvaluator.Context> {
+
+		@Override
+		public Boolean visit(AbsDelExpr delExpr, FrmEvaluator.Context visArg) {
+			long curSize = SemTypeFactory.ptrType(SemTypeFactory.voidType()).size(); /// size of SL.
+			curSize += SemTypeFactory.intType().size();			   /// size of argument.
+			cxt.argsSize = Math.max(cxt.argsSize, curSize);
+			return true; /// the argument may contain calls as well.
+		}
+
+		@Override
+		public Boolean visit(AbsFunName funName, FrmEvaluator.Context visArg) {
+			long curSize = SemTypeFactory.ptrType(SemTypeFactory.voidType()).size(); /// size of SL.
+
+			for (AbsExpr expr : funName.args.args()) {
+				SemType exprType = SemAn.isOfType().get(expr);
+				curSize += exprType.size();
+			}
+
+			AbsDecl funDecl = SemAn.declaredAt().get(funName);
+			SemType retType = funDecl.type.accept(new TypeResolver(true), 1);
+			if (!(retType instanceof SemVoidType)) curSize = Math.max(curSize, retType.size()); /// size of return type.
+
+			cxt.argsSize = Math.max(cxt.argsSize, curSize);
+			return true; /// arguments may contain calls as well.
+		}
+
+		@Override
+		public Boolean visit(AbsNewExpr newExpr, FrmEvaluator.Context visArg) {
+			long curSize = SemTypeFactory.ptrType(SemTypeFactory.voidType()).size(); /// size of SL.
+			curSize += SemTypeFactory.intType().size();			   /// size of argument.
+			cxt.argsSize = Math.max(cxt.argsSize, curSize);
+			return false;
+		}
+
+	}
+
+	/**
+	 * Within a function, finds SUM(varDecls).
+	 * 
+	 * @author sliva
+	 */
+	private class LocsSizer extends AbsNullVisitor<Boolean, FrmEvaluator.Context> {
+
+		@Override
+		public Boolean visit(AbsFunDecl funDecl, FrmEvaluator.Context visArg) {
+			return false;
+		}
+
+		@Override
+		public Boolean visit(AbsFunDef funDef, FrmEvaluator.Context visArg) {
+			return false; /// prevents adding size of declarations of variables of nested functions.
+		}
+
+		@Override
+		public Boolean visit(AbsVarDecl varDecl, FrmEvaluator.Context visArg) {
+			SemType type = varDecl.type.accept(new TypeResolver(true), 1);
+
+			cxt.locsSize += type.size();
+			Frames.accesses().put(varDecl, new RelAccess(type.size(), -cxt.locsSize, level));
+			return false;
+		}
+
+	}
+
 	/**
 	1 ... look for funDecls
-	2 ... within a function, find MAX(SIZE(ARGS) + SL) for every fun. call.
-	3 ... within a function, find SUM(varDecls).
 	4 ... add parameters of a function.
 
+	Sizes of arguments and local variables are computed within a single
+	traversal of a function body by {@link ArgsSizer} and {@link LocsSizer}.
+
 	**/
 
-	private static AbsSource src;
+	/** The traversal computing sizes of arguments and local variables. */
+	private final AbsFusedVisitor<FrmEvaluator.Context> sizer = new AbsFusedVisitor<FrmEvaluator.Context>()
+			.addPreVisitor(new ArgsSizer())
+			.addPreVisitor(new LocsSizer());
 
-	private static int level = 0;
+	private AbsSource src;
 
-	private static Stack<Integer> state = new Stack<Integer>();
-	private static FunContext cxt;
+	private int level = 0;
+
+	private Stack<Integer> state = new Stack<Integer>();
+	private FunContext cxt;
 
 	@Override
 	public Object visit(AbsArgs args, FrmEvaluator.Context visArg) {
@@ -180,13 +256,6 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 	@Override
 	public Object visit(AbsDelExpr delExpr, FrmEvaluator.Context visArg) {
 		switch (state.peek()) {
-			case 2: {
-				long curSize = (new SemPtrType(new SemVoidType())).size(); /// size of SL.
-				curSize += (new SemIntType()).size();			   /// size of argument.
-				cxt.argsSize = Math.max(cxt.argsSize, curSize);
-				return null;
-			}
-
 			default:
 			delExpr.expr.accept(this, visArg);
 			return null;
@@ -214,15 +283,13 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 				funDecl.parDecls.accept(this, visArg);
 				state.pop();
 
-				Frames.frames.put(funDecl, new Frame(new Label(funDecl.name), cxt.depth, cxt.locsSize, cxt.argsSize));
+				Frames.frames().put(funDecl, new Frame(new Label(funDecl.name), cxt.depth, cxt.locsSize, cxt.argsSize));
 
 				--level;
 				cxt = oldFC;
 				return null;
 			}
 
-			case 3: return null;
-
 			default:
 			++level;
 			funDecl.parDecls.accept(this, visArg);
@@ -240,19 +307,13 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 				cxt = new FunContext();
 				cxt.depth = ++level;
 
-				state.push(2);
-				funDef.value.accept(this, visArg);
-				state.pop();
-
-				state.push(3);
-				funDef.value.accept(this, visArg);
-				state.pop();
+				funDef.value.accept(sizer, visArg);
 
 				state.push(4);
 				funDef.parDecls.accept(this, visArg);
 				state.pop();
 
-				Frames.frames.put(funDef, new Frame(level == 1 ? new Label(funDef.name) : new Label(), cxt.depth, cxt.locsSize, cxt.argsSize));
+				Frames.frames().put(funDef, new Frame(level == 1 ? new Label(funDef.name) : new Label(), cxt.depth, cxt.locsSize, cxt.argsSize));
 
 				funDef.value.accept(this, visArg);
 
@@ -261,8 +322,6 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 				return null;
 			}
 
-			case 3: return null; /// prevents adding size of declarations of variables of nested functions.
-
 			default:
 			++level;
 			funDef.parDecls.accept(this, visArg);
@@ -276,22 +335,6 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 	@Override
 	public Object visit(AbsFunName funName, FrmEvaluator.Context visArg) {
 		switch (state.peek()) {
-			case 2: {
-				long curSize = (new SemPtrType(new SemVoidType())).size(); /// size of SL.
-
-				for (AbsExpr expr : funName.args.args()) {
-					SemType exprType = SemAn.isOfType.get(expr);
-					curSize += exprType.size();
-				}
-
-				AbsDecl funDecl = SemAn.declaredAt.get(funName);
-				SemType retType = funDecl.type.accept(new TypeResolver(true), 1);
-				if (!(retType instanceof SemVoidType)) curSize = Math.max(curSize, retType.size()); /// size of return type.
-
-				cxt.argsSize = Math.max(cxt.argsSize, curSize);
-				return null;
-			}
-
 			default:
 			funName.args.accept(this, visArg);
 			return null;
@@ -312,13 +355,6 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 	@Override
 	public Object visit(AbsNewExpr newExpr, FrmEvaluator.Context visArg) {
 		switch (state.peek()) {
-			case 2: {
-				long curSize = (new SemPtrType(new SemVoidType())).size(); /// size of SL.
-				curSize += (new SemIntType()).size();			   /// size of argument.
-				cxt.argsSize = Math.max(cxt.argsSize, curSize);
-				return null;
-			}
-
 			default:
 			newExpr.type.accept(this, visArg);
 			return null;
@@ -343,7 +379,7 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 				for (int i = 0; i < parDecls.parDecls().size(); i++) {
 					SemType type = parDecls.parDecl(i).type.accept(new TypeResolver(true), 1);
 
-					Frames.accesses.put(parDecls.parDecl(i), new RelAccess(type.size(), cum + type.size(), level));
+					Frames.accesses().put(parDecls.parDecl(i), new RelAccess(type.size(), cum + type.size(), level));
 
 					cum = cum + type.size();
 				}
@@ -437,17 +473,9 @@ public class FrmEvaluator extends AbsFullVisitor<Object, FrmEvaluator.Context> {
 			/// Global variable declaration.
 
 			SemType type = varDecl.type.accept(new TypeResolver(true), 1);
-			Frames.accesses.put(varDecl, new AbsAccess(type.size(), new Label(varDecl.name)));
+			Frames.accesses().put(varDecl, new AbsAccess(type.size(), new Label(varDecl.name)));
 		} else {
 			switch (state.peek()) {
-				case 3: {
-					SemType type = varDecl.type.accept(new TypeResolver(true), 1);
-
-					cxt.locsSize += type.size();
-					Frames.accesses.put(varDecl, new RelAccess(type.size(), -cxt.locsSize, level));
-					return null;
-				}
-
 				default:
 				varDecl.type.accept(this, visArg);
 				return null;
@@ -35,7 +35,7 @@ public class FrmLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsCompDecl compDecl, Object visArg) {
-		Access access = Frames.accesses.get(compDecl);
+		Access access = Frames.accesses().get(compDecl);
 		if (access != null)
 			access.log(logger);
 		return null;
@@ -43,7 +43,7 @@ public class FrmLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsFunDef funDef, Object visArg) {
-		Frame frame = Frames.frames.get(funDef);
+		Frame frame = Frames.frames().get(funDef);
 		if (frame != null)
 			frame.log(logger);
 		return null;
@@ -51,7 +51,7 @@ public class FrmLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsParDecl parDecl, Object visArg) {
-		Access access = Frames.accesses.get(parDecl);
+		Access access = Frames.accesses().get(parDecl);
 		if (access != null)
 			access.log(logger);
 		return null;
@@ -59,7 +59,7 @@ public class FrmLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsVarDecl varDecl, Object visArg) {
-		Access access = Frames.accesses.get(varDecl);
+		Access access = Frames.accesses().get(varDecl);
 		if (access != null)
 			access.log(logger);
 		return null;
@@ -10,6 +10,7 @@ import compiler.data.layout.*;
 import compiler.data.type.*;
 import compiler.data.imcode.*;
 import compiler.phases.frames.*;
+import compiler.phases.cache.*;
 import compiler.phases.seman.*;
 import compiler.common.report.*;
 
@@ -31,24 +32,24 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 	3 ... []STMT. Constructs statements.
 	**/
 
-	private static HashMap<AbsAtomExpr, AbsAccess> stringAccess = new HashMap<AbsAtomExpr, AbsAccess>();
-	private static HashMap<AbsExpr, Access> access = new HashMap<AbsExpr, Access>();
-	private static HashMap<AbsExpr, ImcExpr> iexpr = new HashMap<AbsExpr, ImcExpr>();
+	private HashMap<AbsAtomExpr, AbsAccess> stringAccess = new HashMap<AbsAtomExpr, AbsAccess>();
+	private HashMap<AbsExpr, Access> access = new HashMap<AbsExpr, Access>();
+	private HashMap<AbsExpr, ImcExpr> iexpr = new HashMap<AbsExpr, ImcExpr>();
 
 
 	/** Maps function declarations to its parent's declaration or null if the function is on depth 1 (== does not have parent) **/
-	private static HashMap<AbsDecl, AbsDecl> parent = new HashMap<AbsDecl, AbsDecl>();
-	private static Stack<AbsDecl> fstack = new Stack<AbsDecl>();
+	private HashMap<AbsDecl, AbsDecl> parent = new HashMap<AbsDecl, AbsDecl>();
+	private Stack<AbsDecl> fstack = new Stack<AbsDecl>();
 
 
-	private static Stack<ImcInstr> istack = new Stack<ImcInstr>();
+	private Stack<ImcInstr> istack = new Stack<ImcInstr>();
 
-	private static AbsSource src;
-	private static Stack<Integer> state = new Stack<Integer>();
+	private AbsSource src;
+	private Stack<Integer> state = new Stack<Integer>();
 
 
-	private static int level;
-	private static Stack<Frame> frstack = new Stack<Frame>();
+	private int level;
+	private Stack<Frame> frstack = new Stack<Frame>();
 
 
     	@Override
@@ -65,7 +66,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 	public Object visit(AbsArrExpr arrExpr, Stack<Frame> visArg) {
 		switch (state.peek()) {
 			case 1: {
-				SemType type = SemAn.isOfType.get(arrExpr);
+				SemType type = SemAn.isOfType().get(arrExpr);
 
 				state.push(1);
 				arrExpr.array.accept(this, visArg);
@@ -86,7 +87,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 							);
 
 				istack.push(binop);
-				ImcGen.exprImCode.put(arrExpr, binop);
+				ImcGen.exprImCode().put(arrExpr, binop);
 
 				return null;
 			}
@@ -99,7 +100,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				ImcExpr expr = (ImcExpr) istack.pop();
 				ImcMEM mem = new ImcMEM(expr);
 				istack.push(mem);
-				ImcGen.exprImCode.put(arrExpr, mem);
+				ImcGen.exprImCode().put(arrExpr, mem);
 				return null;
 			}
 
@@ -135,7 +136,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				ImcExpr src = (ImcExpr) istack.pop();
 
 				ImcMOVE node = new ImcMOVE(new ImcMEM(dst), src);
-				ImcGen.stmtImCode.put(assignStmt, node);
+				ImcGen.stmtImCode().put(assignStmt, node);
 				istack.push(node);
 				return null;
 			}
@@ -153,13 +154,13 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 			case 1: {
 				switch (atomExpr.type) {
 					case STR: {
-						AbsAccess acs = new AbsAccess((atomExpr.expr.length() + 1) * (new SemCharType()).size(), new Label(), atomExpr.expr);
+						AbsAccess acs = new AbsAccess((atomExpr.expr.length() + 1) * SemTypeFactory.charType().size(), new Label(), atomExpr.expr);
 					///	stringAccess.put(atomExpr, acs);
 						access.put(atomExpr, acs);
 	
 						ImcNAME node = new ImcNAME(acs.label);
 						istack.push(node);
-						ImcGen.exprImCode.put(atomExpr, node);
+						ImcGen.exprImCode().put(atomExpr, node);
 						return null;
 					}
 
@@ -172,7 +173,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 					case INT: {
 						ImcCONST node = new ImcCONST(Long.valueOf(atomExpr.expr));
 						istack.push(node);
-						ImcGen.exprImCode.put(atomExpr, node);
+						ImcGen.exprImCode().put(atomExpr, node);
 						return null;
 					}
 
@@ -181,7 +182,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						else {
 							ImcCONST node = new ImcCONST(Long.valueOf(atomExpr.expr.charAt(1)));
 							istack.push(node);
-							ImcGen.exprImCode.put(atomExpr, node);
+							ImcGen.exprImCode().put(atomExpr, node);
 						}
 
 						return null;
@@ -190,7 +191,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 					case BOOL: {
 						ImcCONST node = new ImcCONST(atomExpr.expr.equals("true") ? 1 : 0);
 						istack.push(node);
-						ImcGen.exprImCode.put(atomExpr, node);
+						ImcGen.exprImCode().put(atomExpr, node);
 						return null;
 					}
 
@@ -198,7 +199,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 					case VOID: {
 						ImcCONST node = new ImcCONST(0);
 						istack.push(node);
-						ImcGen.exprImCode.put(atomExpr, node);
+						ImcGen.exprImCode().put(atomExpr, node);
 						return null;
 					}
 
@@ -211,7 +212,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						AbsAccess acs = (AbsAccess) access.get(atomExpr);
 						ImcNAME node = new ImcNAME(acs.label);
 						istack.push(node);
-						ImcGen.exprImCode.put(atomExpr, node);
+						ImcGen.exprImCode().put(atomExpr, node);
 					**/
 					}
 
@@ -268,7 +269,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 				ImcBINOP node = new ImcBINOP(oper, fstExpr, sndExpr);
 				istack.push(node);
-				ImcGen.exprImCode.put(binExpr, node);
+				ImcGen.exprImCode().put(binExpr, node);
 				return null;
 			}
 
@@ -299,7 +300,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 				ImcSEXPR node = new ImcSEXPR(stmts, expr);
 				istack.push(node);
-				ImcGen.exprImCode.put(blockExpr, node);
+				ImcGen.exprImCode().put(blockExpr, node);
 				return null;
 			}
 
@@ -320,16 +321,16 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				state.pop();
 				ImcExpr expr = (ImcExpr) istack.pop();
 		
-				SemType type = SemAn.isOfType.get(castExpr);
-				if (type.matches(new SemCharType())) {
+				SemType type = SemAn.isOfType().get(castExpr);
+				if (type.matches(SemTypeFactory.charType())) {
 					ImcBINOP node = new ImcBINOP(ImcBINOP.Oper.MOD, expr, new ImcCONST(256));
 					istack.push(node);
-					ImcGen.exprImCode.put(castExpr, node);
+					ImcGen.exprImCode().put(castExpr, node);
 					return null;
 				}
 
 				istack.push(expr);
-				ImcGen.exprImCode.put(castExpr, expr);
+				ImcGen.exprImCode().put(castExpr, expr);
 				return null;
 			}
 
@@ -384,7 +385,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				args.add(expr);
 
 				ImcCALL node = new ImcCALL(new Label("del"), args);
-				ImcGen.exprImCode.put(delExpr, node);
+				ImcGen.exprImCode().put(delExpr, node);
 				istack.push(node);
 				return null;
 			}
@@ -406,7 +407,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 				ImcESTMT node = new ImcESTMT(expr);
 				istack.push(node);
-				ImcGen.stmtImCode.put(exprStmt, node);
+				ImcGen.stmtImCode().put(exprStmt, node);
 				return null;
 			}
 
@@ -449,9 +450,11 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 			}
 
 			case 3: {
+				if (CodeCache.isCached(funDef))
+					return null;
 				++level;
 				state.push(2);
-				frstack.push(Frames.frames.get(funDef));
+				frstack.push(Frames.frames().get(funDef));
 				funDef.value.accept(this, visArg);
 				frstack.pop();
 				state.pop();
@@ -493,11 +496,11 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 		switch (state.peek()) {	
 			case 2: {
 				/** Construct the static link. **/
-			///	System.out.println(funName.name + " " + frstack.peek().depth + " ... " + Frames.frames.get((AbsFunDecl) SemAn.declaredAt.get(funName)).depth);
-				int dlvl = frstack.peek().depth - Frames.frames.get((AbsFunDecl) SemAn.declaredAt.get(funName)).depth + 1;
+			///	System.out.println(funName.name + " " + frstack.peek().depth + " ... " + Frames.frames().get((AbsFunDecl) SemAn.declaredAt().get(funName)).depth);
+				int dlvl = frstack.peek().depth - Frames.frames().get((AbsFunDecl) SemAn.declaredAt().get(funName)).depth + 1;
 
 				Vector<ImcExpr> args = new Vector<ImcExpr>();
-				args.add(getSL(Frames.frames.get((AbsFunDecl) SemAn.declaredAt.get(funName)).depth, dlvl));
+				args.add(getSL(Frames.frames().get((AbsFunDecl) SemAn.declaredAt().get(funName)).depth, dlvl));
 
 				for (AbsExpr arg : funName.args.args()) {
 					state.push(2);
@@ -505,12 +508,12 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 					state.pop();
 					ImcExpr aexpr = (ImcExpr) istack.pop();
 
-					ImcGen.exprImCode.put(arg, aexpr);
+					ImcGen.exprImCode().put(arg, aexpr);
 					args.add(aexpr);
 				}
 
-				ImcCALL node = new ImcCALL(Frames.frames.get((AbsFunDecl) SemAn.declaredAt.get(funName)).label, args);
-				ImcGen.exprImCode.put(funName, node);
+				ImcCALL node = new ImcCALL(Frames.frames().get((AbsFunDecl) SemAn.declaredAt().get(funName)).label, args);
+				ImcGen.exprImCode().put(funName, node);
 				istack.push(node);
 				return null;
 			}
@@ -568,7 +571,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 				ImcSTMTS node = new ImcSTMTS(stmts);
 				istack.push(node);
-				ImcGen.stmtImCode.put(ifStmt, node);
+				ImcGen.stmtImCode().put(ifStmt, node);
 				return null;
 			}
 
@@ -592,7 +595,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				args.add(sz);
 
 				ImcCALL node = new ImcCALL(new Label("new"), args);
-				ImcGen.exprImCode.put(newExpr, node);
+				ImcGen.exprImCode().put(newExpr, node);
 				istack.push(node);
 				return null;
 			}
@@ -639,13 +642,13 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				recExpr.record.accept(this, visArg);
 				state.pop();
 
-				AbsCompDecl compDecl = (AbsCompDecl) SemAn.declaredAt.get(recExpr.comp);
-				AbsRecType recDecl = SemAn.compOf.get(compDecl);
-				SemRecType recType = (SemRecType) SemAn.isType.get(recDecl);
+				AbsCompDecl compDecl = (AbsCompDecl) SemAn.declaredAt().get(recExpr.comp);
+				AbsRecType recDecl = SemAn.compOf().get(compDecl);
+				SemRecType recType = (SemRecType) SemAn.isType().get(recDecl);
 
 				long offset = 0;
 				for (int i = 0; i < recDecl.compDecls.compDecls().size(); i++) {
-					if (recDecl.compDecls.compDecl(i).name.equals(recExpr.comp.name)) {
+					if (recDecl.compDecls.compDecl(i).nameId == recExpr.comp.nameId) {
 						break;
 					}
 
@@ -656,7 +659,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				ImcBINOP binop = new ImcBINOP(ImcBINOP.Oper.ADD, prev, new ImcCONST(offset));	
 
 				istack.push(binop);
-				ImcGen.exprImCode.put(recExpr, binop);
+				ImcGen.exprImCode().put(recExpr, binop);
 
 				return null;
 			}
@@ -669,7 +672,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 				ImcExpr expr = (ImcExpr) istack.pop();
 				ImcMEM mem = new ImcMEM(expr);
 				istack.push(mem);
-				ImcGen.exprImCode.put(recExpr, mem);
+				ImcGen.exprImCode().put(recExpr, mem);
 				return null;
 			}
 
@@ -771,7 +774,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 						ImcExpr addr = (ImcExpr) istack.peek();
 						ImcMEM node = new ImcMEM(addr);
-						ImcGen.exprImCode.put(unExpr, node);
+						ImcGen.exprImCode().put(unExpr, node);
 						return node;
 					}
 
@@ -783,7 +786,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 					///	access.put(unExpr, access.get(unExpr.subExpr));				
 
 						ImcMEM ptr = (ImcMEM) istack.peek();
-						ImcGen.exprImCode.put(unExpr, ptr);
+						ImcGen.exprImCode().put(unExpr, ptr);
 						return ptr;
 					}
 
@@ -799,7 +802,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						unExpr.subExpr.accept(this, visArg);
 						state.pop();
 
-						ImcGen.exprImCode.put(unExpr, (ImcExpr) istack.peek());
+						ImcGen.exprImCode().put(unExpr, (ImcExpr) istack.peek());
 						return null;
 					}
 
@@ -811,7 +814,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						ImcExpr subExpr = (ImcExpr) istack.pop();
 						ImcUNOP node = new ImcUNOP(ImcUNOP.Oper.NEG, subExpr);
 						istack.push(node);
-						ImcGen.exprImCode.put(unExpr, node);
+						ImcGen.exprImCode().put(unExpr, node);
 						return null;
 					}
 
@@ -823,7 +826,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						ImcExpr subExpr = (ImcExpr) istack.pop();
 						ImcUNOP node = new ImcUNOP(ImcUNOP.Oper.NOT, subExpr);
 						istack.push(node);
-						ImcGen.exprImCode.put(unExpr, node);
+						ImcGen.exprImCode().put(unExpr, node);
 						return null;
 					}
 
@@ -833,7 +836,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						state.pop();
 
 						ImcExpr subExpr = (ImcExpr) istack.peek();
-						ImcGen.exprImCode.put(unExpr, subExpr);
+						ImcGen.exprImCode().put(unExpr, subExpr);
 						return null;
 
 					}
@@ -846,7 +849,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						ImcExpr subExpr = (ImcExpr) istack.pop();
 						ImcMEM mem = new ImcMEM(subExpr);
 						istack.push(mem);
-						ImcGen.exprImCode.put(unExpr, mem);
+						ImcGen.exprImCode().put(unExpr, mem);
 						return null;
 
 					}
@@ -874,16 +877,16 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 	public Object visit(AbsVarName varName, Stack<Frame> visArg) {
 		switch (state.peek()) {
 			case 1: {
-				AbsDecl decl = SemAn.declaredAt.get(varName);
+				AbsDecl decl = SemAn.declaredAt().get(varName);
 
 				if (decl instanceof AbsVarDecl) {
-					Access acs = Frames.accesses.get((AbsVarDecl) decl);
+					Access acs = Frames.accesses().get((AbsVarDecl) decl);
 					access.put(varName, acs);
 
 					if (acs instanceof AbsAccess) {
 						ImcNAME node = new ImcNAME(((AbsAccess) acs).label);
 						istack.push(node);
-						ImcGen.exprImCode.put(varName, node);
+						ImcGen.exprImCode().put(varName, node);
 						return null;
 					} else {
 						int dlvl = frstack.peek().depth - ((RelAccess) acs).depth;
@@ -905,7 +908,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 							}
 
 							istack.push(binop);
-							ImcGen.exprImCode.put(varName, binop);
+							ImcGen.exprImCode().put(varName, binop);
 						}
 
 						return null;
@@ -914,10 +917,10 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 			}
 
 			case 2: {
-				AbsDecl decl = SemAn.declaredAt.get(varName);
+				AbsDecl decl = SemAn.declaredAt().get(varName);
 
 				if (decl instanceof AbsVarDecl) {
-					Access acs = Frames.accesses.get((AbsVarDecl) decl);
+					Access acs = Frames.accesses().get((AbsVarDecl) decl);
 					access.put(varName, acs);
 
 					state.push(1);
@@ -927,7 +930,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 					ImcMEM node = new ImcMEM(expr);
 					istack.push(node);
-					ImcGen.exprImCode.put(varName, node);
+					ImcGen.exprImCode().put(varName, node);
 					return null;
 
 					/**
@@ -935,7 +938,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 						ImcNAME node = new ImcNAME(((AbsAccess) acs).label);
 						ImcMEM mem = new ImcMEM(node);
 						istack.push(mem);
-						ImcGen.exprImCode.put(varName, mem);
+						ImcGen.exprImCode().put(varName, mem);
 						return null;
 					} else {
 						int dlvl = frstack.peek().depth - frstack.peek().depth;
@@ -960,7 +963,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 							ImcMEM mem = new ImcMEM(binop);
 							istack.push(mem);
-							ImcGen.exprImCode.put(varName, mem);
+							ImcGen.exprImCode().put(varName, mem);
 						}
 					**/
 				} else throw new Report.Error("Declaration at " + varName + " that " + varName.name + " is pointing to is not a variable declaration");
@@ -1000,7 +1003,7 @@ public class CodeGenerator extends AbsFullVisitor<Object, Stack<Frame>> {
 
 				ImcSTMTS node = new ImcSTMTS(stmts);
 				istack.push(node);
-				ImcGen.stmtImCode.put(whileStmt, node);
+				ImcGen.stmtImCode().put(whileStmt, node);
 				return null;
 			}
 
@@ -6,6 +6,7 @@ package compiler.phases.imcgen;
 import compiler.data.abstree.*;
 import compiler.data.abstree.attribute.*;
 import compiler.data.imcode.*;
+import compiler.*;
 import compiler.phases.*;
 
 /**
@@ -15,11 +16,23 @@ import compiler.phases.*;
  */
 public class ImcGen extends Phase {
 	
-	/** Maps statements to intermediate code. */
-	public static final AbsAttribute<AbsStmt, ImcStmt> stmtImCode = new AbsAttribute<AbsStmt, ImcStmt>();
+	/**
+	 * Returns the mapping of statements to intermediate code.
+	 * 
+	 * @return The mapping of statements to intermediate code.
+	 */
+	public static AbsAttribute<AbsStmt, ImcStmt> stmtImCode() {
+		return CompilationContext.current().stmtImCode;
+	}
 
-	/** Maps expressions to intermediate code. */
-	public static final AbsAttribute<AbsExpr, ImcExpr> exprImCode = new AbsAttribute<AbsExpr, ImcExpr>();
+	/**
+	 * Returns the mapping of expressions to intermediate code.
+	 * 
+	 * @return The mapping of expressions to intermediate code.
+	 */
+	public static AbsAttribute<AbsExpr, ImcExpr> exprImCode() {
+		return CompilationContext.current().exprImCode;
+	}
 	
 	/**
 	 * Constructs a new phase of intermediate code generation.
@@ -41,7 +41,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsArrExpr arrExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(arrExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(arrExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -54,7 +54,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsAssignStmt assignStmt, Object visArg) {
-		ImcStmt imc = ImcGen.stmtImCode.get(assignStmt);
+		ImcStmt imc = ImcGen.stmtImCode().get(assignStmt);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -62,7 +62,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsAtomExpr atomExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(atomExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(atomExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -75,7 +75,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsBinExpr binExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(binExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(binExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -83,7 +83,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsBlockExpr blockExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(blockExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(blockExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -91,7 +91,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsCastExpr castExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(castExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(castExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -114,7 +114,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsDelExpr delExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(delExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(delExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -122,7 +122,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsExprStmt exprStmt, Object visArg) {
-		ImcStmt imc = ImcGen.stmtImCode.get(exprStmt);
+		ImcStmt imc = ImcGen.stmtImCode().get(exprStmt);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -140,7 +140,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsFunName funName, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(funName);
+		ImcExpr imc = ImcGen.exprImCode().get(funName);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -148,7 +148,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsIfStmt ifStmt, Object visArg) {
-		ImcStmt imc = ImcGen.stmtImCode.get(ifStmt);
+		ImcStmt imc = ImcGen.stmtImCode().get(ifStmt);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -156,7 +156,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsNewExpr newExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(newExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(newExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -179,7 +179,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsRecExpr recExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(recExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(recExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -212,7 +212,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsUnExpr unExpr, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(unExpr);
+		ImcExpr imc = ImcGen.exprImCode().get(unExpr);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -225,7 +225,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsVarName varName, Object visArg) {
-		ImcExpr imc = ImcGen.exprImCode.get(varName);
+		ImcExpr imc = ImcGen.exprImCode().get(varName);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
@@ -233,7 +233,7 @@ public class ImcLogger implements AbsVisitor<Object, Object>, ImcVisitor<Object,
 
 	@Override
 	public Object visit(AbsWhileStmt whileStmt, Object visArg) {
-		ImcStmt imc = ImcGen.stmtImCode.get(whileStmt);
+		ImcStmt imc = ImcGen.stmtImCode().get(whileStmt);
 		if (imc != null)
 			imc.accept(this, null);
 		return null;
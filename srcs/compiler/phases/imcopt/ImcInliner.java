@@ -0,0 +1,541 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.imcopt;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.abstree.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.imcode.visitor.*;
+import compiler.phases.frames.*;
+
+/**
+ * Inlines calls of small non-recursive functions.
+ *
+ * A function can be inlined if it is not recursive (neither directly nor
+ * through other functions), if all its parameters are eight bytes wide, and if
+ * its frame pointer is used only to access slots of its own frame, i.e., as
+ * {@code MEM(FP)} (the static link) or {@code MEM(FP+offset)} (a parameter or
+ * a local variable), so that its frame never escapes. A function passing its
+ * frame pointer as the static link to a nested function is thus never inlined.
+ *
+ * At the call site the arguments are evaluated into new temporary variables in
+ * their original order. Parameters and local variables become new temporary
+ * variables, labels and other temporary variables of the callee are renamed.
+ * The static link, which the caller has computed from the depths of both
+ * frames, replaces every read of the callee's static link, so that accesses to
+ * variables of enclosing functions go straight to their frames.
+ *
+ * Functions are processed callees first, so the code inlined is the already
+ * inlined code of the callee. The size of code is estimated in instructions
+ * (one per node, a few more for large constants). A callee is inlined only if
+ * its size does not exceed the callee budget, and only as long as the total
+ * size inlined into a function does not exceed the growth budget.
+ *
+ * @author sliva
+ */
+public class ImcInliner {
+
+	/**
+	 * Functions provided by the run-time library (see {@code MMIXAsmGen}), which
+	 * take precedence over functions of the same name defined in the program.
+	 */
+	private static final Set<String> runtimeLabels = new HashSet<String>(
+			Arrays.asList("_new", "_del", "_putChar", "_putString", "_putInt"));
+
+	/** The maximal size of an inlined function. */
+	private final long calleeBudget;
+
+	/** The maximal size inlined into a single function. */
+	private final long growthBudget;
+
+	/** Whether functions are inlined into other top-level functions. */
+	private final boolean acrossTopLevel;
+
+	/** Whether inlined calls are reported. */
+	private final boolean report;
+
+	/** The code of function bodies. */
+	private final HashMap<AbsFunDef, ImcExpr> bodies = new HashMap<AbsFunDef, ImcExpr>();
+
+	/** The top-level function each function is nested in (or is itself). */
+	private final HashMap<AbsFunDef, AbsFunDef> topLevel = new HashMap<AbsFunDef, AbsFunDef>();
+
+	/** Maps labels to functions. */
+	private final HashMap<Label, AbsFunDef> funDefAt = new HashMap<Label, AbsFunDef>();
+
+	/** Summaries of function bodies. */
+	private final HashMap<AbsFunDef, Summary> summaries = new HashMap<AbsFunDef, Summary>();
+
+	/** Functions that can be inlined. */
+	private final HashSet<AbsFunDef> inlinable = new HashSet<AbsFunDef>();
+
+	/** The function calls are currently being inlined into. */
+	private AbsFunDef caller;
+
+	/** The size inlined into the current function so far. */
+	private long growth;
+
+	/**
+	 * Constructs a new inliner.
+	 *
+	 * @param calleeBudget   The maximal size of an inlined function.
+	 * @param growthBudget   The maximal size inlined into a single function.
+	 * @param acrossTopLevel Whether functions are inlined into other top-level
+	 *                       functions.
+	 * @param report         Whether inlined calls are reported.
+	 */
+	public ImcInliner(long calleeBudget, long growthBudget, boolean acrossTopLevel, boolean report) {
+		this.calleeBudget = calleeBudget;
+		this.growthBudget = growthBudget;
+		this.acrossTopLevel = acrossTopLevel;
+		this.report = report;
+	}
+
+	/**
+	 * Adds a function body.
+	 *
+	 * @param funDef   The function definition.
+	 * @param topLevel The top-level function definition it is nested in.
+	 * @param body     The code of the function body.
+	 */
+	public void add(AbsFunDef funDef, AbsFunDef topLevel, ImcExpr body) {
+		bodies.put(funDef, body);
+		this.topLevel.put(funDef, topLevel);
+		funDefAt.put(Frames.frames().get(funDef).label, funDef);
+	}
+
+	/**
+	 * Inlines calls within all function bodies.
+	 *
+	 * @param funDefs The function definitions in the order of the program.
+	 * @return The code of function bodies after inlining.
+	 */
+	public HashMap<AbsFunDef, ImcExpr> inline(Vector<AbsFunDef> funDefs) {
+		for (AbsFunDef funDef : funDefs)
+			summaries.put(funDef, new Summary(funDef, bodies.get(funDef)));
+
+		// Callees first.
+		Vector<AbsFunDef> order = new Vector<AbsFunDef>();
+		HashSet<AbsFunDef> visited = new HashSet<AbsFunDef>();
+		for (AbsFunDef funDef : funDefs) {
+			if (!visited.add(funDef))
+				continue;
+			Stack<AbsFunDef> pending = new Stack<AbsFunDef>();
+			Stack<Iterator<AbsFunDef>> callees = new Stack<Iterator<AbsFunDef>>();
+			pending.push(funDef);
+			callees.push(summaries.get(funDef).callees.iterator());
+			while (!pending.isEmpty()) {
+				if (!callees.peek().hasNext()) {
+					order.add(pending.pop());
+					callees.pop();
+					continue;
+				}
+				AbsFunDef callee = callees.peek().next();
+				if (visited.add(callee)) {
+					pending.push(callee);
+					callees.push(summaries.get(callee).callees.iterator());
+				}
+			}
+		}
+
+		for (AbsFunDef funDef : order) {
+			caller = funDef;
+			growth = 0;
+			ImcExpr body = (ImcExpr) bodies.get(funDef).accept(new CallInliner(), null);
+			bodies.put(funDef, body);
+
+			Summary summary = growth == 0 ? summaries.get(funDef) : new Summary(funDef, body);
+			if (summary.isInlinable && summary.size <= calleeBudget && !isRecursive(funDef)
+					&& !runtimeLabels.contains(Frames.frames().get(funDef).label.name))
+				inlinable.add(funDef);
+			summaries.put(funDef, summary);
+		}
+		return bodies;
+	}
+
+	/**
+	 * Checks whether a function can call itself.
+	 */
+	private boolean isRecursive(AbsFunDef funDef) {
+		HashSet<AbsFunDef> visited = new HashSet<AbsFunDef>();
+		Stack<AbsFunDef> pending = new Stack<AbsFunDef>();
+		pending.push(funDef);
+		while (!pending.isEmpty()) {
+			for (AbsFunDef callee : summaries.get(pending.pop()).callees) {
+				if (callee == funDef)
+					return true;
+				if (visited.add(callee))
+					pending.push(callee);
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Estimates the number of instructions of a constant.
+	 */
+	private static long size(ImcCONST constant) {
+		long value = Math.abs(constant.value);
+		return value < 0x10000L ? 1 : value < 0x100000000L ? 2 : 4;
+	}
+
+	/**
+	 * Collects what the inliner needs to know about a function body.
+	 */
+	private class Summary implements ImcVisitor<Object, Object> {
+
+		/** The frame pointer of the function. */
+		private final Temp fp;
+
+		/** The estimated number of instructions. */
+		long size = 0;
+
+		/** The functions called (as far as they are being compiled). */
+		final LinkedHashSet<AbsFunDef> callees = new LinkedHashSet<AbsFunDef>();
+
+		/** The labels defined within the function body. */
+		final Vector<Label> labels = new Vector<Label>();
+
+		/** Whether the function can be inlined as far as its own code goes. */
+		boolean isInlinable = true;
+
+		/**
+		 * Summarizes a function body.
+		 *
+		 * @param funDef The function definition.
+		 * @param body   The code of the function body.
+		 */
+		Summary(AbsFunDef funDef, ImcExpr body) {
+			Frame frame = Frames.frames().get(funDef);
+			this.fp = frame.FP;
+			for (int par = 0; par < funDef.parDecls.numParDecls(); par++) {
+				Access access = Frames.accesses().get(funDef.parDecls.parDecl(par));
+				if (access.size != 8 || ((RelAccess) access).offset != 8 * (par + 1))
+					isInlinable = false;
+			}
+			body.accept(this, null);
+		}
+
+		public Object visit(ImcBINOP binOp, Object visArg) {
+			size++;
+			binOp.fstExpr.accept(this, visArg);
+			binOp.sndExpr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCALL call, Object visArg) {
+			size += call.args().size() + 1;
+			AbsFunDef callee = funDefAt.get(call.label);
+			if (callee != null)
+				callees.add(callee);
+			for (ImcExpr arg : call.args())
+				arg.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCJUMP cjump, Object visArg) {
+			size++;
+			cjump.cond.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCONST constant, Object visArg) {
+			size += size(constant);
+			return null;
+		}
+
+		public Object visit(ImcESTMT eStmt, Object visArg) {
+			eStmt.expr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcJUMP jump, Object visArg) {
+			size++;
+			return null;
+		}
+
+		public Object visit(ImcLABEL label, Object visArg) {
+			labels.add(label.label);
+			return null;
+		}
+
+		public Object visit(ImcMEM mem, Object visArg) {
+			size++;
+			if (slot(fp, mem.addr) != null)
+				return null;
+			mem.addr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcMOVE move, Object visArg) {
+			size++;
+			move.dst.accept(this, visArg);
+			move.src.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcNAME name, Object visArg) {
+			size++;
+			return null;
+		}
+
+		public Object visit(ImcSEXPR sExpr, Object visArg) {
+			sExpr.stmt.accept(this, visArg);
+			sExpr.expr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcSTMTS stmts, Object visArg) {
+			for (ImcStmt stmt : stmts.stmts())
+				stmt.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcTEMP temp, Object visArg) {
+			// Any other use of the frame pointer lets the frame escape.
+			if (temp.temp == fp)
+				isInlinable = false;
+			return null;
+		}
+
+		public Object visit(ImcUNOP unOp, Object visArg) {
+			size++;
+			unOp.subExpr.accept(this, visArg);
+			return null;
+		}
+
+	}
+
+	/**
+	 * Returns the offset of a slot of a frame.
+	 *
+	 * @param fp   The frame pointer.
+	 * @param addr The address.
+	 * @return The offset or {@code null} if the address is not of the form
+	 *         {@code FP} or {@code FP+offset}.
+	 */
+	private static Long slot(Temp fp, ImcExpr addr) {
+		if (addr instanceof ImcTEMP && ((ImcTEMP) addr).temp == fp)
+			return 0L;
+		if (addr instanceof ImcBINOP) {
+			ImcBINOP binOp = (ImcBINOP) addr;
+			if (binOp.oper == ImcBINOP.Oper.ADD && binOp.fstExpr instanceof ImcTEMP
+					&& ((ImcTEMP) binOp.fstExpr).temp == fp && binOp.sndExpr instanceof ImcCONST)
+				return ((ImcCONST) binOp.sndExpr).value;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks whether an expression is a static link as computed by the caller,
+	 * i.e., a constant or a chain of loads starting at a temporary variable.
+	 */
+	private static boolean isStaticLink(ImcExpr expr) {
+		while (expr instanceof ImcMEM)
+			expr = ((ImcMEM) expr).addr;
+		return expr instanceof ImcCONST || expr instanceof ImcTEMP;
+	}
+
+	/**
+	 * Rebuilds a function body with calls inlined.
+	 */
+	private class CallInliner implements ImcVisitor<ImcInstr, Object> {
+
+		public ImcInstr visit(ImcBINOP binOp, Object visArg) {
+			return new ImcBINOP(binOp.oper, (ImcExpr) binOp.fstExpr.accept(this, visArg),
+					(ImcExpr) binOp.sndExpr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcCALL call, Object visArg) {
+			Vector<ImcExpr> args = new Vector<ImcExpr>();
+			for (ImcExpr arg : call.args())
+				args.add((ImcExpr) arg.accept(this, visArg));
+
+			AbsFunDef callee = funDefAt.get(call.label);
+			if (callee == null || !inlinable.contains(callee)
+					|| (!acrossTopLevel && topLevel.get(callee) != topLevel.get(caller)))
+				return new ImcCALL(call.label, args);
+			Summary summary = summaries.get(callee);
+			if (growth + summary.size > growthBudget)
+				return new ImcCALL(call.label, args);
+			growth += summary.size;
+			if (report)
+				Report.info(caller, "Inlined call of '" + callee.name + "' (" + summary.size
+						+ " instructions) into '" + caller.name + "'.");
+
+			Vector<ImcStmt> stmts = new Vector<ImcStmt>();
+			HashMap<Long, ImcExpr> slots = new HashMap<Long, ImcExpr>();
+			for (int arg = 0; arg < args.size(); arg++) {
+				if (arg == 0 && isStaticLink(args.get(0))) {
+					slots.put(0L, args.get(0));
+					continue;
+				}
+				Temp temp = new Temp();
+				stmts.add(new ImcMOVE(new ImcTEMP(temp), args.get(arg)));
+				slots.put(8L * arg, new ImcTEMP(temp));
+			}
+			HashMap<Label, Label> labels = new HashMap<Label, Label>();
+			for (Label label : summary.labels)
+				labels.put(label, new Label());
+			Substitution substitution = new Substitution(Frames.frames().get(callee).FP, slots, labels);
+			ImcExpr body = (ImcExpr) bodies.get(callee).accept(substitution, null);
+			return new ImcSEXPR(new ImcSTMTS(stmts), body);
+		}
+
+		public ImcInstr visit(ImcCJUMP cjump, Object visArg) {
+			return new ImcCJUMP((ImcExpr) cjump.cond.accept(this, visArg), cjump.posLabel, cjump.negLabel);
+		}
+
+		public ImcInstr visit(ImcCONST constant, Object visArg) {
+			return constant;
+		}
+
+		public ImcInstr visit(ImcESTMT eStmt, Object visArg) {
+			return new ImcESTMT((ImcExpr) eStmt.expr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcJUMP jump, Object visArg) {
+			return jump;
+		}
+
+		public ImcInstr visit(ImcLABEL label, Object visArg) {
+			return label;
+		}
+
+		public ImcInstr visit(ImcMEM mem, Object visArg) {
+			return new ImcMEM((ImcExpr) mem.addr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcMOVE move, Object visArg) {
+			return new ImcMOVE((ImcExpr) move.dst.accept(this, visArg), (ImcExpr) move.src.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcNAME name, Object visArg) {
+			return name;
+		}
+
+		public ImcInstr visit(ImcSEXPR sExpr, Object visArg) {
+			return new ImcSEXPR((ImcStmt) sExpr.stmt.accept(this, visArg), (ImcExpr) sExpr.expr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcSTMTS stmts, Object visArg) {
+			Vector<ImcStmt> newStmts = new Vector<ImcStmt>();
+			for (ImcStmt stmt : stmts.stmts())
+				newStmts.add((ImcStmt) stmt.accept(this, visArg));
+			return new ImcSTMTS(newStmts);
+		}
+
+		public ImcInstr visit(ImcTEMP temp, Object visArg) {
+			return temp;
+		}
+
+		public ImcInstr visit(ImcUNOP unOp, Object visArg) {
+			return new ImcUNOP(unOp.oper, (ImcExpr) unOp.subExpr.accept(this, visArg));
+		}
+
+	}
+
+	/**
+	 * Rebuilds the body of an inlined function for a single call site.
+	 */
+	private static class Substitution implements ImcVisitor<ImcInstr, Object> {
+
+		/** The frame pointer of the inlined function. */
+		private final Temp fp;
+
+		/** The expressions replacing slots of the frame. */
+		private final HashMap<Long, ImcExpr> slots;
+
+		/** Renamed temporary variables. */
+		private final HashMap<Temp, Temp> temps = new HashMap<Temp, Temp>();
+
+		/** Renamed labels. */
+		private final HashMap<Label, Label> labels;
+
+		Substitution(Temp fp, HashMap<Long, ImcExpr> slots, HashMap<Label, Label> labels) {
+			this.fp = fp;
+			this.slots = slots;
+			this.labels = labels;
+		}
+
+		/**
+		 * Returns the label a label of the inlined function is renamed to. Labels
+		 * defined elsewhere, e.g., of functions and global variables, are kept.
+		 */
+		private Label label(Label label) {
+			return labels.getOrDefault(label, label);
+		}
+
+		public ImcInstr visit(ImcBINOP binOp, Object visArg) {
+			return new ImcBINOP(binOp.oper, (ImcExpr) binOp.fstExpr.accept(this, visArg),
+					(ImcExpr) binOp.sndExpr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcCALL call, Object visArg) {
+			Vector<ImcExpr> args = new Vector<ImcExpr>();
+			for (ImcExpr arg : call.args())
+				args.add((ImcExpr) arg.accept(this, visArg));
+			return new ImcCALL(call.label, args);
+		}
+
+		public ImcInstr visit(ImcCJUMP cjump, Object visArg) {
+			return new ImcCJUMP((ImcExpr) cjump.cond.accept(this, visArg), label(cjump.posLabel),
+					label(cjump.negLabel));
+		}
+
+		public ImcInstr visit(ImcCONST constant, Object visArg) {
+			return constant;
+		}
+
+		public ImcInstr visit(ImcESTMT eStmt, Object visArg) {
+			return new ImcESTMT((ImcExpr) eStmt.expr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcJUMP jump, Object visArg) {
+			return new ImcJUMP(label(jump.label));
+		}
+
+		public ImcInstr visit(ImcLABEL label, Object visArg) {
+			return new ImcLABEL(label(label.label));
+		}
+
+		public ImcInstr visit(ImcMEM mem, Object visArg) {
+			Long slot = slot(fp, mem.addr);
+			if (slot != null)
+				return slots.computeIfAbsent(slot, offset -> new ImcTEMP(new Temp()));
+			return new ImcMEM((ImcExpr) mem.addr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcMOVE move, Object visArg) {
+			return new ImcMOVE((ImcExpr) move.dst.accept(this, visArg), (ImcExpr) move.src.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcNAME name, Object visArg) {
+			return name;
+		}
+
+		public ImcInstr visit(ImcSEXPR sExpr, Object visArg) {
+			return new ImcSEXPR((ImcStmt) sExpr.stmt.accept(this, visArg), (ImcExpr) sExpr.expr.accept(this, visArg));
+		}
+
+		public ImcInstr visit(ImcSTMTS stmts, Object visArg) {
+			Vector<ImcStmt> newStmts = new Vector<ImcStmt>();
+			for (ImcStmt stmt : stmts.stmts())
+				newStmts.add((ImcStmt) stmt.accept(this, visArg));
+			return new ImcSTMTS(newStmts);
+		}
+
+		public ImcInstr visit(ImcTEMP temp, Object visArg) {
+			return new ImcTEMP(temps.computeIfAbsent(temp.temp, oldTemp -> new Temp()));
+		}
+
+		public ImcInstr visit(ImcUNOP unOp, Object visArg) {
+			return new ImcUNOP(unOp.oper, (ImcExpr) unOp.subExpr.accept(this, visArg));
+		}
+
+	}
+
+}
@@ -0,0 +1,141 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.imcopt;
+
+import java.util.*;
+import compiler.data.abstree.*;
+import compiler.data.abstree.attribute.*;
+import compiler.data.abstree.visitor.*;
+import compiler.data.imcode.*;
+import compiler.*;
+import compiler.phases.*;
+import compiler.phases.abstr.*;
+import compiler.phases.seman.*;
+import compiler.phases.frames.*;
+import compiler.phases.imcgen.*;
+import compiler.phases.cache.*;
+
+/**
+ * Optimization of the intermediate code.
+ * 
+ * The intermediate code of each function body is folded and simplified by
+ * {@link ImcOptimizer}, calls of small functions are inlined by
+ * {@link ImcInliner}, and the result is folded once again. The original code
+ * produced by {@link ImcGen} is left intact.
+ * 
+ * The size of an inlined function is limited by {@code --inline-size} and the
+ * size inlined into a single function by {@code --inline-growth} (both in
+ * estimated instructions, {@code 0} disables inlining); {@code --inline-report}
+ * reports every inlined call. With {@code --opt-level=0} nothing is optimized:
+ * the bodies are taken over as produced by {@link ImcGen}, and the code chunks
+ * are neither optimized again, nor translated into SSA form, nor scheduled (see
+ * {@link #enabled}). Both limits and the level are part of the keys of the
+ * cache; any change of the code produced by the optimizations must be recorded
+ * in the code generation version of {@link CodeCache}.
+ * 
+ * @author sliva
+ */
+public class ImcOpt extends Phase {
+
+	/**
+	 * Returns the mapping of function definitions to the optimized intermediate
+	 * code of their bodies.
+	 * 
+	 * @return The mapping of function definitions to the optimized intermediate
+	 *         code of their bodies.
+	 */
+	public static AbsAttribute<AbsFunDef, ImcExpr> funImCode() {
+		return CompilationContext.current().funImCode;
+	}
+
+	/** The default maximal size of an inlined function. */
+	public static final long defaultInlineSize = 40;
+
+	/** The default maximal size inlined into a single function. */
+	public static final long defaultInlineGrowth = 400;
+
+	/**
+	 * Returns whether optimizations are enabled, i.e., whether
+	 * {@code --opt-level=0} has not been specified.
+	 * 
+	 * @return {@code true} if optimizations are enabled, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean enabled() {
+		return !"0".equals(Main.cmdLineArgValue("--opt-level"));
+	}
+
+	/**
+	 * Constructs a new phase of intermediate code optimization.
+	 */
+	public ImcOpt() {
+		super("imcopt");
+	}
+
+	/**
+	 * Optimizes the bodies of all functions (except those taken from the cache).
+	 */
+	public void optimize() {
+		if (!enabled()) {
+			Abstr.absTree().accept(new AbsFullVisitor<Object, Object>() {
+				@Override
+				public Object visit(AbsFunDef funDef, Object visArg) {
+					if (CodeCache.isCached(funDef))
+						return null;
+					funImCode().put(funDef, ImcGen.exprImCode().get(funDef.value));
+					return super.visit(funDef, visArg);
+				}
+			}, null);
+			return;
+		}
+
+		String inlineSize = Main.cmdLineArgValue("--inline-size");
+		String inlineGrowth = Main.cmdLineArgValue("--inline-growth");
+		// Code inlined from another top-level function would outlive its changes in
+		// the cache.
+		ImcInliner inliner = new ImcInliner(inlineSize == null ? defaultInlineSize : Long.parseLong(inlineSize),
+				inlineGrowth == null ? defaultInlineGrowth : Long.parseLong(inlineGrowth),
+				Main.cmdLineArgValue("--cache") == null, Main.cmdLineArgValue("--inline-report") != null);
+
+		Vector<AbsFunDef> funDefs = new Vector<AbsFunDef>();
+		Abstr.absTree().accept(new AbsFullVisitor<Object, AbsFunDef>() {
+			@Override
+			public Object visit(AbsFunDef funDef, AbsFunDef topLevel) {
+				if (CodeCache.isCached(funDef))
+					return null;
+				funDefs.add(funDef);
+				inliner.add(funDef, topLevel == null ? funDef : topLevel,
+						new ImcOptimizer().optimize(ImcGen.exprImCode().get(funDef.value)));
+				return super.visit(funDef, topLevel == null ? funDef : topLevel);
+			}
+		}, null);
+
+		HashMap<AbsFunDef, ImcExpr> bodies = inliner.inline(funDefs);
+		for (AbsFunDef funDef : funDefs)
+			funImCode().put(funDef, new ImcOptimizer().optimize(bodies.get(funDef)));
+	}
+
+	/**
+	 * Logs the optimized intermediate code.
+	 */
+	public void log() {
+		if (logger == null)
+			return;
+		ImcLogger imcLogger = new ImcLogger(logger);
+		AbsLogger absLogger = new AbsLogger(logger);
+		absLogger.addSubvisitor(new SemLogger(logger));
+		absLogger.addSubvisitor(new FrmLogger(logger));
+		absLogger.addSubvisitor(new AbsNullVisitor<Object, Object>() {
+			@Override
+			public Object visit(AbsFunDef funDef, Object visArg) {
+				ImcExpr imc = funImCode().get(funDef);
+				if (imc != null)
+					imc.accept(imcLogger, null);
+				return null;
+			}
+		});
+		Abstr.absTree().accept(absLogger, null);
+	}
+
+}
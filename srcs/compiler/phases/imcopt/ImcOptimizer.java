@@ -0,0 +1,414 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.imcopt;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.imcode.visitor.*;
+
+/**
+ * Constant folding, algebraic simplification and constant propagation.
+ *
+ * The optimizer rebuilds the intermediate code it is given, i.e., it never
+ * modifies the original trees as they might be shared. Operations on constants
+ * are folded, identities like {@code x+0}, {@code x*1} and {@code x*0} are
+ * simplified, and temporary variables known to hold a constant are replaced by
+ * that constant. Conditional jumps on a constant condition become plain jumps.
+ *
+ * Temporary variables are propagated in the order statements are executed.
+ * Every label is a potential join point, so all known constants are forgotten
+ * whenever a label is reached.
+ *
+ * @author sliva
+ */
+public class ImcOptimizer implements ImcVisitor<ImcInstr, Object> {
+
+	/** Temporary variables currently known to hold a constant. */
+	private final HashMap<Temp, Long> consts = new HashMap<Temp, Long>();
+
+	/**
+	 * Optimizes an expression.
+	 *
+	 * @param expr The expression.
+	 * @return The optimized expression.
+	 */
+	public ImcExpr optimize(ImcExpr expr) {
+		consts.clear();
+		return (ImcExpr) expr.accept(this, null);
+	}
+
+	/**
+	 * Optimizes a single statement.
+	 *
+	 * @param stmt The statement.
+	 * @return The optimized statement.
+	 */
+	public ImcStmt optimize(ImcStmt stmt) {
+		consts.clear();
+		return (ImcStmt) stmt.accept(this, null);
+	}
+
+	/**
+	 * Optimizes a linear sequence of canonized statements and removes moves to
+	 * temporary variables that are never read.
+	 *
+	 * @param stmts The statements.
+	 * @param frame The frame of the function the statements belong to.
+	 * @return The optimized statements.
+	 */
+	public Vector<ImcStmt> optimize(Vector<ImcStmt> stmts, Frame frame) {
+		consts.clear();
+		Vector<ImcStmt> optStmts = new Vector<ImcStmt>();
+		for (ImcStmt stmt : stmts)
+			optStmts.add((ImcStmt) stmt.accept(this, null));
+
+		// Removing a move may render the temporary variables it reads unused.
+		while (true) {
+			HashSet<Temp> used = new HashSet<Temp>();
+			used.add(frame.FP);
+			used.add(frame.RV);
+			TempCollector collector = new TempCollector(used);
+			for (ImcStmt stmt : optStmts)
+				stmt.accept(collector, null);
+
+			Vector<ImcStmt> liveStmts = new Vector<ImcStmt>();
+			for (ImcStmt stmt : optStmts) {
+				if (stmt instanceof ImcMOVE) {
+					ImcMOVE move = (ImcMOVE) stmt;
+					if (move.dst instanceof ImcTEMP && !used.contains(((ImcTEMP) move.dst).temp) && isPure(move.src))
+						continue;
+				}
+				liveStmts.add(stmt);
+			}
+			if (liveStmts.size() == optStmts.size())
+				return optStmts;
+			optStmts = liveStmts;
+		}
+	}
+
+	public ImcInstr visit(ImcBINOP binOp, Object visArg) {
+		ImcExpr fstExpr = (ImcExpr) binOp.fstExpr.accept(this, visArg);
+		ImcExpr sndExpr = (ImcExpr) binOp.sndExpr.accept(this, visArg);
+		return fold(binOp.oper, fstExpr, sndExpr);
+	}
+
+	public ImcInstr visit(ImcCALL call, Object visArg) {
+		Vector<ImcExpr> args = new Vector<ImcExpr>();
+		for (ImcExpr arg : call.args())
+			args.add((ImcExpr) arg.accept(this, visArg));
+		return new ImcCALL(call.label, args);
+	}
+
+	public ImcInstr visit(ImcCJUMP cjump, Object visArg) {
+		ImcExpr cond = (ImcExpr) cjump.cond.accept(this, visArg);
+		consts.clear();
+		if (cond instanceof ImcCONST)
+			return new ImcJUMP(((ImcCONST) cond).value != 0 ? cjump.posLabel : cjump.negLabel);
+		return new ImcCJUMP(cond, cjump.posLabel, cjump.negLabel);
+	}
+
+	public ImcInstr visit(ImcCONST constant, Object visArg) {
+		return constant;
+	}
+
+	public ImcInstr visit(ImcESTMT eStmt, Object visArg) {
+		return new ImcESTMT((ImcExpr) eStmt.expr.accept(this, visArg));
+	}
+
+	public ImcInstr visit(ImcJUMP jump, Object visArg) {
+		consts.clear();
+		return jump;
+	}
+
+	public ImcInstr visit(ImcLABEL label, Object visArg) {
+		consts.clear();
+		return label;
+	}
+
+	public ImcInstr visit(ImcMEM mem, Object visArg) {
+		return new ImcMEM((ImcExpr) mem.addr.accept(this, visArg));
+	}
+
+	public ImcInstr visit(ImcMOVE move, Object visArg) {
+		if (move.dst instanceof ImcTEMP) {
+			ImcExpr src = (ImcExpr) move.src.accept(this, visArg);
+			Temp temp = ((ImcTEMP) move.dst).temp;
+			if (src instanceof ImcCONST)
+				consts.put(temp, ((ImcCONST) src).value);
+			else
+				consts.remove(temp);
+			return new ImcMOVE(move.dst, src);
+		}
+
+		ImcExpr dst = (ImcExpr) move.dst.accept(this, visArg);
+		ImcExpr src = (ImcExpr) move.src.accept(this, visArg);
+		return new ImcMOVE(dst, src);
+	}
+
+	public ImcInstr visit(ImcNAME name, Object visArg) {
+		return name;
+	}
+
+	public ImcInstr visit(ImcSEXPR sExpr, Object visArg) {
+		ImcStmt stmt = (ImcStmt) sExpr.stmt.accept(this, visArg);
+		ImcExpr expr = (ImcExpr) sExpr.expr.accept(this, visArg);
+		return new ImcSEXPR(stmt, expr);
+	}
+
+	public ImcInstr visit(ImcSTMTS stmts, Object visArg) {
+		Vector<ImcStmt> optStmts = new Vector<ImcStmt>();
+		for (ImcStmt stmt : stmts.stmts())
+			optStmts.add((ImcStmt) stmt.accept(this, visArg));
+		return new ImcSTMTS(optStmts);
+	}
+
+	public ImcInstr visit(ImcTEMP temp, Object visArg) {
+		Long value = consts.get(temp.temp);
+		return value == null ? temp : new ImcCONST(value);
+	}
+
+	public ImcInstr visit(ImcUNOP unOp, Object visArg) {
+		ImcExpr subExpr = (ImcExpr) unOp.subExpr.accept(this, visArg);
+		switch (unOp.oper) {
+			case NEG: {
+				if (subExpr instanceof ImcCONST)
+					return new ImcCONST(fold(unOp.oper, ((ImcCONST) subExpr).value));
+				if (subExpr instanceof ImcUNOP && ((ImcUNOP) subExpr).oper == ImcUNOP.Oper.NEG)
+					return ((ImcUNOP) subExpr).subExpr;
+				break;
+			}
+
+			case NOT: {
+				if (subExpr instanceof ImcCONST)
+					return new ImcCONST(fold(unOp.oper, ((ImcCONST) subExpr).value));
+				break;
+			}
+		}
+		return new ImcUNOP(unOp.oper, subExpr);
+	}
+
+	/**
+	 * Computes the result of a binary operation on constants.
+	 *
+	 * @param oper The operator.
+	 * @param fst  The first operand.
+	 * @param snd  The second operand.
+	 * @return The result or {@code null} if it cannot be computed at compile time.
+	 */
+	public static Long fold(ImcBINOP.Oper oper, long fst, long snd) {
+		switch (oper) {
+			case IOR: return fst | snd;
+			case XOR: return fst ^ snd;
+			case AND: return fst & snd;
+			case EQU: return fst == snd ? 1L : 0L;
+			case NEQ: return fst != snd ? 1L : 0L;
+			case LTH: return fst < snd ? 1L : 0L;
+			case GTH: return fst > snd ? 1L : 0L;
+			case LEQ: return fst <= snd ? 1L : 0L;
+			case GEQ: return fst >= snd ? 1L : 0L;
+			case ADD: return fst + snd;
+			case SUB: return fst - snd;
+			case MUL: return fst * snd;
+			// MMIX rounds the quotient towards negative infinity, Java towards zero.
+			case DIV: return fst >= 0 && snd > 0 ? fst / snd : null;
+			case MOD: return fst >= 0 && snd > 0 ? fst % snd : null;
+		}
+		return null;
+	}
+
+	/**
+	 * Computes the result of a unary operation on a constant.
+	 *
+	 * @param oper The operator.
+	 * @param sub  The operand.
+	 * @return The result.
+	 */
+	public static long fold(ImcUNOP.Oper oper, long sub) {
+		return oper == ImcUNOP.Oper.NEG ? -sub : 1 - sub;
+	}
+
+	/**
+	 * Folds a binary operation whose operands have already been optimized.
+	 *
+	 * @param oper    The operator.
+	 * @param fstExpr The first operand.
+	 * @param sndExpr The second operand.
+	 * @return The folded expression.
+	 */
+	private ImcExpr fold(ImcBINOP.Oper oper, ImcExpr fstExpr, ImcExpr sndExpr) {
+		Long fst = fstExpr instanceof ImcCONST ? ((ImcCONST) fstExpr).value : null;
+		Long snd = sndExpr instanceof ImcCONST ? ((ImcCONST) sndExpr).value : null;
+
+		if (fst != null && snd != null) {
+			Long value = fold(oper, fst, snd);
+			return value == null ? new ImcBINOP(oper, fstExpr, sndExpr) : new ImcCONST(value);
+		}
+
+		switch (oper) {
+			case ADD: {
+				if (fst != null && fst == 0)
+					return sndExpr;
+				if (snd != null && snd == 0)
+					return fstExpr;
+				// Offsets of nested record components and array elements.
+				if (snd != null && fstExpr instanceof ImcBINOP) {
+					ImcBINOP fstBinOp = (ImcBINOP) fstExpr;
+					if (fstBinOp.oper == ImcBINOP.Oper.ADD && fstBinOp.sndExpr instanceof ImcCONST)
+						return fold(ImcBINOP.Oper.ADD, fstBinOp.fstExpr,
+								new ImcCONST(((ImcCONST) fstBinOp.sndExpr).value + snd));
+				}
+				break;
+			}
+
+			case SUB: {
+				if (snd != null && snd == 0)
+					return fstExpr;
+				break;
+			}
+
+			case MUL: {
+				if ((fst != null && fst == 0 && isPure(sndExpr)) || (snd != null && snd == 0 && isPure(fstExpr)))
+					return new ImcCONST(0);
+				if (fst != null && fst == 1)
+					return sndExpr;
+				if (snd != null && snd == 1)
+					return fstExpr;
+				break;
+			}
+
+			case DIV: {
+				if (snd != null && snd == 1)
+					return fstExpr;
+				break;
+			}
+
+			case IOR:
+			case XOR: {
+				if (fst != null && fst == 0)
+					return sndExpr;
+				if (snd != null && snd == 0)
+					return fstExpr;
+				break;
+			}
+
+			case AND: {
+				if ((fst != null && fst == 0 && isPure(sndExpr)) || (snd != null && snd == 0 && isPure(fstExpr)))
+					return new ImcCONST(0);
+				break;
+			}
+
+			default:
+				break;
+		}
+		return new ImcBINOP(oper, fstExpr, sndExpr);
+	}
+
+	/**
+	 * Checks whether an expression can be dropped without changing the
+	 * behaviour of the program, i.e., whether it contains no calls and no
+	 * statements.
+	 *
+	 * @param expr The expression.
+	 * @return {@code true} if the expression is pure, {@code false} otherwise.
+	 */
+	public static boolean isPure(ImcExpr expr) {
+		if (expr instanceof ImcCONST || expr instanceof ImcNAME || expr instanceof ImcTEMP)
+			return true;
+		if (expr instanceof ImcMEM)
+			return isPure(((ImcMEM) expr).addr);
+		if (expr instanceof ImcUNOP)
+			return isPure(((ImcUNOP) expr).subExpr);
+		if (expr instanceof ImcBINOP)
+			return isPure(((ImcBINOP) expr).fstExpr) && isPure(((ImcBINOP) expr).sndExpr);
+		return false;
+	}
+
+	/**
+	 * Collects temporary variables that are read.
+	 */
+	private static class TempCollector implements ImcVisitor<Object, Object> {
+
+		/** Temporary variables read so far. */
+		private final HashSet<Temp> used;
+
+		TempCollector(HashSet<Temp> used) {
+			this.used = used;
+		}
+
+		public Object visit(ImcBINOP binOp, Object visArg) {
+			binOp.fstExpr.accept(this, visArg);
+			binOp.sndExpr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCALL call, Object visArg) {
+			for (ImcExpr arg : call.args())
+				arg.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCJUMP cjump, Object visArg) {
+			cjump.cond.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcCONST constant, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcESTMT eStmt, Object visArg) {
+			eStmt.expr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcJUMP jump, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcLABEL label, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcMEM mem, Object visArg) {
+			mem.addr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcMOVE move, Object visArg) {
+			if (!(move.dst instanceof ImcTEMP))
+				move.dst.accept(this, visArg);
+			move.src.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcNAME name, Object visArg) {
+			return null;
+		}
+
+		public Object visit(ImcSEXPR sExpr, Object visArg) {
+			sExpr.stmt.accept(this, visArg);
+			sExpr.expr.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcSTMTS stmts, Object visArg) {
+			for (ImcStmt stmt : stmts.stmts())
+				stmt.accept(this, visArg);
+			return null;
+		}
+
+		public Object visit(ImcTEMP temp, Object visArg) {
+			used.add(temp.temp);
+			return null;
+		}
+
+		public Object visit(ImcUNOP unOp, Object visArg) {
+			unOp.subExpr.accept(this, visArg);
+			return null;
+		}
+
+	}
+
+}
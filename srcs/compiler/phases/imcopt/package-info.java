@@ -0,0 +1,6 @@
+/**
+ * Optimization of the intermediate code.
+ * 
+ * @author sliva
+ */
+package compiler.phases.imcopt;
@@ -1,46 +1,253 @@
 package compiler.phases.lexan;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
 import compiler.common.report.*;
 import compiler.data.symbol.*;
 import compiler.phases.*;
 
 /**
  * Lexical analysis.
- * 
+ *
+ * Symbols are recognized by a table-driven deterministic finite automaton:
+ * each character is mapped to its character class and the next state is
+ * looked up in the transition table indexed by the current state and the
+ * character class. Both tables are generated when the class is loaded.
+ * Keywords are recognized as identifiers first and then looked up in a
+ * perfect hash table.
+ *
  * @author sliva
  */
 public class LexAn extends Phase {
 
+	// Character classes.
+
+	private static final int C_INVALID = 0;
+	private static final int C_PRINT = 1;
+	private static final int C_LETTER = 2;
+	private static final int C_DIGIT = 3;
+	private static final int C_SPACE = 4;
+	private static final int C_TAB = 5;
+	private static final int C_NEWLINE = 6;
+	private static final int C_HASH = 7;
+	private static final int C_QUOTE = 8;
+	private static final int C_DQUOTE = 9;
+	private static final int C_BACKSLASH = 10;
+	private static final int C_OPERATOR = 11;
+
+	/** Operator characters, each forming a character class of its own. */
+	private static final String operators = "|^&+-*/%$@.,:;[](){}!=<>";
+
+	private static final Symbol.Term[] operatorTerms = { Symbol.Term.IOR, Symbol.Term.XOR, Symbol.Term.AND,
+			Symbol.Term.ADD, Symbol.Term.SUB, Symbol.Term.MUL, Symbol.Term.DIV, Symbol.Term.MOD, Symbol.Term.ADDR,
+			Symbol.Term.DATA, Symbol.Term.DOT, Symbol.Term.COMMA, Symbol.Term.COLON, Symbol.Term.SEMIC,
+			Symbol.Term.LBRACKET, Symbol.Term.RBRACKET, Symbol.Term.LPARENTHESIS, Symbol.Term.RPARENTHESIS,
+			Symbol.Term.LBRACE, Symbol.Term.RBRACE, Symbol.Term.NOT, Symbol.Term.ASSIGN, Symbol.Term.LTH,
+			Symbol.Term.GTH };
+
+	/** Operators that form another operator if followed by {@code =}. */
+	private static final String twoCharOperators = "!=<>";
+
+	private static final Symbol.Term[] twoCharOperatorTerms = { Symbol.Term.NEQ, Symbol.Term.EQU, Symbol.Term.LEQ,
+			Symbol.Term.GEQ };
+
+	/** The number of character classes. */
+	private static final int numOfClasses = C_OPERATOR + operators.length();
+
+	/** Character classes of ASCII characters (other characters are invalid). */
+	private static final byte[] classes = new byte[128];
+
+	// States.
+
+	private static final int S_START = 0;
+	private static final int S_IDENTIFIER = 1;
+	private static final int S_INTEGER = 2;
+	private static final int S_CHAR_OPEN = 3;
+	private static final int S_CHAR_ESCAPE = 4;
+	private static final int S_CHAR_BODY = 5;
+	private static final int S_CHAR = 6;
+	private static final int S_STRING_BODY = 7;
+	private static final int S_STRING_ESCAPE = 8;
+	private static final int S_STRING = 9;
+	private static final int S_OPERATOR = 10;
+	private static final int S_TWO_CHAR_OPERATOR = S_OPERATOR + operators.length();
+
+	/** The number of states. */
+	private static final int numOfStates = S_TWO_CHAR_OPERATOR + twoCharOperators.length();
+
+	/** The transition table ({@code -1} denotes no transition). */
+	private static final short[] transitions = new short[numOfStates * numOfClasses];
+
+	/** Symbols recognized in final states ({@code null} in other states). */
+	private static final Symbol.Term[] finalTerms = new Symbol.Term[numOfStates];
+
+	/** Lexemes of terminals with a fixed lexeme (indexed by terminal ordinals). */
+	private static final String[] fixedLexemes = new String[Symbol.Term.values().length];
+
+	/** Error messages for symbols ending unexpectedly in non-final states. */
+	private static final String[] errors = new String[numOfStates];
+
+	// Keywords.
+
+	private static final String[] keywords = { "none", "true", "false", "null", "arr", "bool", "char", "del", "do",
+			"else", "end", "fun", "if", "int", "new", "ptr", "rec", "then", "typ", "var", "void", "where", "while" };
+	private static final Symbol.Term[] keywordTerms = { Symbol.Term.VOIDCONST, Symbol.Term.BOOLCONST,
+			Symbol.Term.BOOLCONST, Symbol.Term.PTRCONST, Symbol.Term.ARR, Symbol.Term.BOOL, Symbol.Term.CHAR,
+			Symbol.Term.DEL, Symbol.Term.DO, Symbol.Term.ELSE, Symbol.Term.END, Symbol.Term.FUN, Symbol.Term.IF,
+			Symbol.Term.INT, Symbol.Term.NEW, Symbol.Term.PTR, Symbol.Term.REC, Symbol.Term.THEN, Symbol.Term.TYP,
+			Symbol.Term.VAR, Symbol.Term.VOID, Symbol.Term.WHERE, Symbol.Term.WHILE };
+
+	/** The size of the perfect hash table of keywords. */
+	private static final int keywordTableSize = 32;
+
+	/** The perfect hash table of keywords (indices into {@link #keywords}). */
+	private static final byte[] keywordTable = new byte[keywordTableSize];
+
+	static {
+		// Character classes.
+		for (int c = 0; c < 128; c++) {
+			if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_')
+				classes[c] = C_LETTER;
+			else if (c >= '0' && c <= '9')
+				classes[c] = C_DIGIT;
+			else if (operators.indexOf(c) >= 0)
+				classes[c] = (byte) (C_OPERATOR + operators.indexOf(c));
+			else if (c >= 32 && c <= 126)
+				classes[c] = C_PRINT;
+			else
+				classes[c] = C_INVALID;
+		}
+		classes[' '] = C_SPACE;
+		classes['\t'] = C_TAB;
+		classes['\r'] = C_TAB;
+		classes['\n'] = C_NEWLINE;
+		classes['#'] = C_HASH;
+		classes['\''] = C_QUOTE;
+		classes['"'] = C_DQUOTE;
+		classes['\\'] = C_BACKSLASH;
+
+		// Transitions.
+		java.util.Arrays.fill(transitions, (short) -1);
+		for (int c = 0; c < numOfClasses; c++) {
+			boolean printable = c != C_INVALID && c != C_TAB && c != C_NEWLINE;
+			if (c == C_LETTER || c == C_DIGIT)
+				transition(S_IDENTIFIER, c, S_IDENTIFIER);
+			if (c == C_DIGIT)
+				transition(S_INTEGER, c, S_INTEGER);
+			if (printable)
+				transition(S_CHAR_OPEN, c, c == C_BACKSLASH ? S_CHAR_ESCAPE : S_CHAR_BODY);
+			transition(S_CHAR_ESCAPE, c, S_CHAR_BODY);
+			if (c == C_QUOTE)
+				transition(S_CHAR_BODY, c, S_CHAR);
+			if (printable)
+				transition(S_STRING_BODY, c,
+						c == C_BACKSLASH ? S_STRING_ESCAPE : c == C_DQUOTE ? S_STRING : S_STRING_BODY);
+			transition(S_STRING_ESCAPE, c, S_STRING_BODY);
+		}
+		transition(S_START, C_LETTER, S_IDENTIFIER);
+		transition(S_START, C_DIGIT, S_INTEGER);
+		transition(S_START, C_QUOTE, S_CHAR_OPEN);
+		transition(S_START, C_DQUOTE, S_STRING_BODY);
+		for (int op = 0; op < operators.length(); op++) {
+			transition(S_START, C_OPERATOR + op, S_OPERATOR + op);
+			finalTerms[S_OPERATOR + op] = operatorTerms[op];
+			fixedLexemes[operatorTerms[op].ordinal()] = operators.substring(op, op + 1);
+		}
+		for (int op = 0; op < twoCharOperators.length(); op++) {
+			int fstOp = operators.indexOf(twoCharOperators.charAt(op));
+			transition(S_OPERATOR + fstOp, C_OPERATOR + operators.indexOf('='), S_TWO_CHAR_OPERATOR + op);
+			finalTerms[S_TWO_CHAR_OPERATOR + op] = twoCharOperatorTerms[op];
+			fixedLexemes[twoCharOperatorTerms[op].ordinal()] = twoCharOperators.charAt(op) + "=";
+		}
+
+		// Final states and errors.
+		finalTerms[S_IDENTIFIER] = Symbol.Term.IDENTIFIER;
+		finalTerms[S_INTEGER] = Symbol.Term.INTCONST;
+		finalTerms[S_CHAR] = Symbol.Term.CHARCONST;
+		finalTerms[S_STRING] = Symbol.Term.STRCONST;
+		errors[S_START] = "Unacceptable character detected";
+		errors[S_CHAR_OPEN] = "The character used must be in ASCII range between 32 and 126 ";
+		errors[S_CHAR_ESCAPE] = "Expected ' at ";
+		errors[S_CHAR_BODY] = "Expected ' at ";
+		errors[S_STRING_BODY] = "The character used must be in ASCII range between 32 and 126 ";
+		errors[S_STRING_ESCAPE] = "The character used must be in ASCII range between 32 and 126 ";
+
+		// Keywords.
+		java.util.Arrays.fill(keywordTable, (byte) -1);
+		for (int kw = 0; kw < keywords.length; kw++) {
+			int hash = keywordHash(keywords[kw].toCharArray(), 0, keywords[kw].length());
+			if (keywordTable[hash] != -1)
+				throw new Report.InternalError();
+			keywordTable[hash] = (byte) kw;
+			if (keywordTerms[kw] != Symbol.Term.BOOLCONST)
+				fixedLexemes[keywordTerms[kw].ordinal()] = keywords[kw];
+		}
+		fixedLexemes[Symbol.Term.EOF.ordinal()] = "";
+	}
+
+	/**
+	 * Adds a transition to the transition table.
+	 *
+	 * @param state     The current state.
+	 * @param charClass The character class.
+	 * @param nextState The next state.
+	 */
+	private static void transition(int state, int charClass, int nextState) {
+		transitions[state * numOfClasses + charClass] = (short) nextState;
+	}
+
+	/**
+	 * Computes the hash of a keyword candidate, i.e., an identifier at least two
+	 * characters long. The hash function is perfect for the set of keywords.
+	 *
+	 * @param chars The characters.
+	 * @param beg   The index of the first character.
+	 * @param len   The number of characters.
+	 * @return The hash.
+	 */
+	private static int keywordHash(char[] chars, int beg, int len) {
+		return (13 * chars[beg] + 14 * chars[beg + len - 2] + 12 * chars[beg + len - 1] + len)
+				& (keywordTableSize - 1);
+	}
+
 	/** The name of the source file. */
 	private final String srcFileName;
 
-	/** The source file reader. */
-	private final BufferedReader srcFile;
+	/** The content of the source file. */
+	private final char[] src;
+
+	/** The length of the source file. */
+	private final int srcLen;
+
+	/** The table identifiers are interned into. */
+	private final NameTable names = NameTable.current();
+
+	/** The index of the next character to be read. */
+	private int pos;
+
+	/** The line of the next character to be read. */
+	private int line;
+
+	/** The column of the next character to be read. */
+	private int column;
 
-	private int state;
-	private int curChar;
-	private int prevChar;
-	private String lexeme;
+	/** The index of the first character of the last symbol recognized. */
+	private int symbBeg;
 
-	private String in;
+	/** The line of the first character of the last symbol recognized. */
+	private int symbBegLine;
 
-	private final String[] keywords = {"none", "true", "false", "null", "arr", "bool", "char", "del", "do",
-	"else", "end", "fun", "if", "int", "new", "ptr", "rec", "then", "typ", "var", "void", "where", "while"};
-	private final Symbol.Term[] keywordTerms = {Symbol.Term.VOIDCONST, Symbol.Term.BOOLCONST, Symbol.Term.BOOLCONST, Symbol.Term.PTRCONST,
-	Symbol.Term.ARR, Symbol.Term.BOOL, Symbol.Term.CHAR, Symbol.Term.DEL, Symbol.Term.DO, Symbol.Term.ELSE, Symbol.Term.END,
-	Symbol.Term.FUN, Symbol.Term.IF, Symbol.Term.INT, Symbol.Term.NEW, Symbol.Term.PTR, Symbol.Term.REC, Symbol.Term.THEN,
-	Symbol.Term.TYP, Symbol.Term.VAR, Symbol.Term.VOID, Symbol.Term.WHERE, Symbol.Term.WHILE};
+	/** The column of the first character of the last symbol recognized. */
+	private int symbBegColumn;
 
-	private final char[] oneCharOperators = {'|', '^', '&', '+', '-', '*', '/', '%', '$', '@', '.', ',', ':', ';', '[', ']', '(', ')', '{', '}'};
-	private final Symbol.Term[] oneCharOperatorTerms = {Symbol.Term.IOR, Symbol.Term.XOR, Symbol.Term.AND, Symbol.Term.ADD, Symbol.Term.SUB,
-	Symbol.Term.MUL, Symbol.Term.DIV, Symbol.Term.MOD, Symbol.Term.ADDR, Symbol.Term.DATA, Symbol.Term.DOT, Symbol.Term.COMMA, Symbol.Term.COLON,
-	Symbol.Term.SEMIC, Symbol.Term.LBRACKET, Symbol.Term.RBRACKET, Symbol.Term.LPARENTHESIS, Symbol.Term.RPARENTHESIS, Symbol.Term.LBRACE, Symbol.Term.RBRACE};
- 
-	private final char[] twoCharOperators = {'!', '=', '<', '>'};
-	private final Symbol.Term[] twoCharOperatorTermsDef = {Symbol.Term.NOT, Symbol.Term.ASSIGN, Symbol.Term.LTH, Symbol.Term.GTH};
-	private final Symbol.Term[] twoCharOperatorTermsPos = {Symbol.Term.NEQ, Symbol.Term.EQU, Symbol.Term.LEQ, Symbol.Term.GEQ};
+	/** The line of the last character of the last symbol recognized. */
+	private int symbEndLine;
 
+	/** The column of the last character of the last symbol recognized. */
+	private int symbEndColumn;
 
 	/**
 	 * Constructs a new phase of lexical analysis.
@@ -49,279 +256,225 @@ public class LexAn extends Phase {
 		super("lexan");
 
 		srcFileName = compiler.Main.cmdLineArgValue("--src-file-name");
-		try {
-			srcFile = new BufferedReader(new FileReader(srcFileName));
-		} catch (IOException ___) {
+		try (FileChannel channel = FileChannel.open(Paths.get(srcFileName), StandardOpenOption.READ)) {
+			MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			CharBuffer chars = Charset.defaultCharset().decode(bytes);
+			src = chars.array();
+			srcLen = chars.limit();
+		} catch (IOException | InvalidPathException ___) {
 			throw new Report.Error("Cannot open source file '" + srcFileName + "'.");
 		}
 
-		state = 0;
-		curChar = 0;
-		prevChar = -1;
-		lexeme = new String("");
-		in = new String("");
+		pos = 0;
+		line = 1;
+		column = 1;
 	}
 
-	@Override
-	public void close() {
-		try {
-			srcFile.close();
-		} catch (IOException ___) {
-			Report.warning("Cannot close source file '" + this.srcFileName + "'.");
-		}
+	/**
+	 * Constructs a new phase of lexical analysis of a text held in memory rather
+	 * than of the source file, starting at the specified position within the
+	 * text. Used by the incremental parser to re-lex parts of an edited text.
+	 * 
+	 * @param src    The text.
+	 * @param srcLen The length of the text.
+	 * @param pos    The index of the first character to be read.
+	 * @param line   The line of the first character to be read.
+	 * @param column The column of the first character to be read.
+	 */
+	public LexAn(char[] src, int srcLen, int pos, int line, int column) {
+		super("lexan");
 
-		super.close();
+		srcFileName = null;
+		this.src = src;
+		this.srcLen = srcLen;
+		this.pos = pos;
+		this.line = line;
+		this.column = column;
 	}
 
 	/**
 	 * The lexer.
-	 * 
+	 *
 	 * This method returns the next symbol from the source file. To perform the
 	 * lexical analysis of the entire source file, this method must be called until
 	 * it returns EOF. This method calls {@link #lexify()}, logs its result if
 	 * requested, and returns it.
-	 * 
+	 *
 	 * @return The next symbol from the source file or EOF if no symbol is available
 	 *         any more.
 	 */
 	public Symbol lexer() {
-		state = 0;
-		lexeme = new String("");
-
-		Symbol symb = lexify();
-		if (symb.token != Symbol.Term.EOF)
+		Symbol.Term token = lexify();
+		Location location = new Location(symbBegLine, symbBegColumn, symbEndLine, symbEndColumn);
+		Symbol symb;
+		if (token == Symbol.Term.IDENTIFIER) {
+			int nameId = names.id(src, symbBeg, pos);
+			symb = new Symbol(token, names.name(nameId), nameId, location);
+		} else
+			symb = new Symbol(token, lexeme(token, src, symbBeg, pos), location);
+		if (token != Symbol.Term.EOF)
 			symb.log(logger);
 		return symb;
 	}
 
-	public int getNextChar() {
-		int ret = -1;
-
-		if (prevChar != -1) {
-			ret = prevChar;
-			prevChar = -1;
-		} else {
-			try {
-				ret = srcFile.read();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-
-			in += (char) ret;
-		}
+	/**
+	 * The lexer in the token-buffer mode.
+	 *
+	 * This method returns a token buffer that is filled with symbols from the
+	 * source file on demand. Unlike {@link #lexer()}, it does not create a symbol
+	 * for each token unless symbols are logged.
+	 *
+	 * @return The token buffer of symbols from the source file.
+	 */
+	public TokenBuffer tokens() {
+		return tokens(srcLen - pos);
+	}
 
-		return ret;
+	/**
+	 * The lexer in the token-buffer mode for lexing a part of the source file.
+	 *
+	 * @param length The expected number of characters to be lexed.
+	 * @return The token buffer of symbols from the source file.
+	 */
+	public TokenBuffer tokens(int length) {
+		return new TokenBuffer(this, src, names, length);
 	}
 
-	public boolean eq(int x, char y) {
-		return x == (int) y;
+	/**
+	 * Appends the next symbol from the source file to a token buffer and logs it
+	 * if requested.
+	 *
+	 * @param tokens The token buffer.
+	 */
+	void lexify(TokenBuffer tokens) {
+		Symbol.Term token = lexify();
+		int nameId = token == Symbol.Term.IDENTIFIER ? names.id(src, symbBeg, pos) : -1;
+		int index = tokens.add(token, symbBeg, pos, symbBegLine, symbBegColumn, nameId);
+		if (token != Symbol.Term.EOF && logger != null)
+			tokens.symbol(index).log(logger);
 	}
 
-	public void processWhiteSpace() {
-		while (eq(curChar, ' ') || eq(curChar, '\t') || eq(curChar, '\n') || eq(curChar, '\r')) curChar = getNext();
-		prevChar = curChar;
+	/**
+	 * Returns the lexeme of a symbol.
+	 *
+	 * @param token The token of the symbol.
+	 * @param src   The content of the source file.
+	 * @param beg   The index of the first character of the symbol.
+	 * @param end   The index of the character following the symbol.
+	 * @return The lexeme.
+	 */
+	static String lexeme(Symbol.Term token, char[] src, int beg, int end) {
+		String lexeme = fixedLexemes[token.ordinal()];
+		if (lexeme != null)
+			return lexeme;
+		if (token == Symbol.Term.BOOLCONST)
+			return end - beg == 4 ? "true" : "false";
+		return new String(src, beg, end - beg);
 	}
 
-	public void processComments() {
-		if (eq(curChar, '#'))
-			while (!eq(curChar, '\n'))
-				curChar = getNextChar();
+	/**
+	 * Returns the character class of the next character to be read.
+	 *
+	 * @return The character class or {@code -1} at the end of the source file.
+	 */
+	private int nextClass() {
+		if (pos == srcLen)
+			return -1;
+		char c = src[pos];
+		return c < 128 ? classes[c] : C_INVALID;
 	}
 
-	public int getNext() {
-		curChar = getNextChar();
-		if (state != 0) return curChar;
-		if (state == 0) {
-			processWhiteSpace();
-			processComments();
-		}
-		return getNextChar();
+	/**
+	 * Reads the next character and moves the line and the column accordingly.
+	 */
+	private void advance() {
+		char c = src[pos++];
+		if (c == '\n') {
+			line++;
+			column = 1;
+		} else
+			column += c == '\t' ? 8 : 1;
 	}
 
-	public boolean inRange(int x, int l, int r) {
-		return l <= x && x <= r;
+	/**
+	 * Checks whether a part of the source file equals the specified keyword.
+	 *
+	 * @param keyword The keyword.
+	 * @param beg     The index of the first character.
+	 * @param len     The number of characters.
+	 * @return {@code true} if the characters spell out the keyword, {@code false}
+	 *         otherwise.
+	 */
+	private boolean isKeyword(String keyword, int beg, int len) {
+		if (keyword.length() != len)
+			return false;
+		for (int c = 0; c < len; c++)
+			if (keyword.charAt(c) != src[beg + c])
+				return false;
+		return true;
 	}
 
 	public void warning(String err, Location p) {
 		throw new Report.Error(err + p);
 	}
 
-	public int getLine(int it, int len) {
-		it -= len;
-
-		int ret = 0;
-		while (it >= 0) {
-			ret += in.charAt(it) == '\n' ? 1 : 0;
-			it -= 1;
-		}
-		return 1 + ret;
-	}
-
-	public int getColumn(int it, int len) {
-		it -= len;
-
-		int ret = 0;
-		while (it >= 0 && ( !eq((int) in.charAt(it), '\n'))) {
-			ret += eq((int) in.charAt(it), '\t') ? 8 : 1;
-			it -= 1;
-		}
-		return 1 + ret;
-	}
-
-	public Location getLocation(int a, int b) {
-		return new Location(getLine(in.length() - 1 - (prevChar != -1 ? 1 : 0), lexeme.length()), getColumn(in.length() - 1 - (prevChar != -1 ? 1 : 0), lexeme.length()) + a,
-				    getLine(in.length() - 1 - (prevChar != -1 ? 1 : 0), 1), 	       	  getColumn(in.length() - 1 - (prevChar != -1 ? 1 : 0), 1) + b);
-	}
-
-	public boolean processCharConst() {
-		if (eq(curChar, '\'')) {
-			state = 1;
-
-			lexeme += (char) curChar;
-			curChar = getNext();
-
-			if (inRange(curChar, 32, 126)) {
-				lexeme += (char) curChar;
-
-				if (eq(curChar, '\\')) {
-					curChar = getNext();
-					lexeme += (char) curChar;
-				}
-				
-				curChar = getNext();
-
-				if (eq(curChar, '\'')) {
-					lexeme += (char) curChar;
-					return true;
-				}
-
-				warning("Expected ' at ", getLocation(1, 0));
-			}
-
-			warning("The character used must be in ASCII range between 32 and 126 ", getLocation(0, 0)); 
-		}
-
-		return false;
-	}
-
-	public boolean processStringConst() {
-		if (eq(curChar, '"')) {
-			state = 1;
-
-			lexeme += (char) curChar;
-			curChar = getNext();
-
-			boolean escape = false;
-			while (!eq(curChar, '"') || escape) {
-				if (escape) escape = false;
-				else {
-					if (!inRange(curChar, 32, 126)) warning("The character used must be in ASCII range between 32 and 126 ", getLocation(0, 0));
-					escape = curChar == '\\';
-				}
-
-				lexeme += (char) curChar;
-				curChar = getNext();
-			}
-
-			lexeme += (char) curChar;
-			return true;			
-		}
-
-		return false;
-	}
-
-	public boolean processNumericConst() {
-		if (inRange(curChar, (int) '0', (int) '9')) {
-			state = 1;
-
-			while (inRange(curChar, (int) '0', (int) '9')) {
-				lexeme += (char) curChar;
-				curChar = getNext();
-			}
-
-			prevChar = curChar;
-
-			return true;
-		}
-
-		return false;
-	}
-
-	public boolean processIdentifier() {
-		if ('a' <= curChar && curChar <= 'z' || 'A' <= curChar && curChar <= 'Z' || curChar == '_') {
-			state = 1;
-
-			while ('a' <= curChar && curChar <= 'z' || 'A' <= curChar && curChar <= 'Z' || curChar == '_' || '0' <= curChar && curChar <= '9') {
-				lexeme += (char) curChar;
-				curChar = getNext();
-			}
-
-			prevChar = curChar;
-
-			return true;
-		}
-		return false;
-	}
-
 	/**
 	 * Performs the lexical analysis of the source file.
-	 * 
-	 * This method returns the next symbol from the source file. To perform the
-	 * lexical analysis of the entire source file, this method must be called until
-	 * it returns EOF.
-	 * 
-	 * @return The next symbol from the source file or EOF if no symbol is available
-	 *         any more.
+	 *
+	 * This method recognizes the next symbol in the source file and returns its
+	 * token; the symbol itself spans from {@link #symbBeg} to {@link #pos} and its
+	 * location is stored in the fields {@link #symbBegLine} to
+	 * {@link #symbEndColumn}. To perform the lexical analysis of the entire source
+	 * file, this method must be called until it returns EOF.
+	 *
+	 * @return The token of the next symbol from the source file or EOF if no
+	 *         symbol is available any more.
 	 */
-	private Symbol lexify() {
-		curChar = getNext();
-		
-		if (curChar == -1) {
-			return new Symbol(Symbol.Term.EOF, lexeme, getLocation(0, 0));
+	private Symbol.Term lexify() {
+		// Skip white space and comments.
+		while (true) {
+			int charClass = nextClass();
+			if (charClass == C_SPACE || charClass == C_TAB || charClass == C_NEWLINE)
+				advance();
+			else if (charClass == C_HASH) {
+				while (pos < srcLen && src[pos] != '\n')
+					advance();
+			} else
+				break;
 		}
 
-		if (processCharConst()) {
-			return new Symbol(Symbol.Term.CHARCONST, lexeme, getLocation(0, 0));
+		symbBeg = pos;
+		symbBegLine = line;
+		symbBegColumn = column;
+		symbEndLine = line;
+		symbEndColumn = column;
+		if (pos == srcLen)
+			return Symbol.Term.EOF;
+
+		// Run the automaton as long as possible.
+		int state = S_START;
+		while (true) {
+			int charClass = nextClass();
+			int nextState = charClass == -1 ? -1 : transitions[state * numOfClasses + charClass];
+			if (nextState == -1)
+				break;
+			symbEndLine = line;
+			symbEndColumn = column;
+			advance();
+			state = nextState;
 		}
 
-		if (processStringConst()) {
-			return new Symbol(Symbol.Term.STRCONST, lexeme, getLocation(0, 0));
-		}
+		Symbol.Term token = finalTerms[state];
+		if (token == null)
+			warning(errors[state], new Location(line, column));
 
-		if (processNumericConst()) {
-			return new Symbol(Symbol.Term.INTCONST, lexeme, getLocation(0, 0));
+		int len = pos - symbBeg;
+		if (token == Symbol.Term.IDENTIFIER && len >= 2) {
+			int kw = keywordTable[keywordHash(src, symbBeg, len)];
+			if (kw != -1 && isKeyword(keywords[kw], symbBeg, len))
+				return keywordTerms[kw];
 		}
-
-		if (processIdentifier()) {
-			for (int i = 0; i < keywords.length; i++)
-				if (lexeme.equals(keywords[i]))
-					return new Symbol(keywordTerms[i], lexeme, getLocation(0, 0));
-			return new Symbol(Symbol.Term.IDENTIFIER, lexeme, getLocation(0, 0));
-		}
-
-		lexeme += (char) curChar;
-
-		for (int i = 0; i < oneCharOperators.length; i++)
-			if (curChar == oneCharOperators[i])
-				return new Symbol(oneCharOperatorTerms[i], lexeme, getLocation(0, 0));
-
-		for (int i = 0; i < twoCharOperators.length; i++)
-			if (curChar == twoCharOperators[i]) {
-				curChar = getNext();
-
-				if (curChar != '=') {
-					prevChar = curChar;
-					return new Symbol(twoCharOperatorTermsDef[i], lexeme, getLocation(0, 0));
-				}
-
-				lexeme += (char) curChar;
-				return new Symbol(twoCharOperatorTermsPos[i], lexeme, getLocation(0, 0));
-			}
-
-		warning("Unacceptable character detected", getLocation(0, 0));
-
-		/// this return statement never executes
-		return new Symbol(Symbol.Term.EOF, lexeme, getLocation(0, 0));
+		return token;
 	}
 
 }
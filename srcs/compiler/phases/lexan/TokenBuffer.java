@@ -0,0 +1,244 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.lexan;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.symbol.*;
+
+/**
+ * A buffer of all symbols of a source file.
+ *
+ * The buffer is filled on demand: whenever a symbol that has not been
+ * recognized yet is requested, the lexical analyzer is run until the symbol
+ * becomes available. Hence lexical errors are reported at the same time as if
+ * the lexical analyzer were called symbol by symbol.
+ *
+ * Symbols are stored as a structure of arrays of primitive values: the token,
+ * the indices of the first character and of the character following the
+ * symbol within the source file, the line and the column of the first
+ * character, and the ID of the name if the symbol is an identifier. As no symbol contains a newline or a tab, the location of the
+ * last character follows from these. Symbols are referred to by their indices
+ * and a {@link Symbol} object is created only when requested by
+ * {@link #symbol(int)}.
+ *
+ * @author sliva
+ */
+public class TokenBuffer {
+
+	/** All tokens indexed by their ordinals. */
+	private static final Symbol.Term[] terms = Symbol.Term.values();
+
+	/** The lexical analyzer filling this buffer. */
+	private final LexAn lexAn;
+
+	/** The content of the source file. */
+	private final char[] src;
+
+	/** The table identifiers are interned into. */
+	private final NameTable names;
+
+	/** The number of symbols. */
+	private int size = 0;
+
+	/** The ordinals of tokens. */
+	private byte[] tokens;
+
+	/** The indices of the first characters. */
+	private int[] begs;
+
+	/** The indices of the characters following the symbols. */
+	private int[] ends;
+
+	/** The lines of the first characters. */
+	private int[] lines;
+
+	/** The columns of the first characters. */
+	private int[] columns;
+
+	/** The IDs of names of identifiers ({@code -1} for other symbols). */
+	private int[] nameIds;
+
+	/**
+	 * Constructs a new empty token buffer.
+	 *
+	 * @param lexAn  The lexical analyzer filling this buffer.
+	 * @param src    The content of the source file.
+	 * @param names  The table identifiers are interned into.
+	 * @param srcLen The expected number of characters to be lexed.
+	 */
+	TokenBuffer(LexAn lexAn, char[] src, NameTable names, int srcLen) {
+		this.lexAn = lexAn;
+		this.src = src;
+		this.names = names;
+		// An estimate: there is about one symbol per three characters in a typical
+		// source file.
+		int capacity = Math.max(64, srcLen / 3);
+		tokens = new byte[capacity];
+		begs = new int[capacity];
+		ends = new int[capacity];
+		lines = new int[capacity];
+		columns = new int[capacity];
+		nameIds = new int[capacity];
+	}
+
+	/**
+	 * Appends a symbol to this buffer.
+	 *
+	 * @param token  The token.
+	 * @param beg    The index of the first character.
+	 * @param end    The index of the character following the symbol.
+	 * @param line   The line of the first character.
+	 * @param column The column of the first character.
+	 * @param nameId The ID of the name if the symbol is an identifier, {@code -1}
+	 *               otherwise.
+	 * @return The index of the symbol.
+	 */
+	int add(Symbol.Term token, int beg, int end, int line, int column, int nameId) {
+		if (size == tokens.length) {
+			int capacity = 2 * size;
+			tokens = Arrays.copyOf(tokens, capacity);
+			begs = Arrays.copyOf(begs, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			lines = Arrays.copyOf(lines, capacity);
+			columns = Arrays.copyOf(columns, capacity);
+			nameIds = Arrays.copyOf(nameIds, capacity);
+		}
+		tokens[size] = (byte) token.ordinal();
+		begs[size] = beg;
+		ends[size] = end;
+		lines[size] = line;
+		columns[size] = column;
+		nameIds[size] = nameId;
+		return size++;
+	}
+
+	/**
+	 * Runs the lexical analyzer until the specified symbol is available. Past the
+	 * end of the source file, the lexical analyzer keeps returning EOF.
+	 *
+	 * @param index The index of the symbol.
+	 */
+	private void fill(int index) {
+		while (index >= size)
+			lexAn.lexify(this);
+	}
+
+	/**
+	 * Returns the token of a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The token.
+	 */
+	public Symbol.Term token(int index) {
+		if (index >= size)
+			fill(index);
+		return terms[tokens[index]];
+	}
+
+	/**
+	 * Returns the lexeme of a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The lexeme.
+	 */
+	public String lexeme(int index) {
+		Symbol.Term token = token(index);
+		if (token == Symbol.Term.IDENTIFIER)
+			return names.name(nameIds[index]);
+		return LexAn.lexeme(token, src, begs[index], ends[index]);
+	}
+
+	/**
+	 * Returns the ID of the name of an identifier.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The ID of the name or {@code -1} if the symbol is not an identifier.
+	 */
+	public int nameId(int index) {
+		fill(index);
+		return nameIds[index];
+	}
+
+	/**
+	 * Returns the index of the first character of a symbol within the source
+	 * file.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The index of the first character.
+	 */
+	public int beg(int index) {
+		fill(index);
+		return begs[index];
+	}
+
+	/**
+	 * Returns the index of the character following a symbol within the source
+	 * file.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The index of the character following the symbol.
+	 */
+	public int end(int index) {
+		fill(index);
+		return ends[index];
+	}
+
+	/**
+	 * Returns the line of the first character of a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The line.
+	 */
+	public int line(int index) {
+		fill(index);
+		return lines[index];
+	}
+
+	/**
+	 * Returns the column of the character following a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The column.
+	 */
+	public int endColumn(int index) {
+		fill(index);
+		return columns[index] + Math.max(1, ends[index] - begs[index]);
+	}
+
+	/**
+	 * Returns the location of a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The location.
+	 */
+	public Location location(int index) {
+		return location(index, index);
+	}
+
+	/**
+	 * Returns the location of a sequence of symbols.
+	 *
+	 * @param beg The index of the first symbol.
+	 * @param end The index of the last symbol.
+	 * @return The location from the first character of the first symbol to the
+	 *         last character of the last symbol.
+	 */
+	public Location location(int beg, int end) {
+		fill(Math.max(beg, end));
+		int len = Math.max(1, ends[end] - begs[end]);
+		return new Location(lines[beg], columns[beg], lines[end], columns[end] + len - 1);
+	}
+
+	/**
+	 * Creates a symbol.
+	 *
+	 * @param index The index of the symbol.
+	 * @return The symbol.
+	 */
+	public Symbol symbol(int index) {
+		return new Symbol(token(index), lexeme(index), nameId(index), location(index));
+	}
+
+}
@@ -6,6 +6,7 @@ package compiler.phases.livean;
 import java.util.*;
 import compiler.data.asmcode.*;
 import compiler.data.layout.*;
+import compiler.*;
 import compiler.phases.*;
 import compiler.phases.asmcode.*;
 
@@ -18,22 +19,22 @@ public class LiveAn extends Phase {
 		super("livean");
 	}
 
-	public void merge(HashSet<Temp> u, Vector<Temp> v) {
+	public static void merge(HashSet<Temp> u, Vector<Temp> v) {
 		for (Temp w : v) u.add(w);
 	}
 
-	public HashSet getDifference(HashSet<Temp> u, Vector<Temp> v) {
+	public static HashSet getDifference(HashSet<Temp> u, Vector<Temp> v) {
 		for (Temp w : v) u.remove(w);
 		return u;
 	}
 
-	public boolean eq(HashSet<Temp> u, HashSet<Temp> v) {
+	public static boolean eq(HashSet<Temp> u, HashSet<Temp> v) {
 		HashSet<Temp> nu = new HashSet(u);
 		nu.addAll(v);
 		return u.size() == nu.size();
 	}
 
-	public void chunkLiveness(Code code) {
+	public static void chunkLiveness(Code code) {
 		Vector<AsmLABEL> labels = new Vector<AsmLABEL>();
 		for (AsmInstr instr : code.instrs) if (instr instanceof AsmLABEL) labels.add((AsmLABEL) instr);
 
@@ -61,14 +62,21 @@ public class LiveAn extends Phase {
 		}
 	}
 
+	/**
+	 * Computes liveness of temporary variables for all functions. Functions are
+	 * analyzed in parallel.
+	 */
 	public void chunksLiveness() {
-		for (Code code : AsmGen.codes) chunkLiveness(code);
+		CompilationContext.current().map(AsmGen.codes(), code -> {
+			chunkLiveness(code);
+			return code;
+		});
 	}
 
 	public void log() {
 		if (logger == null)
 			return;
-		for (Code code : AsmGen.codes) {
+		for (Code code : AsmGen.codes()) {
 			{
 				logger.begElement("code");
 				logger.addAttribute("entrylabel", code.entryLabel.name);
@@ -97,7 +105,7 @@ public class LiveAn extends Phase {
 					logger.endElement();
 					logger.begElement("temps");
 					logger.addAttribute("name", "in");
-					for (Temp temp : instr.in()) {
+					for (Temp temp : new TreeSet<Temp>(instr.in())) {
 						logger.begElement("temp");
 						logger.addAttribute("name", temp.toString());
 						logger.endElement();
@@ -105,7 +113,7 @@ public class LiveAn extends Phase {
 					logger.endElement();
 					logger.begElement("temps");
 					logger.addAttribute("name", "out");
-					for (Temp temp : instr.out()) {
+					for (Temp temp : new TreeSet<Temp>(instr.out())) {
 						logger.begElement("temp");
 						logger.addAttribute("name", temp.toString());
 						logger.endElement();
@@ -5,8 +5,8 @@ package compiler.phases.mmixasmgen;
 
 import java.io.*;
 import java.util.*;
+import compiler.*;
 import compiler.phases.*;
-import compiler.data.*;
 import compiler.data.asmcode.*;
 import compiler.data.layout.*;
 import compiler.data.abstree.*;
@@ -39,20 +39,22 @@ public class MMIXAsmGen extends Phase {
 
 	public int numOfRegs = 8;
 	public final String format = "%-16s\t%s\t%s\n";
-	public static PrintWriter file;
+	public PrintWriter file;
 
 	public MMIXAsmGen() {
 		super("mmixasmgen");
 
 		try {
-			file = new PrintWriter("code.mms", "UTF-8");
+			file = new PrintWriter(compiler.Main.cmdLineArgValue("--dst-file-name"), "UTF-8");
 		} catch (Exception e) {
-			System.out.println("PrintWriter err");
+			CompilationContext.current().out.println("PrintWriter err");
 		}
 	}
 
+	@Override
 	public void close() {
 		file.close();
+		super.close();
 	}
 
 	public void out() {
@@ -61,7 +63,6 @@ public class MMIXAsmGen extends Phase {
 		initOutData();
 		initSTDLibrary();
 		generateCode();
-		close();
 	}
 
 	public void initRegisters() {
@@ -74,15 +75,15 @@ public class MMIXAsmGen extends Phase {
 
 	public void generateData() {
 		file.printf(format, "", "LOC", "#10000000");
-		for (int i = 0; i < Chunks.dataChunks.size(); i++) {
+		for (int i = 0; i < Chunks.dataChunks().size(); i++) {
 			file.printf(format, "", "GREG", "@");
 
-			if (Chunks.dataChunks.get(i).init == null) {	/// global variable
-				for (int j = 0; j < Chunks.dataChunks.get(i).size / 8; j++)
-					file.printf(format, j == 0 ? Chunks.dataChunks.get(i).label.name : "", "OCTA", "0");
+			if (Chunks.dataChunks().get(i).init == null) {	/// global variable
+				for (int j = 0; j < Chunks.dataChunks().get(i).size / 8; j++)
+					file.printf(format, j == 0 ? Chunks.dataChunks().get(i).label.name : "", "OCTA", "0");
 			} else {					/// string constant
-				for (int j = 1; j < Chunks.dataChunks.get(i).init.length() - 1; j++)
-					file.printf(format, j == 1 ? Chunks.dataChunks.get(i).label.name : "", "BYTE", Integer.toString((int) Chunks.dataChunks.get(i).init.charAt(j)));
+				for (int j = 1; j < Chunks.dataChunks().get(i).init.length() - 1; j++)
+					file.printf(format, j == 1 ? Chunks.dataChunks().get(i).label.name : "", "BYTE", Integer.toString((int) Chunks.dataChunks().get(i).init.charAt(j)));
 
 				file.printf(format, "", "BYTE", "0");
 			}
@@ -187,11 +188,11 @@ public class MMIXAsmGen extends Phase {
 
 		file.printf(format, "", "OR", "$253,$254,0");	/// FP <- SP
 
-		file.printf(format, "", "SETL",  "$0," + Math.abs(0x000000000000FFFFL & code.frame.size));
-		file.printf(format, "", "INCML", "$0," + Math.abs(0x00000000FFFF0000L & code.frame.size));
-		file.printf(format, "", "INCMH", "$0," + Math.abs(0x0000FFFF00000000L & code.frame.size));
-		file.printf(format, "", "INCH",  "$0," + Math.abs(0xFFFF000000000000L & code.frame.size));
-		file.printf(format, "", "SUB", "$254,$254,$0");	/// SP <- SP - frame size.
+		file.printf(format, "", "SETL",  "$0," + Math.abs(0x000000000000FFFFL & (code.frame.size + code.tempSize)));
+		file.printf(format, "", "INCML", "$0," + Math.abs(0x00000000FFFF0000L & (code.frame.size + code.tempSize)));
+		file.printf(format, "", "INCMH", "$0," + Math.abs(0x0000FFFF00000000L & (code.frame.size + code.tempSize)));
+		file.printf(format, "", "INCH",  "$0," + Math.abs(0xFFFF000000000000L & (code.frame.size + code.tempSize)));
+		file.printf(format, "", "SUB", "$254,$254,$0");	/// SP <- SP - frame size - spilled temps.
 
 		file.printf(format, "", "JMP", code.entryLabel.name);
 	///	file.printf(format, "", "LDA", "$0," + code.entryLabel.name);
@@ -203,7 +204,7 @@ public class MMIXAsmGen extends Phase {
 			if (code.instrs.get(i) instanceof AsmLABEL)
 				file.printf(format, ((AsmLABEL) code.instrs.get(i)).label.name, "OR", "$0,$0,0");
 			else
-				file.printf(format, "", ((AsmOPER) code.instrs.get(i)).toString(code.regs).split(" ")[0], ((AsmOPER) code.instrs.get(i)).toString(code.regs).split(" ")[1]);
+				file.printf(format, "", ((AsmOPER) code.instrs.get(i)).toString(code.regs).split(" ", 2)[0], ((AsmOPER) code.instrs.get(i)).toString(code.regs).split(" ", 2)[1]);
 		}
 	}
 
@@ -252,7 +253,7 @@ public class MMIXAsmGen extends Phase {
 
 	public void generateCode() {
 	///	file.printf(format, "", "LOC", "#40000000");
-		for (int i = 0; i < AsmGen.codes.size(); i++) generateFunctionASMCode(AsmGen.codes.get(i));
+		for (int i = 0; i < AsmGen.codes().size(); i++) generateFunctionASMCode(AsmGen.codes().get(i));
 		generateMMIXMainBootstrap();
 		file.printf("\n");
 	}
@@ -23,6 +23,20 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 	private final SymbTable symbTable = new SymbTable();
 	private final SymbTable symbTableType = new SymbTable();
 
+	/** Kinds of declarations distinguished by {@link #symbTableType}. */
+	private static final int FUN = 0, TYP = 1, VAR = 2, PAR = 3;
+
+	/**
+	 * Returns the key of a name of a certain kind in {@link #symbTableType}.
+	 * 
+	 * @param nameId The ID of the name.
+	 * @param kind   The kind of the declaration.
+	 * @return The key.
+	 */
+	private static int kindedNameId(int nameId, int kind) {
+		return 4 * nameId + kind;
+	}
+
 	@Override
 	public Object visit(AbsArgs args, Object visArg) {
 		for (AbsExpr arg : args.args())
@@ -126,8 +140,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 		if ((((int) visArg) & (1 << 0)) != 0) {
 			/// first visit => we should just add it to the symbol table.
 			try {
-				symbTable.ins(funDecl.name, funDecl);
-				symbTableType.ins(funDecl.name + "FUN", funDecl);
+				symbTable.ins(funDecl.nameId, funDecl);
+				symbTableType.ins(kindedNameId(funDecl.nameId, FUN), funDecl);
 			} catch (Exception e) {
 				throw new Report.Error("Function " + funDecl.name + " is already defined");
 			}
@@ -151,8 +165,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 		if ((((int) visArg) & (1 << 0)) != 0) {
 			/// first visit => we should just add it to the symbol table.
 			try {
-				symbTable.ins(funDef.name, funDef);
-				symbTableType.ins(funDef.name + "FUN", funDef);
+				symbTable.ins(funDef.nameId, funDef);
+				symbTableType.ins(kindedNameId(funDef.nameId, FUN), funDef);
 			} catch (Exception e) {
 				throw new Report.Error("Function " + funDef.name + " is already defined");
 			}
@@ -175,8 +189,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 	@Override
 	public Object visit(AbsFunName funName, Object visArg) {
 		try {
-			symbTableType.fnd(funName.name + "FUN");
-			SemAn.declaredAt.put(funName, symbTable.fnd(funName.name));
+			symbTableType.fnd(kindedNameId(funName.nameId, FUN));
+			SemAn.declaredAt().put(funName, symbTable.fnd(funName.nameId));
 		} catch (Exception e) {
 			throw new Report.Error("Function " + funName.name + " has not been defined");
 		}
@@ -207,8 +221,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 		} else {
 			/// second visit => add parameters into the new scope.
 			try {
-				symbTable.ins(parDecl.name, parDecl);
-				symbTableType.ins(parDecl.name + "PAR", parDecl);
+				symbTable.ins(parDecl.nameId, parDecl);
+				symbTableType.ins(kindedNameId(parDecl.nameId, PAR), parDecl);
 			} catch (Exception e) {
 				throw new Report.Error("Variable " + parDecl.name + " is already defined");
 			}
@@ -261,8 +275,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 		if ((((int) visArg) & (1 << 0)) != 0) {
 			/// first visit => we should just add it to the symbol table.
 			try {
-				symbTable.ins(typDecl.name, typDecl);
-				symbTableType.ins(typDecl.name + "TYP", typDecl);
+				symbTable.ins(typDecl.nameId, typDecl);
+				symbTableType.ins(kindedNameId(typDecl.nameId, TYP), typDecl);
 			} catch (Exception e) {
 				throw new Report.Error("Type " + typDecl.name + " is already defined");
 			}
@@ -277,8 +291,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 	@Override
 	public Object visit(AbsTypName typName, Object visArg) {
 		try {
-			symbTableType.fnd(typName.name + "TYP");
-			SemAn.declaredAt.put(typName, symbTable.fnd(typName.name));
+			symbTableType.fnd(kindedNameId(typName.nameId, TYP));
+			SemAn.declaredAt().put(typName, symbTable.fnd(typName.nameId));
 		} catch (Exception e) {
 			throw new Report.Error("Type " + typName.name + " has not been defined");
 		}
@@ -297,8 +311,8 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 		if ((((int) visArg) & (1 << 0)) != 0) {
 			/// first visit => we should just add it to the symbol table.
 			try {
-				symbTable.ins(varDecl.name, varDecl);
-				symbTableType.ins(varDecl.name + "VAR", varDecl);
+				symbTable.ins(varDecl.nameId, varDecl);
+				symbTableType.ins(kindedNameId(varDecl.nameId, VAR), varDecl);
 			} catch (Exception e) {
 				throw new Report.Error("Variable " + varDecl.name + " has already been defined");
 			}
@@ -313,7 +327,7 @@ public class NameResolver extends AbsFullVisitor<Object, Object> {
 	@Override
 	public Object visit(AbsVarName varName, Object visArg) {
 		try {
-			SemAn.declaredAt.put(varName, symbTable.fnd(varName.name));
+			SemAn.declaredAt().put(varName, symbTable.fnd(varName.nameId));
 		} catch (Exception e) {
 			throw new Report.Error("Variable " + varName.name + " has not been defined");
 		}
@@ -6,6 +6,7 @@ package compiler.phases.seman;
 import compiler.data.abstree.*;
 import compiler.data.abstree.attribute.*;
 import compiler.data.type.*;
+import compiler.*;
 import compiler.phases.*;
 
 /**
@@ -15,28 +16,60 @@ import compiler.phases.*;
  */
 public class SemAn extends Phase {
 
-	/** Maps names (except component names) to declarations. */
-	public static final AbsAttribute<AbsName, AbsDecl> declaredAt = new AbsAttribute<AbsName, AbsDecl>();
+	/**
+	 * Returns the mapping of names (except component names) to declarations.
+	 * 
+	 * @return The mapping of names (except component names) to declarations.
+	 */
+	public static AbsAttribute<AbsName, AbsDecl> declaredAt() {
+		return CompilationContext.current().declaredAt;
+	}
 
-	/** Maps type declarations to a {@link SemNamedType} types. */
-	public static final AbsAttribute<AbsTypDecl, SemNamedType> declaresType = new AbsAttribute<AbsTypDecl, SemNamedType>();
+	/**
+	 * Returns the mapping of type declarations to {@link SemNamedType} types.
+	 * 
+	 * @return The mapping of type declarations to {@link SemNamedType} types.
+	 */
+	public static AbsAttribute<AbsTypDecl, SemNamedType> declaresType() {
+		return CompilationContext.current().declaresType;
+	}
 
-	/** Maps type expressions to types. */
-	public static final AbsAttribute<AbsType, SemType> isType = new AbsAttribute<AbsType, SemType>();
+	/**
+	 * Returns the mapping of type expressions to types.
+	 * 
+	 * @return The mapping of type expressions to types.
+	 */
+	public static AbsAttribute<AbsType, SemType> isType() {
+		return CompilationContext.current().isType;
+	}
 
-	/** Maps value expressions to types. */
-	public static final AbsAttribute<AbsExpr, SemType> isOfType = new AbsAttribute<AbsExpr, SemType>();
+	/**
+	 * Returns the mapping of value expressions to types.
+	 * 
+	 * @return The mapping of value expressions to types.
+	 */
+	public static AbsAttribute<AbsExpr, SemType> isOfType() {
+		return CompilationContext.current().isOfType;
+	}
 
-	/** Denotes whether a value expression can denote an address. */
-	public static final AbsAttribute<AbsExpr, Boolean> isAddr = new AbsAttribute<AbsExpr, Boolean>();
+	/**
+	 * Returns the attribute denoting whether a value expression can denote an address.
+	 * 
+	 * @return The attribute denoting whether a value expression can denote an address.
+	 */
+	public static AbsBoolAttribute<AbsExpr> isAddr() {
+		return CompilationContext.current().isAddr;
+	}
+
+	/**
+	 * Returns the mapping of component declarations to their record types.
+	 * 
+	 * @return The mapping of component declarations to their record types.
+	 */
+	public static AbsAttribute<AbsCompDecl, AbsRecType> compOf() {
+		return CompilationContext.current().compOf;
+	}
 
-	/** Maps component declarations to their corresponding type declarations
-	    typ r : rec(x : int, y : int)
-	    (x : int) -> r
-	    (y : int) -> y
-	**/
-	public static final AbsAttribute<AbsCompDecl, AbsRecType> compOf = new AbsAttribute<AbsCompDecl, AbsRecType>();
-	
 	/**
 	 * Constructs a new phase of semantic analysis.
 	 */
@@ -37,10 +37,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsArrExpr arrExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(arrExpr);
+		SemType type = SemAn.isOfType().get(arrExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(arrExpr);
+		Boolean hasAddr = SemAn.isAddr().get(arrExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -50,7 +50,7 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsArrType arrType, Object visArg) {
-		SemType type = SemAn.isType.get(arrType);
+		SemType type = SemAn.isType().get(arrType);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -58,10 +58,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsAtomExpr atomExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(atomExpr);
+		SemType type = SemAn.isOfType().get(atomExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(atomExpr);
+		Boolean hasAddr = SemAn.isAddr().get(atomExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -71,7 +71,7 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsAtomType atomType, Object visArg) {
-		SemType type = SemAn.isType.get(atomType);
+		SemType type = SemAn.isType().get(atomType);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -79,10 +79,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsBinExpr binExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(binExpr);
+		SemType type = SemAn.isOfType().get(binExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(binExpr);
+		Boolean hasAddr = SemAn.isAddr().get(binExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -92,10 +92,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsBlockExpr blockExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(blockExpr);
+		SemType type = SemAn.isOfType().get(blockExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(blockExpr);
+		Boolean hasAddr = SemAn.isAddr().get(blockExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -105,10 +105,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsCastExpr castExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(castExpr);
+		SemType type = SemAn.isOfType().get(castExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(castExpr);
+		Boolean hasAddr = SemAn.isAddr().get(castExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -118,10 +118,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsDelExpr delExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(delExpr);
+		SemType type = SemAn.isOfType().get(delExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(delExpr);
+		Boolean hasAddr = SemAn.isAddr().get(delExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -131,16 +131,16 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsFunName funName, Object visArg) {
-		AbsDecl decl = SemAn.declaredAt.get(funName);
+		AbsDecl decl = SemAn.declaredAt().get(funName);
 		if (decl != null) {
 			logger.begElement("declaredAt");
 			logger.addAttribute("location", decl.toString());
 			logger.endElement();
 		}
-		SemType type = SemAn.isOfType.get(funName);
+		SemType type = SemAn.isOfType().get(funName);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(funName);
+		Boolean hasAddr = SemAn.isAddr().get(funName);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -150,10 +150,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsNewExpr newExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(newExpr);
+		SemType type = SemAn.isOfType().get(newExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(newExpr);
+		Boolean hasAddr = SemAn.isAddr().get(newExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -163,7 +163,7 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsPtrType ptrType, Object visArg) {
-		SemType type = SemAn.isType.get(ptrType);
+		SemType type = SemAn.isType().get(ptrType);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -171,10 +171,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsRecExpr recExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(recExpr);
+		SemType type = SemAn.isOfType().get(recExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(recExpr);
+		Boolean hasAddr = SemAn.isAddr().get(recExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -184,7 +184,7 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsRecType recType, Object visArg) {
-		SemType type = SemAn.isType.get(recType);
+		SemType type = SemAn.isType().get(recType);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -192,7 +192,7 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsTypDecl typDecl, Object visArg) {
-		SemNamedType type = SemAn.declaresType.get(typDecl);
+		SemNamedType type = SemAn.declaresType().get(typDecl);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -200,13 +200,13 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsTypName typName, Object visArg) {
-		AbsDecl decl = SemAn.declaredAt.get(typName);
+		AbsDecl decl = SemAn.declaredAt().get(typName);
 		if (decl != null) {
 			logger.begElement("declaredAt");
 			logger.addAttribute("location", decl.toString());
 			logger.endElement();
 		}
-		SemType type = SemAn.isType.get(typName);
+		SemType type = SemAn.isType().get(typName);
 		if (type != null)
 			type.log(logger);
 		return null;
@@ -214,10 +214,10 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsUnExpr unExpr, Object visArg) {
-		SemType type = SemAn.isOfType.get(unExpr);
+		SemType type = SemAn.isOfType().get(unExpr);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(unExpr);
+		Boolean hasAddr = SemAn.isAddr().get(unExpr);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
@@ -227,16 +227,16 @@ public class SemLogger extends AbsNullVisitor<Object, Object> {
 
 	@Override
 	public Object visit(AbsVarName varName, Object visArg) {
-		AbsVarDecl decl = (AbsVarDecl) SemAn.declaredAt.get(varName);
+		AbsVarDecl decl = (AbsVarDecl) SemAn.declaredAt().get(varName);
 		if (decl != null) {
 			logger.begElement("declaredAt");
 			logger.addAttribute("location", decl.toString());
 			logger.endElement();
 		}
-		SemType type = SemAn.isOfType.get(varName);
+		SemType type = SemAn.isOfType().get(varName);
 		if (type != null)
 			type.log(logger);
-		Boolean hasAddr = SemAn.isAddr.get(varName);
+		Boolean hasAddr = SemAn.isAddr().get(varName);
 		if ((hasAddr != null) && (hasAddr == true)) {
 			logger.begElement("addr");
 			logger.endElement();
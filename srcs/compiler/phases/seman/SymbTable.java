@@ -24,40 +24,53 @@ public class SymbTable {
 	 */
 	private class ScopedDecl {
 
+		/** The ID of the name. */
+		public final int nameId;
+
 		/** The depth of the scope the declaration belongs to. */
 		public final int depth;
 
 		/** The declaration. */
 		public final AbsDecl decl;
 
+		/** The declaration of the same name this declaration hides. */
+		public final ScopedDecl hidden;
+
 		/**
 		 * Constructs a new record denoting a declaration of a name within a certain
 		 * scope.
 		 * 
-		 * @param depth The depth of the scope the declaration belongs to.
-		 * @param decl  The declaration.
+		 * @param nameId The ID of the name.
+		 * @param depth  The depth of the scope the declaration belongs to.
+		 * @param decl   The declaration.
+		 * @param hidden The declaration of the same name this declaration hides.
 		 */
-		public ScopedDecl(int depth, AbsDecl decl) {
+		public ScopedDecl(int nameId, int depth, AbsDecl decl, ScopedDecl hidden) {
+			this.nameId = nameId;
 			this.depth = depth;
 			this.decl = decl;
+			this.hidden = hidden;
 		}
 
 	}
 
 	/**
-	 * A mapping of names into lists of records denoting declarations at different
-	 * scopes. At each moment during the lifetime of a symbol table, the declaration
-	 * list corresponding to a particular name contains all declarations that name
-	 * within currently active scopes: the declaration at the inner most scope is
-	 * the first in the list and is visible, the other declarations are hidden.
+	 * A mapping of names, i.e., their IDs (see
+	 * {@link compiler.data.symbol.NameTable}), into lists of records denoting
+	 * declarations at different scopes. At each moment during the lifetime of a
+	 * symbol table, the declaration list corresponding to a particular name
+	 * contains all declarations that name within currently active scopes: the
+	 * declaration at the inner most scope is the first in the list and is
+	 * visible, the other declarations are hidden. Each list is linked through
+	 * {@link ScopedDecl#hidden}.
 	 */
-	private final HashMap<String, LinkedList<ScopedDecl>> allDeclsOfAllNames;
+	private ScopedDecl[] allDeclsOfAllNames;
 
 	/**
-	 * The list of scopes. Each scope is represented by a list of names declared
+	 * The list of scopes. Each scope is represented by a list of declarations
 	 * within it.
 	 */
-	private final LinkedList<LinkedList<String>> scopes;
+	private final LinkedList<LinkedList<ScopedDecl>> scopes;
 
 	/** The depth of the currently active scope. */
 	private int currDepth;
@@ -69,8 +82,8 @@ public class SymbTable {
 	 * Constructs a new symbol table.
 	 */
 	public SymbTable() {
-		allDeclsOfAllNames = new HashMap<String, LinkedList<ScopedDecl>>();
-		scopes = new LinkedList<LinkedList<String>>();
+		allDeclsOfAllNames = new ScopedDecl[16];
+		scopes = new LinkedList<LinkedList<ScopedDecl>>();
 		currDepth = 0;
 		lock = false;
 		newScope();
@@ -91,29 +104,25 @@ public class SymbTable {
 	 * Once the symbol table is locked, any attempt to insert further declarations
 	 * results in an internal error.
 	 * 
-	 * @param name The name.
-	 * @param decl The declaration.
+	 * @param nameId The ID of the name.
+	 * @param decl   The declaration.
 	 * @throws CannotInsNameException Thrown if this name has already been declared
 	 *                                within the currently active scope.
 	 */
-	public void ins(String name, AbsDecl decl) throws CannotInsNameException {
+	public void ins(int nameId, AbsDecl decl) throws CannotInsNameException {
 		if (lock)
 			throw new Report.InternalError();
 
-		LinkedList<ScopedDecl> allDeclsOfName = allDeclsOfAllNames.get(name);
-		if (allDeclsOfName == null) {
-			allDeclsOfName = new LinkedList<ScopedDecl>();
-			allDeclsOfAllNames.put(name, allDeclsOfName);
-		}
+		if (nameId >= allDeclsOfAllNames.length)
+			allDeclsOfAllNames = Arrays.copyOf(allDeclsOfAllNames, Math.max(2 * allDeclsOfAllNames.length, nameId + 1));
 
-		if (!allDeclsOfName.isEmpty()) {
-			ScopedDecl declOfName = allDeclsOfName.getFirst();
-			if (declOfName.depth == currDepth)
-				throw new CannotInsNameException();
-		}
+		ScopedDecl declOfName = allDeclsOfAllNames[nameId];
+		if (declOfName != null && declOfName.depth == currDepth)
+			throw new CannotInsNameException();
 
-		allDeclsOfName.addFirst(new ScopedDecl(currDepth, decl));
-		scopes.getFirst().addFirst(name);
+		declOfName = new ScopedDecl(nameId, currDepth, decl, declOfName);
+		allDeclsOfAllNames[nameId] = declOfName;
+		scopes.getFirst().addFirst(declOfName);
 	}
 
 	/**
@@ -122,21 +131,21 @@ public class SymbTable {
 	 * enclosing it. If no declaration of the name exists within these scopes, an
 	 * exception is thrown.
 	 * 
-	 * @param name The name.
+	 * @param nameId The ID of the name.
 	 * @return The declaration.
 	 * @throws CannotFndNameException Thrown if the name is not declared within the
 	 *                                currently active scope or any scope enclosing
 	 *                                it.
 	 */
-	public AbsDecl fnd(String name) throws CannotFndNameException {
-		LinkedList<ScopedDecl> allDeclsOfName = allDeclsOfAllNames.get(name);
-		if (allDeclsOfName == null)
+	public AbsDecl fnd(int nameId) throws CannotFndNameException {
+		if (nameId >= allDeclsOfAllNames.length)
 			throw new CannotFndNameException();
 
-		if (allDeclsOfName.isEmpty())
+		ScopedDecl declOfName = allDeclsOfAllNames[nameId];
+		if (declOfName == null)
 			throw new CannotFndNameException();
 
-		return allDeclsOfName.getFirst().decl;
+		return declOfName.decl;
 	}
 
 	/**
@@ -148,7 +157,7 @@ public class SymbTable {
 			throw new Report.InternalError();
 
 		currDepth++;
-		scopes.addFirst(new LinkedList<String>());
+		scopes.addFirst(new LinkedList<ScopedDecl>());
 	}
 
 	/**
@@ -163,8 +172,8 @@ public class SymbTable {
 		if (currDepth == 0)
 			throw new Report.InternalError();
 
-		for (String name : scopes.getFirst()) {
-			allDeclsOfAllNames.get(name).removeFirst();
+		for (ScopedDecl declOfName : scopes.getFirst()) {
+			allDeclsOfAllNames[declOfName.nameId] = declOfName.hidden;
 		}
 		scopes.removeFirst();
 		currDepth--;
@@ -22,12 +22,20 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	private final HashMap<SemRecType, SymbTable> symbTables = new HashMap<SemRecType, SymbTable>();
 
 	/**
-	0: Type declarations. SemAn.declaresType
-	1: Type expressions. SemAn.isType
+	0: Type declarations. SemAn.declaresType()
+	1: Type expressions. SemAn.isType()
 		2: Calculate expression. An integer is expected. Is used for the array length. Result is stored in exprVaue.
 		3: Record expression. Go through compDecls and add them to recDecl.
-	4: Value expressions. SemAn.isOfType
+	4: Value expressions. SemAn.isOfType()
 	5: Assert parameter declarations are not of type void.
+
+	Passes 0 and 1 are done by subvisitors typDeclResolver() and typeResolver()
+	within a single traversal, pass 4 is done by visiting the source, and pass 5
+	is done by subvisitor funDeclChecker(), see AbsFusedVisitor.
+
+	Passes 4 and 5 only read what passes 0 and 1 have resolved (see resolved())
+	and write attributes of nodes within the declaration being visited, so
+	top-level declarations can be visited by concurrent threads.
 	
 	**/
 
@@ -37,8 +45,114 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 		this.lock = l;
 	}
 
-	private static long exprValue = 0;
-	private static Vector<SemType> recDecl = new Vector<SemType>();
+	private long exprValue = 0;
+	private Vector<SemType> recDecl = new Vector<SemType>();
+
+	/**
+	 * Returns a subvisitor resolving type declarations (pass 0).
+	 * 
+	 * @return The pre-visitor of an {@link AbsFusedVisitor}.
+	 */
+	public AbsVisitor<Boolean, Object> typDeclResolver() {
+		return new AbsNullVisitor<Boolean, Object>() {
+
+			@Override
+			public Boolean visit(AbsTypDecl typDecl, Object visArg) {
+				typDecl.accept(TypeResolver.this, 0);
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns a subvisitor resolving type expressions (pass 1). Each type
+	 * expression is resolved as a whole once its root is reached.
+	 * 
+	 * @return The pre-visitor of an {@link AbsFusedVisitor}.
+	 */
+	public AbsVisitor<Boolean, Object> typeResolver() {
+		return new AbsNullVisitor<Boolean, Object>() {
+
+			@Override
+			public Boolean visit(AbsArrType arrType, Object visArg) {
+				arrType.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsAtomType atomType, Object visArg) {
+				atomType.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsPtrType ptrType, Object visArg) {
+				ptrType.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsRecType recType, Object visArg) {
+				recType.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsTypDecl typDecl, Object visArg) {
+				typDecl.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsTypName typName, Object visArg) {
+				typName.accept(TypeResolver.this, 1);
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns a subvisitor checking types of parameters and results of functions
+	 * (pass 5). It must be used after value expressions have been resolved.
+	 * 
+	 * @return The pre-visitor of an {@link AbsFusedVisitor}.
+	 */
+	public AbsVisitor<Boolean, Object> funDeclChecker() {
+		return new AbsNullVisitor<Boolean, Object>() {
+
+			@Override
+			public Boolean visit(AbsFunDecl funDecl, Object visArg) {
+				funDecl.accept(TypeResolver.this, 5);
+				return false;
+			}
+
+			@Override
+			public Boolean visit(AbsParDecl parDecl, Object visArg) {
+				parDecl.accept(TypeResolver.this, 5);
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * Returns the type a type expression has been resolved to by pass 1 without
+	 * resolving it again.
+	 * 
+	 * @param type The type expression.
+	 * @return The type.
+	 */
+	private SemType resolved(AbsType type) {
+		if (type instanceof AbsTypName) {
+			AbsDecl decl = SemAn.declaredAt().get((AbsTypName) type);
+			return decl instanceof AbsTypDecl ? resolved(((AbsTypDecl) decl).type) : null;
+		}
+		if (type instanceof AbsAtomType)
+			return type.accept(this, 1);
+		return SemAn.isType().get(type);
+	}
 
 	@Override
 	public SemType visit(AbsArgs args, Object visArg) {
@@ -61,10 +175,10 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				SemType array = arrExpr.array.accept(this, 4);
 				SemType index = arrExpr.index.accept(this, 4);
 				if (!(array instanceof SemArrType)) throw new Report.Error("Array type is expected at " + arrExpr);
-				if (!index.matches(new SemIntType())) throw new Report.Error("Expression of type int is expected when accessing array element at " + arrExpr);
+				if (!index.matches(SemTypeFactory.intType())) throw new Report.Error("Expression of type int is expected when accessing array element at " + arrExpr);
 
 				SemType ret = ((SemArrType) array).elemType;
-				if (!lock) SemAn.isOfType.put(arrExpr, ret);
+				if (!lock) SemAn.isOfType().put(arrExpr, ret);
 				return ret;
 			}
 			
@@ -79,23 +193,23 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsArrType arrType, Object visArg) {
 		switch ((int) visArg) {
 			case 1: {
-				long fv = TypeResolver.exprValue;
+				long fv = exprValue;
 
-				TypeResolver.exprValue = 0;
+				exprValue = 0;
 				arrType.len.accept(this, 2);
-				if (TypeResolver.exprValue <= 0) throw new Report.Error("A positive number is expected for length of an array at " + arrType);
+				if (exprValue <= 0) throw new Report.Error("A positive number is expected for length of an array at " + arrType);
 
 				SemType type = arrType.elemType.accept(this, 1);
 				if (type instanceof SemVoidType) throw new Report.Error("Array at " + arrType + " cannot be of type void");
 
-				SemArrType ret = new SemArrType(TypeResolver.exprValue, type);
-				if (!lock) SemAn.isType.put(arrType, ret);
+				SemArrType ret = SemTypeFactory.arrType(exprValue, type);
+				if (!lock) SemAn.isType().put(arrType, ret);
 
-				TypeResolver.exprValue = fv;
+				exprValue = fv;
 				return ret;
 			}
 
-			case 4: return SemAn.isType.get(arrType);
+			case 4: return SemAn.isType().get(arrType);
 
 			default:
 				arrType.len.accept(this, visArg);
@@ -113,14 +227,14 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 4: {
 				SemType dst = assignStmt.dst.accept(this, 4);
 				SemType src = assignStmt.src.accept(this, 4);
-				SemType reqInt = new SemIntType();
-				SemType reqChar = new SemCharType();
-				SemType reqBool = new SemBoolType();
+				SemType reqInt = SemTypeFactory.intType();
+				SemType reqChar = SemTypeFactory.charType();
+				SemType reqBool = SemTypeFactory.boolType();
 				if (!dst.matches(src)) throw new Report.Error("Expressions at " + assignStmt + " in assign statement must be of same type");
 				if (!dst.matches(reqInt) && !dst.matches(reqChar) && !dst.matches(reqBool) && !(dst instanceof SemPtrType)) throw new Report.Error("Expected int, char, bool or pointer type expressions in assign statement at " + assignStmt);
 
-				SemType ret = new SemVoidType();
-			///	SemAn.isOfType.put(assignStmt, ret);
+				SemType ret = SemTypeFactory.voidType();
+			///	SemAn.isOfType().put(assignStmt, ret);
 				return ret;
 			}
 
@@ -135,9 +249,9 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsAtomExpr atomExpr, Object visArg) {
 		switch ((int) visArg) {
 			case 2: {
-				if (TypeResolver.exprValue < 0) return null;
+				if (exprValue < 0) return null;
 				if (atomExpr.type == AbsAtomExpr.Type.INT) {
-					TypeResolver.exprValue += Integer.valueOf(atomExpr.expr);
+					exprValue += Integer.valueOf(atomExpr.expr);
 					return null;
 				}
 
@@ -148,33 +262,33 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				SemType ret;
 				switch (atomExpr.type) {
 					case INT:
-						ret = new SemIntType();
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.intType();
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					case CHAR:
-						ret = new SemCharType();
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.charType();
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					case BOOL:
-						ret = new SemBoolType();
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.boolType();
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					case VOID:
-						ret = new SemVoidType();
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.voidType();
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					case PTR:
-						ret = new SemPtrType(new SemVoidType());
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.ptrType(SemTypeFactory.voidType());
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					case STR:
-						ret = new SemPtrType(new SemCharType());
-						if (!lock) SemAn.isOfType.put(atomExpr, ret);
+						ret = SemTypeFactory.ptrType(SemTypeFactory.charType());
+						if (!lock) SemAn.isOfType().put(atomExpr, ret);
 						return ret;
 
 					default: throw new Report.Error("Cannot determine type of atomic expression at " + atomExpr);
@@ -193,10 +307,10 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 1: 
 			case 4: {
 				switch (atomType.type) {
-					case INT: return new SemIntType();
-					case CHAR: return new SemCharType();
-					case BOOL: return new SemBoolType();
-					case VOID: return new SemVoidType();
+					case INT: return SemTypeFactory.intType();
+					case CHAR: return SemTypeFactory.charType();
+					case BOOL: return SemTypeFactory.boolType();
+					case VOID: return SemTypeFactory.voidType();
 
 					default: throw new Report.Error("Cannot type resolve an atom type at " + atomType);
 				}
@@ -211,22 +325,22 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsBinExpr binExpr, Object visArg) {
 		switch ((int) visArg) {
 			case 2: {
-				long fv = TypeResolver.exprValue;
-				TypeResolver.exprValue = 0;
+				long fv = exprValue;
+				exprValue = 0;
 				binExpr.fstExpr.accept(this, 2);
 
-				long sv = TypeResolver.exprValue;
-				TypeResolver.exprValue = 0;
+				long sv = exprValue;
+				exprValue = 0;
 				binExpr.sndExpr.accept(this, 2);
 
-				long tv = TypeResolver.exprValue;
+				long tv = exprValue;
 
 				switch (binExpr.oper) {
-					case ADD: TypeResolver.exprValue = fv + sv + tv; break;
-					case SUB: TypeResolver.exprValue = fv + sv - tv; break;
-					case MUL: TypeResolver.exprValue = fv + sv * tv; break;
-					case DIV: TypeResolver.exprValue = fv + sv / tv; break;
-					case MOD: TypeResolver.exprValue = fv + sv % tv; break;
+					case ADD: exprValue = fv + sv + tv; break;
+					case SUB: exprValue = fv + sv - tv; break;
+					case MUL: exprValue = fv + sv * tv; break;
+					case DIV: exprValue = fv + sv / tv; break;
+					case MOD: exprValue = fv + sv % tv; break;
 
 					default: throw new Report.Error("Cannot evaluate expression at " + binExpr);
 				}
@@ -241,11 +355,11 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 					case IOR:
 					case XOR:
 					case AND:
-						SemType req = (SemType) new SemBoolType();
+						SemType req = SemTypeFactory.boolType();
 						if (!f.matches(req)) throw new Report.Error("Expression of type boolean is expected as first operand of a &, |, ^ logical expression at " + binExpr);
 						if (!s.matches(req)) throw new Report.Error("Expression of type boolean is expected as second operand of a &, |, ^ logical expression at " + binExpr);
 
-						if (!lock) SemAn.isOfType.put(binExpr, req);
+						if (!lock) SemAn.isOfType().put(binExpr, req);
 						return req;
 
 					case ADD:
@@ -253,24 +367,24 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 					case MUL:
 					case DIV:
 					case MOD: {
-						SemType reqInt = (SemType) new SemIntType();
-						SemType reqChar = (SemType) new SemCharType();
+						SemType reqInt = SemTypeFactory.intType();
+						SemType reqChar = SemTypeFactory.charType();
 						if (!f.matches(s)) throw new Report.Error("Expressions of same types are expected in a +, -, *, /, % arithmetic expression at " + binExpr);
 						if (!f.matches(reqInt) && !f.matches(reqChar)) throw new Report.Error("Expressions of type int or char are expected for +, -, *, /, % arithmetic expression at " + binExpr);
 
-						if (!lock) SemAn.isOfType.put(binExpr, reqInt);
+						if (!lock) SemAn.isOfType().put(binExpr, reqInt);
 						return reqInt;
 					}
 
 					case EQU:
 					case NEQ: {
-						SemType reqInt = (SemType) new SemIntType();
-						SemType reqChar = (SemType) new SemCharType();
-						SemType reqBool = (SemType) new SemBoolType();
+						SemType reqInt = SemTypeFactory.intType();
+						SemType reqChar = SemTypeFactory.charType();
+						SemType reqBool = SemTypeFactory.boolType();
 						if (!f.matches(s)) throw new Report.Error("Expressions of same types are expected in a ==, != comparison expression at " + binExpr + " " + f + " " + s);
 						if (!f.matches(reqInt) && !f.matches(reqChar) && !f.matches(reqBool) && !(f instanceof SemPtrType)) throw new Report.Error("Expressions of type int, char, bool or pointer are expected for a ==, != comparison expression at " + binExpr);
 
-						if (!lock) SemAn.isOfType.put(binExpr, reqBool);
+						if (!lock) SemAn.isOfType().put(binExpr, reqBool);
 						return reqBool;
 					}
 
@@ -278,13 +392,13 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 					case GTH:
 					case LEQ:
 					case GEQ: {
-						SemType reqInt = (SemType) new SemIntType();
-						SemType reqChar = (SemType) new SemCharType();
-						SemType reqBool = (SemType) new SemBoolType();
+						SemType reqInt = SemTypeFactory.intType();
+						SemType reqChar = SemTypeFactory.charType();
+						SemType reqBool = SemTypeFactory.boolType();
 						if (!f.matches(s)) throw new Report.Error("Expressions of same types are expected in a >, <, >=, <= relational expression at " + binExpr);
 						if (!f.matches(reqInt) && !f.matches(reqChar) && !(f instanceof SemPtrType)) throw new Report.Error("Expressions of type int, char or pointer are expected for a >, <, >=, <= relational expression at " + binExpr);
 
-						if (!lock) SemAn.isOfType.put(binExpr, reqBool);
+						if (!lock) SemAn.isOfType().put(binExpr, reqBool);
 						return reqBool;
 					}
 
@@ -313,7 +427,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				blockExpr.stmts.accept(this, 4);
 
 				SemType ret = blockExpr.expr.accept(this, 4);
-				if (!lock) SemAn.isOfType.put(blockExpr, ret);
+				if (!lock) SemAn.isOfType().put(blockExpr, ret);
 				return ret;
 			}
 
@@ -332,16 +446,16 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				throw new Report.Error("Cannot evaluate expression at " + castExpr);
 
 			case 4: {
-				SemType type = castExpr.type.accept(this, 1); /// !!!IMPORTANT: visArg = 1
+				SemType type = resolved(castExpr.type);
 				SemType expr = castExpr.expr.accept(this, 4);
 
-				SemType reqInt = new SemIntType();
-				SemType reqChar = new SemCharType();
+				SemType reqInt = SemTypeFactory.intType();
+				SemType reqChar = SemTypeFactory.charType();
 				if (!expr.matches(reqInt) && !expr.matches(reqChar) && !(expr instanceof SemPtrType)) throw new Report.Error("Expected int, char or pointer type as expression in cast expression at " + castExpr);
 				if (!type.matches(reqInt) && !type.matches(reqChar) && !(type instanceof SemPtrType)) throw new Report.Error("Expected int, char or pointer type as type in cast expression at " + castExpr);
 
 				SemType ret = type;
-				if (!lock) SemAn.isOfType.put(castExpr, ret);
+				if (!lock) SemAn.isOfType().put(castExpr, ret);
 				return ret;
 			}
 
@@ -371,7 +485,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsCompDecls compDecls, Object visArg) {
 		switch ((int) visArg) {
 			case 3: {
-				TypeResolver.recDecl = new Vector<SemType>();
+				recDecl = new Vector<SemType>();
 				for (AbsCompDecl compDecl : compDecls.compDecls()) {
 					SemType type = compDecl.accept(this, 3);
 					if (type instanceof SemVoidType) throw new Report.Error("Component of a record cannot be of type void at " + compDecl);
@@ -409,10 +523,10 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 4: {
 				SemType expr = delExpr.expr.accept(this, 4);
 				if (!(expr instanceof SemPtrType)) throw new Report.Error("Expression of pointer type is expected in del(EXPR) expression at " + delExpr);
-				if (expr.matches(new SemPtrType(new SemVoidType()))) throw new Report.Error("Expression must not point to void in del(EXPR) expression at " + delExpr);
+				if (expr.matches(SemTypeFactory.ptrType(SemTypeFactory.voidType()))) throw new Report.Error("Expression must not point to void in del(EXPR) expression at " + delExpr);
 
-				SemType ret = new SemVoidType();
-				if (!lock) SemAn.isOfType.put(delExpr, ret);
+				SemType ret = SemTypeFactory.voidType();
+				if (!lock) SemAn.isOfType().put(delExpr, ret);
 				return ret;	
 			}
 
@@ -438,15 +552,15 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 4: {
 				funDecl.parDecls.accept(this, 4);
 				SemType type = funDecl.type.accept(this, 4);
-			///	SemAn.isOfType.put(funDecl, type);
+			///	SemAn.isOfType().put(funDecl, type);
 				return type;
 			}
 
 			case 5: {
 				funDecl.parDecls.accept(this, 5);
 				funDecl.type.accept(this, 5);
-				SemType type = funDecl.type.accept(this, 1);
-				if (!type.matches(new SemVoidType()) && !type.matches(new SemIntType()) && !type.matches(new SemCharType()) && !type.matches(new SemBoolType()) && !(type instanceof SemPtrType))
+				SemType type = resolved(funDecl.type);
+				if (!type.matches(SemTypeFactory.voidType()) && !type.matches(SemTypeFactory.intType()) && !type.matches(SemTypeFactory.charType()) && !type.matches(SemTypeFactory.boolType()) && !(type instanceof SemPtrType))
 					throw new Report.Error("Return type of a function must be of void, int, char, bool or pointer type");
 				return null;
 			}
@@ -466,7 +580,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				SemType type = funDef.type.accept(this, 4);
 				SemType anst = funDef.value.accept(this, 4);
 				if (!type.matches(anst)) throw new Report.Error("Type returned by function must be of same type as defined");
-			///	SemAn.isOfType.put(funDef, type);
+			///	SemAn.isOfType().put(funDef, type);
 				return type;
 			}
 
@@ -485,10 +599,10 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				throw new Report.Error("Cannot evaluate expression");
 
 			case 4: {
-				AbsDecl fx = SemAn.declaredAt.get(funName);
+				AbsDecl fx = SemAn.declaredAt().get(funName);
 				if (!(fx instanceof AbsFunDecl)) throw new Report.Error("Variable " + funName.name + " is not a function");
 
-				AbsFunDecl decl = (AbsFunDecl) SemAn.declaredAt.get(funName);
+				AbsFunDecl decl = (AbsFunDecl) SemAn.declaredAt().get(funName);
 				Vector<AbsParDecl> decls = decl.parDecls.parDecls();
 				Vector<AbsExpr> args = funName.args.args();
 
@@ -499,20 +613,20 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 					SemType have = args.get(i).accept(this, 4);
 
 					if (!(args.get(i) instanceof AbsAtomExpr)) {
-						SemAn.isOfType.put(args.get(i), have);
+						SemAn.isOfType().put(args.get(i), have);
 					}
 
 					if (!need.matches(have)) throw new Report.Error("Parameter mismatch. Expected " + need + " instead of " + have + ".");
-					if (!need.matches(new SemIntType()) && !need.matches(new SemCharType()) && !need.matches(new SemBoolType())
+					if (!need.matches(SemTypeFactory.intType()) && !need.matches(SemTypeFactory.charType()) && !need.matches(SemTypeFactory.boolType())
 						&& !(need instanceof SemPtrType)) throw new Report.Error("Expected int, char, bool or pointer as a parameter of a function " + funName.name);
 				}
 
 				SemType type = decl.type.accept(this, 4);
-				if (!type.matches(new SemIntType()) && !type.matches(new SemCharType()) && !type.matches(new SemBoolType()) &&
-					!type.matches(new SemVoidType()) && !(type instanceof SemPtrType))
+				if (!type.matches(SemTypeFactory.intType()) && !type.matches(SemTypeFactory.charType()) && !type.matches(SemTypeFactory.boolType()) &&
+					!type.matches(SemTypeFactory.voidType()) && !(type instanceof SemPtrType))
 					throw new Report.Error("Function " + funName.name + " must return int, char, bool or pointer");
 
-				if (!lock) SemAn.isOfType.put(funName, type);
+				if (!lock) SemAn.isOfType().put(funName, type);
 				return type;
 			}
 
@@ -529,13 +643,13 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				SemType cond = ifStmt.cond.accept(this, 4);
 				SemType thenStmts = ifStmt.thenStmts.accept(this, 4);
 				SemType elseStmts = ifStmt.elseStmts.accept(this, 4);
-				SemType reqBool = new SemBoolType();
-				SemType reqVoid = new SemVoidType();
+				SemType reqBool = SemTypeFactory.boolType();
+				SemType reqVoid = SemTypeFactory.voidType();
 				if (!cond.matches(reqBool)) throw new Report.Error("Condition expression in if statement must be a bool expression at " + ifStmt);
 				if (!thenStmts.matches(reqVoid)) throw new Report.Error("Expected statements in then statement in if expression at " + ifStmt);
 				if (elseStmts != null && !elseStmts.matches(reqVoid)) throw new Report.Error("Expected statements in else statement in if expression at " + ifStmt);
 
-				SemType ret = new SemVoidType();
+				SemType ret = SemTypeFactory.voidType();
 				return ret;
 			}
 
@@ -554,11 +668,11 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				throw new Report.Error("Cannot evaluate expression");
 
 			case 4: {
-				SemType type = newExpr.type.accept(this, 1); /// !!!IMPORTANT: visArg = 1, so that type is resolved.
+				SemType type = resolved(newExpr.type);
 				if (type instanceof SemVoidType) throw new Report.Error("Type void cannot be used for new(TYPE) expression at " + newExpr);
 
-				SemType ret = new SemPtrType(type);
-				if (!lock) SemAn.isOfType.put(newExpr, ret);
+				SemType ret = SemTypeFactory.ptrType(type);
+				if (!lock) SemAn.isOfType().put(newExpr, ret);
 				return ret;
 			}
 
@@ -578,8 +692,8 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 
 			case 5: {
 				SemType type = parDecl.type.accept(this, 4);
-				if (type.matches(new SemVoidType())) throw new Report.Error("Parameter of a function cannot be of type void at " + parDecl);
-				if (!type.matches(new SemIntType()) && !type.matches(new SemCharType()) && !type.matches(new SemBoolType()) && !(type instanceof SemPtrType)) throw new Report.Error("Parameters of a function must be of int, char, bool or pointer type");
+				if (type.matches(SemTypeFactory.voidType())) throw new Report.Error("Parameter of a function cannot be of type void at " + parDecl);
+				if (!type.matches(SemTypeFactory.intType()) && !type.matches(SemTypeFactory.charType()) && !type.matches(SemTypeFactory.boolType()) && !(type instanceof SemPtrType)) throw new Report.Error("Parameters of a function must be of int, char, bool or pointer type");
 				return type;
 			}
 
@@ -603,14 +717,15 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	@Override
 	public SemType visit(AbsPtrType ptrType, Object visArg) {
 		switch ((int) visArg) {
-			case 1:
-			case 4: {
+			case 1: {
 				SemType type = ptrType.ptdType.accept(this, 1);
-				SemPtrType ret = new SemPtrType(type);
-				if (!lock) SemAn.isType.put(ptrType, ret);
+				SemPtrType ret = SemTypeFactory.ptrType(type);
+				if (!lock) SemAn.isType().put(ptrType, ret);
 				return ret;
 			}
 
+			case 4: return SemAn.isType().get(ptrType);
+
 			default:
 				ptrType.ptdType.accept(this, visArg);
 				return null;
@@ -630,14 +745,14 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				AbsDecl decl;
 				SymbTable tab = symbTables.get((SemRecType) record);
 				try {
-					decl = tab.fnd(recExpr.comp.name);
+					decl = tab.fnd(recExpr.comp.nameId);
 				} catch (Exception e) {
 					throw new Report.Error("Cannot find component name " + recExpr.comp.name);
 				}
 
 				SemType ret = decl.accept(this, 4);
-				if (!lock) SemAn.declaredAt.put(recExpr.comp, decl);
-				if (!lock) SemAn.isOfType.put(recExpr, ret);
+				if (!lock) SemAn.declaredAt().put(recExpr.comp, decl);
+				if (!lock) SemAn.isOfType().put(recExpr, ret);
 				return ret;
 			}
 
@@ -652,27 +767,27 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsRecType recType, Object visArg) {
 		switch ((int) visArg) {
 			case 1: {
-				Vector<SemType> fv = TypeResolver.recDecl;
+				Vector<SemType> fv = recDecl;
 
 				recType.compDecls.accept(this, 3);	
-				SemRecType type = new SemRecType(TypeResolver.recDecl);
-				if (!lock) SemAn.isType.put(recType, type);
+				SemRecType type = new SemRecType(recDecl);
+				if (!lock) SemAn.isType().put(recType, type);
 
 				for (AbsCompDecl decl : recType.compDecls.compDecls())
-					SemAn.compOf.put(decl, recType);
+					SemAn.compOf().put(decl, recType);
 
 				SymbTable tab = new SymbTable();
 				for (AbsCompDecl decl : recType.compDecls.compDecls())
 					try {
-						tab.ins(decl.name, decl);
+						tab.ins(decl.nameId, decl);
 					} catch (Exception e) {}
 				symbTables.put(type, tab);
 
-				TypeResolver.recDecl = fv;
+				recDecl = fv;
 				return type;
 			}
 
-			case 4: return SemAn.isType.get(recType);
+			case 4: return SemAn.isType().get(recType);
 
 			default:
 				recType.compDecls.accept(this, visArg);
@@ -682,12 +797,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 
 	@Override
 	public SemType visit(AbsSource source, Object visArg) {
-		source.decls.accept(this, 6);
-
-		source.decls.accept(this, 0);
-		source.decls.accept(this, 1);
 		source.decls.accept(this, 4);
-		source.decls.accept(this, 5);
 		return null;
 	}
 
@@ -697,7 +807,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 4: {
 				for (AbsStmt stmt : stmts.stmts())
 					stmt.accept(this, visArg);
-				return new SemVoidType();
+				return SemTypeFactory.voidType();
 			}
 
 			default:
@@ -713,14 +823,14 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 0: {
 				SemNamedType td = new SemNamedType(typDecl.name);
 				td.define(typDecl.type.accept(this, 0));
-				if (!lock) SemAn.declaresType.put(typDecl, td);
+				if (!lock) SemAn.declaresType().put(typDecl, td);
 				return td;
 			}
 
 			case 1:
 			case 4: {
 				SemType type = typDecl.type.accept(this, visArg);
-			///	SemAn.isType.put(typDecl.type, type);
+			///	SemAn.isType().put(typDecl.type, type);
 				return type;
 			}
 
@@ -735,12 +845,12 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 		switch ((int) visArg) {
 			case 0:
 			case 1: {
-				AbsDecl decl = SemAn.declaredAt.get(typName);
+				AbsDecl decl = SemAn.declaredAt().get(typName);
 				return decl.accept(this, visArg);
 			}
 
 			case 4: {
-				AbsDecl decl = SemAn.declaredAt.get(typName);
+				AbsDecl decl = SemAn.declaredAt().get(typName);
 				return decl.accept(this, 4);
 			}
 
@@ -753,13 +863,13 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsUnExpr unExpr, Object visArg) {
 		switch ((int) visArg) {
 			case 2: {
-				long fv = TypeResolver.exprValue;
-				TypeResolver.exprValue = 0;
+				long fv = exprValue;
+				exprValue = 0;
 				unExpr.subExpr.accept(this, 2);
 
 				switch (unExpr.oper) {
-					case ADD: TypeResolver.exprValue = fv + TypeResolver.exprValue; break;
-					case SUB: TypeResolver.exprValue = fv - TypeResolver.exprValue; break;
+					case ADD: exprValue = fv + exprValue; break;
+					case SUB: exprValue = fv - exprValue; break;
 
 					default: throw new Report.Error("Cannot evaluate expression at " + unExpr);
 				}
@@ -773,38 +883,38 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 				switch (unExpr.oper) {
 					case ADD:
 					case SUB: {
-						SemType req = (SemType) new SemIntType();
+						SemType req = SemTypeFactory.intType();
 						if (!expr.matches(req)) throw new Report.Error("Expression of type int is required for +- unary expression at " + unExpr);
 
-						if (!lock) SemAn.isOfType.put(unExpr, req);
+						if (!lock) SemAn.isOfType().put(unExpr, req);
 						return req;
 					}
 
 					case NOT: {
-						SemType req = (SemType) new SemBoolType();
+						SemType req = SemTypeFactory.boolType();
 						if (!expr.matches(req)) throw new Report.Error("Expression of type bool is required for ! unary expression at " + unExpr);
 
-						if (!lock) SemAn.isOfType.put(unExpr, req);
+						if (!lock) SemAn.isOfType().put(unExpr, req);
 						return req;
 					}
 
 					case ADDR: {
-						SemType req = (SemType) new SemVoidType();
+						SemType req = SemTypeFactory.voidType();
 						if (expr.matches(req)) throw new Report.Error("Expression of void type cannot be used for $ unary expression at " + unExpr);
 
-						SemType ret = (SemType) new SemPtrType(expr);
-						if (!lock) SemAn.isOfType.put(unExpr, ret);
+						SemType ret = SemTypeFactory.ptrType(expr);
+						if (!lock) SemAn.isOfType().put(unExpr, ret);
 						return ret;
 					}
 
 					case DATA: {
-						SemType req = (SemType) new SemPtrType(new SemVoidType());
+						SemType req = SemTypeFactory.ptrType(SemTypeFactory.voidType());
 						if (!(expr instanceof SemPtrType)) throw new Report.Error("Expression of pointer type must be used for @ unary exression at " + unExpr);
 						if (expr.matches(req)) throw new Report.Error("Expression of pointer to void type cannot be used for @ unary expression at " + unExpr);
 
 						SemType ret = ((SemPtrType) expr).ptdType;
-						if (!lock) SemAn.isOfType.put(unExpr, ret);
-						if (!lock) SemAn.isOfType.put(unExpr.subExpr, expr);
+						if (!lock) SemAn.isOfType().put(unExpr, ret);
+						if (!lock) SemAn.isOfType().put(unExpr.subExpr, expr);
 						return ret;
 					}
 
@@ -823,7 +933,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 		switch ((int) visArg) {
 			case 4: {
 				SemType type = varDecl.type.accept(this, 4);
-				if (type.matches(new SemVoidType())) throw new Report.Error("Variable cannot be of type void at " + varDecl);
+				if (type.matches(SemTypeFactory.voidType())) throw new Report.Error("Variable cannot be of type void at " + varDecl);
 				return type;
 			}
 
@@ -837,7 +947,7 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 	public SemType visit(AbsVarName varName, Object visArg) {
 		switch ((int) visArg) {
 			case 4: {
-				AbsDecl decl = SemAn.declaredAt.get(varName);
+				AbsDecl decl = SemAn.declaredAt().get(varName);
 				return decl.accept(this, 4);
 			}
 
@@ -852,12 +962,12 @@ public class TypeResolver extends AbsFullVisitor<SemType, Object> {
 			case 4: {
 				SemType cond = whileStmt.cond.accept(this, 4);
 				SemType stmts = whileStmt.stmts.accept(this, 4);
-				SemType reqBool = new SemBoolType();
-				SemType reqVoid = new SemVoidType();
+				SemType reqBool = SemTypeFactory.boolType();
+				SemType reqVoid = SemTypeFactory.voidType();
 				if (!cond.matches(reqBool)) throw new Report.Error("Expected bool expression as condition of while statement at " + whileStmt);
 				if (!stmts.matches(reqVoid)) throw new Report.Error("Expected statements in then statement of while statement at " + whileStmt);
 
-				SemType ret = new SemVoidType();
+				SemType ret = SemTypeFactory.voidType();
 				return ret;
 			}
 
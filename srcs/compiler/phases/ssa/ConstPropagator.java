@@ -0,0 +1,213 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.phases.imcopt.*;
+
+/**
+ * Sparse conditional constant propagation (see Wegman, Zadeck: Constant
+ * Propagation with Conditional Branches).
+ *
+ * Each temporary variable is either undefined so far, a constant, or not a
+ * constant. Only basic blocks reached along executable edges are evaluated, and
+ * a conditional jump with a constant condition makes only one of its edges
+ * executable. Once nothing changes any more, constant temporary variables are
+ * replaced by their values, conditional jumps with constant conditions become
+ * jumps, and basic blocks that are never executed are removed.
+ *
+ * @author sliva
+ */
+public class ConstPropagator {
+
+	/** The value of a temporary variable that is not a constant. */
+	private static final Object BOTTOM = new Object();
+
+	/** The graph. */
+	private final SsaGraph graph;
+
+	/**
+	 * The values of temporary variables: a constant ({@link Long}),
+	 * {@link #BOTTOM} or {@code null} if undefined so far.
+	 */
+	private final HashMap<Temp, Object> values = new HashMap<Temp, Object>();
+
+	/** Temporary variables assigned exactly once. */
+	private final HashSet<Temp> ssaTemps = new HashSet<Temp>();
+
+	/** The executable edges. */
+	private final HashMap<SsaBlock, HashSet<SsaBlock>> execSuccs = new HashMap<SsaBlock, HashSet<SsaBlock>>();
+
+	/** Set whenever a value or an executable edge is added. */
+	private boolean changed;
+
+	/**
+	 * Constructs a new constant propagator.
+	 *
+	 * @param graph The graph.
+	 */
+	public ConstPropagator(SsaGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Propagates constants through the graph.
+	 */
+	public void propagate() {
+		for (Map.Entry<Temp, Integer> numOfDefs : graph.numOfDefs().entrySet())
+			if (numOfDefs.getValue() == 1 && numOfDefs.getKey() != graph.rv())
+				ssaTemps.add(numOfDefs.getKey());
+		execSuccs.put(graph.entry, new HashSet<SsaBlock>());
+
+		do {
+			changed = false;
+			for (SsaBlock block : graph.rpoBlocks) {
+				if (!execSuccs.containsKey(block))
+					continue;
+				for (SsaPhi phi : block.phis) {
+					Object value = null;
+					for (int pred = 0; pred < block.preds.size(); pred++) {
+						HashSet<SsaBlock> predSuccs = execSuccs.get(block.preds.get(pred));
+						if (predSuccs != null && predSuccs.contains(block))
+							value = meet(value, phi.args.get(pred) == null ? null : eval(phi.args.get(pred)));
+					}
+					update(phi.dst, value);
+				}
+				for (ImcStmt stmt : block.stmts) {
+					Temp def = TempRewriter.def(stmt);
+					if (def != null)
+						update(def, eval(((ImcMOVE) stmt).src));
+					if (stmt instanceof ImcJUMP)
+						markEdge(block, ((ImcJUMP) stmt).label);
+					if (stmt instanceof ImcCJUMP) {
+						ImcCJUMP cjump = (ImcCJUMP) stmt;
+						Object cond = eval(cjump.cond);
+						// An undefined condition is not resolved any further.
+						if (!(cond instanceof Long) || (Long) cond != 0)
+							markEdge(block, cjump.posLabel);
+						if (!(cond instanceof Long) || (Long) cond == 0)
+							markEdge(block, cjump.negLabel);
+					}
+				}
+			}
+		} while (changed);
+
+		// Rewriting.
+		ImcOptimizer optimizer = new ImcOptimizer();
+		TempRewriter rewriter = new TempRewriter(temp -> {
+			return isConst(temp) ? new ImcCONST((Long) values.get(temp)) : null;
+		}, null);
+		for (SsaBlock block : graph.blocks) {
+			if (!execSuccs.containsKey(block))
+				continue;
+			for (SsaPhi phi : block.phis)
+				for (int pred = 0; pred < phi.args.size(); pred++)
+					if (phi.args.get(pred) instanceof ImcTEMP)
+						phi.args.set(pred, (ImcExpr) phi.args.get(pred).accept(rewriter, null));
+			block.phis.removeIf(phi -> isConst(phi.dst));
+
+			Vector<ImcStmt> stmts = new Vector<ImcStmt>();
+			for (ImcStmt stmt : block.stmts) {
+				Temp def = TempRewriter.def(stmt);
+				if (def != null && isConst(def) && ImcOptimizer.isPure(((ImcMOVE) stmt).src))
+					continue;
+				if (stmt instanceof ImcCJUMP) {
+					ImcCJUMP cjump = (ImcCJUMP) stmt;
+					Object cond = eval(cjump.cond);
+					if (cond instanceof Long) {
+						stmts.add(new ImcJUMP((Long) cond != 0 ? cjump.posLabel : cjump.negLabel));
+						continue;
+					}
+				}
+				stmts.add(optimizer.optimize(rewriter.rewriteUses(stmt)));
+			}
+			block.stmts = stmts;
+		}
+		graph.retainEdges((pred, succ) -> execSuccs.containsKey(pred) && execSuccs.get(pred).contains(succ));
+	}
+
+	/**
+	 * Checks whether a temporary variable is known to be a constant.
+	 */
+	private boolean isConst(Temp temp) {
+		return values.get(temp) instanceof Long;
+	}
+
+	/**
+	 * Lowers the value of a temporary variable.
+	 */
+	private void update(Temp temp, Object value) {
+		if (!ssaTemps.contains(temp))
+			return;
+		Object oldValue = values.get(temp);
+		Object newValue = meet(oldValue, value);
+		if (!Objects.equals(oldValue, newValue)) {
+			values.put(temp, newValue);
+			changed = true;
+		}
+	}
+
+	/**
+	 * Marks the edge from a basic block to the basic block at a label as
+	 * executable.
+	 */
+	private void markEdge(SsaBlock block, Label label) {
+		SsaBlock succ = graph.blockAt.get(label);
+		if (succ == null)
+			return;
+		if (execSuccs.get(block).add(succ))
+			changed = true;
+		if (!execSuccs.containsKey(succ)) {
+			execSuccs.put(succ, new HashSet<SsaBlock>());
+			changed = true;
+		}
+	}
+
+	/**
+	 * Combines two values.
+	 */
+	private static Object meet(Object fst, Object snd) {
+		if (fst == null)
+			return snd;
+		if (snd == null)
+			return fst;
+		if (fst == BOTTOM || snd == BOTTOM || !fst.equals(snd))
+			return BOTTOM;
+		return fst;
+	}
+
+	/**
+	 * Evaluates an expression with respect to the current values.
+	 */
+	private Object eval(ImcExpr expr) {
+		if (expr instanceof ImcCONST)
+			return ((ImcCONST) expr).value;
+		if (expr instanceof ImcTEMP) {
+			Temp temp = ((ImcTEMP) expr).temp;
+			return ssaTemps.contains(temp) ? values.get(temp) : BOTTOM;
+		}
+		if (expr instanceof ImcBINOP) {
+			ImcBINOP binOp = (ImcBINOP) expr;
+			Object fst = eval(binOp.fstExpr);
+			Object snd = eval(binOp.sndExpr);
+			if (fst == BOTTOM || snd == BOTTOM)
+				return BOTTOM;
+			if (fst == null || snd == null)
+				return null;
+			Long value = ImcOptimizer.fold(binOp.oper, (Long) fst, (Long) snd);
+			return value == null ? BOTTOM : value;
+		}
+		if (expr instanceof ImcUNOP) {
+			ImcUNOP unOp = (ImcUNOP) expr;
+			Object sub = eval(unOp.subExpr);
+			if (!(sub instanceof Long))
+				return sub;
+			return ImcOptimizer.fold(unOp.oper, (Long) sub);
+		}
+		return BOTTOM;
+	}
+
+}
@@ -0,0 +1,82 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.phases.imcopt.*;
+
+/**
+ * Dead code elimination.
+ *
+ * Stores into memory, calls, jumps and moves to temporary variables assigned
+ * more than once (including the return value) are live. So are the definitions
+ * of temporary variables read by something live. Moves of pure expressions and
+ * phi functions that are not live are removed.
+ *
+ * @author sliva
+ */
+public class DeadCodeEliminator {
+
+	/** The graph. */
+	private final SsaGraph graph;
+
+	/**
+	 * Constructs a new dead code eliminator.
+	 *
+	 * @param graph The graph.
+	 */
+	public DeadCodeEliminator(SsaGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Removes dead code from the graph.
+	 */
+	public void eliminate() {
+		HashMap<Temp, Integer> numOfDefs = graph.numOfDefs();
+		HashMap<Temp, ImcMOVE> defMoves = new HashMap<Temp, ImcMOVE>();
+		HashMap<Temp, SsaPhi> defPhis = new HashMap<Temp, SsaPhi>();
+		HashSet<Temp> live = new HashSet<Temp>();
+		Stack<Temp> pending = new Stack<Temp>();
+
+		for (SsaBlock block : graph.blocks) {
+			for (SsaPhi phi : block.phis)
+				defPhis.put(phi.dst, phi);
+			for (ImcStmt stmt : block.stmts) {
+				Temp def = TempRewriter.def(stmt);
+				if (def != null && def != graph.rv() && numOfDefs.get(def) == 1
+						&& ImcOptimizer.isPure(((ImcMOVE) stmt).src)) {
+					defMoves.put(def, (ImcMOVE) stmt);
+					continue;
+				}
+				for (Temp temp : TempRewriter.uses(stmt))
+					if (live.add(temp))
+						pending.push(temp);
+			}
+		}
+
+		while (!pending.isEmpty()) {
+			Temp temp = pending.pop();
+			Vector<Temp> uses = new Vector<Temp>();
+			if (defMoves.containsKey(temp))
+				uses.addAll(TempRewriter.uses(defMoves.get(temp)));
+			if (defPhis.containsKey(temp))
+				for (ImcExpr arg : defPhis.get(temp).args)
+					if (arg instanceof ImcTEMP)
+						uses.add(((ImcTEMP) arg).temp);
+			for (Temp use : uses)
+				if (live.add(use))
+					pending.push(use);
+		}
+
+		for (SsaBlock block : graph.blocks) {
+			block.phis.removeIf(phi -> !live.contains(phi.dst));
+			block.stmts.removeIf(stmt -> defMoves.get(TempRewriter.def(stmt)) == stmt
+					&& !live.contains(TempRewriter.def(stmt)));
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+
+/**
+ * Promotes slots of the frame to temporary variables.
+ *
+ * Local variables and parameters live in the frame and are accessed through
+ * {@code MEM(FP+offset)}, so without promotion there is hardly anything in
+ * temporary variables to optimize. A slot is promoted unless its address
+ * escapes: if the frame pointer itself is used other than as the base of such
+ * an access (e.g., passed as the static link to a nested function), no slot is
+ * promoted; if the address {@code FP+offset} of an array or a record is
+ * computed, no slot at or above that offset is promoted. All memory accesses
+ * are eight bytes wide, so distinct offsets denote distinct slots.
+ *
+ * Parameters and the static link (slots at nonnegative offsets) are loaded
+ * into their temporary variables at the entry of the function.
+ *
+ * @author sliva
+ */
+public class SlotPromoter {
+
+	/** The frame pointer. */
+	private Temp fp;
+
+	/** Offsets of slots accessed directly. */
+	private final TreeSet<Long> slots = new TreeSet<Long>();
+
+	/** The lowest offset whose address escapes. */
+	private long escapes = Long.MAX_VALUE;
+
+	/** Temporary variables slots are promoted to. */
+	private final HashMap<Long, Temp> temps = new HashMap<Long, Temp>();
+
+	/**
+	 * Promotes the slots of the frame of a code chunk.
+	 *
+	 * @param codeChunk The code chunk.
+	 * @return The code chunk with slots promoted to temporary variables.
+	 */
+	public CodeChunk promote(CodeChunk codeChunk) {
+		fp = codeChunk.frame.FP;
+		Vector<ImcStmt> stmts = codeChunk.stmts();
+		for (ImcStmt stmt : stmts) {
+			if (stmt instanceof ImcMOVE) {
+				scan(((ImcMOVE) stmt).dst);
+				scan(((ImcMOVE) stmt).src);
+			}
+			if (stmt instanceof ImcCJUMP)
+				scan(((ImcCJUMP) stmt).cond);
+		}
+		for (long slot : slots)
+			if (slot < escapes)
+				temps.put(slot, new Temp());
+		if (temps.isEmpty())
+			return codeChunk;
+
+		Vector<ImcStmt> promStmts = new Vector<ImcStmt>();
+		for (ImcStmt stmt : stmts) {
+			if (stmt instanceof ImcMOVE)
+				stmt = new ImcMOVE(rewrite(((ImcMOVE) stmt).dst), rewrite(((ImcMOVE) stmt).src));
+			if (stmt instanceof ImcCJUMP) {
+				ImcCJUMP cjump = (ImcCJUMP) stmt;
+				stmt = new ImcCJUMP(rewrite(cjump.cond), cjump.posLabel, cjump.negLabel);
+			}
+			promStmts.add(stmt);
+			if (stmt instanceof ImcLABEL && ((ImcLABEL) stmt).label == codeChunk.entryLabel)
+				for (long slot : slots)
+					if (slot >= 0 && temps.containsKey(slot))
+						promStmts.add(new ImcMOVE(new ImcTEMP(temps.get(slot)), new ImcMEM(address(slot))));
+		}
+		return new CodeChunk(codeChunk.frame, promStmts, codeChunk.entryLabel, codeChunk.exitLabel);
+	}
+
+	/**
+	 * Returns the offset of an address relative to the frame pointer.
+	 *
+	 * @param addr The address.
+	 * @return The offset or {@code null} if the address is not of the form
+	 *         {@code FP} or {@code FP+offset}.
+	 */
+	private Long offset(ImcExpr addr) {
+		if (addr instanceof ImcTEMP && ((ImcTEMP) addr).temp == fp)
+			return 0L;
+		if (addr instanceof ImcBINOP) {
+			ImcBINOP binOp = (ImcBINOP) addr;
+			if (binOp.oper == ImcBINOP.Oper.ADD && binOp.fstExpr instanceof ImcTEMP
+					&& ((ImcTEMP) binOp.fstExpr).temp == fp && binOp.sndExpr instanceof ImcCONST)
+				return ((ImcCONST) binOp.sndExpr).value;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the address of a slot.
+	 */
+	private ImcExpr address(long slot) {
+		return slot == 0 ? new ImcTEMP(fp)
+				: new ImcBINOP(ImcBINOP.Oper.ADD, new ImcTEMP(fp), new ImcCONST(slot));
+	}
+
+	/**
+	 * Collects accessed slots and escaping addresses.
+	 */
+	private void scan(ImcExpr expr) {
+		if (expr instanceof ImcMEM) {
+			Long slot = offset(((ImcMEM) expr).addr);
+			if (slot != null)
+				slots.add(slot);
+			else
+				scan(((ImcMEM) expr).addr);
+			return;
+		}
+		Long slot = offset(expr);
+		if (slot != null) {
+			// The frame pointer itself is an offset 0 but might be used as a static link.
+			escapes = Math.min(escapes, expr instanceof ImcTEMP ? Long.MIN_VALUE : slot);
+			return;
+		}
+		if (expr instanceof ImcBINOP) {
+			scan(((ImcBINOP) expr).fstExpr);
+			scan(((ImcBINOP) expr).sndExpr);
+		}
+		if (expr instanceof ImcUNOP)
+			scan(((ImcUNOP) expr).subExpr);
+		if (expr instanceof ImcCALL)
+			for (ImcExpr arg : ((ImcCALL) expr).args())
+				scan(arg);
+	}
+
+	/**
+	 * Replaces accesses to promoted slots by temporary variables.
+	 */
+	private ImcExpr rewrite(ImcExpr expr) {
+		if (expr instanceof ImcMEM) {
+			Long slot = offset(((ImcMEM) expr).addr);
+			if (slot != null && temps.containsKey(slot))
+				return new ImcTEMP(temps.get(slot));
+			return new ImcMEM(rewrite(((ImcMEM) expr).addr));
+		}
+		if (expr instanceof ImcBINOP)
+			return new ImcBINOP(((ImcBINOP) expr).oper, rewrite(((ImcBINOP) expr).fstExpr),
+					rewrite(((ImcBINOP) expr).sndExpr));
+		if (expr instanceof ImcUNOP)
+			return new ImcUNOP(((ImcUNOP) expr).oper, rewrite(((ImcUNOP) expr).subExpr));
+		if (expr instanceof ImcCALL) {
+			Vector<ImcExpr> args = new Vector<ImcExpr>();
+			for (ImcExpr arg : ((ImcCALL) expr).args())
+				args.add(rewrite(arg));
+			return new ImcCALL(((ImcCALL) expr).label, args);
+		}
+		return expr;
+	}
+
+}
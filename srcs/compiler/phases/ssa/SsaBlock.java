@@ -0,0 +1,66 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+
+/**
+ * A basic block in static single assignment form.
+ * 
+ * @author sliva
+ */
+public class SsaBlock {
+
+	/** The label the basic block starts with. */
+	public final Label label;
+
+	/** The phi functions at the start of the basic block. */
+	final Vector<SsaPhi> phis = new Vector<SsaPhi>();
+
+	/**
+	 * The statements of the basic block: a label, followed by statements that
+	 * are neither labels nor jumps, followed by a jump or a conditional jump.
+	 */
+	Vector<ImcStmt> stmts;
+
+	/** The predecessors (in the order of arguments of phi functions). */
+	final Vector<SsaBlock> preds = new Vector<SsaBlock>();
+
+	/** The successors. */
+	final Vector<SsaBlock> succs = new Vector<SsaBlock>();
+
+	/** The immediate dominator ({@code null} for the entry). */
+	SsaBlock idom;
+
+	/** The basic blocks immediately dominated by this one. */
+	final Vector<SsaBlock> children = new Vector<SsaBlock>();
+
+	/** The dominance frontier. */
+	final LinkedHashSet<SsaBlock> frontier = new LinkedHashSet<SsaBlock>();
+
+	/** The index in the reverse postorder. */
+	int rpo;
+
+	/**
+	 * Constructs a new basic block.
+	 * 
+	 * @param stmts The statements of the basic block.
+	 */
+	SsaBlock(Vector<ImcStmt> stmts) {
+		this.label = ((ImcLABEL) stmts.firstElement()).label;
+		this.stmts = stmts;
+	}
+
+	/**
+	 * Returns the jump or the conditional jump the basic block ends with.
+	 * 
+	 * @return The jump or the conditional jump the basic block ends with.
+	 */
+	ImcStmt last() {
+		return stmts.lastElement();
+	}
+
+}
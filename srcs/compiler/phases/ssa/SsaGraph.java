@@ -0,0 +1,394 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.chunk.*;
+import compiler.data.cfg.*;
+
+/**
+ * The control-flow graph of a code chunk in static single assignment form.
+ *
+ * Basic blocks that cannot be reached from the entry are dropped. Phi
+ * functions are placed at the iterated dominance frontiers of the basic blocks
+ * assigning a temporary variable, but only for temporary variables that are
+ * read in some basic block before being assigned in it. Temporary variables are
+ * then renamed along the dominator tree: the first definition keeps the
+ * original temporary variable, every other one gets a new temporary variable.
+ * The temporary variable holding the return value is not renamed as it is read
+ * by the epilogue.
+ *
+ * @author sliva
+ */
+public class SsaGraph {
+
+	/** The code chunk the graph has been built from. */
+	public final CodeChunk codeChunk;
+
+	/** The basic blocks in the order of the code chunk. */
+	final Vector<SsaBlock> blocks = new Vector<SsaBlock>();
+
+	/** The basic blocks in reverse postorder. */
+	final Vector<SsaBlock> rpoBlocks = new Vector<SsaBlock>();
+
+	/** Maps labels to basic blocks starting with them. */
+	final HashMap<Label, SsaBlock> blockAt = new HashMap<Label, SsaBlock>();
+
+	/** The entry. */
+	final SsaBlock entry;
+
+	/**
+	 * Constructs the static single assignment form of a control-flow graph.
+	 *
+	 * @param cfg The control-flow graph.
+	 */
+	public SsaGraph(ControlFlowGraph cfg) {
+		this.codeChunk = cfg.codeChunk;
+
+		HashSet<BasicBlock> reachable = new HashSet<BasicBlock>();
+		Stack<BasicBlock> pending = new Stack<BasicBlock>();
+		reachable.add(cfg.entry());
+		pending.push(cfg.entry());
+		while (!pending.isEmpty())
+			for (BasicBlock succ : pending.pop().succs())
+				if (reachable.add(succ))
+					pending.push(succ);
+
+		HashMap<BasicBlock, SsaBlock> ssaBlocks = new HashMap<BasicBlock, SsaBlock>();
+		for (BasicBlock block : cfg.blocks()) {
+			if (!reachable.contains(block))
+				continue;
+			SsaBlock ssaBlock = new SsaBlock(block.stmts());
+			ssaBlocks.put(block, ssaBlock);
+			blocks.add(ssaBlock);
+			blockAt.put(ssaBlock.label, ssaBlock);
+		}
+		for (BasicBlock block : cfg.blocks()) {
+			if (!reachable.contains(block))
+				continue;
+			for (BasicBlock succ : block.succs()) {
+				ssaBlocks.get(block).succs.add(ssaBlocks.get(succ));
+				ssaBlocks.get(succ).preds.add(ssaBlocks.get(block));
+			}
+		}
+		entry = ssaBlocks.get(cfg.entry());
+
+		computeDominators();
+		placePhis();
+		rename();
+	}
+
+	/**
+	 * Returns the temporary variable holding the return value.
+	 *
+	 * @return The temporary variable holding the return value.
+	 */
+	Temp rv() {
+		return codeChunk.frame.RV;
+	}
+
+	/**
+	 * Computes the dominator tree and dominance frontiers (see Cooper, Harvey,
+	 * Kennedy: A Simple, Fast Dominance Algorithm).
+	 */
+	void computeDominators() {
+		// Reverse postorder.
+		rpoBlocks.clear();
+		HashSet<SsaBlock> visited = new HashSet<SsaBlock>();
+		Stack<SsaBlock> pending = new Stack<SsaBlock>();
+		Stack<Integer> nextSucc = new Stack<Integer>();
+		visited.add(entry);
+		pending.push(entry);
+		nextSucc.push(0);
+		while (!pending.isEmpty()) {
+			SsaBlock block = pending.peek();
+			int succ = nextSucc.pop();
+			if (succ == block.succs.size()) {
+				rpoBlocks.add(0, pending.pop());
+				continue;
+			}
+			nextSucc.push(succ + 1);
+			if (visited.add(block.succs.get(succ))) {
+				pending.push(block.succs.get(succ));
+				nextSucc.push(0);
+			}
+		}
+		for (int rpo = 0; rpo < rpoBlocks.size(); rpo++) {
+			SsaBlock block = rpoBlocks.get(rpo);
+			block.rpo = rpo;
+			block.idom = null;
+			block.children.clear();
+			block.frontier.clear();
+		}
+
+		// Immediate dominators.
+		entry.idom = entry;
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (SsaBlock block : rpoBlocks) {
+				if (block == entry)
+					continue;
+				SsaBlock idom = null;
+				for (SsaBlock pred : block.preds) {
+					if (pred.idom == null)
+						continue;
+					idom = idom == null ? pred : intersect(pred, idom);
+				}
+				if (block.idom != idom) {
+					block.idom = idom;
+					changed = true;
+				}
+			}
+		}
+		entry.idom = null;
+		for (SsaBlock block : rpoBlocks)
+			if (block.idom != null)
+				block.idom.children.add(block);
+
+		// Dominance frontiers.
+		for (SsaBlock block : rpoBlocks) {
+			if (block.preds.size() < 2)
+				continue;
+			for (SsaBlock pred : block.preds) {
+				SsaBlock runner = pred;
+				while (runner != null && runner != block.idom) {
+					runner.frontier.add(block);
+					runner = runner.idom;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the nearest common dominator of two basic blocks.
+	 */
+	private SsaBlock intersect(SsaBlock fst, SsaBlock snd) {
+		while (fst != snd) {
+			while (fst.rpo > snd.rpo)
+				fst = fst.idom;
+			while (snd.rpo > fst.rpo)
+				snd = snd.idom;
+		}
+		return fst;
+	}
+
+	/**
+	 * Places phi functions.
+	 */
+	private void placePhis() {
+		LinkedHashMap<Temp, LinkedHashSet<SsaBlock>> defBlocks = new LinkedHashMap<Temp, LinkedHashSet<SsaBlock>>();
+		LinkedHashSet<Temp> globals = new LinkedHashSet<Temp>();
+		for (SsaBlock block : rpoBlocks) {
+			HashSet<Temp> killed = new HashSet<Temp>();
+			for (ImcStmt stmt : block.stmts) {
+				for (Temp temp : TempRewriter.uses(stmt))
+					if (!killed.contains(temp))
+						globals.add(temp);
+				Temp def = TempRewriter.def(stmt);
+				if (def != null && def != rv()) {
+					killed.add(def);
+					defBlocks.computeIfAbsent(def, temp -> new LinkedHashSet<SsaBlock>()).add(block);
+				}
+			}
+		}
+
+		for (Temp temp : globals) {
+			if (!defBlocks.containsKey(temp))
+				continue;
+			HashSet<SsaBlock> hasPhi = new HashSet<SsaBlock>();
+			Vector<SsaBlock> pending = new Vector<SsaBlock>(defBlocks.get(temp));
+			while (!pending.isEmpty()) {
+				SsaBlock block = pending.remove(pending.size() - 1);
+				for (SsaBlock frontier : block.frontier) {
+					if (!hasPhi.add(frontier))
+						continue;
+					frontier.phis.add(new SsaPhi(temp, frontier.preds.size()));
+					if (!defBlocks.get(temp).contains(frontier))
+						pending.add(frontier);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Renames temporary variables so that each is assigned only once.
+	 */
+	private void rename() {
+		HashMap<Temp, Stack<Temp>> names = new HashMap<Temp, Stack<Temp>>();
+		HashSet<Temp> named = new HashSet<Temp>();
+		for (SsaBlock block : blocks) {
+			for (SsaPhi phi : block.phis)
+				names.put(phi.var, new Stack<Temp>());
+			for (ImcStmt stmt : block.stmts) {
+				Temp def = TempRewriter.def(stmt);
+				if (def != null && def != rv())
+					names.put(def, new Stack<Temp>());
+			}
+		}
+		TempRewriter rewriter = new TempRewriter(temp -> {
+			Stack<Temp> tempNames = names.get(temp);
+			return tempNames == null || tempNames.isEmpty() ? null : new ImcTEMP(tempNames.peek());
+		}, null);
+
+		// The dominator tree is walked without recursion as it can be deep.
+		HashMap<SsaBlock, Vector<Temp>> defined = new HashMap<SsaBlock, Vector<Temp>>();
+		Stack<SsaBlock> pending = new Stack<SsaBlock>();
+		pending.push(entry);
+		while (!pending.isEmpty()) {
+			SsaBlock block = pending.pop();
+			if (defined.containsKey(block)) {
+				for (Temp var : defined.get(block))
+					names.get(var).pop();
+				continue;
+			}
+			Vector<Temp> vars = new Vector<Temp>();
+			defined.put(block, vars);
+
+			for (SsaPhi phi : block.phis) {
+				phi.dst = named.add(phi.var) ? phi.var : new Temp();
+				names.get(phi.var).push(phi.dst);
+				vars.add(phi.var);
+			}
+			for (int s = 0; s < block.stmts.size(); s++) {
+				ImcStmt stmt = rewriter.rewriteUses(block.stmts.get(s));
+				Temp def = TempRewriter.def(stmt);
+				if (def != null && names.containsKey(def)) {
+					Temp name = named.add(def) ? def : new Temp();
+					stmt = new ImcMOVE(new ImcTEMP(name), ((ImcMOVE) stmt).src);
+					names.get(def).push(name);
+					vars.add(def);
+				}
+				block.stmts.set(s, stmt);
+			}
+			for (SsaBlock succ : block.succs) {
+				int pred = succ.preds.indexOf(block);
+				for (SsaPhi phi : succ.phis) {
+					Stack<Temp> varNames = names.get(phi.var);
+					phi.args.set(pred, varNames.isEmpty() ? null : new ImcTEMP(varNames.peek()));
+				}
+			}
+
+			pending.push(block);
+			for (int child = block.children.size() - 1; child >= 0; child--)
+				pending.push(block.children.get(child));
+		}
+	}
+
+	/**
+	 * Counts the definitions of each temporary variable.
+	 *
+	 * @return The number of definitions of each temporary variable.
+	 */
+	HashMap<Temp, Integer> numOfDefs() {
+		HashMap<Temp, Integer> numOfDefs = new HashMap<Temp, Integer>();
+		for (SsaBlock block : blocks) {
+			for (SsaPhi phi : block.phis)
+				numOfDefs.merge(phi.dst, 1, Integer::sum);
+			for (ImcStmt stmt : block.stmts) {
+				Temp def = TempRewriter.def(stmt);
+				if (def != null)
+					numOfDefs.merge(def, 1, Integer::sum);
+			}
+		}
+		return numOfDefs;
+	}
+
+	/**
+	 * Removes edges between basic blocks and basic blocks that are no longer
+	 * reachable.
+	 *
+	 * @param isEdge Tells whether an edge between two basic blocks remains.
+	 */
+	void retainEdges(java.util.function.BiPredicate<SsaBlock, SsaBlock> isEdge) {
+		for (SsaBlock block : blocks) {
+			for (int pred = block.preds.size() - 1; pred >= 0; pred--) {
+				if (isEdge.test(block.preds.get(pred), block))
+					continue;
+				block.preds.remove(pred);
+				for (SsaPhi phi : block.phis)
+					phi.args.remove(pred);
+			}
+			block.succs.removeIf(succ -> !isEdge.test(block, succ));
+		}
+		computeDominators();
+		HashSet<SsaBlock> reachable = new HashSet<SsaBlock>(rpoBlocks);
+		blocks.removeIf(block -> !reachable.contains(block));
+		blockAt.values().removeIf(block -> !reachable.contains(block));
+	}
+
+	/**
+	 * Translates the graph out of static single assignment form.
+	 *
+	 * Each phi function is replaced by moves at the ends of the predecessors.
+	 * Edges from a basic block with several successors are split first. Moves
+	 * belonging to the same edge are performed as if in parallel.
+	 *
+	 * @return The statements of the code chunk.
+	 */
+	public Vector<ImcStmt> toStmts() {
+		Vector<Vector<ImcStmt>> splitBlocks = new Vector<Vector<ImcStmt>>();
+		for (SsaBlock block : blocks) {
+			if (block.phis.isEmpty())
+				continue;
+			for (int pred = 0; pred < block.preds.size(); pred++) {
+				Vector<Temp> dsts = new Vector<Temp>();
+				Vector<ImcExpr> srcs = new Vector<ImcExpr>();
+				for (SsaPhi phi : block.phis) {
+					ImcExpr arg = phi.args.get(pred);
+					if (arg == null || (arg instanceof ImcTEMP && ((ImcTEMP) arg).temp == phi.dst))
+						continue;
+					dsts.add(phi.dst);
+					srcs.add(arg);
+				}
+				if (dsts.isEmpty())
+					continue;
+
+				Vector<ImcStmt> moves = new Vector<ImcStmt>();
+				boolean overlap = false;
+				for (ImcExpr src : srcs)
+					overlap |= src instanceof ImcTEMP && dsts.contains(((ImcTEMP) src).temp);
+				if (overlap) {
+					Vector<Temp> temps = new Vector<Temp>();
+					for (ImcExpr src : srcs) {
+						Temp temp = new Temp();
+						temps.add(temp);
+						moves.add(new ImcMOVE(new ImcTEMP(temp), src));
+					}
+					for (int move = 0; move < dsts.size(); move++)
+						moves.add(new ImcMOVE(new ImcTEMP(dsts.get(move)), new ImcTEMP(temps.get(move))));
+				} else {
+					for (int move = 0; move < dsts.size(); move++)
+						moves.add(new ImcMOVE(new ImcTEMP(dsts.get(move)), srcs.get(move)));
+				}
+
+				SsaBlock predBlock = block.preds.get(pred);
+				if (predBlock.succs.size() == 1) {
+					predBlock.stmts.addAll(predBlock.stmts.size() - 1, moves);
+					continue;
+				}
+				Label label = new Label();
+				Vector<ImcStmt> splitBlock = new Vector<ImcStmt>();
+				splitBlock.add(new ImcLABEL(label));
+				splitBlock.addAll(moves);
+				splitBlock.add(new ImcJUMP(block.label));
+				splitBlocks.add(splitBlock);
+				ImcCJUMP cjump = (ImcCJUMP) predBlock.last();
+				predBlock.stmts.set(predBlock.stmts.size() - 1,
+						new ImcCJUMP(cjump.cond, cjump.posLabel == block.label ? label : cjump.posLabel,
+								cjump.negLabel == block.label ? label : cjump.negLabel));
+			}
+		}
+
+		Vector<ImcStmt> stmts = new Vector<ImcStmt>();
+		for (SsaBlock block : blocks)
+			stmts.addAll(block.stmts);
+		for (Vector<ImcStmt> splitBlock : splitBlocks)
+			stmts.addAll(splitBlock);
+		return stmts;
+	}
+
+}
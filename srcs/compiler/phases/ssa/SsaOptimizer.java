@@ -0,0 +1,37 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import compiler.data.chunk.*;
+import compiler.data.cfg.*;
+
+/**
+ * Optimizes a code chunk in static single assignment form.
+ *
+ * Slots of the frame are promoted to temporary variables first (see
+ * {@link SlotPromoter}). The code chunk is then translated into static single
+ * assignment form, constants are propagated, redundant computations are
+ * removed by global value numbering, dead code is eliminated, and the code
+ * chunk is translated back.
+ *
+ * @author sliva
+ */
+public class SsaOptimizer {
+
+	/**
+	 * Optimizes a code chunk.
+	 *
+	 * @param codeChunk The code chunk.
+	 * @return The optimized code chunk.
+	 */
+	public CodeChunk optimize(CodeChunk codeChunk) {
+		codeChunk = new SlotPromoter().promote(codeChunk);
+		SsaGraph graph = new SsaGraph(new ControlFlowGraph(codeChunk));
+		new ConstPropagator(graph).propagate();
+		new ValueNumberer(graph).number();
+		new DeadCodeEliminator(graph).eliminate();
+		return new CodeChunk(codeChunk.frame, graph.toStmts(), codeChunk.entryLabel, codeChunk.exitLabel);
+	}
+
+}
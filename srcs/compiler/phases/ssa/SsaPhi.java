@@ -0,0 +1,43 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+
+/**
+ * A phi function.
+ * 
+ * @author sliva
+ */
+public class SsaPhi {
+
+	/** The temporary variable of the original code the phi function merges. */
+	public final Temp var;
+
+	/** The temporary variable the phi function defines. */
+	Temp dst;
+
+	/**
+	 * The values coming from the predecessors, in the order of predecessors
+	 * ({@code null} if the variable is undefined along that edge). Each value is
+	 * either {@link ImcTEMP} or {@link ImcCONST}.
+	 */
+	final Vector<ImcExpr> args = new Vector<ImcExpr>();
+
+	/**
+	 * Constructs a new phi function.
+	 * 
+	 * @param var        The temporary variable of the original code.
+	 * @param numOfPreds The number of predecessors of the basic block.
+	 */
+	SsaPhi(Temp var, int numOfPreds) {
+		this.var = var;
+		this.dst = var;
+		for (int pred = 0; pred < numOfPreds; pred++)
+			args.add(null);
+	}
+
+}
@@ -0,0 +1,134 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import java.util.function.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.data.imcode.visitor.*;
+
+/**
+ * Rebuilds canonized statements with temporary variables replaced.
+ * 
+ * Temporary variables that are read are replaced by the expressions the
+ * function for uses returns, temporary variables that are assigned by the
+ * temporary variables the function for definitions returns. A function
+ * returning {@code null} leaves the temporary variable as it is.
+ * 
+ * @author sliva
+ */
+class TempRewriter implements ImcVisitor<ImcInstr, Object> {
+
+	/** Replaces temporary variables that are read. */
+	private final Function<Temp, ImcExpr> uses;
+
+	/** Replaces temporary variables that are assigned. */
+	private final Function<Temp, Temp> defs;
+
+	/**
+	 * Constructs a new rewriter.
+	 * 
+	 * @param uses Replaces temporary variables that are read.
+	 * @param defs Replaces temporary variables that are assigned.
+	 */
+	TempRewriter(Function<Temp, ImcExpr> uses, Function<Temp, Temp> defs) {
+		this.uses = uses;
+		this.defs = defs;
+	}
+
+	/**
+	 * Rewrites the part of a move that reads, i.e., everything but the assigned
+	 * temporary variable.
+	 * 
+	 * @param stmt The statement.
+	 * @return The rewritten statement.
+	 */
+	ImcStmt rewriteUses(ImcStmt stmt) {
+		return (ImcStmt) stmt.accept(this, null);
+	}
+
+	public ImcInstr visit(ImcBINOP binOp, Object visArg) {
+		return new ImcBINOP(binOp.oper, (ImcExpr) binOp.fstExpr.accept(this, visArg),
+				(ImcExpr) binOp.sndExpr.accept(this, visArg));
+	}
+
+	public ImcInstr visit(ImcCALL call, Object visArg) {
+		Vector<ImcExpr> args = new Vector<ImcExpr>();
+		for (ImcExpr arg : call.args())
+			args.add((ImcExpr) arg.accept(this, visArg));
+		return new ImcCALL(call.label, args);
+	}
+
+	public ImcInstr visit(ImcCJUMP cjump, Object visArg) {
+		return new ImcCJUMP((ImcExpr) cjump.cond.accept(this, visArg), cjump.posLabel, cjump.negLabel);
+	}
+
+	public ImcInstr visit(ImcCONST constant, Object visArg) {
+		return constant;
+	}
+
+	public ImcInstr visit(ImcJUMP jump, Object visArg) {
+		return jump;
+	}
+
+	public ImcInstr visit(ImcLABEL label, Object visArg) {
+		return label;
+	}
+
+	public ImcInstr visit(ImcMEM mem, Object visArg) {
+		return new ImcMEM((ImcExpr) mem.addr.accept(this, visArg));
+	}
+
+	public ImcInstr visit(ImcMOVE move, Object visArg) {
+		ImcExpr src = (ImcExpr) move.src.accept(this, visArg);
+		if (move.dst instanceof ImcTEMP) {
+			Temp dst = defs == null ? null : defs.apply(((ImcTEMP) move.dst).temp);
+			return new ImcMOVE(dst == null ? move.dst : new ImcTEMP(dst), src);
+		}
+		return new ImcMOVE((ImcExpr) move.dst.accept(this, visArg), src);
+	}
+
+	public ImcInstr visit(ImcNAME name, Object visArg) {
+		return name;
+	}
+
+	public ImcInstr visit(ImcTEMP temp, Object visArg) {
+		ImcExpr expr = uses == null ? null : uses.apply(temp.temp);
+		return expr == null ? temp : expr;
+	}
+
+	public ImcInstr visit(ImcUNOP unOp, Object visArg) {
+		return new ImcUNOP(unOp.oper, (ImcExpr) unOp.subExpr.accept(this, visArg));
+	}
+
+	/**
+	 * Returns the temporary variables a canonized statement reads.
+	 * 
+	 * @param stmt The statement.
+	 * @return The temporary variables the statement reads.
+	 */
+	static Vector<Temp> uses(ImcStmt stmt) {
+		Vector<Temp> temps = new Vector<Temp>();
+		new TempRewriter(temp -> {
+			temps.add(temp);
+			return null;
+		}, null).rewriteUses(stmt);
+		return temps;
+	}
+
+	/**
+	 * Returns the temporary variable a canonized statement assigns.
+	 * 
+	 * @param stmt The statement.
+	 * @return The temporary variable the statement assigns or {@code null} if
+	 *         none.
+	 */
+	static Temp def(ImcStmt stmt) {
+		if (stmt instanceof ImcMOVE && ((ImcMOVE) stmt).dst instanceof ImcTEMP)
+			return ((ImcTEMP) ((ImcMOVE) stmt).dst).temp;
+		return null;
+	}
+
+}
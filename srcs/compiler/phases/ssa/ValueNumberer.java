@@ -0,0 +1,196 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.ssa;
+
+import java.util.*;
+import compiler.data.layout.*;
+import compiler.data.imcode.*;
+import compiler.phases.imcopt.*;
+
+/**
+ * Dominator-based global value numbering (see Briggs, Cooper, Simpson: Value
+ * Numbering).
+ *
+ * The dominator tree is walked with a scoped table of expressions computed so
+ * far. A move of an expression already computed in a dominating basic block is
+ * removed and its temporary variable replaced by the one computed first.
+ * Copies of temporary variables and phi functions whose arguments are all the
+ * same are removed in the same way. Only expressions that neither read memory
+ * nor call functions are numbered.
+ *
+ * @author sliva
+ */
+public class ValueNumberer {
+
+	/** The graph. */
+	private final SsaGraph graph;
+
+	/** Temporary variables assigned at most once. */
+	private final HashSet<Temp> ssaTemps = new HashSet<Temp>();
+
+	/** The replacements of removed temporary variables. */
+	private final HashMap<Temp, ImcExpr> values = new HashMap<Temp, ImcExpr>();
+
+	/** The temporary variables holding the expressions computed so far. */
+	private final HashMap<String, Temp> exprs = new HashMap<String, Temp>();
+
+	/** The numbers of temporary variables within keys of expressions. */
+	private final HashMap<Temp, Integer> tempIds = new HashMap<Temp, Integer>();
+
+	/**
+	 * Constructs a new value numberer.
+	 *
+	 * @param graph The graph.
+	 */
+	public ValueNumberer(SsaGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Numbers the values of the graph and removes redundant computations.
+	 */
+	public void number() {
+		HashMap<Temp, Integer> numOfDefs = graph.numOfDefs();
+		for (Map.Entry<Temp, Integer> defs : numOfDefs.entrySet())
+			if (defs.getValue() == 1 && defs.getKey() != graph.rv())
+				ssaTemps.add(defs.getKey());
+		TempRewriter rewriter = new TempRewriter(temp -> values.get(temp), null);
+
+		// The dominator tree is walked without recursion as it can be deep.
+		HashMap<SsaBlock, Vector<String>> scopes = new HashMap<SsaBlock, Vector<String>>();
+		Stack<SsaBlock> pending = new Stack<SsaBlock>();
+		pending.push(graph.entry);
+		while (!pending.isEmpty()) {
+			SsaBlock block = pending.pop();
+			if (scopes.containsKey(block)) {
+				for (String key : scopes.get(block))
+					exprs.remove(key);
+				continue;
+			}
+			Vector<String> scope = new Vector<String>();
+			scopes.put(block, scope);
+
+			for (Iterator<SsaPhi> phis = block.phis.iterator(); phis.hasNext();) {
+				SsaPhi phi = phis.next();
+				ImcExpr same = null;
+				for (ImcExpr arg : phi.args) {
+					if (arg instanceof ImcTEMP && ((ImcTEMP) arg).temp == phi.dst)
+						continue;
+					if (arg == null || (same != null && !key(arg).equals(key(same)))) {
+						same = null;
+						break;
+					}
+					same = arg;
+				}
+				if (same != null && ssaTemps.contains(phi.dst) && isStable(same)) {
+					values.put(phi.dst, same);
+					phis.remove();
+				}
+			}
+
+			Vector<ImcStmt> stmts = new Vector<ImcStmt>();
+			for (ImcStmt stmt : block.stmts) {
+				stmt = rewriter.rewriteUses(stmt);
+				Temp def = TempRewriter.def(stmt);
+				if (def == null || !ssaTemps.contains(def)) {
+					stmts.add(stmt);
+					continue;
+				}
+				ImcExpr src = ((ImcMOVE) stmt).src;
+				if (src instanceof ImcTEMP || src instanceof ImcCONST) {
+					if (isStable(src)) {
+						values.put(def, src);
+						continue;
+					}
+				} else if (ImcOptimizer.isPure(src) && !readsMem(src) && isStable(src)) {
+					String key = key(src);
+					Temp temp = exprs.get(key);
+					if (temp != null) {
+						values.put(def, new ImcTEMP(temp));
+						continue;
+					}
+					exprs.put(key, def);
+					scope.add(key);
+				}
+				stmts.add(stmt);
+			}
+			block.stmts = stmts;
+
+			for (SsaBlock succ : block.succs) {
+				int pred = succ.preds.indexOf(block);
+				for (SsaPhi phi : succ.phis)
+					if (phi.args.get(pred) != null)
+						phi.args.set(pred, (ImcExpr) phi.args.get(pred).accept(rewriter, null));
+			}
+
+			pending.push(block);
+			for (int child = block.children.size() - 1; child >= 0; child--)
+				pending.push(block.children.get(child));
+		}
+	}
+
+	/**
+	 * Checks whether all temporary variables an expression reads keep their
+	 * values, i.e., are assigned at most once.
+	 */
+	private boolean isStable(ImcExpr expr) {
+		if (expr instanceof ImcTEMP) {
+			Temp temp = ((ImcTEMP) expr).temp;
+			return ssaTemps.contains(temp) || temp == graph.codeChunk.frame.FP;
+		}
+		if (expr instanceof ImcBINOP)
+			return isStable(((ImcBINOP) expr).fstExpr) && isStable(((ImcBINOP) expr).sndExpr);
+		if (expr instanceof ImcUNOP)
+			return isStable(((ImcUNOP) expr).subExpr);
+		if (expr instanceof ImcMEM)
+			return isStable(((ImcMEM) expr).addr);
+		return true;
+	}
+
+	/**
+	 * Checks whether an expression reads memory.
+	 */
+	private static boolean readsMem(ImcExpr expr) {
+		if (expr instanceof ImcMEM)
+			return true;
+		if (expr instanceof ImcBINOP)
+			return readsMem(((ImcBINOP) expr).fstExpr) || readsMem(((ImcBINOP) expr).sndExpr);
+		if (expr instanceof ImcUNOP)
+			return readsMem(((ImcUNOP) expr).subExpr);
+		return false;
+	}
+
+	/**
+	 * Returns the key of a pure expression. Operands of commutative operators
+	 * are ordered so that equal expressions get equal keys.
+	 */
+	private String key(ImcExpr expr) {
+		if (expr instanceof ImcCONST)
+			return "#" + ((ImcCONST) expr).value;
+		if (expr instanceof ImcNAME)
+			return "@" + ((ImcNAME) expr).label.name;
+		if (expr instanceof ImcTEMP) {
+			Temp temp = ((ImcTEMP) expr).temp;
+			return "T" + tempIds.computeIfAbsent(temp, t -> tempIds.size());
+		}
+		if (expr instanceof ImcUNOP)
+			return "(" + ((ImcUNOP) expr).oper + " " + key(((ImcUNOP) expr).subExpr) + ")";
+		ImcBINOP binOp = (ImcBINOP) expr;
+		String fst = key(binOp.fstExpr);
+		String snd = key(binOp.sndExpr);
+		switch (binOp.oper) {
+			case IOR: case XOR: case AND: case EQU: case NEQ: case ADD: case MUL:
+				if (fst.compareTo(snd) > 0) {
+					String tmp = fst;
+					fst = snd;
+					snd = tmp;
+				}
+				break;
+			default:
+				break;
+		}
+		return "(" + binOp.oper + " " + fst + " " + snd + ")";
+	}
+
+}
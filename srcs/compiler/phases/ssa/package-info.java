@@ -0,0 +1,6 @@
+/**
+ * Static single assignment form of code chunks and optimizations based on it.
+ * 
+ * @author sliva
+ */
+package compiler.phases.ssa;
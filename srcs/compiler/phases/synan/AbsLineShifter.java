@@ -0,0 +1,209 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import compiler.data.abstree.*;
+import compiler.data.abstree.visitor.*;
+
+/**
+ * Moves all nodes of a part of the abstract syntax tree by the number of lines
+ * passed as the argument of the visitor.
+ *
+ * @author sliva
+ */
+class AbsLineShifter extends AbsFullVisitor<Object, Integer> {
+
+	@Override
+	public Object visit(AbsArgs args, Integer lines) {
+		args.shiftLines(lines);
+		return super.visit(args, lines);
+	}
+
+	@Override
+	public Object visit(AbsArrExpr arrExpr, Integer lines) {
+		arrExpr.shiftLines(lines);
+		return super.visit(arrExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsArrType arrType, Integer lines) {
+		arrType.shiftLines(lines);
+		return super.visit(arrType, lines);
+	}
+
+	@Override
+	public Object visit(AbsAssignStmt assignStmt, Integer lines) {
+		assignStmt.shiftLines(lines);
+		return super.visit(assignStmt, lines);
+	}
+
+	@Override
+	public Object visit(AbsAtomExpr atomExpr, Integer lines) {
+		atomExpr.shiftLines(lines);
+		return super.visit(atomExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsAtomType atomType, Integer lines) {
+		atomType.shiftLines(lines);
+		return super.visit(atomType, lines);
+	}
+
+	@Override
+	public Object visit(AbsBinExpr binExpr, Integer lines) {
+		binExpr.shiftLines(lines);
+		return super.visit(binExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsBlockExpr blockExpr, Integer lines) {
+		blockExpr.shiftLines(lines);
+		return super.visit(blockExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsCastExpr castExpr, Integer lines) {
+		castExpr.shiftLines(lines);
+		return super.visit(castExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsCompDecl compDecl, Integer lines) {
+		compDecl.shiftLines(lines);
+		return super.visit(compDecl, lines);
+	}
+
+	@Override
+	public Object visit(AbsCompDecls compDecls, Integer lines) {
+		compDecls.shiftLines(lines);
+		return super.visit(compDecls, lines);
+	}
+
+	@Override
+	public Object visit(AbsDecls decls, Integer lines) {
+		decls.shiftLines(lines);
+		return super.visit(decls, lines);
+	}
+
+	@Override
+	public Object visit(AbsDelExpr delExpr, Integer lines) {
+		delExpr.shiftLines(lines);
+		return super.visit(delExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsExprStmt exprStmt, Integer lines) {
+		exprStmt.shiftLines(lines);
+		return super.visit(exprStmt, lines);
+	}
+
+	@Override
+	public Object visit(AbsFunDecl funDecl, Integer lines) {
+		funDecl.shiftLines(lines);
+		return super.visit(funDecl, lines);
+	}
+
+	@Override
+	public Object visit(AbsFunDef funDef, Integer lines) {
+		funDef.shiftLines(lines);
+		return super.visit(funDef, lines);
+	}
+
+	@Override
+	public Object visit(AbsFunName funName, Integer lines) {
+		funName.shiftLines(lines);
+		return super.visit(funName, lines);
+	}
+
+	@Override
+	public Object visit(AbsIfStmt ifStmt, Integer lines) {
+		ifStmt.shiftLines(lines);
+		return super.visit(ifStmt, lines);
+	}
+
+	@Override
+	public Object visit(AbsNewExpr newExpr, Integer lines) {
+		newExpr.shiftLines(lines);
+		return super.visit(newExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsParDecl parDecl, Integer lines) {
+		parDecl.shiftLines(lines);
+		return super.visit(parDecl, lines);
+	}
+
+	@Override
+	public Object visit(AbsParDecls parDecls, Integer lines) {
+		parDecls.shiftLines(lines);
+		return super.visit(parDecls, lines);
+	}
+
+	@Override
+	public Object visit(AbsPtrType ptrType, Integer lines) {
+		ptrType.shiftLines(lines);
+		return super.visit(ptrType, lines);
+	}
+
+	@Override
+	public Object visit(AbsRecExpr recExpr, Integer lines) {
+		recExpr.shiftLines(lines);
+		return super.visit(recExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsRecType recType, Integer lines) {
+		recType.shiftLines(lines);
+		return super.visit(recType, lines);
+	}
+
+	@Override
+	public Object visit(AbsSource source, Integer lines) {
+		source.shiftLines(lines);
+		return super.visit(source, lines);
+	}
+
+	@Override
+	public Object visit(AbsStmts stmts, Integer lines) {
+		stmts.shiftLines(lines);
+		return super.visit(stmts, lines);
+	}
+
+	@Override
+	public Object visit(AbsTypDecl typDecl, Integer lines) {
+		typDecl.shiftLines(lines);
+		return super.visit(typDecl, lines);
+	}
+
+	@Override
+	public Object visit(AbsTypName typName, Integer lines) {
+		typName.shiftLines(lines);
+		return super.visit(typName, lines);
+	}
+
+	@Override
+	public Object visit(AbsUnExpr unExpr, Integer lines) {
+		unExpr.shiftLines(lines);
+		return super.visit(unExpr, lines);
+	}
+
+	@Override
+	public Object visit(AbsVarDecl varDecl, Integer lines) {
+		varDecl.shiftLines(lines);
+		return super.visit(varDecl, lines);
+	}
+
+	@Override
+	public Object visit(AbsVarName varName, Integer lines) {
+		varName.shiftLines(lines);
+		return super.visit(varName, lines);
+	}
+
+	@Override
+	public Object visit(AbsWhileStmt whileStmt, Integer lines) {
+		whileStmt.shiftLines(lines);
+		return super.visit(whileStmt, lines);
+	}
+
+}
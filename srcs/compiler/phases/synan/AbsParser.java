@@ -0,0 +1,773 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.symbol.*;
+import compiler.data.abstree.*;
+import compiler.phases.lexan.*;
+
+/**
+ * A parser constructing the abstract syntax tree directly.
+ *
+ * The parser follows the same LL(1) parsing algorithm as the recursive descent
+ * parser in {@link SynAn} and reports the same errors, but instead of building
+ * the derivation tree and transforming it to the abstract syntax tree
+ * afterwards, it constructs the nodes of the abstract syntax tree as soon as
+ * their parts have been parsed. Right-recursive nonterminals of the grammar
+ * are parsed by loops. Locations of the nodes are the same as those computed
+ * by {@link compiler.phases.abstr.AbsTreeConstructor}.
+ *
+ * @author sliva
+ */
+class AbsParser {
+
+	/** Symbols an expression can start with. */
+	private static final EnumSet<Symbol.Term> exprFirst = EnumSet.of(Symbol.Term.IDENTIFIER,
+			Symbol.Term.LPARENTHESIS, Symbol.Term.ADD, Symbol.Term.SUB, Symbol.Term.NOT, Symbol.Term.NEW,
+			Symbol.Term.DEL, Symbol.Term.DATA, Symbol.Term.ADDR, Symbol.Term.INTCONST, Symbol.Term.VOIDCONST,
+			Symbol.Term.CHARCONST, Symbol.Term.BOOLCONST, Symbol.Term.PTRCONST, Symbol.Term.STRCONST,
+			Symbol.Term.LBRACE);
+
+	/** Symbols a statement can start with. */
+	private static final EnumSet<Symbol.Term> stmtFirst = union(exprFirst, Symbol.Term.IF, Symbol.Term.WHILE);
+
+	/** Symbols that can follow a disjunctive expression. */
+	private static final EnumSet<Symbol.Term> disjExprFollow = EnumSet.of(Symbol.Term.COLON, Symbol.Term.SEMIC,
+			Symbol.Term.RPARENTHESIS, Symbol.Term.ASSIGN, Symbol.Term.THEN, Symbol.Term.DO, Symbol.Term.RBRACKET,
+			Symbol.Term.RBRACE, Symbol.Term.COMMA, Symbol.Term.WHERE);
+
+	/** Symbols that can follow a conjunctive expression. */
+	private static final EnumSet<Symbol.Term> conjExprFollow = union(disjExprFollow, Symbol.Term.IOR,
+			Symbol.Term.XOR);
+
+	/** Symbols that can follow a relational expression. */
+	private static final EnumSet<Symbol.Term> relExprFollow = union(conjExprFollow, Symbol.Term.AND);
+
+	/** Symbols that can follow an additive expression. */
+	private static final EnumSet<Symbol.Term> addExprFollow = union(relExprFollow, Symbol.Term.EQU,
+			Symbol.Term.NEQ, Symbol.Term.GEQ, Symbol.Term.LEQ, Symbol.Term.GTH, Symbol.Term.LTH);
+
+	/** Symbols that can follow a multiplicative expression. */
+	private static final EnumSet<Symbol.Term> mulExprFollow = union(addExprFollow, Symbol.Term.ADD,
+			Symbol.Term.SUB);
+
+	/** Symbols that can follow a postfix expression. */
+	private static final EnumSet<Symbol.Term> pstfExprFollow = union(mulExprFollow, Symbol.Term.MUL,
+			Symbol.Term.DIV, Symbol.Term.MOD);
+
+	/** Symbols that can follow an identifier without arguments. */
+	private static final EnumSet<Symbol.Term> nameFollow = union(pstfExprFollow, Symbol.Term.LBRACKET,
+			Symbol.Term.DOT);
+
+	/**
+	 * Extends a set of symbols.
+	 *
+	 * @param symbs The set of symbols.
+	 * @param terms Additional symbols.
+	 * @return The new set of symbols.
+	 */
+	private static EnumSet<Symbol.Term> union(EnumSet<Symbol.Term> symbs, Symbol.Term... terms) {
+		EnumSet<Symbol.Term> extended = EnumSet.copyOf(symbs);
+		extended.addAll(Arrays.asList(terms));
+		return extended;
+	}
+
+	/** The token buffer the symbols are read from. */
+	private final TokenBuffer tokens;
+
+	/** The index of the current symbol in the token buffer. */
+	private int curr = 0;
+
+	/**
+	 * Constructs a new parser.
+	 *
+	 * @param tokens The token buffer the symbols are read from.
+	 */
+	AbsParser(TokenBuffer tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * Parses the source file.
+	 *
+	 * @return The abstract syntax tree of the program.
+	 */
+	AbsSource parser() {
+		AbsSource source = parseSource();
+		if (token() != Symbol.Term.EOF) {
+			Symbol symb = tokens.symbol(curr);
+			throw new Report.Error(symb, "Unexpected '" + symb + "' at the end of a program.");
+		}
+		return source;
+	}
+
+	/**
+	 * Returns the index of the current symbol in the token buffer.
+	 *
+	 * @return The index of the current symbol.
+	 */
+	int position() {
+		return curr;
+	}
+
+	/**
+	 * Returns the token of the current symbol.
+	 *
+	 * @return The token of the current symbol.
+	 */
+	private Symbol.Term token() {
+		return tokens.token(curr);
+	}
+
+	/**
+	 * Replaces the current symbol with the next input symbol.
+	 */
+	private void next() {
+		if (tokens.token(curr) != Symbol.Term.EOF)
+			curr++;
+	}
+
+	/**
+	 * If the current symbol is the expected terminal, replaces it with the next
+	 * input symbol. Otherwise, produces the error message.
+	 *
+	 * @param token    The expected terminal.
+	 * @param errorMsg The error message.
+	 */
+	private void skip(Symbol.Term token, String errorMsg) {
+		if (tokens.token(curr) != token)
+			throw new Report.Error(tokens.symbol(curr), errorMsg);
+		next();
+	}
+
+	/**
+	 * If the current symbol is the expected terminal, replaces it with the next
+	 * input symbol and returns its lexeme. Otherwise, produces the error message.
+	 *
+	 * @param token    The expected terminal.
+	 * @param errorMsg The error message.
+	 * @return The lexeme of the current symbol.
+	 */
+	private String lexeme(Symbol.Term token, String errorMsg) {
+		if (tokens.token(curr) != token)
+			throw new Report.Error(tokens.symbol(curr), errorMsg);
+		String lexeme = tokens.lexeme(curr);
+		next();
+		return lexeme;
+	}
+
+	/**
+	 * If the current symbol is an identifier, replaces it with the next input
+	 * symbol and returns the ID of its name. Otherwise, produces the error
+	 * message.
+	 *
+	 * @param errorMsg The error message.
+	 * @return The ID of the name of the current symbol.
+	 */
+	private int nameId(String errorMsg) {
+		if (tokens.token(curr) != Symbol.Term.IDENTIFIER)
+			throw new Report.Error(tokens.symbol(curr), errorMsg);
+		int nameId = tokens.nameId(curr);
+		next();
+		return nameId;
+	}
+
+	/**
+	 * Returns the location of the symbols parsed since the specified symbol.
+	 *
+	 * @param beg The index of the first symbol.
+	 * @return The location from the first symbol to the last symbol parsed.
+	 */
+	private Location span(int beg) {
+		return tokens.location(beg, curr - 1);
+	}
+
+	private AbsSource parseSource() {
+		switch (token()) {
+			case TYP:
+			case VAR:
+			case FUN: {
+				AbsDecls decls = parseDecls();
+				return new AbsSource(decls, decls);
+			}
+			default:
+				throw new Report.Error("Cannot parse Source");
+		}
+	}
+
+	private AbsDecls parseDecls() {
+		switch (token()) {
+			case TYP:
+			case VAR:
+			case FUN:
+				break;
+			default:
+				throw new Report.Error("Cannot parse Declarations");
+		}
+
+		Vector<AbsDecl> decls = new Vector<AbsDecl>();
+		decls.add(parseDecl());
+		while (true) {
+			switch (token()) {
+				case TYP:
+				case VAR:
+				case FUN:
+					decls.add(parseDecl());
+					continue;
+				case RBRACE:
+				case EOF:
+					break;
+				default:
+					throw new Report.Error("Cannot parse DeclarationsP");
+			}
+			break;
+		}
+		return new AbsDecls(new Location(decls.firstElement(), decls.lastElement()), decls);
+	}
+
+	AbsDecl parseDecl() {
+		int beg = curr;
+		switch (token()) {
+			case TYP: {
+				skip(Symbol.Term.TYP, "Expected TYP when parsing Declaration");
+				int nameId = nameId("Expected IDENTIFIER when parsing Declaration");
+				skip(Symbol.Term.COLON, "Expected COLON when parsing Declaration");
+				AbsType type = parseType();
+				skip(Symbol.Term.SEMIC, "Expected SEMIC when parsing Declaration");
+				return new AbsTypDecl(span(beg), nameId, type);
+			}
+			case VAR: {
+				skip(Symbol.Term.VAR, "Expected VAR when parsing Declaration");
+				int nameId = nameId("Expected IDENTIFIER when parsing Declaration");
+				skip(Symbol.Term.COLON, "Expected COLON when parsing Declaration");
+				AbsType type = parseType();
+				skip(Symbol.Term.SEMIC, "Expected SEMIC when parsing Declaration");
+				return new AbsVarDecl(span(beg), nameId, type);
+			}
+			case FUN: {
+				skip(Symbol.Term.FUN, "Expected FUN when parsing Declaration");
+				int nameId = nameId("Expected IDENTIFER when parsing Declaration");
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing Declaration");
+				AbsParDecls parDecls = parseParDeclsOpt();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing Declaration");
+				skip(Symbol.Term.COLON, "Expected COLON when parsing Declaration");
+				AbsType type = parseType();
+				AbsExpr value = null;
+				switch (token()) {
+					case SEMIC:
+						break;
+					case ASSIGN:
+						skip(Symbol.Term.ASSIGN, "Expected ASSIGN when parsing FunctionBodyOpt");
+						value = parseExpr();
+						break;
+					default:
+						throw new Report.Error("Cannot parse FunctionBodyOpt");
+				}
+				skip(Symbol.Term.SEMIC, "Expected SEMIC when parsing Declaration");
+				if (value == null)
+					return new AbsFunDecl(span(beg), nameId, parDecls, type);
+				else
+					return new AbsFunDef(span(beg), nameId, parDecls, type, value);
+			}
+			default:
+				throw new Report.Error("Cannot parse Declaration");
+		}
+	}
+
+	private AbsParDecls parseParDeclsOpt() {
+		switch (token()) {
+			case IDENTIFIER:
+				return parseParDecls();
+			case RPARENTHESIS:
+				return new AbsParDecls(new Location(0, 0), new Vector<AbsParDecl>());
+			default:
+				throw new Report.Error("Cannot parse ParametersOpt");
+		}
+	}
+
+	private AbsParDecls parseParDecls() {
+		if (token() != Symbol.Term.IDENTIFIER)
+			throw new Report.Error("Cannot parse Parameters");
+
+		Vector<AbsParDecl> parDecls = new Vector<AbsParDecl>();
+		parDecls.add(parseParDecl("Parameters"));
+		while (true) {
+			switch (token()) {
+				case RPARENTHESIS:
+					break;
+				case COMMA:
+					skip(Symbol.Term.COMMA, "Expected COMMA when parsing ParametersP");
+					parDecls.add(parseParDecl("ParametersP"));
+					continue;
+				default:
+					throw new Report.Error("Cannot parse ParametersP");
+			}
+			break;
+		}
+		return new AbsParDecls(new Location(parDecls.firstElement(), parDecls.lastElement()), parDecls);
+	}
+
+	private AbsParDecl parseParDecl(String nont) {
+		int beg = curr;
+		int nameId = nameId("Expected IDENTIFIER when parsing " + nont);
+		skip(Symbol.Term.COLON, "Expected COLON when parsing " + nont);
+		AbsType type = parseType();
+		return new AbsParDecl(span(beg), nameId, type);
+	}
+
+	private AbsType parseType() {
+		int beg = curr;
+		switch (token()) {
+			case IDENTIFIER: {
+				int nameId = nameId("Expected IDENTIFER when parsing Type");
+				return new AbsTypName(span(beg), nameId);
+			}
+			case LPARENTHESIS: {
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing Type");
+				AbsType type = parseType();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing Type");
+				return type;
+			}
+			case INT:
+				skip(Symbol.Term.INT, "Expected INT when parsing Type");
+				return new AbsAtomType(span(beg), AbsAtomType.Type.INT);
+			case VOID:
+				skip(Symbol.Term.VOID, "Expected VOID when parsing Type");
+				return new AbsAtomType(span(beg), AbsAtomType.Type.VOID);
+			case CHAR:
+				skip(Symbol.Term.CHAR, "Expected CHAR when parsing Type");
+				return new AbsAtomType(span(beg), AbsAtomType.Type.CHAR);
+			case BOOL:
+				skip(Symbol.Term.BOOL, "Expected BOOL when parsing Type");
+				return new AbsAtomType(span(beg), AbsAtomType.Type.BOOL);
+			case ARR: {
+				skip(Symbol.Term.ARR, "Expected ARR when parsing Type");
+				skip(Symbol.Term.LBRACKET, "Expected LBRACKET when parsing Type");
+				AbsExpr len = parseExpr();
+				skip(Symbol.Term.RBRACKET, "Expected RBRACKET when parsing Type");
+				AbsType elemType = parseType();
+				return new AbsArrType(span(beg), len, elemType);
+			}
+			case PTR: {
+				skip(Symbol.Term.PTR, "Expected PTR when parsing Type");
+				AbsType ptdType = parseType();
+				return new AbsPtrType(new Location(tokens.location(beg), ptdType), ptdType);
+			}
+			case REC: {
+				skip(Symbol.Term.REC, "Expected PTR when parsing REC");
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing Type");
+				AbsParDecls parDecls = parseParDecls();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing Type");
+				Vector<AbsCompDecl> compDecls = new Vector<AbsCompDecl>();
+				for (AbsParDecl parDecl : parDecls.parDecls())
+					compDecls.add(new AbsCompDecl(new Location(parDecl), parDecl.nameId, parDecl.type));
+				return new AbsRecType(span(beg),
+						new AbsCompDecls(new Location(compDecls.firstElement(), compDecls.lastElement()), compDecls));
+			}
+			default:
+				throw new Report.Error("Cannot parse Type");
+		}
+	}
+
+	private AbsStmts parseStmts() {
+		if (!stmtFirst.contains(token()))
+			throw new Report.Error("Cannot parse Statements");
+
+		Vector<AbsStmt> stmts = new Vector<AbsStmt>();
+		stmts.add(parseStmt());
+		skip(Symbol.Term.SEMIC, "Expected SEMIC when parsing Statements");
+		while (true) {
+			Symbol.Term token = token();
+			if (stmtFirst.contains(token)) {
+				stmts.add(parseStmt());
+				skip(Symbol.Term.SEMIC, "Expected SEMIC when parsing StatementsP");
+				continue;
+			}
+			if (token == Symbol.Term.COLON || token == Symbol.Term.END || token == Symbol.Term.ELSE)
+				break;
+			throw new Report.Error("Cannot parse StatementsP");
+		}
+		return new AbsStmts(new Location(stmts.firstElement(), stmts.lastElement()), stmts);
+	}
+
+	private AbsStmt parseStmt() {
+		int beg = curr;
+		switch (token()) {
+			case IF: {
+				skip(Symbol.Term.IF, "Expected IF when parsing Statement");
+				AbsExpr cond = parseExpr();
+				skip(Symbol.Term.THEN, "Expected THEN when parsing Statement");
+				AbsStmts thenStmts = parseStmts();
+				AbsStmts elseStmts;
+				switch (token()) {
+					case END:
+						elseStmts = new AbsStmts(new Location(0, 0), new Vector<AbsStmt>());
+						break;
+					case ELSE:
+						skip(Symbol.Term.ELSE, "Expected ELSE when parsing ElseOpt");
+						elseStmts = parseStmts();
+						break;
+					default:
+						throw new Report.Error("Cannot parse ElseOpt");
+				}
+				skip(Symbol.Term.END, "Expected END when parsing Statement");
+				return new AbsIfStmt(span(beg), cond, thenStmts, elseStmts);
+			}
+			case WHILE: {
+				skip(Symbol.Term.WHILE, "Expected WHILE when parsing Statement");
+				AbsExpr cond = parseExpr();
+				skip(Symbol.Term.DO, "Expected DO when parsing Statement");
+				AbsStmts stmts = parseStmts();
+				skip(Symbol.Term.END, "Expected END when parsing Statement");
+				return new AbsWhileStmt(span(beg), cond, stmts);
+			}
+			default: {
+				if (!exprFirst.contains(token()))
+					throw new Report.Error("Cannot parse Statement");
+				AbsExpr expr = parseExpr();
+				switch (token()) {
+					case SEMIC:
+						return new AbsExprStmt(span(beg), expr);
+					case ASSIGN: {
+						skip(Symbol.Term.ASSIGN, "Expected ASSIGN when parsing StatementP");
+						AbsExpr src = parseExpr();
+						return new AbsAssignStmt(span(beg), expr, src);
+					}
+					default:
+						throw new Report.Error("Cannot parse StatementP");
+				}
+			}
+		}
+	}
+
+	private AbsExpr parseExpr() {
+		if (!exprFirst.contains(token()))
+			throw new Report.Error("Cannot parse Expression");
+		return parseDisjExpr();
+	}
+
+	private AbsExpr parseDisjExpr() {
+		AbsExpr expr = parseConjExpr();
+		while (true) {
+			AbsBinExpr.Oper oper;
+			switch (token()) {
+				case IOR:
+					oper = AbsBinExpr.Oper.IOR;
+					break;
+				case XOR:
+					oper = AbsBinExpr.Oper.XOR;
+					break;
+				default:
+					if (disjExprFollow.contains(token()))
+						return expr;
+					throw new Report.Error("Cannot parse ORXORExpressionP");
+			}
+			next();
+			if (!exprFirst.contains(token()))
+				throw new Report.Error("Cannot parse ANDExpression");
+			AbsExpr sndExpr = parseConjExpr();
+			expr = new AbsBinExpr(new Location(expr, sndExpr), oper, expr, sndExpr);
+		}
+	}
+
+	private AbsExpr parseConjExpr() {
+		AbsExpr expr = parseRelExpr();
+		while (true) {
+			AbsBinExpr.Oper oper;
+			switch (token()) {
+				case AND:
+					oper = AbsBinExpr.Oper.AND;
+					break;
+				default:
+					if (conjExprFollow.contains(token()))
+						return expr;
+					throw new Report.Error("Cannot parse ANDExpressionP");
+			}
+			next();
+			if (!exprFirst.contains(token()))
+				throw new Report.Error("Cannot parse RelationalExpression");
+			AbsExpr sndExpr = parseRelExpr();
+			expr = new AbsBinExpr(new Location(expr, sndExpr), oper, expr, sndExpr);
+		}
+	}
+
+	private AbsExpr parseRelExpr() {
+		AbsExpr expr = parseAddExpr();
+		AbsBinExpr.Oper oper;
+		switch (token()) {
+			case EQU:
+				oper = AbsBinExpr.Oper.EQU;
+				break;
+			case NEQ:
+				oper = AbsBinExpr.Oper.NEQ;
+				break;
+			case GEQ:
+				oper = AbsBinExpr.Oper.GEQ;
+				break;
+			case LEQ:
+				oper = AbsBinExpr.Oper.LEQ;
+				break;
+			case GTH:
+				oper = AbsBinExpr.Oper.GTH;
+				break;
+			case LTH:
+				oper = AbsBinExpr.Oper.LTH;
+				break;
+			default:
+				if (relExprFollow.contains(token()))
+					return expr;
+				throw new Report.Error("Cannot parse RelationalExpressionP");
+		}
+		next();
+		if (!exprFirst.contains(token()))
+			throw new Report.Error("Cannot parse ADDSUBExpression");
+		AbsExpr sndExpr = parseAddExpr();
+		return new AbsBinExpr(new Location(expr, sndExpr), oper, expr, sndExpr);
+	}
+
+	private AbsExpr parseAddExpr() {
+		AbsExpr expr = parseMulExpr();
+		while (true) {
+			AbsBinExpr.Oper oper;
+			switch (token()) {
+				case ADD:
+					oper = AbsBinExpr.Oper.ADD;
+					break;
+				case SUB:
+					oper = AbsBinExpr.Oper.SUB;
+					break;
+				default:
+					if (addExprFollow.contains(token()))
+						return expr;
+					throw new Report.Error("Cannot parse ADDSUBExpressionP");
+			}
+			next();
+			if (!exprFirst.contains(token()))
+				throw new Report.Error("Cannot parse MULDIVExpression");
+			AbsExpr sndExpr = parseMulExpr();
+			expr = new AbsBinExpr(new Location(expr, sndExpr), oper, expr, sndExpr);
+		}
+	}
+
+	private AbsExpr parseMulExpr() {
+		AbsExpr expr = parsePrefExpr();
+		while (true) {
+			AbsBinExpr.Oper oper;
+			switch (token()) {
+				case MUL:
+					oper = AbsBinExpr.Oper.MUL;
+					break;
+				case DIV:
+					oper = AbsBinExpr.Oper.DIV;
+					break;
+				case MOD:
+					oper = AbsBinExpr.Oper.MOD;
+					break;
+				default:
+					if (mulExprFollow.contains(token()))
+						return expr;
+					throw new Report.Error("Cannot parse MULDIVExpressionP. Got " + token());
+			}
+			next();
+			AbsExpr sndExpr = parsePrefExpr();
+			expr = new AbsBinExpr(new Location(expr, sndExpr), oper, expr, sndExpr);
+		}
+	}
+
+	private AbsExpr parsePrefExpr() {
+		int beg = curr;
+		AbsUnExpr.Oper oper;
+		switch (token()) {
+			case IDENTIFIER:
+			case INTCONST:
+			case VOIDCONST:
+			case CHARCONST:
+			case BOOLCONST:
+			case PTRCONST:
+			case STRCONST:
+			case LBRACE:
+			case LPARENTHESIS:
+				return parsePstfExpr();
+			case ADD:
+				oper = AbsUnExpr.Oper.ADD;
+				break;
+			case SUB:
+				oper = AbsUnExpr.Oper.SUB;
+				break;
+			case NOT:
+				oper = AbsUnExpr.Oper.NOT;
+				break;
+			case DATA:
+				oper = AbsUnExpr.Oper.DATA;
+				break;
+			case ADDR:
+				oper = AbsUnExpr.Oper.ADDR;
+				break;
+			case NEW: {
+				skip(Symbol.Term.NEW, "Expected NEW when parsing PrefixExpression");
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing PrefixExpression");
+				AbsType type = parseType();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing PrefixExpression");
+				return new AbsNewExpr(span(beg), type);
+			}
+			case DEL: {
+				skip(Symbol.Term.DEL, "Expected DEL when parsing PrefixExpression");
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing PrefixExpression");
+				AbsExpr expr = parseExpr();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing PrefixExpression");
+				return new AbsDelExpr(span(beg), expr);
+			}
+			default:
+				throw new Report.Error("Cannot parse PrefixExpression");
+		}
+		next();
+		AbsExpr subExpr = parsePrefExpr();
+		return new AbsUnExpr(span(beg), oper, subExpr);
+	}
+
+	private AbsExpr parsePstfExpr() {
+		if (token() != Symbol.Term.LPARENTHESIS)
+			return parsePstfOps(parseAtomExpr());
+
+		skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing PostfixExprssion");
+		AbsExpr expr = parseExpr();
+		switch (token()) {
+			case COLON: {
+				int beg = curr;
+				skip(Symbol.Term.COLON, "Expected COLON when parsing PrefixExpressionP");
+				AbsType type = parseType();
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing PrefixExpressionP");
+				// The location of a cast includes the postfix operators applied to it, so
+				// they are parsed twice: first to find where they end and then to
+				// construct the nodes.
+				int end = curr;
+				parsePstfOps(expr);
+				Location location = span(beg);
+				curr = end;
+				return parsePstfOps(new AbsCastExpr(location, expr, type));
+			}
+			case RPARENTHESIS:
+				skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing PrefixExpressionP");
+				return parsePstfOps(expr);
+			default:
+				throw new Report.Error("Cannot parse PrefixExpressionP");
+		}
+	}
+
+	private AbsExpr parsePstfOps(AbsExpr expr) {
+		while (true) {
+			switch (token()) {
+				case LBRACKET: {
+					skip(Symbol.Term.LBRACKET, "Expected LBRACKET when parsing PostfixExpressionP");
+					AbsExpr index = parseExpr();
+					int end = curr;
+					skip(Symbol.Term.RBRACKET, "Expected RBRACKET when parsing PostfixExpressionP");
+					expr = new AbsArrExpr(new Location(expr, tokens.location(end)), expr, index);
+					break;
+				}
+				case DOT: {
+					skip(Symbol.Term.DOT, "Expected DOT when parsing PostfixExpressionP");
+					int beg = curr;
+					int nameId = nameId("Expected IDENTIFIER when parsing PostfixExpressionP");
+					AbsVarName comp = new AbsVarName(span(beg), nameId);
+					expr = new AbsRecExpr(new Location(expr, comp), expr, comp);
+					break;
+				}
+				default:
+					if (pstfExprFollow.contains(token()))
+						return expr;
+					throw new Report.Error("Cannot parse PostfixExpressionP");
+			}
+		}
+	}
+
+	private AbsExpr parseAtomExpr() {
+		int beg = curr;
+		switch (token()) {
+			case IDENTIFIER: {
+				int nameId = nameId("Expected IDENTIFIER when parsing AtomicExpression");
+				if (nameFollow.contains(token()))
+					return new AbsVarName(span(beg), nameId);
+				if (token() != Symbol.Term.LPARENTHESIS)
+					throw new Report.Error("Cannot parse ArgumentsOpt");
+				skip(Symbol.Term.LPARENTHESIS, "Expected LPARENTHESIS when parsing ArgumentsOpt");
+				AbsArgs args;
+				if (exprFirst.contains(token())) {
+					args = parseArgs();
+					skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing ArgumentsOptP");
+				} else if (token() == Symbol.Term.RPARENTHESIS) {
+					skip(Symbol.Term.RPARENTHESIS, "Expected RPARENTHESIS when parsing ArgumentsOptP");
+					args = new AbsArgs(new Location(0, 0), new Vector<AbsExpr>());
+				} else
+					throw new Report.Error("Cannot parse ArgumentsOptP");
+				return new AbsFunName(span(beg), nameId, args);
+			}
+			case INTCONST:
+				return parseAtom(AbsAtomExpr.Type.INT, "Expected INTCONST when parsing AtomicExpression");
+			case VOIDCONST:
+				return parseAtom(AbsAtomExpr.Type.VOID, "Expected VOIDCONST when parsing AtomicExpression");
+			case CHARCONST:
+				return parseAtom(AbsAtomExpr.Type.CHAR, "Expected CHARCONST when parsing AtomicExpression");
+			case BOOLCONST:
+				return parseAtom(AbsAtomExpr.Type.BOOL, "Expected BOOLCONST when parsing AtomicExpression");
+			case PTRCONST:
+				return parseAtom(AbsAtomExpr.Type.PTR, "Expected PTRCONST when parsing AtomicExpression");
+			case STRCONST:
+				return parseAtom(AbsAtomExpr.Type.STR, "Expected STRCONST when parsing AtomicExpression");
+			case LBRACE: {
+				skip(Symbol.Term.LBRACE, "Expected LBRACE when parsing AtomicExpression");
+				int stmtsBeg = curr;
+				AbsStmts stmts = parseStmts();
+				skip(Symbol.Term.COLON, "Expected COLON  when parsing AtomicExpression");
+				AbsExpr expr = parseExpr();
+				AbsDecls decls = null;
+				switch (token()) {
+					case RBRACE:
+						break;
+					case WHERE:
+						skip(Symbol.Term.WHERE, "Expected WHERE when parsing WhereOpt");
+						decls = parseDecls();
+						break;
+					default:
+						throw new Report.Error("Cannot parse WhereOpt");
+				}
+				Location location = span(stmtsBeg);
+				skip(Symbol.Term.RBRACE, "Expected RBRACE when parsing AtomicExpression");
+				if (decls == null)
+					decls = new AbsDecls(new Location(0, 0), new Vector<AbsDecl>());
+				return new AbsBlockExpr(location, decls, stmts, expr);
+			}
+			default:
+				throw new Report.Error("Cannot parse AtomicExpression");
+		}
+	}
+
+	private AbsAtomExpr parseAtom(AbsAtomExpr.Type type, String errorMsg) {
+		int beg = curr;
+		String lexeme = lexeme(tokens.token(curr), errorMsg);
+		return new AbsAtomExpr(span(beg), type, lexeme);
+	}
+
+	private AbsArgs parseArgs() {
+		Vector<AbsExpr> args = new Vector<AbsExpr>();
+		args.add(parseExpr());
+		while (true) {
+			switch (token()) {
+				case RPARENTHESIS:
+					break;
+				case COMMA:
+					skip(Symbol.Term.COMMA, "Expected COMMA when parsing ArgumentsP");
+					args.add(parseExpr());
+					continue;
+				default:
+					throw new Report.Error("Cannot parse ArgumentsP");
+			}
+			break;
+		}
+		return new AbsArgs(new Location(args.firstElement(), args.lastElement()), args);
+	}
+
+}
@@ -0,0 +1,234 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import compiler.*;
+import compiler.common.report.*;
+import compiler.data.abstree.*;
+import compiler.phases.lexan.*;
+
+/**
+ * The checker of the incremental parser.
+ *
+ * For each program the checker applies a sequence of random edits to an
+ * {@link IncrementalParser}: a random part of the text is removed and a random
+ * part of the text or a random symbol is inserted instead; every other edit
+ * reverts the previous one, so the text keeps returning to a valid program.
+ * After each edit the abstract syntax tree produced by the incremental parser
+ * must be identical to the one produced by parsing the whole edited text from
+ * scratch (including the locations of all nodes), or both parsers must reject
+ * the text. The checker stops at the first mismatch and exits with status 1.
+ *
+ * Usage:
+ * {@code java compiler.phases.synan.IncrementalCheck [--steps=N] [--seed=S] FILE...}
+ *
+ * @author sliva
+ */
+public class IncrementalCheck {
+
+	/** Symbols inserted by random edits. */
+	private static final String[] symbols = { "\n", " ", ";", ":", ",", "=", "+", "(", ")", "{", "}", "[", "]", "x",
+			"1", "'a'", "\"s\"", "fun", "var", "typ", "where", "if", "then", "end", "#\n" };
+
+	/** The random generator. */
+	private final Random random;
+
+	/** The incremental parser. */
+	private final IncrementalParser parser;
+
+	/**
+	 * The checker's {@code main} method.
+	 *
+	 * @param args Command line arguments.
+	 */
+	public static void main(String[] args) {
+		int steps = 1000;
+		long seed = 0;
+		Vector<String> fileNames = new Vector<String>();
+		for (String arg : args) {
+			if (arg.matches("--steps=[0-9]+"))
+				steps = Integer.parseInt(arg.replaceFirst("^[^=]*=", ""));
+			else if (arg.matches("--seed=-?[0-9]+"))
+				seed = Long.parseLong(arg.replaceFirst("^[^=]*=", ""));
+			else
+				fileNames.add(arg);
+		}
+		if (fileNames.isEmpty()) {
+			System.err.println("Usage: java compiler.phases.synan.IncrementalCheck [--steps=N] [--seed=S] FILE...");
+			System.exit(1);
+		}
+
+		// Syntax errors in edited programs are expected and not printed out.
+		PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+		for (String fileName : fileNames) {
+			String text;
+			try {
+				text = new String(Files.readAllBytes(Paths.get(fileName)), StandardCharsets.UTF_8);
+			} catch (IOException ex) {
+				System.err.println("Cannot read file '" + fileName + "': " + ex.getMessage());
+				System.exit(1);
+				return;
+			}
+			long fileSeed = seed;
+			int fileSteps = steps;
+			String mismatch = new CompilationContext(quiet, quiet)
+					.run(() -> new IncrementalCheck(text, fileSeed).check(fileSteps));
+			if (mismatch != null) {
+				System.out.println(fileName + ": " + mismatch);
+				System.exit(1);
+			}
+			System.out.println(fileName + ": " + steps + " edits, no mismatch.");
+		}
+	}
+
+	/**
+	 * Constructs a new checker.
+	 *
+	 * @param text The text of a program.
+	 * @param seed The seed of the random generator.
+	 */
+	private IncrementalCheck(String text, long seed) {
+		this.random = new Random(seed);
+		this.parser = new IncrementalParser(text);
+	}
+
+	/**
+	 * Applies random edits and compares the results with full parses.
+	 *
+	 * @param steps The number of edits.
+	 * @return The description of the first mismatch or {@code null} if none.
+	 */
+	private String check(int steps) {
+		String mismatch = compare(parser.absTree(), parse(parser.text()));
+		if (mismatch != null)
+			return "initial parse: " + mismatch;
+
+		int offset = 0;
+		String removed = "";
+		String inserted = "";
+		for (int step = 0; step < steps; step++) {
+			String text = parser.text();
+			if (step % 2 == 0) {
+				offset = random.nextInt(text.length() + 1);
+				removed = text.substring(offset, Math.min(text.length(), offset + random.nextInt(16)));
+				if (random.nextBoolean()) {
+					inserted = symbols[random.nextInt(symbols.length)];
+				} else {
+					int beg = random.nextInt(text.length() + 1);
+					inserted = text.substring(beg, Math.min(text.length(), beg + random.nextInt(32)));
+				}
+			} else {
+				// Revert the previous edit.
+				String undo = removed;
+				removed = inserted;
+				inserted = undo;
+			}
+			AbsSource incremental = parser.edit(offset, removed.length(), inserted);
+			mismatch = compare(incremental, parse(parser.text()));
+			if (mismatch != null)
+				return "edit " + step + " (offset " + offset + ", removed " + quote(removed) + ", inserted "
+						+ quote(inserted) + "): " + mismatch;
+		}
+		return null;
+	}
+
+	/**
+	 * Parses the whole text from scratch.
+	 *
+	 * @param text The text of a program.
+	 * @return The abstract syntax tree or {@code null} if the text contains an
+	 *         error.
+	 */
+	private static AbsTree parse(String text) {
+		char[] chars = text.toCharArray();
+		try (LexAn lexAn = new LexAn(chars, chars.length, 0, 1, 1)) {
+			return new AbsParser(lexAn.tokens()).parser();
+		} catch (Report.Error __) {
+			return null;
+		}
+	}
+
+	/**
+	 * Compares the results of the incremental and of the full parse.
+	 *
+	 * @param incremental The abstract syntax tree produced by the incremental
+	 *                    parser (or {@code null}).
+	 * @param full        The abstract syntax tree produced by the full parse (or
+	 *                    {@code null}).
+	 * @return The description of the difference or {@code null} if none.
+	 */
+	private static String compare(AbsTree incremental, AbsTree full) {
+		if (incremental == null && full == null)
+			return null;
+		if (incremental == null)
+			return "rejected by the incremental parser only";
+		if (full == null)
+			return "rejected by the full parse only";
+		return compare(incremental, full, "source");
+	}
+
+	/**
+	 * Compares two parts of abstract syntax trees field by field. Node IDs are
+	 * ignored as they depend on the order the nodes have been created in.
+	 *
+	 * @param fst  The first part.
+	 * @param snd  The second part.
+	 * @param path The path to the part being compared.
+	 * @return The description of the difference or {@code null} if none.
+	 */
+	private static String compare(Object fst, Object snd, String path) {
+		if (fst == null || snd == null)
+			return fst == snd ? null : path + ": " + fst + " vs. " + snd;
+		if (fst.getClass() != snd.getClass())
+			return path + ": " + fst.getClass().getSimpleName() + " vs. " + snd.getClass().getSimpleName();
+		if (fst instanceof String || fst instanceof Number || fst instanceof Boolean || fst instanceof Character
+				|| fst instanceof Enum)
+			return fst.equals(snd) ? null : path + ": " + fst + " vs. " + snd;
+		if (fst instanceof List) {
+			List<?> fstList = (List<?>) fst;
+			List<?> sndList = (List<?>) snd;
+			if (fstList.size() != sndList.size())
+				return path + ": " + fstList.size() + " vs. " + sndList.size() + " elements";
+			for (int index = 0; index < fstList.size(); index++) {
+				String diff = compare(fstList.get(index), sndList.get(index), path + "[" + index + "]");
+				if (diff != null)
+					return diff;
+			}
+			return null;
+		}
+		if (fst instanceof AbsTree && !fst.toString().equals(snd.toString()))
+			return path + ": at " + fst + " vs. " + snd;
+		for (Class<?> cls = fst.getClass(); cls != Object.class; cls = cls.getSuperclass()) {
+			for (Field field : cls.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers()) || (fst instanceof AbsTree && field.getName().equals("id")))
+					continue;
+				field.setAccessible(true);
+				try {
+					String diff = compare(field.get(fst), field.get(snd), path + "." + field.getName());
+					if (diff != null)
+						return diff;
+				} catch (IllegalAccessException __) {
+					throw new Report.InternalError();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Quotes a part of the text.
+	 *
+	 * @param text The part of the text.
+	 * @return The quoted part of the text with line breaks escaped.
+	 */
+	private static String quote(String text) {
+		return "'" + text.replace("\n", "\\n") + "'";
+	}
+
+}
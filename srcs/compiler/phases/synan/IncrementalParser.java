@@ -0,0 +1,354 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.symbol.*;
+import compiler.data.abstree.*;
+import compiler.phases.lexan.*;
+
+/**
+ * An incremental front end for editors.
+ *
+ * The parser keeps the text of a program together with its abstract syntax
+ * tree split into top-level declarations. When the text is edited, only the
+ * lines touched by the edit are re-lexed and only the top-level declarations
+ * overlapping them are reparsed: parsing starts after the last declaration
+ * preceding the edited lines and stops as soon as it reaches the beginning of
+ * a declaration following them. As no symbol spans more than one line, all
+ * other declarations are reused as they are, only moved by the number of lines
+ * inserted or removed by the edit.
+ *
+ * If the edited text contains an error, the error is reported and the
+ * abstract syntax tree is not available until the error is fixed; the edited
+ * part of the text is reparsed together with the parts edited later on.
+ *
+ * The results must always be the same as those of a full parse of the edited
+ * text; {@link IncrementalCheck} checks this on random edits.
+ *
+ * The parser must be used within a compilation context (see
+ * {@link compiler.CompilationContext#run}).
+ *
+ * @author sliva
+ */
+public class IncrementalParser {
+
+	/**
+	 * The part of the text a top-level declaration has been parsed from.
+	 */
+	private static class Segment {
+
+		/** The index of the first character of the declaration. */
+		int beg;
+
+		/** The index of the character following the declaration. */
+		int end;
+
+		/** The line of the character following the declaration. */
+		int endLine;
+
+		/** The column of the character following the declaration. */
+		final int endColumn;
+
+		Segment(int beg, int end, int endLine, int endColumn) {
+			this.beg = beg;
+			this.end = end;
+			this.endLine = endLine;
+			this.endColumn = endColumn;
+		}
+
+	}
+
+	/** The text. */
+	private char[] text;
+
+	/** The length of the text. */
+	private int textLen;
+
+	/** The top-level declarations and their parts of the text. */
+	private final Vector<Segment> segments = new Vector<Segment>();
+
+	/** The top-level declarations. */
+	private final Vector<AbsDecl> decls = new Vector<AbsDecl>();
+
+	/**
+	 * The index of the first segment not moved yet. Segments are moved lazily, as
+	 * in a gap buffer: the positions of segments from this index on must be
+	 * increased by {@link #gapChars} characters and {@link #gapLines} lines.
+	 */
+	private int gap = 0;
+
+	/** The number of characters segments from {@link #gap} on are moved by. */
+	private int gapChars = 0;
+
+	/** The number of lines segments from {@link #gap} on are moved by. */
+	private int gapLines = 0;
+
+	/**
+	 * The index of the first character of the part of the text that has not been
+	 * parsed successfully since it was edited, or {@code -1} if there is none.
+	 */
+	private int dirtyBeg = -1;
+
+	/** The index of the character following the part of the text not parsed. */
+	private int dirtyEnd = -1;
+
+	/** The abstract syntax tree (or {@code null} if the text contains an error). */
+	private AbsSource absTree = null;
+
+	/** The visitor moving reused declarations. */
+	private final AbsLineShifter lineShifter = new AbsLineShifter();
+
+	/**
+	 * Constructs a new incremental parser and parses the text.
+	 *
+	 * @param text The text of a program.
+	 */
+	public IncrementalParser(String text) {
+		this.text = text.toCharArray();
+		this.textLen = this.text.length;
+		dirtyBeg = 0;
+		dirtyEnd = textLen;
+		reparse();
+	}
+
+	/**
+	 * Returns the text of the program.
+	 *
+	 * @return The text of the program.
+	 */
+	public String text() {
+		return new String(text, 0, textLen);
+	}
+
+	/**
+	 * Returns the abstract syntax tree of the program.
+	 *
+	 * @return The abstract syntax tree or {@code null} if the text contains an
+	 *         error.
+	 */
+	public AbsSource absTree() {
+		return absTree;
+	}
+
+	/**
+	 * Edits the text and updates the abstract syntax tree.
+	 *
+	 * @param offset   The index of the first character removed.
+	 * @param removed  The number of characters removed.
+	 * @param inserted The text inserted instead.
+	 * @return The abstract syntax tree of the edited program or {@code null} if
+	 *         the edited text contains an error.
+	 */
+	public AbsSource edit(int offset, int removed, String inserted) {
+		if (offset < 0 || removed < 0 || offset + removed > textLen)
+			throw new Report.InternalError();
+		int delta = inserted.length() - removed;
+
+		// The edited lines.
+		int editBeg = offset;
+		while (editBeg > 0 && text[editBeg - 1] != '\n')
+			editBeg--;
+		int editEnd = offset + removed;
+		while (editEnd < textLen && text[editEnd] != '\n')
+			editEnd++;
+		int lines = 0;
+		for (int pos = offset; pos < offset + removed; pos++)
+			if (text[pos] == '\n')
+				lines--;
+		for (int pos = 0; pos < inserted.length(); pos++)
+			if (inserted.charAt(pos) == '\n')
+				lines++;
+
+		// Drop the declarations overlapping the edited lines and move the ones
+		// following them.
+		int first = firstEndingAfter(editBeg);
+		int next = firstBeginningAt(first, editEnd);
+		moveGap(first);
+		segments.subList(first, next).clear();
+		decls.subList(first, next).clear();
+		gapChars += delta;
+		gapLines += lines;
+		if (lines != 0) {
+			for (int index = first; index < decls.size(); index++)
+				decls.get(index).accept(lineShifter, lines);
+		}
+
+		// Extend the part of the text to be reparsed.
+		if (dirtyBeg == -1) {
+			dirtyBeg = editBeg;
+			dirtyEnd = editEnd + delta;
+		} else {
+			dirtyBeg = Math.min(dirtyBeg <= offset ? dirtyBeg : Math.max(offset, dirtyBeg + delta), editBeg);
+			dirtyEnd = Math.max(dirtyEnd <= offset ? dirtyEnd : Math.max(offset, dirtyEnd + delta), editEnd + delta);
+		}
+
+		// Edit the text.
+		if (textLen + delta > text.length)
+			text = Arrays.copyOf(text, Math.max(2 * text.length, textLen + delta));
+		System.arraycopy(text, offset + removed, text, offset + inserted.length(), textLen - offset - removed);
+		inserted.getChars(0, inserted.length(), text, offset);
+		textLen += delta;
+
+		reparse();
+		return absTree;
+	}
+
+	/**
+	 * Reparses the part of the text that has not been parsed successfully since
+	 * it was edited.
+	 */
+	private void reparse() {
+		absTree = null;
+
+		// Skip the declarations preceding the edited part.
+		int first = firstEndingAfter(dirtyBeg);
+		int next = firstBeginningAt(first, dirtyEnd);
+
+		// Parse the declarations until a declaration following the edited part is
+		// reached.
+		Vector<Segment> parsed = new Vector<Segment>();
+		Vector<AbsDecl> parsedDecls = new Vector<AbsDecl>();
+		try (LexAn lexAn = first == 0 ? new LexAn(text, textLen, 0, 1, 1)
+				: new LexAn(text, textLen, end(first - 1), endLine(first - 1), segments.get(first - 1).endColumn)) {
+			TokenBuffer tokens = lexAn.tokens(dirtyEnd - dirtyBeg);
+			AbsParser parser = new AbsParser(tokens);
+			while (true) {
+				int curr = parser.position();
+				Symbol.Term token = tokens.token(curr);
+				if (token == Symbol.Term.EOF) {
+					next = segments.size();
+					break;
+				}
+				next = firstBeginningAt(next, tokens.beg(curr));
+				if (next < segments.size() && beg(next) == tokens.beg(curr))
+					break;
+				if (token != Symbol.Term.TYP && token != Symbol.Term.VAR && token != Symbol.Term.FUN) {
+					if (first == 0 && parsed.isEmpty())
+						throw new Report.Error("Cannot parse Source");
+					if (token == Symbol.Term.RBRACE) {
+						Symbol symb = tokens.symbol(curr);
+						throw new Report.Error(symb, "Unexpected '" + symb + "' at the end of a program.");
+					}
+					throw new Report.Error("Cannot parse DeclarationsP");
+				}
+				AbsDecl decl = parser.parseDecl();
+				int last = parser.position() - 1;
+				parsed.add(new Segment(tokens.beg(curr), tokens.end(last), tokens.line(last), tokens.endColumn(last)));
+				parsedDecls.add(decl);
+			}
+			if (first == 0 && parsed.isEmpty() && next == segments.size())
+				throw new Report.Error("Cannot parse Source");
+		} catch (Report.Error __) {
+			// The error has been reported, the edited part is reparsed on the next edit.
+			return;
+		}
+
+		moveGap(first);
+		segments.subList(first, next).clear();
+		decls.subList(first, next).clear();
+		segments.addAll(first, parsed);
+		decls.addAll(first, parsedDecls);
+		gap = first + parsed.size();
+		dirtyBeg = -1;
+		dirtyEnd = -1;
+
+		AbsDecls absDecls = new AbsDecls(new Location(decls.firstElement(), decls.lastElement()), decls);
+		absTree = new AbsSource(absDecls, absDecls);
+	}
+
+	/**
+	 * Moves the gap, i.e., moves the segments between the gap and the specified
+	 * index.
+	 *
+	 * @param index The new index of the first segment not moved.
+	 */
+	private void moveGap(int index) {
+		for (; gap < index; gap++) {
+			Segment segment = segments.get(gap);
+			segment.beg += gapChars;
+			segment.end += gapChars;
+			segment.endLine += gapLines;
+		}
+		for (; gap > index; gap--) {
+			Segment segment = segments.get(gap - 1);
+			segment.beg -= gapChars;
+			segment.end -= gapChars;
+			segment.endLine -= gapLines;
+		}
+	}
+
+	/**
+	 * Returns the index of the first character of a declaration.
+	 *
+	 * @param index The index of the declaration.
+	 * @return The index of the first character.
+	 */
+	private int beg(int index) {
+		return segments.get(index).beg + (index < gap ? 0 : gapChars);
+	}
+
+	/**
+	 * Returns the index of the character following a declaration.
+	 *
+	 * @param index The index of the declaration.
+	 * @return The index of the character following the declaration.
+	 */
+	private int end(int index) {
+		return segments.get(index).end + (index < gap ? 0 : gapChars);
+	}
+
+	/**
+	 * Returns the line of the character following a declaration.
+	 *
+	 * @param index The index of the declaration.
+	 * @return The line.
+	 */
+	private int endLine(int index) {
+		return segments.get(index).endLine + (index < gap ? 0 : gapLines);
+	}
+
+	/**
+	 * Returns the index of the first declaration ending after the specified
+	 * character.
+	 *
+	 * @param pos The index of the character.
+	 * @return The index of the declaration.
+	 */
+	private int firstEndingAfter(int pos) {
+		int lo = 0;
+		int hi = segments.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (end(mid) <= pos)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the index of the first declaration (not preceding the specified
+	 * one) beginning at or after the specified character.
+	 *
+	 * @param from The index of the first declaration considered.
+	 * @param pos  The index of the character.
+	 * @return The index of the declaration.
+	 */
+	private int firstBeginningAt(int from, int pos) {
+		int lo = from;
+		int hi = segments.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (beg(mid) < pos)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+}
@@ -0,0 +1,518 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import java.io.*;
+import java.util.*;
+import compiler.data.symbol.*;
+
+/**
+ * The generator of LALR(1) parsing tables.
+ *
+ * The generator reads the LR(1) grammar of PREV'19 (file
+ * {@code LR1_CFGTerminals.txt}), constructs the LR(0) automaton, computes
+ * LALR(1) lookaheads by propagating them through the automaton until the
+ * fixpoint is reached, and writes the resulting parsing tables as a Java
+ * source file (class {@code LRTables}) used by {@link LRParser}. Conflicts
+ * are reported and no tables are written in that case.
+ *
+ * Usage:
+ * {@code java compiler.phases.synan.LRGen LR1_CFGTerminals.txt srcs/compiler/phases/synan/LRTables.java}
+ *
+ * @author sliva
+ */
+public class LRGen {
+
+	/** Terminals named differently in the grammar than in {@link Symbol.Term}. */
+	private static final HashMap<String, Symbol.Term> aliases = new HashMap<String, Symbol.Term>();
+	static {
+		aliases.put("GTE", Symbol.Term.GEQ);
+		aliases.put("LTE", Symbol.Term.LEQ);
+	}
+
+	/** The number of terminals. */
+	private static final int numOfTerms = Symbol.Term.values().length;
+
+	/** The names of nonterminals (nonterminal {@code n} is symbol {@code numOfTerms + n}). */
+	private final Vector<String> nonts = new Vector<String>();
+
+	/** The heads of productions. */
+	private final Vector<Integer> heads = new Vector<Integer>();
+
+	/** The bodies of productions. */
+	private final Vector<int[]> bodies = new Vector<int[]>();
+
+	/** The productions as written in the grammar (without the final period). */
+	private final Vector<String> texts = new Vector<String>();
+
+	/** Nullable nonterminals. */
+	private boolean[] nullable;
+
+	/** FIRST sets of nonterminals. */
+	private BitSet[] firsts;
+
+	/** Kernels of states (an item is encoded as {@code (prod << 8) | dot}). */
+	private final Vector<int[]> kernels = new Vector<int[]>();
+
+	/** States by their kernels. */
+	private final HashMap<String, Integer> states = new HashMap<String, Integer>();
+
+	/** Transitions of states. */
+	private final Vector<HashMap<Integer, Integer>> transitions = new Vector<HashMap<Integer, Integer>>();
+
+	/** Lookaheads of kernel items of states. */
+	private final Vector<HashMap<Integer, BitSet>> lookaheads = new Vector<HashMap<Integer, BitSet>>();
+
+	/**
+	 * The generator's {@code main} method.
+	 *
+	 * @param args The grammar file and the Java source file to be written.
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: java compiler.phases.synan.LRGen GRAMMAR OUTPUT");
+			System.exit(1);
+		}
+		try {
+			LRGen gen = new LRGen();
+			gen.read(args[0]);
+			gen.computeFirsts();
+			gen.constructAutomaton();
+			gen.computeLookaheads();
+			gen.write(args[1]);
+		} catch (IOException ex) {
+			System.err.println("Cannot generate parsing tables: " + ex.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Reads the grammar. Each rule is of the form
+	 * {@code Head -> Body | ... | Body .} where terminals are named by
+	 * {@link Symbol.Term} (or by one of the aliases) and all other symbols are
+	 * nonterminals. The head of the first rule is the start symbol.
+	 *
+	 * @param fileName The grammar file.
+	 * @throws IOException If the file cannot be read.
+	 */
+	private void read(String fileName) throws IOException {
+		Vector<String> rules = new Vector<String>();
+		try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty())
+					continue;
+				if (!line.matches("\\S+ ->.*\\.") || line.startsWith("Source'"))
+					throw new IOException("Illegal rule '" + line + "'.");
+				rules.add(line.substring(0, line.length() - 1).trim());
+				nont(line.substring(0, line.indexOf(' ')));
+			}
+		}
+
+		// The augmented start production.
+		nonts.insertElementAt("Source'", 0);
+		heads.add(0);
+		bodies.add(new int[] { numOfTerms + 1 });
+		texts.add("Source' -> " + nonts.get(1));
+
+		int numOfNonts = nonts.size();
+		for (String rule : rules) {
+			String head = rule.substring(0, rule.indexOf(' '));
+			for (String body : rule.substring(rule.indexOf("->") + 2).split("\\|")) {
+				String[] names = body.trim().isEmpty() ? new String[0] : body.trim().split("\\s+");
+				int[] symbs = new int[names.length];
+				for (int i = 0; i < names.length; i++)
+					symbs[i] = symb(names[i]);
+				heads.add(nont(head) - numOfTerms);
+				bodies.add(symbs);
+				texts.add((head + " -> " + String.join(" ", names)).trim());
+			}
+		}
+		if (nonts.size() != numOfNonts)
+			throw new IOException("Nonterminal '" + nonts.lastElement() + "' is not defined.");
+	}
+
+	/**
+	 * Returns the symbol with the specified name.
+	 *
+	 * @param name The name of the symbol.
+	 * @return The symbol.
+	 */
+	private int symb(String name) {
+		if (aliases.containsKey(name))
+			return aliases.get(name).ordinal();
+		for (Symbol.Term term : Symbol.Term.values())
+			if (term.name().equals(name))
+				return term.ordinal();
+		return nont(name);
+	}
+
+	/**
+	 * Returns the nonterminal with the specified name, adding it if necessary.
+	 *
+	 * @param name The name of the nonterminal.
+	 * @return The nonterminal.
+	 */
+	private int nont(String name) {
+		int index = nonts.indexOf(name);
+		if (index == -1) {
+			nonts.add(name);
+			index = nonts.size() - 1;
+		}
+		return numOfTerms + index;
+	}
+
+	/**
+	 * Returns the name of a symbol.
+	 *
+	 * @param symb The symbol.
+	 * @return The name of the symbol.
+	 */
+	private String name(int symb) {
+		return symb < numOfTerms ? Symbol.Term.values()[symb].name() : nonts.get(symb - numOfTerms);
+	}
+
+	/**
+	 * Computes nullable nonterminals and FIRST sets of nonterminals.
+	 */
+	private void computeFirsts() {
+		nullable = new boolean[nonts.size()];
+		firsts = new BitSet[nonts.size()];
+		for (int nont = 0; nont < nonts.size(); nont++)
+			firsts[nont] = new BitSet();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int prod = 0; prod < bodies.size(); prod++) {
+				int head = heads.get(prod);
+				BitSet first = first(bodies.get(prod), 0);
+				if (!contains(firsts[head], first)) {
+					firsts[head].or(first);
+					changed = true;
+				}
+				if (!nullable[head] && nullable(bodies.get(prod), 0)) {
+					nullable[head] = true;
+					changed = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the FIRST set of a suffix of a production's body.
+	 *
+	 * @param body The body of a production.
+	 * @param beg  The index of the first symbol of the suffix.
+	 * @return The FIRST set.
+	 */
+	private BitSet first(int[] body, int beg) {
+		BitSet first = new BitSet();
+		for (int i = beg; i < body.length; i++) {
+			if (body[i] < numOfTerms) {
+				first.set(body[i]);
+				break;
+			}
+			first.or(firsts[body[i] - numOfTerms]);
+			if (!nullable[body[i] - numOfTerms])
+				break;
+		}
+		return first;
+	}
+
+	/**
+	 * Checks whether a suffix of a production's body is nullable.
+	 *
+	 * @param body The body of a production.
+	 * @param beg  The index of the first symbol of the suffix.
+	 * @return {@code true} if the suffix is nullable, {@code false} otherwise.
+	 */
+	private boolean nullable(int[] body, int beg) {
+		for (int i = beg; i < body.length; i++)
+			if (body[i] < numOfTerms || !nullable[body[i] - numOfTerms])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks whether a set contains another set.
+	 *
+	 * @param set    The set.
+	 * @param subset The other set.
+	 * @return {@code true} if {@code subset} is a subset of {@code set}.
+	 */
+	private static boolean contains(BitSet set, BitSet subset) {
+		BitSet diff = (BitSet) subset.clone();
+		diff.andNot(set);
+		return diff.isEmpty();
+	}
+
+	/**
+	 * Constructs the LR(0) automaton.
+	 */
+	private void constructAutomaton() {
+		state(new int[] { 0 });
+		for (int state = 0; state < kernels.size(); state++) {
+			TreeMap<Integer, TreeSet<Integer>> succs = new TreeMap<Integer, TreeSet<Integer>>();
+			for (int item : closure(kernels.get(state)).keySet()) {
+				int[] body = bodies.get(item >> 8);
+				if ((item & 0xFF) < body.length) {
+					succs.putIfAbsent(body[item & 0xFF], new TreeSet<Integer>());
+					succs.get(body[item & 0xFF]).add(item + 1);
+				}
+			}
+			for (Map.Entry<Integer, TreeSet<Integer>> succ : succs.entrySet()) {
+				int[] kernel = new int[succ.getValue().size()];
+				int i = 0;
+				for (int item : succ.getValue())
+					kernel[i++] = item;
+				transitions.get(state).put(succ.getKey(), state(kernel));
+			}
+		}
+	}
+
+	/**
+	 * Returns the state with the specified kernel, adding it if necessary.
+	 *
+	 * @param kernel The sorted kernel items.
+	 * @return The state.
+	 */
+	private int state(int[] kernel) {
+		String key = Arrays.toString(kernel);
+		Integer state = states.get(key);
+		if (state == null) {
+			state = kernels.size();
+			states.put(key, state);
+			kernels.add(kernel);
+			transitions.add(new HashMap<Integer, Integer>());
+			HashMap<Integer, BitSet> las = new HashMap<Integer, BitSet>();
+			for (int item : kernel)
+				las.put(item, new BitSet());
+			lookaheads.add(las);
+		}
+		return state;
+	}
+
+	/**
+	 * Computes the LR(0) closure of a kernel.
+	 *
+	 * @param kernel The kernel items.
+	 * @return The items of the closure (with empty lookaheads).
+	 */
+	private LinkedHashMap<Integer, BitSet> closure(int[] kernel) {
+		HashMap<Integer, BitSet> las = new HashMap<Integer, BitSet>();
+		for (int item : kernel)
+			las.put(item, new BitSet());
+		return closure(las);
+	}
+
+	/**
+	 * Computes the LR(1) closure of kernel items with their lookaheads.
+	 *
+	 * @param kernel The kernel items and their lookaheads.
+	 * @return The items of the closure and their lookaheads.
+	 */
+	private LinkedHashMap<Integer, BitSet> closure(HashMap<Integer, BitSet> kernel) {
+		LinkedHashMap<Integer, BitSet> items = new LinkedHashMap<Integer, BitSet>();
+		Stack<Integer> pending = new Stack<Integer>();
+		for (Map.Entry<Integer, BitSet> item : kernel.entrySet()) {
+			items.put(item.getKey(), (BitSet) item.getValue().clone());
+			pending.push(item.getKey());
+		}
+		while (!pending.isEmpty()) {
+			int item = pending.pop();
+			int[] body = bodies.get(item >> 8);
+			int dot = item & 0xFF;
+			if (dot == body.length || body[dot] < numOfTerms)
+				continue;
+			BitSet la = first(body, dot + 1);
+			if (nullable(body, dot + 1))
+				la.or(items.get(item));
+			for (int prod = 0; prod < bodies.size(); prod++) {
+				if (heads.get(prod) != body[dot] - numOfTerms)
+					continue;
+				BitSet prodLa = items.get(prod << 8);
+				if (prodLa == null) {
+					items.put(prod << 8, (BitSet) la.clone());
+					pending.push(prod << 8);
+				} else if (!contains(prodLa, la)) {
+					prodLa.or(la);
+					pending.push(prod << 8);
+				}
+			}
+		}
+		return items;
+	}
+
+	/**
+	 * Computes LALR(1) lookaheads of kernel items by propagating them along the
+	 * transitions of the LR(0) automaton until nothing changes.
+	 */
+	private void computeLookaheads() {
+		lookaheads.get(0).get(0).set(Symbol.Term.EOF.ordinal());
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int state = 0; state < kernels.size(); state++) {
+				for (Map.Entry<Integer, BitSet> item : closure(lookaheads.get(state)).entrySet()) {
+					int[] body = bodies.get(item.getKey() >> 8);
+					int dot = item.getKey() & 0xFF;
+					if (dot == body.length)
+						continue;
+					BitSet succLa = lookaheads.get(transitions.get(state).get(body[dot])).get(item.getKey() + 1);
+					if (!contains(succLa, item.getValue())) {
+						succLa.or(item.getValue());
+						changed = true;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the parsing tables.
+	 *
+	 * The action of a state on a terminal is {@code s + 1} for shifting and going
+	 * to state {@code s}, {@code -p - 1} for reducing by production {@code p}
+	 * (production 0 means accepting), or 0 for a syntax error. The goto of a
+	 * state on a nonterminal is {@code s + 1} for going to state {@code s}.
+	 *
+	 * @param fileName The Java source file.
+	 * @throws IOException If the file cannot be written or the grammar is not
+	 *                     LALR(1).
+	 */
+	private void write(String fileName) throws IOException {
+		int numOfStates = kernels.size();
+		int[] actions = new int[numOfStates * numOfTerms];
+		int[] gotos = new int[numOfStates * nonts.size()];
+		int numOfConflicts = 0;
+		for (int state = 0; state < numOfStates; state++) {
+			for (Map.Entry<Integer, Integer> succ : transitions.get(state).entrySet()) {
+				if (succ.getKey() < numOfTerms)
+					actions[state * numOfTerms + succ.getKey()] = succ.getValue() + 1;
+				else
+					gotos[state * nonts.size() + succ.getKey() - numOfTerms] = succ.getValue() + 1;
+			}
+			for (Map.Entry<Integer, BitSet> item : closure(lookaheads.get(state)).entrySet()) {
+				int prod = item.getKey() >> 8;
+				if ((item.getKey() & 0xFF) != bodies.get(prod).length)
+					continue;
+				for (int term = item.getValue().nextSetBit(0); term >= 0; term = item.getValue().nextSetBit(term + 1)) {
+					int action = actions[state * numOfTerms + term];
+					if (action != 0) {
+						System.err.println("Conflict in state " + state + " on " + name(term) + ": "
+								+ (action > 0 ? "shift" : texts.get(-action - 1)) + " / " + texts.get(prod));
+						numOfConflicts++;
+					}
+					actions[state * numOfTerms + term] = -prod - 1;
+				}
+			}
+		}
+		if (numOfConflicts > 0)
+			throw new IOException("The grammar is not LALR(1): " + numOfConflicts + " conflict(s).");
+
+		try (PrintWriter out = new PrintWriter(new FileWriter(fileName))) {
+			out.println("/**");
+			out.println(" * @author sliva");
+			out.println(" */");
+			out.println("package compiler.phases.synan;");
+			out.println();
+			out.println("/**");
+			out.println(" * LALR(1) parsing tables of PREV'19.");
+			out.println(" *");
+			out.println(" * Generated by {@link LRGen} from {@code LR1_CFGTerminals.txt}, do not edit.");
+			out.println(" *");
+			out.println(" * @author sliva");
+			out.println(" */");
+			out.println("class LRTables {");
+			out.println();
+			out.println("\t/** The number of states. */");
+			out.println("\tstatic final int numOfStates = " + numOfStates + ";");
+			out.println();
+			out.println("\t/** The number of terminals. */");
+			out.println("\tstatic final int numOfTerms = " + numOfTerms + ";");
+			out.println();
+			out.println("\t/** The number of nonterminals. */");
+			out.println("\tstatic final int numOfNonts = " + nonts.size() + ";");
+			out.println();
+			out.println("\t/** The productions. */");
+			out.println("\tstatic final String[] prods = {");
+			for (String text : texts)
+				out.println("\t\t\t\"" + text + "\",");
+			out.println("\t};");
+			out.println();
+			out.println("\t/** The heads of productions. */");
+			out.print("\tstatic final int[] heads = {");
+			for (int prod = 0; prod < heads.size(); prod++)
+				out.print((prod % 20 == 0 ? "\n\t\t\t" : " ") + heads.get(prod) + ",");
+			out.println(" };");
+			out.println();
+			out.println("\t/** The lengths of bodies of productions. */");
+			out.print("\tstatic final int[] lengths = {");
+			for (int prod = 0; prod < bodies.size(); prod++)
+				out.print((prod % 20 == 0 ? "\n\t\t\t" : " ") + bodies.get(prod).length + ",");
+			out.println(" };");
+			out.println();
+			out.println("\t/** The actions indexed by {@code state * numOfTerms + term}. */");
+			out.println("\tstatic final short[] actions = unpack(numOfStates * numOfTerms,");
+			pack(out, actions);
+			out.println();
+			out.println("\t/** The gotos indexed by {@code state * numOfNonts + nont}. */");
+			out.println("\tstatic final short[] gotos = unpack(numOfStates * numOfNonts,");
+			pack(out, gotos);
+			out.println();
+			out.println("\t/**");
+			out.println("\t * Unpacks a run-length encoded table.");
+			out.println("\t *");
+			out.println("\t * @param size   The size of the table.");
+			out.println("\t * @param packed Pairs of the number of repetitions and the value.");
+			out.println("\t * @return The table.");
+			out.println("\t */");
+			out.println("\tprivate static short[] unpack(int size, String packed) {");
+			out.println("\t\tshort[] table = new short[size];");
+			out.println("\t\tint index = 0;");
+			out.println("\t\tfor (int i = 0; i < packed.length(); i += 2)");
+			out.println("\t\t\tfor (int count = packed.charAt(i); count > 0; count--)");
+			out.println("\t\t\t\ttable[index++] = (short) packed.charAt(i + 1);");
+			out.println("\t\treturn table;");
+			out.println("\t}");
+			out.println();
+			out.println("}");
+		}
+		System.out.println(numOfStates + " states, " + bodies.size() + " productions.");
+	}
+
+	/**
+	 * Writes a table as a run-length encoded string literal.
+	 *
+	 * @param out   The Java source file.
+	 * @param table The table.
+	 */
+	private static void pack(PrintWriter out, int[] table) {
+		StringBuilder packed = new StringBuilder();
+		int pairs = 0;
+		for (int beg = 0; beg < table.length;) {
+			int end = beg;
+			while (end < table.length && table[end] == table[beg] && end - beg < 0xFFFF)
+				end++;
+			packed.append(escape(end - beg)).append(escape(table[beg] & 0xFFFF));
+			if (++pairs % 8 == 0 && end < table.length)
+				packed.append("\"\n\t\t\t+ \"");
+			beg = end;
+		}
+		out.println("\t\t\t\"" + packed + "\");");
+	}
+
+	/**
+	 * Escapes a character within a string literal. Unicode escapes are not used
+	 * for small values since they are translated before the literal is lexed.
+	 *
+	 * @param c The character.
+	 * @return The escaped character.
+	 */
+	private static String escape(int c) {
+		return c < 0x100 ? String.format("\\%o", c) : String.format("\\u%04x", c);
+	}
+
+}
@@ -0,0 +1,455 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+import java.util.*;
+import compiler.common.report.*;
+import compiler.data.symbol.*;
+import compiler.data.abstree.*;
+import compiler.phases.lexan.*;
+
+/**
+ * A table-driven LALR(1) parser constructing the abstract syntax tree.
+ *
+ * The parser is driven by the parsing tables in {@link LRTables} generated by
+ * {@link LRGen} from the LR(1) grammar of PREV'19. Instead of Java recursion,
+ * it uses an explicit stack of states, so the nesting depth of programs is
+ * limited by the available memory only. Whenever a production is reduced, the
+ * nodes of the abstract syntax tree are constructed with the same locations as
+ * those computed by {@link compiler.phases.abstr.AbsTreeConstructor}.
+ *
+ * @author sliva
+ */
+class LRParser {
+
+	/** The token buffer the symbols are read from. */
+	private final TokenBuffer tokens;
+
+	/** The index of the current symbol in the token buffer. */
+	private int curr = 0;
+
+	/** The states on the stack. */
+	private int[] states = new int[256];
+
+	/** The values (parts of the abstract syntax tree) on the stack. */
+	private Object[] values = new Object[256];
+
+	/** The indices of the first symbols of the stack entries. */
+	private int[] begs = new int[256];
+
+	/** The indices of the last symbols of the stack entries. */
+	private int[] ends = new int[256];
+
+	/** The index of the top of the stack. */
+	private int top = -1;
+
+	/** The index of the first stack entry of the production being reduced. */
+	private int base;
+
+	/**
+	 * Constructs a new parser.
+	 *
+	 * @param tokens The token buffer the symbols are read from.
+	 */
+	LRParser(TokenBuffer tokens) {
+		this.tokens = tokens;
+	}
+
+	/**
+	 * Parses the source file.
+	 *
+	 * @return The abstract syntax tree of the program.
+	 */
+	AbsSource parser() {
+		push(0, null, 0, -1);
+		while (true) {
+			Symbol.Term token = tokens.token(curr);
+			int action = LRTables.actions[states[top] * LRTables.numOfTerms + token.ordinal()];
+			if (action > 0) {
+				// The lookahead is never shifted when it is EOF.
+				push(action - 1, null, curr, curr);
+				curr++;
+			} else if (action < 0) {
+				int prod = -action - 1;
+				base = top - LRTables.lengths[prod] + 1;
+				int beg = base <= top ? begs[base] : curr;
+				int end = base <= top ? ends[top] : curr - 1;
+				Object value = reduce(prod, beg, end);
+				if (prod == 0)
+					return (AbsSource) value;
+				top = base - 1;
+				push(LRTables.gotos[states[top] * LRTables.numOfNonts + LRTables.heads[prod]] - 1, value, beg, end);
+			} else {
+				Symbol symb = tokens.symbol(curr);
+				if (token == Symbol.Term.EOF)
+					throw new Report.Error(symb, "Unexpected end of a program, expected " + expected() + ".");
+				throw new Report.Error(symb, "Unexpected '" + symb + "', expected " + expected() + ".");
+			}
+		}
+	}
+
+	/**
+	 * Pushes an entry on the stack.
+	 *
+	 * @param state The state.
+	 * @param value The value.
+	 * @param beg   The index of the first symbol.
+	 * @param end   The index of the last symbol.
+	 */
+	private void push(int state, Object value, int beg, int end) {
+		if (++top == states.length) {
+			states = Arrays.copyOf(states, 2 * top);
+			values = Arrays.copyOf(values, 2 * top);
+			begs = Arrays.copyOf(begs, 2 * top);
+			ends = Arrays.copyOf(ends, 2 * top);
+		}
+		states[top] = state;
+		values[top] = value;
+		begs[top] = beg;
+		ends[top] = end;
+	}
+
+	/**
+	 * Returns the terminals expected in the state on the top of the stack.
+	 *
+	 * @return The names of the expected terminals.
+	 */
+	private String expected() {
+		StringJoiner expected = new StringJoiner(", ");
+		for (Symbol.Term term : Symbol.Term.values())
+			if (LRTables.actions[states[top] * LRTables.numOfTerms + term.ordinal()] != 0)
+				expected.add(term.toString());
+		return expected.toString();
+	}
+
+	/**
+	 * Returns the value of a symbol of the production being reduced.
+	 *
+	 * @param <T>   The type of the value.
+	 * @param index The index of the symbol in the body of the production.
+	 * @return The value.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T value(int index) {
+		return (T) values[base + index];
+	}
+
+	/**
+	 * Returns the lexeme of a terminal of the production being reduced.
+	 *
+	 * @param index The index of the terminal in the body of the production.
+	 * @return The lexeme.
+	 */
+	private String lexeme(int index) {
+		return tokens.lexeme(begs[base + index]);
+	}
+
+	/**
+	 * Returns the ID of the name of an identifier of the production being
+	 * reduced.
+	 *
+	 * @param index The index of the identifier in the body of the production.
+	 * @return The ID of the name.
+	 */
+	private int nameId(int index) {
+		return tokens.nameId(begs[base + index]);
+	}
+
+	/**
+	 * Returns the location of a terminal of the production being reduced.
+	 *
+	 * @param index The index of the terminal in the body of the production.
+	 * @return The location.
+	 */
+	private Location location(int index) {
+		return tokens.location(begs[base + index]);
+	}
+
+	/**
+	 * Returns the index of the last symbol of the postfix operators following the
+	 * current symbol, i.e., of the postfix expression the current symbol
+	 * continues. Brackets are matched without parsing the indices.
+	 *
+	 * @return The index of the last symbol of the postfix operators.
+	 */
+	private int pstfOpsEnd() {
+		int index = curr;
+		while (true) {
+			switch (tokens.token(index)) {
+				case LBRACKET: {
+					int depth = 0;
+					do {
+						switch (tokens.token(index)) {
+							case LBRACKET:
+								depth++;
+								break;
+							case RBRACKET:
+								depth--;
+								break;
+							case EOF:
+								return index - 1;
+							default:
+								break;
+						}
+						index++;
+					} while (depth > 0);
+					break;
+				}
+				case DOT:
+					if (tokens.token(index + 1) != Symbol.Term.IDENTIFIER)
+						return index - 1;
+					index += 2;
+					break;
+				default:
+					return index - 1;
+			}
+		}
+	}
+
+	/**
+	 * Reduces a production.
+	 *
+	 * @param prod The production.
+	 * @param beg  The index of the first symbol of the production's body.
+	 * @param end  The index of the last symbol of the production's body.
+	 * @return The value of the production's head.
+	 */
+	private Object reduce(int prod, int beg, int end) {
+		switch (LRTables.prods[prod]) {
+			case "Source' -> Source":
+			case "Expression -> ORXORExpression":
+			case "ORXORExpression -> ANDExpression":
+			case "ANDExpression -> RelationalExpression":
+			case "RelationalExpression -> ADDSUBExpression":
+			case "ADDSUBExpression -> MULDIVExpression":
+			case "MULDIVExpression -> PrefixExpression":
+			case "PrefixExpression -> PostfixExpression":
+			case "PostfixExpression -> AtomicExpression":
+				return value(0);
+
+			case "Source -> Declarations": {
+				AbsDecls decls = decls(value(0));
+				return new AbsSource(decls, decls);
+			}
+			case "Declarations -> Declaration":
+			case "Statements -> Statement SEMIC":
+			case "Arguments -> Expression": {
+				Vector<Object> list = new Vector<Object>();
+				list.add(value(0));
+				return list;
+			}
+			case "Declarations -> Declarations Declaration":
+			case "Statements -> Statements Statement SEMIC": {
+				Vector<Object> list = value(0);
+				list.add(value(1));
+				return list;
+			}
+			case "Parameters -> IDENTIFIER COLON Type": {
+				Vector<AbsParDecl> parDecls = new Vector<AbsParDecl>();
+				parDecls.add(new AbsParDecl(tokens.location(beg, end), nameId(0), value(2)));
+				return parDecls;
+			}
+			case "Parameters -> Parameters COMMA IDENTIFIER COLON Type": {
+				Vector<AbsParDecl> parDecls = value(0);
+				parDecls.add(new AbsParDecl(tokens.location(begs[base + 2], end), nameId(2), value(4)));
+				return parDecls;
+			}
+			case "Arguments -> Arguments COMMA Expression": {
+				Vector<AbsExpr> args = value(0);
+				args.add(value(2));
+				return args;
+			}
+
+			case "Declaration -> TYP IDENTIFIER COLON Type SEMIC":
+				return new AbsTypDecl(tokens.location(beg, end), nameId(1), value(3));
+			case "Declaration -> VAR IDENTIFIER COLON Type SEMIC":
+				return new AbsVarDecl(tokens.location(beg, end), nameId(1), value(3));
+			case "Declaration -> FUN IDENTIFIER LPARENTHESIS ParametersOpt RPARENTHESIS COLON Type FunctionBodyOpt SEMIC":
+				if (value(7) == null)
+					return new AbsFunDecl(tokens.location(beg, end), nameId(1), value(3), value(6));
+				else
+					return new AbsFunDef(tokens.location(beg, end), nameId(1), value(3), value(6), value(7));
+
+			case "Statement -> Expression":
+				return new AbsExprStmt(tokens.location(beg, end), value(0));
+			case "Statement -> Expression ASSIGN Expression":
+				return new AbsAssignStmt(tokens.location(beg, end), value(0), value(2));
+			case "Statement -> IF Expression THEN Statements ElseOpt END":
+				return new AbsIfStmt(tokens.location(beg, end), value(1), stmts(value(3)), value(4));
+			case "Statement -> WHILE Expression DO Statements END":
+				return new AbsWhileStmt(tokens.location(beg, end), value(1), stmts(value(3)));
+
+			case "ORXORExpression -> ORXORExpression IOR ANDExpression":
+				return binExpr(AbsBinExpr.Oper.IOR);
+			case "ORXORExpression -> ORXORExpression XOR ANDExpression":
+				return binExpr(AbsBinExpr.Oper.XOR);
+			case "ANDExpression -> ANDExpression AND RelationalExpression":
+				return binExpr(AbsBinExpr.Oper.AND);
+			case "RelationalExpression -> ADDSUBExpression EQU ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.EQU);
+			case "RelationalExpression -> ADDSUBExpression NEQ ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.NEQ);
+			case "RelationalExpression -> ADDSUBExpression GTE ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.GEQ);
+			case "RelationalExpression -> ADDSUBExpression LTE ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.LEQ);
+			case "RelationalExpression -> ADDSUBExpression GTH ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.GTH);
+			case "RelationalExpression -> ADDSUBExpression LTH ADDSUBExpression":
+				return binExpr(AbsBinExpr.Oper.LTH);
+			case "ADDSUBExpression -> ADDSUBExpression ADD MULDIVExpression":
+				return binExpr(AbsBinExpr.Oper.ADD);
+			case "ADDSUBExpression -> ADDSUBExpression SUB MULDIVExpression":
+				return binExpr(AbsBinExpr.Oper.SUB);
+			case "MULDIVExpression -> MULDIVExpression MUL PrefixExpression":
+				return binExpr(AbsBinExpr.Oper.MUL);
+			case "MULDIVExpression -> MULDIVExpression DIV PrefixExpression":
+				return binExpr(AbsBinExpr.Oper.DIV);
+			case "MULDIVExpression -> MULDIVExpression MOD PrefixExpression":
+				return binExpr(AbsBinExpr.Oper.MOD);
+
+			case "PrefixExpression -> ADD PrefixExpression":
+				return new AbsUnExpr(tokens.location(beg, end), AbsUnExpr.Oper.ADD, value(1));
+			case "PrefixExpression -> SUB PrefixExpression":
+				return new AbsUnExpr(tokens.location(beg, end), AbsUnExpr.Oper.SUB, value(1));
+			case "PrefixExpression -> NOT PrefixExpression":
+				return new AbsUnExpr(tokens.location(beg, end), AbsUnExpr.Oper.NOT, value(1));
+			case "PrefixExpression -> DATA PrefixExpression":
+				return new AbsUnExpr(tokens.location(beg, end), AbsUnExpr.Oper.DATA, value(1));
+			case "PrefixExpression -> ADDR PrefixExpression":
+				return new AbsUnExpr(tokens.location(beg, end), AbsUnExpr.Oper.ADDR, value(1));
+			case "PrefixExpression -> NEW LPARENTHESIS Type RPARENTHESIS":
+				return new AbsNewExpr(tokens.location(beg, end), value(2));
+			case "PrefixExpression -> DEL LPARENTHESIS Expression RPARENTHESIS":
+				return new AbsDelExpr(tokens.location(beg, end), value(2));
+
+			case "PostfixExpression -> PostfixExpression LBRACKET Expression RBRACKET": {
+				AbsExpr arr = value(0);
+				return new AbsArrExpr(new Location(arr, location(3)), arr, value(2));
+			}
+			case "PostfixExpression -> PostfixExpression DOT IDENTIFIER": {
+				AbsExpr rec = value(0);
+				AbsVarName comp = new AbsVarName(location(2), nameId(2));
+				return new AbsRecExpr(new Location(rec, comp), rec, comp);
+			}
+			case "PostfixExpression -> LPARENTHESIS Expression COLON Type RPARENTHESIS":
+				// The location of a cast extends over the postfix operators applied to it.
+				return new AbsCastExpr(tokens.location(begs[base + 2], pstfOpsEnd()), value(1), value(3));
+			case "PostfixExpression -> LPARENTHESIS Expression RPARENTHESIS":
+				return value(1);
+
+			case "AtomicExpression -> INTCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.INT, lexeme(0));
+			case "AtomicExpression -> VOIDCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.VOID, lexeme(0));
+			case "AtomicExpression -> CHARCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.CHAR, lexeme(0));
+			case "AtomicExpression -> BOOLCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.BOOL, lexeme(0));
+			case "AtomicExpression -> PTRCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.PTR, lexeme(0));
+			case "AtomicExpression -> STRCONST":
+				return new AbsAtomExpr(tokens.location(beg, end), AbsAtomExpr.Type.STR, lexeme(0));
+			case "AtomicExpression -> IDENTIFIER ArgumentsOpt":
+				if (value(1) == null)
+					return new AbsVarName(tokens.location(beg, end), nameId(0));
+				else
+					return new AbsFunName(tokens.location(beg, end), nameId(0), value(1));
+			case "AtomicExpression -> LBRACE Statements COLON Expression WhereOpt RBRACE": {
+				AbsDecls decls = value(4);
+				if (decls == null)
+					decls = new AbsDecls(new Location(0, 0), new Vector<AbsDecl>());
+				return new AbsBlockExpr(tokens.location(begs[base + 1], end - 1), decls, stmts(value(1)), value(3));
+			}
+
+			case "Type -> INT":
+				return new AbsAtomType(tokens.location(beg, end), AbsAtomType.Type.INT);
+			case "Type -> VOID":
+				return new AbsAtomType(tokens.location(beg, end), AbsAtomType.Type.VOID);
+			case "Type -> CHAR":
+				return new AbsAtomType(tokens.location(beg, end), AbsAtomType.Type.CHAR);
+			case "Type -> BOOL":
+				return new AbsAtomType(tokens.location(beg, end), AbsAtomType.Type.BOOL);
+			case "Type -> IDENTIFIER":
+				return new AbsTypName(tokens.location(beg, end), nameId(0));
+			case "Type -> ARR LBRACKET Expression RBRACKET Type":
+				return new AbsArrType(tokens.location(beg, end), value(2), value(4));
+			case "Type -> PTR Type": {
+				AbsType ptdType = value(1);
+				return new AbsPtrType(new Location(location(0), ptdType), ptdType);
+			}
+			case "Type -> LPARENTHESIS Type RPARENTHESIS":
+				return value(1);
+			case "Type -> REC LPARENTHESIS Parameters RPARENTHESIS": {
+				Vector<AbsParDecl> parDecls = value(2);
+				Vector<AbsCompDecl> compDecls = new Vector<AbsCompDecl>();
+				for (AbsParDecl parDecl : parDecls)
+					compDecls.add(new AbsCompDecl(new Location(parDecl), parDecl.nameId, parDecl.type));
+				return new AbsRecType(tokens.location(beg, end),
+						new AbsCompDecls(new Location(compDecls.firstElement(), compDecls.lastElement()), compDecls));
+			}
+
+			case "FunctionBodyOpt ->":
+			case "WhereOpt ->":
+			case "ArgumentsOpt ->":
+				return null;
+			case "FunctionBodyOpt -> ASSIGN Expression":
+				return value(1);
+			case "ParametersOpt ->":
+				return new AbsParDecls(new Location(0, 0), new Vector<AbsParDecl>());
+			case "ParametersOpt -> Parameters": {
+				Vector<AbsParDecl> parDecls = value(0);
+				return new AbsParDecls(new Location(parDecls.firstElement(), parDecls.lastElement()), parDecls);
+			}
+			case "WhereOpt -> WHERE Declarations":
+				return decls(value(1));
+			case "ArgumentsOpt -> LPARENTHESIS RPARENTHESIS":
+				return new AbsArgs(new Location(0, 0), new Vector<AbsExpr>());
+			case "ArgumentsOpt -> LPARENTHESIS Arguments RPARENTHESIS": {
+				Vector<AbsExpr> args = value(1);
+				return new AbsArgs(new Location(args.firstElement(), args.lastElement()), args);
+			}
+			case "ElseOpt ->":
+				return new AbsStmts(new Location(0, 0), new Vector<AbsStmt>());
+			case "ElseOpt -> ELSE Statements":
+				return stmts(value(1));
+
+			default:
+				throw new Report.InternalError();
+		}
+	}
+
+	/**
+	 * Constructs a binary expression of the production being reduced.
+	 *
+	 * @param oper The operator.
+	 * @return The binary expression.
+	 */
+	private AbsBinExpr binExpr(AbsBinExpr.Oper oper) {
+		AbsExpr fstExpr = value(0);
+		AbsExpr sndExpr = value(2);
+		return new AbsBinExpr(new Location(fstExpr, sndExpr), oper, fstExpr, sndExpr);
+	}
+
+	/**
+	 * Constructs declarations.
+	 *
+	 * @param decls The list of declarations.
+	 * @return The declarations.
+	 */
+	private AbsDecls decls(Vector<AbsDecl> decls) {
+		return new AbsDecls(new Location(decls.firstElement(), decls.lastElement()), decls);
+	}
+
+	/**
+	 * Constructs statements.
+	 *
+	 * @param stmts The list of statements.
+	 * @return The statements.
+	 */
+	private AbsStmts stmts(Vector<AbsStmt> stmts) {
+		return new AbsStmts(new Location(stmts.firstElement(), stmts.lastElement()), stmts);
+	}
+
+}
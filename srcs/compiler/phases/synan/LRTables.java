@@ -0,0 +1,444 @@
+/**
+ * @author sliva
+ */
+package compiler.phases.synan;
+
+/**
+ * LALR(1) parsing tables of PREV'19.
+ *
+ * Generated by {@link LRGen} from {@code LR1_CFGTerminals.txt}, do not edit.
+ *
+ * @author sliva
+ */
+class LRTables {
+
+	/** The number of states. */
+	static final int numOfStates = 161;
+
+	/** The number of terminals. */
+	static final int numOfTerms = 55;
+
+	/** The number of nonterminals. */
+	static final int numOfNonts = 23;
+
+	/** The productions. */
+	static final String[] prods = {
+			"Source' -> Source",
+			"Source -> Declarations",
+			"Declarations -> Declaration",
+			"Declarations -> Declarations Declaration",
+			"Declaration -> TYP IDENTIFIER COLON Type SEMIC",
+			"Declaration -> VAR IDENTIFIER COLON Type SEMIC",
+			"Declaration -> FUN IDENTIFIER LPARENTHESIS ParametersOpt RPARENTHESIS COLON Type FunctionBodyOpt SEMIC",
+			"Statement -> Expression",
+			"Statement -> Expression ASSIGN Expression",
+			"Statement -> IF Expression THEN Statements ElseOpt END",
+			"Statement -> WHILE Expression DO Statements END",
+			"Expression -> ORXORExpression",
+			"ORXORExpression -> ANDExpression",
+			"ORXORExpression -> ORXORExpression IOR ANDExpression",
+			"ORXORExpression -> ORXORExpression XOR ANDExpression",
+			"ANDExpression -> RelationalExpression",
+			"ANDExpression -> ANDExpression AND RelationalExpression",
+			"RelationalExpression -> ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression EQU ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression NEQ ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression GTE ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression LTE ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression GTH ADDSUBExpression",
+			"RelationalExpression -> ADDSUBExpression LTH ADDSUBExpression",
+			"ADDSUBExpression -> MULDIVExpression",
+			"ADDSUBExpression -> ADDSUBExpression ADD MULDIVExpression",
+			"ADDSUBExpression -> ADDSUBExpression SUB MULDIVExpression",
+			"MULDIVExpression -> PrefixExpression",
+			"MULDIVExpression -> MULDIVExpression MUL PrefixExpression",
+			"MULDIVExpression -> MULDIVExpression DIV PrefixExpression",
+			"MULDIVExpression -> MULDIVExpression MOD PrefixExpression",
+			"PrefixExpression -> PostfixExpression",
+			"PrefixExpression -> ADD PrefixExpression",
+			"PrefixExpression -> SUB PrefixExpression",
+			"PrefixExpression -> NOT PrefixExpression",
+			"PrefixExpression -> NEW LPARENTHESIS Type RPARENTHESIS",
+			"PrefixExpression -> DEL LPARENTHESIS Expression RPARENTHESIS",
+			"PrefixExpression -> DATA PrefixExpression",
+			"PrefixExpression -> ADDR PrefixExpression",
+			"PostfixExpression -> AtomicExpression",
+			"PostfixExpression -> PostfixExpression LBRACKET Expression RBRACKET",
+			"PostfixExpression -> PostfixExpression DOT IDENTIFIER",
+			"PostfixExpression -> LPARENTHESIS Expression COLON Type RPARENTHESIS",
+			"PostfixExpression -> LPARENTHESIS Expression RPARENTHESIS",
+			"AtomicExpression -> INTCONST",
+			"AtomicExpression -> VOIDCONST",
+			"AtomicExpression -> CHARCONST",
+			"AtomicExpression -> BOOLCONST",
+			"AtomicExpression -> PTRCONST",
+			"AtomicExpression -> STRCONST",
+			"AtomicExpression -> IDENTIFIER ArgumentsOpt",
+			"AtomicExpression -> LBRACE Statements COLON Expression WhereOpt RBRACE",
+			"Type -> INT",
+			"Type -> VOID",
+			"Type -> CHAR",
+			"Type -> BOOL",
+			"Type -> IDENTIFIER",
+			"Type -> ARR LBRACKET Expression RBRACKET Type",
+			"Type -> PTR Type",
+			"Type -> LPARENTHESIS Type RPARENTHESIS",
+			"Type -> REC LPARENTHESIS Parameters RPARENTHESIS",
+			"FunctionBodyOpt ->",
+			"FunctionBodyOpt -> ASSIGN Expression",
+			"ParametersOpt ->",
+			"ParametersOpt -> Parameters",
+			"Parameters -> IDENTIFIER COLON Type",
+			"Parameters -> Parameters COMMA IDENTIFIER COLON Type",
+			"Statements -> Statement SEMIC",
+			"Statements -> Statements Statement SEMIC",
+			"WhereOpt ->",
+			"WhereOpt -> WHERE Declarations",
+			"ArgumentsOpt ->",
+			"ArgumentsOpt -> LPARENTHESIS RPARENTHESIS",
+			"ArgumentsOpt -> LPARENTHESIS Arguments RPARENTHESIS",
+			"Arguments -> Expression",
+			"Arguments -> Arguments COMMA Expression",
+			"ElseOpt ->",
+			"ElseOpt -> ELSE Statements",
+	};
+
+	/** The heads of productions. */
+	static final int[] heads = {
+			0, 1, 2, 2, 3, 3, 3, 4, 4, 4, 4, 5, 6, 6, 6, 7, 7, 8, 8, 8,
+			8, 8, 8, 8, 9, 9, 9, 10, 10, 10, 10, 11, 11, 11, 11, 11, 11, 11, 11, 12,
+			12, 12, 12, 12, 13, 13, 13, 13, 13, 13, 13, 13, 14, 14, 14, 14, 14, 14, 14, 14,
+			14, 15, 15, 16, 16, 17, 17, 18, 18, 19, 19, 20, 20, 20, 21, 21, 22, 22, };
+
+	/** The lengths of bodies of productions. */
+	static final int[] lengths = {
+			1, 1, 1, 2, 5, 5, 9, 1, 3, 6, 5, 1, 1, 3, 3, 1, 3, 1, 3, 3,
+			3, 3, 3, 3, 1, 3, 3, 1, 3, 3, 3, 1, 2, 2, 2, 4, 4, 2, 2, 1,
+			4, 3, 5, 3, 1, 1, 1, 1, 1, 1, 2, 6, 1, 1, 1, 1, 1, 5, 2, 3,
+			4, 0, 2, 0, 1, 3, 5, 2, 3, 0, 2, 0, 2, 3, 1, 3, 0, 2, };
+
+	/** The actions indexed by {@code state * numOfTerms + term}. */
+	static final short[] actions = unpack(numOfStates * numOfTerms,
+			"\57\0\1\2\2\0\1\3\1\4\71\0\1\10\66\0"
+			+ "\1\11\66\0\1\12\1\uffff\66\0\1\ufffe\56\0\1\2"
+			+ "\2\0\1\3\1\4\3\0\1\ufffd\31\0\1\ufffd\24\0"
+			+ "\1\ufffd\2\0\2\ufffd\40\0\1\14\56\0\1\15\66\0"
+			+ "\1\16\41\0\1\ufffc\31\0\1\ufffc\24\0\1\ufffc\2\0"
+			+ "\2\ufffc\41\0\1\uffc0\27\0\1\17\35\0\1\22\7\0"
+			+ "\1\23\1\24\1\25\1\26\1\27\1\30\1\31\12\0"
+			+ "\1\32\35\0\1\22\7\0\1\23\1\24\1\25\1\26"
+			+ "\1\27\1\30\1\31\12\0\1\32\25\0\1\35\77\0"
+			+ "\1\36\56\0\1\37\7\0\1\uffbf\65\0\1\22\7\0"
+			+ "\1\23\1\24\1\25\1\26\1\27\1\30\1\31\12\0"
+			+ "\1\32\24\0\1\uffca\1\0\1\uffca\1\0\1\uffca\5\0"
+			+ "\1\uffca\54\0\1\uffc8\1\0\1\uffc8\1\0\1\uffc8\5\0"
+			+ "\1\uffc8\54\0\1\uffc9\1\0\1\uffc9\1\0\1\uffc9\5\0"
+			+ "\1\uffc9\54\0\1\uffcb\1\0\1\uffcb\1\0\1\uffcb\5\0"
+			+ "\1\uffcb\65\0\1\22\7\0\1\23\1\24\1\25\1\26"
+			+ "\1\27\1\30\1\31\12\0\1\32\33\0\1\42\70\0"
+			+ "\1\43\55\0\1\uffc7\1\0\1\uffc7\1\0\1\uffc7\5\0"
+			+ "\1\uffc7\60\0\1\44\66\0\1\45\73\0\1\22\7\0"
+			+ "\1\23\1\24\1\25\1\26\1\27\1\30\1\31\12\0"
+			+ "\1\32\25\0\1\47\127\0\1\50\36\0\1\51\54\0"
+			+ "\1\uffc5\1\0\1\uffc5\1\0\1\uffc5\5\0\1\uffc5\42\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\66\0\1\17\1\ufffb"
+			+ "\31\0\1\ufffb\24\0\1\ufffb\2\0\2\ufffb\3\0\1\ufffa"
+			+ "\31\0\1\ufffa\24\0\1\ufffa\2\0\2\ufffa\31\0\1\uffbe"
+			+ "\7\0\1\uffbe\65\0\1\22\7\0\1\23\1\24\1\25"
+			+ "\1\26\1\27\1\30\1\31\12\0\1\32\25\0\1\105"
+			+ "\65\0\1\uffc4\1\0\1\uffc4\1\0\1\uffc4\5\0\1\uffc4"
+			+ "\42\0\1\52\1\53\3\0\1\54\1\55\1\56\1\57"
+			+ "\1\60\5\0\1\61\3\0\1\62\1\0\1\63\1\64"
+			+ "\1\65\1\66\1\67\1\70\21\0\1\71\12\0\1\52"
+			+ "\1\53\3\0\1\54\1\55\1\56\1\57\1\60\5\0"
+			+ "\1\61\3\0\1\62\1\0\1\63\1\64\1\65\1\66"
+			+ "\1\67\1\70\21\0\1\71\12\0\1\52\1\53\3\0"
+			+ "\1\54\1\55\1\56\1\57\1\60\5\0\1\61\3\0"
+			+ "\1\62\1\0\1\63\1\64\1\65\1\66\1\67\1\70"
+			+ "\21\0\1\71\12\0\1\52\1\53\3\0\1\54\1\55"
+			+ "\1\56\1\57\1\60\5\0\1\61\3\0\1\62\1\0"
+			+ "\1\63\1\64\1\65\1\66\1\67\1\70\21\0\1\71"
+			+ "\12\0\1\52\1\53\3\0\1\54\1\55\1\56\1\57"
+			+ "\1\60\5\0\1\61\3\0\1\62\1\0\1\63\1\64"
+			+ "\1\65\1\66\1\67\1\70\21\0\1\71\35\0\1\113"
+			+ "\66\0\1\114\43\0\1\52\1\53\3\0\1\54\1\55"
+			+ "\1\56\1\57\1\60\5\0\1\61\3\0\1\62\1\0"
+			+ "\1\63\1\64\1\65\1\66\1\67\1\70\13\0\1\115"
+			+ "\4\0\1\116\1\71\12\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\21\0"
+			+ "\1\71\1\0\16\uffd2\5\0\5\uffd2\1\0\3\uffd2\1\0"
+			+ "\1\uffd2\15\0\1\uffd2\4\0\1\uffd2\2\0\1\uffd2\3\0"
+			+ "\16\uffd0\5\0\5\uffd0\1\0\3\uffd0\1\0\1\uffd0\15\0"
+			+ "\1\uffd0\4\0\1\uffd0\2\0\1\uffd0\3\0\16\uffd1\5\0"
+			+ "\5\uffd1\1\0\3\uffd1\1\0\1\uffd1\15\0\1\uffd1\4\0"
+			+ "\1\uffd1\2\0\1\uffd1\3\0\16\uffd3\5\0\5\uffd3\1\0"
+			+ "\3\uffd3\1\0\1\uffd3\15\0\1\uffd3\4\0\1\uffd3\2\0"
+			+ "\1\uffd3\3\0\16\uffce\5\0\5\uffce\1\0\3\uffce\1\0"
+			+ "\1\uffce\15\0\1\uffce\4\0\1\uffce\2\0\1\uffce\3\0"
+			+ "\16\uffcf\5\0\5\uffcf\1\0\3\uffcf\1\0\1\uffcf\15\0"
+			+ "\1\uffcf\4\0\1\uffcf\2\0\1\uffcf\3\0\16\uffb8\5\0"
+			+ "\5\uffb8\1\0\3\uffb8\1\123\1\uffb8\15\0\1\uffb8\4\0"
+			+ "\1\uffb8\2\0\1\uffb8\36\0\1\125\33\0\1\126\1\127"
+			+ "\21\0\3\ufff4\1\0\1\ufff4\1\0\1\ufff4\1\0\1\ufff4"
+			+ "\1\0\1\ufff4\15\0\1\ufff4\4\0\1\ufff4\2\0\1\ufff4"
+			+ "\3\0\2\ufff3\1\130\20\0\3\ufff3\1\0\1\ufff3\1\0"
+			+ "\1\ufff3\1\0\1\ufff3\1\0\1\ufff3\15\0\1\ufff3\4\0"
+			+ "\1\ufff3\2\0\1\ufff3\3\0\3\ufff0\20\0\3\ufff0\1\0"
+			+ "\1\ufff0\1\0\1\ufff0\1\0\1\ufff0\1\0\1\ufff0\15\0"
+			+ "\1\ufff0\4\0\1\ufff0\2\0\1\ufff0\3\0\3\uffee\1\131"
+			+ "\1\132\1\133\1\134\1\135\1\136\1\137\1\140\10\0"
+			+ "\3\uffee\1\0\1\uffee\1\0\1\uffee\1\0\1\uffee\1\0"
+			+ "\1\uffee\15\0\1\uffee\4\0\1\uffee\2\0\1\uffee\3\0"
+			+ "\13\uffe7\1\141\1\142\1\143\5\0\3\uffe7\1\0\1\uffe7"
+			+ "\1\0\1\uffe7\1\0\1\uffe7\1\0\1\uffe7\15\0\1\uffe7"
+			+ "\4\0\1\uffe7\2\0\1\uffe7\3\0\16\uffe4\5\0\3\uffe4"
+			+ "\1\0\1\uffe4\1\0\1\uffe4\1\0\1\uffe4\1\0\1\uffe4"
+			+ "\15\0\1\uffe4\4\0\1\uffe4\2\0\1\uffe4\3\0\16\uffe0"
+			+ "\5\0\3\uffe0\1\144\1\uffe0\1\0\1\uffe0\1\145\1\uffe0"
+			+ "\1\0\1\uffe0\15\0\1\uffe0\4\0\1\uffe0\2\0\1\uffe0"
+			+ "\3\0\16\uffd8\5\0\5\uffd8\1\0\3\uffd8\1\0\1\uffd8"
+			+ "\15\0\1\uffd8\4\0\1\uffd8\2\0\1\uffd8\30\0\1\37"
+			+ "\7\0\1\146\54\0\1\147\3\0\1\uffc2\73\0\1\22"
+			+ "\7\0\1\23\1\24\1\25\1\26\1\27\1\30\1\31"
+			+ "\12\0\1\32\1\0\16\uffdf\5\0\3\uffdf\1\0\1\uffdf"
+			+ "\1\0\1\uffdf\1\0\1\uffdf\1\0\1\uffdf\15\0\1\uffdf"
+			+ "\4\0\1\uffdf\2\0\1\uffdf\3\0\16\uffde\5\0\3\uffde"
+			+ "\1\0\1\uffde\1\0\1\uffde\1\0\1\uffde\1\0\1\uffde"
+			+ "\15\0\1\uffde\4\0\1\uffde\2\0\1\uffde\3\0\16\uffdd"
+			+ "\5\0\3\uffdd\1\0\1\uffdd\1\0\1\uffdd\1\0\1\uffdd"
+			+ "\1\0\1\uffdd\15\0\1\uffdd\4\0\1\uffdd\2\0\1\uffdd"
+			+ "\3\0\16\uffd9\5\0\3\uffd9\1\0\1\uffd9\1\0\1\uffd9"
+			+ "\1\0\1\uffd9\1\0\1\uffd9\15\0\1\uffd9\4\0\1\uffd9"
+			+ "\2\0\1\uffd9\3\0\16\uffda\5\0\3\uffda\1\0\1\uffda"
+			+ "\1\0\1\uffda\1\0\1\uffda\1\0\1\uffda\15\0\1\uffda"
+			+ "\4\0\1\uffda\2\0\1\uffda\37\0\1\22\7\0\1\23"
+			+ "\1\24\1\25\1\26\1\27\1\30\1\31\12\0\1\32"
+			+ "\12\0\1\52\1\53\3\0\1\54\1\55\1\56\1\57"
+			+ "\1\60\5\0\1\61\3\0\1\62\1\0\1\63\1\64"
+			+ "\1\65\1\66\1\67\1\70\21\0\1\71\12\0\1\52"
+			+ "\1\53\3\0\1\54\1\55\1\56\1\57\1\60\5\0"
+			+ "\1\61\3\0\1\62\1\0\1\63\1\64\1\65\1\66"
+			+ "\1\67\1\70\21\0\1\71\12\0\1\52\1\53\3\0"
+			+ "\1\54\1\55\1\56\1\57\1\60\5\0\1\61\3\0"
+			+ "\1\62\1\0\1\63\1\64\1\65\1\66\1\67\1\70"
+			+ "\21\0\1\71\30\0\1\156\62\0\1\157\3\0\1\ufff8"
+			+ "\50\0\1\52\1\53\3\0\1\54\1\55\1\56\1\57"
+			+ "\1\60\1\0\1\160\3\0\1\61\3\0\1\62\1\0"
+			+ "\1\63\1\64\1\65\1\66\1\67\1\70\13\0\1\115"
+			+ "\4\0\1\116\1\71\25\0\1\162\10\0\1\163\42\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\164\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\1\0\16\uffcd\5\0"
+			+ "\5\uffcd\1\0\3\uffcd\1\0\1\uffcd\15\0\1\uffcd\4\0"
+			+ "\1\uffcd\2\0\1\uffcd\37\0\1\22\7\0\1\23\1\24"
+			+ "\1\25\1\26\1\27\1\30\1\31\12\0\1\32\12\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\21\0\1\71\12\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\21\0"
+			+ "\1\71\12\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\21\0\1\71\12\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\21\0\1\71\12\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\21\0"
+			+ "\1\71\12\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\21\0\1\71\12\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\21\0\1\71\12\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\21\0"
+			+ "\1\71\12\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\21\0\1\71\12\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\21\0\1\71\66\0\1\206\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\21\0\1\71\24\0\1\uffc3\1\0\1\uffc3\1\0"
+			+ "\1\uffc3\5\0\1\uffc3\42\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\21\0"
+			+ "\1\71\30\0\1\211\64\0\1\uffbd\7\0\1\uffbd\66\0"
+			+ "\1\212\66\0\1\213\111\0\1\214\61\0\1\215\24\0"
+			+ "\2\uffbc\3\0\5\uffbc\1\0\1\uffbc\3\0\1\uffbc\3\0"
+			+ "\1\uffbc\1\0\6\uffbc\10\0\2\uffbc\1\0\1\uffbc\4\0"
+			+ "\2\uffbc\12\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\21\0\1\71\12\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\30\0\1\220\73\0"
+			+ "\1\22\7\0\1\23\1\24\1\25\1\26\1\27\1\30"
+			+ "\1\31\12\0\1\32\1\0\16\uffd4\5\0\5\uffd4\1\0"
+			+ "\3\uffd4\1\0\1\uffd4\15\0\1\uffd4\4\0\1\uffd4\2\0"
+			+ "\1\uffd4\3\0\16\uffb7\5\0\5\uffb7\1\0\3\uffb7\1\0"
+			+ "\1\uffb7\15\0\1\uffb7\4\0\1\uffb7\2\0\1\uffb7\30\0"
+			+ "\1\uffb5\7\0\1\uffb5\56\0\1\222\7\0\1\223\54\0"
+			+ "\1\uffc6\1\0\1\uffc6\1\0\1\uffc6\5\0\1\uffc6\31\0"
+			+ "\2\ufff2\1\130\20\0\3\ufff2\1\0\1\ufff2\1\0\1\ufff2"
+			+ "\1\0\1\ufff2\1\0\1\ufff2\15\0\1\ufff2\4\0\1\ufff2"
+			+ "\2\0\1\ufff2\3\0\2\ufff1\1\130\20\0\3\ufff1\1\0"
+			+ "\1\ufff1\1\0\1\ufff1\1\0\1\ufff1\1\0\1\ufff1\15\0"
+			+ "\1\ufff1\4\0\1\ufff1\2\0\1\ufff1\3\0\3\uffef\20\0"
+			+ "\3\uffef\1\0\1\uffef\1\0\1\uffef\1\0\1\uffef\1\0"
+			+ "\1\uffef\15\0\1\uffef\4\0\1\uffef\2\0\1\uffef\3\0"
+			+ "\3\uffed\6\0\1\137\1\140\10\0\3\uffed\1\0\1\uffed"
+			+ "\1\0\1\uffed\1\0\1\uffed\1\0\1\uffed\15\0\1\uffed"
+			+ "\4\0\1\uffed\2\0\1\uffed\3\0\3\uffec\6\0\1\137"
+			+ "\1\140\10\0\3\uffec\1\0\1\uffec\1\0\1\uffec\1\0"
+			+ "\1\uffec\1\0\1\uffec\15\0\1\uffec\4\0\1\uffec\2\0"
+			+ "\1\uffec\3\0\3\uffe8\6\0\1\137\1\140\10\0\3\uffe8"
+			+ "\1\0\1\uffe8\1\0\1\uffe8\1\0\1\uffe8\1\0\1\uffe8"
+			+ "\15\0\1\uffe8\4\0\1\uffe8\2\0\1\uffe8\3\0\3\uffe9"
+			+ "\6\0\1\137\1\140\10\0\3\uffe9\1\0\1\uffe9\1\0"
+			+ "\1\uffe9\1\0\1\uffe9\1\0\1\uffe9\15\0\1\uffe9\4\0"
+			+ "\1\uffe9\2\0\1\uffe9\3\0\3\uffea\6\0\1\137\1\140"
+			+ "\10\0\3\uffea\1\0\1\uffea\1\0\1\uffea\1\0\1\uffea"
+			+ "\1\0\1\uffea\15\0\1\uffea\4\0\1\uffea\2\0\1\uffea"
+			+ "\3\0\3\uffeb\6\0\1\137\1\140\10\0\3\uffeb\1\0"
+			+ "\1\uffeb\1\0\1\uffeb\1\0\1\uffeb\1\0\1\uffeb\15\0"
+			+ "\1\uffeb\4\0\1\uffeb\2\0\1\uffeb\3\0\13\uffe6\1\141"
+			+ "\1\142\1\143\5\0\3\uffe6\1\0\1\uffe6\1\0\1\uffe6"
+			+ "\1\0\1\uffe6\1\0\1\uffe6\15\0\1\uffe6\4\0\1\uffe6"
+			+ "\2\0\1\uffe6\3\0\13\uffe5\1\141\1\142\1\143\5\0"
+			+ "\3\uffe5\1\0\1\uffe5\1\0\1\uffe5\1\0\1\uffe5\1\0"
+			+ "\1\uffe5\15\0\1\uffe5\4\0\1\uffe5\2\0\1\uffe5\3\0"
+			+ "\16\uffe3\5\0\3\uffe3\1\0\1\uffe3\1\0\1\uffe3\1\0"
+			+ "\1\uffe3\1\0\1\uffe3\15\0\1\uffe3\4\0\1\uffe3\2\0"
+			+ "\1\uffe3\3\0\16\uffe2\5\0\3\uffe2\1\0\1\uffe2\1\0"
+			+ "\1\uffe2\1\0\1\uffe2\1\0\1\uffe2\15\0\1\uffe2\4\0"
+			+ "\1\uffe2\2\0\1\uffe2\3\0\16\uffe1\5\0\3\uffe1\1\0"
+			+ "\1\uffe1\1\0\1\uffe1\1\0\1\uffe1\1\0\1\uffe1\15\0"
+			+ "\1\uffe1\4\0\1\uffe1\2\0\1\uffe1\3\0\16\uffd6\5\0"
+			+ "\5\uffd6\1\0\3\uffd6\1\0\1\uffd6\15\0\1\uffd6\4\0"
+			+ "\1\uffd6\2\0\1\uffd6\36\0\1\224\62\0\1\uffc1\36\0"
+			+ "\1\ufff9\31\0\1\ufff9\24\0\1\ufff9\2\0\2\ufff9\4\0"
+			+ "\16\uffdc\5\0\3\uffdc\1\0\1\uffdc\1\0\1\uffdc\1\0"
+			+ "\1\uffdc\1\0\1\uffdc\15\0\1\uffdc\4\0\1\uffdc\2\0"
+			+ "\1\uffdc\3\0\16\uffdb\5\0\3\uffdb\1\0\1\uffdb\1\0"
+			+ "\1\uffdb\1\0\1\uffdb\1\0\1\uffdb\15\0\1\uffdb\4\0"
+			+ "\1\uffdb\2\0\1\uffdb\14\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\13\0"
+			+ "\1\115\4\0\1\116\1\71\12\0\1\52\1\53\3\0"
+			+ "\1\54\1\55\1\56\1\57\1\60\5\0\1\61\3\0"
+			+ "\1\62\1\0\1\63\1\64\1\65\1\66\1\67\1\70"
+			+ "\13\0\1\115\4\0\1\116\1\71\30\0\1\ufff7\70\0"
+			+ "\1\uffba\31\0\1\227\14\0\2\uffbb\3\0\5\uffbb\1\0"
+			+ "\1\uffbb\3\0\1\uffbb\3\0\1\uffbb\1\0\6\uffbb\10\0"
+			+ "\2\uffbb\1\0\1\uffbb\4\0\2\uffbb\36\0\1\231\42\0"
+			+ "\1\52\1\53\3\0\1\54\1\55\1\56\1\57\1\60"
+			+ "\5\0\1\61\3\0\1\62\1\0\1\63\1\64\1\65"
+			+ "\1\66\1\67\1\70\21\0\1\71\1\0\16\uffb6\5\0"
+			+ "\5\uffb6\1\0\3\uffb6\1\0\1\uffb6\15\0\1\uffb6\4\0"
+			+ "\1\uffb6\2\0\1\uffb6\3\0\16\uffd7\5\0\5\uffd7\1\0"
+			+ "\3\uffd7\1\0\1\uffd7\15\0\1\uffd7\4\0\1\uffd7\2\0"
+			+ "\1\uffd7\14\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\10\0\1\233\1\uffb3"
+			+ "\1\0\1\115\4\0\1\116\1\71\12\0\1\52\1\53"
+			+ "\3\0\1\54\1\55\1\56\1\57\1\60\5\0\1\61"
+			+ "\3\0\1\62\1\0\1\63\1\64\1\65\1\66\1\67"
+			+ "\1\70\11\0\1\235\1\0\1\115\4\0\1\116\1\71"
+			+ "\57\0\1\2\2\0\1\3\1\4\35\0\1\237\35\0"
+			+ "\16\uffd5\5\0\5\uffd5\1\0\3\uffd5\1\0\1\uffd5\15\0"
+			+ "\1\uffd5\4\0\1\uffd5\2\0\1\uffd5\30\0\1\uffb4\7\0"
+			+ "\1\uffb4\42\0\1\52\1\53\3\0\1\54\1\55\1\56"
+			+ "\1\57\1\60\5\0\1\61\3\0\1\62\1\0\1\63"
+			+ "\1\64\1\65\1\66\1\67\1\70\13\0\1\115\4\0"
+			+ "\1\116\1\71\56\0\1\241\40\0\1\ufff5\70\0\1\uffb9"
+			+ "\24\0\1\2\2\0\1\3\1\4\4\0\16\uffcc\5\0"
+			+ "\5\uffcc\1\0\3\uffcc\1\0\1\uffcc\15\0\1\uffcc\4\0"
+			+ "\1\uffcc\2\0\1\uffcc\14\0\1\52\1\53\3\0\1\54"
+			+ "\1\55\1\56\1\57\1\60\5\0\1\61\3\0\1\62"
+			+ "\1\0\1\63\1\64\1\65\1\66\1\67\1\70\11\0"
+			+ "\1\uffb2\1\0\1\115\4\0\1\116\1\71\30\0\1\ufff6"
+			+ "\36\0");
+
+	/** The gotos indexed by {@code state * numOfNonts + nont}. */
+	static final short[] gotos = unpack(numOfStates * numOfNonts,
+			"\1\0\1\5\1\6\1\7\162\0\1\13\226\0\1\20"
+			+ "\1\21\23\0\1\33\26\0\1\34\133\0\1\40\162\0"
+			+ "\1\41\211\0\1\46\151\0\1\72\1\73\1\74\1\75"
+			+ "\1\76\1\77\1\100\1\101\1\102\32\0\1\103\130\0"
+			+ "\1\104\101\0\1\106\1\101\1\102\24\0\1\107\1\101"
+			+ "\1\102\24\0\1\110\1\101\1\102\24\0\1\111\1\101"
+			+ "\1\102\24\0\1\112\1\101\1\102\73\0\1\117\1\120"
+			+ "\1\73\1\74\1\75\1\76\1\77\1\100\1\101\1\102"
+			+ "\4\0\1\121\11\0\1\122\1\73\1\74\1\75\1\76"
+			+ "\1\77\1\100\1\101\1\102\247\0\1\124\367\0\1\150"
+			+ "\25\0\1\151\211\0\1\152\15\0\1\153\1\73\1\74"
+			+ "\1\75\1\76\1\77\1\100\1\101\1\102\16\0\1\154"
+			+ "\1\73\1\74\1\75\1\76\1\77\1\100\1\101\1\102"
+			+ "\16\0\1\155\1\73\1\74\1\75\1\76\1\77\1\100"
+			+ "\1\101\1\102\73\0\1\161\1\120\1\73\1\74\1\75"
+			+ "\1\76\1\77\1\100\1\101\1\102\45\0\1\165\1\73"
+			+ "\1\74\1\75\1\76\1\77\1\100\1\101\1\102\7\0"
+			+ "\1\166\46\0\1\167\17\0\1\170\1\75\1\76\1\77"
+			+ "\1\100\1\101\1\102\20\0\1\171\1\75\1\76\1\77"
+			+ "\1\100\1\101\1\102\21\0\1\172\1\76\1\77\1\100"
+			+ "\1\101\1\102\22\0\1\173\1\77\1\100\1\101\1\102"
+			+ "\22\0\1\174\1\77\1\100\1\101\1\102\22\0\1\175"
+			+ "\1\77\1\100\1\101\1\102\22\0\1\176\1\77\1\100"
+			+ "\1\101\1\102\22\0\1\177\1\77\1\100\1\101\1\102"
+			+ "\22\0\1\200\1\77\1\100\1\101\1\102\23\0\1\201"
+			+ "\1\100\1\101\1\102\23\0\1\202\1\100\1\101\1\102"
+			+ "\24\0\1\203\1\101\1\102\24\0\1\204\1\101\1\102"
+			+ "\24\0\1\205\1\101\1\102\45\0\1\207\1\73\1\74"
+			+ "\1\75\1\76\1\77\1\100\1\101\1\102\45\0\1\210"
+			+ "\1\73\1\74\1\75\1\76\1\77\1\100\1\101\1\102"
+			+ "\257\0\1\216\1\73\1\74\1\75\1\76\1\77\1\100"
+			+ "\1\101\1\102\16\0\1\217\1\73\1\74\1\75\1\76"
+			+ "\1\77\1\100\1\101\1\102\56\0\1\221\u024b\0\1\117"
+			+ "\1\120\1\73\1\74\1\75\1\76\1\77\1\100\1\101"
+			+ "\1\102\4\0\1\225\10\0\1\117\1\120\1\73\1\74"
+			+ "\1\75\1\76\1\77\1\100\1\101\1\102\4\0\1\226"
+			+ "\56\0\1\230\66\0\1\232\1\73\1\74\1\75\1\76"
+			+ "\1\77\1\100\1\101\1\102\73\0\1\161\1\120\1\73"
+			+ "\1\74\1\75\1\76\1\77\1\100\1\101\1\102\10\0"
+			+ "\1\234\4\0\1\161\1\120\1\73\1\74\1\75\1\76"
+			+ "\1\77\1\100\1\101\1\102\13\0\1\236\1\7\134\0"
+			+ "\1\117\1\120\1\73\1\74\1\75\1\76\1\77\1\100"
+			+ "\1\101\1\102\4\0\1\240\65\0\1\13\56\0\1\161"
+			+ "\1\120\1\73\1\74\1\75\1\76\1\77\1\100\1\101"
+			+ "\1\102\40\0");
+
+	/**
+	 * Unpacks a run-length encoded table.
+	 *
+	 * @param size   The size of the table.
+	 * @param packed Pairs of the number of repetitions and the value.
+	 * @return The table.
+	 */
+	private static short[] unpack(int size, String packed) {
+		short[] table = new short[size];
+		int index = 0;
+		for (int i = 0; i < packed.length(); i += 2)
+			for (int count = packed.charAt(i); count > 0; count--)
+				table[index++] = (short) packed.charAt(i + 1);
+		return table;
+	}
+
+}
@@ -6,6 +6,7 @@ package compiler.phases.synan;
 import compiler.common.report.*;
 import compiler.data.symbol.*;
 import compiler.data.dertree.*;
+import compiler.*;
 import compiler.phases.*;
 import compiler.phases.lexan.*;
 
@@ -16,8 +17,15 @@ import compiler.phases.lexan.*;
  */
 public class SynAn extends Phase {
 
-	/** The derivation tree of the program being compiled. */
-	public static DerTree derTree = null;
+	/**
+	 * Returns the derivation tree of the program being compiled.
+	 * 
+	 * @return The derivation tree of the program being compiled or {@code null}
+	 *         if the abstract syntax tree has been constructed directly.
+	 */
+	public static DerTree derTree() {
+		return CompilationContext.current().derTree;
+	}
 
 	/** The lexical analyzer used by this syntax analyzer. */
 	private final LexAn lexAn;
@@ -39,20 +47,76 @@ public class SynAn extends Phase {
 	/**
 	 * The parser.
 	 * 
-	 * This method constructs a derivation tree of the program in the source file.
-	 * It calls method {@link #parseSource()} that starts a recursive descent parser
-	 * implementation of an LL(1) parsing algorithm.
+	 * If this phase is logged, this method constructs a derivation tree of the
+	 * program in the source file. It calls method {@link #parseSource()} that
+	 * starts a recursive descent parser implementation of an LL(1) parsing
+	 * algorithm. Otherwise, the derivation tree is not needed and the abstract
+	 * syntax tree is constructed directly by {@link AbsParser} or, if requested
+	 * by command line argument {@code --lr-parser}, by the table-driven
+	 * {@link LRParser} that does not use Java recursion.
+	 * 
+	 * If the token-buffer mode is requested by command line argument
+	 * {@code --token-buffer}, the parser reads symbols from the token buffer by
+	 * their indices, creating a symbol only if it is needed for a leaf of the
+	 * derivation tree or for an error message. The abstract syntax tree is always
+	 * constructed from the token buffer.
 	 */
 	public void parser() {
-		currSymb = lexAn.lexer();
-		derTree = parseSource();
-		if (currSymb.token != Symbol.Term.EOF)
-			throw new Report.Error(currSymb, "Unexpected '" + currSymb + "' at the end of a program.");
+		if (logger == null) {
+			if (compiler.Main.cmdLineArgValue("--lr-parser") != null)
+				CompilationContext.current().absTree = new LRParser(lexAn.tokens()).parser();
+			else
+				CompilationContext.current().absTree = new AbsParser(lexAn.tokens()).parser();
+			return;
+		}
+
+		if (compiler.Main.cmdLineArgValue("--token-buffer") != null) {
+			tokens = lexAn.tokens();
+			currTok = 0;
+		} else
+			currSymb = lexAn.lexer();
+		CompilationContext.current().derTree = parseSource();
+		if (currToken() != Symbol.Term.EOF)
+			throw new Report.Error(currSymbol(), "Unexpected '" + currSymbol() + "' at the end of a program.");
 	}
 
 	/** The lookahead buffer (of length 1). */
 	private Symbol currSymb = null;
 
+	/** The token buffer (in the token-buffer mode only). */
+	private TokenBuffer tokens = null;
+
+	/** The index of the current symbol in the token buffer. */
+	private int currTok;
+
+	/**
+	 * Returns the token of the current symbol.
+	 * 
+	 * @return The token of the current symbol.
+	 */
+	private Symbol.Term currToken() {
+		return tokens == null ? currSymb.token : tokens.token(currTok);
+	}
+
+	/**
+	 * Returns the current symbol.
+	 * 
+	 * @return The current symbol.
+	 */
+	private Symbol currSymbol() {
+		return tokens == null ? currSymb : tokens.symbol(currTok);
+	}
+
+	/**
+	 * Replaces the current symbol with the next input symbol.
+	 */
+	private void nextSymb() {
+		if (tokens == null)
+			currSymb = lexAn.lexer();
+		else if (tokens.token(currTok) != Symbol.Term.EOF)
+			currTok++;
+	}
+
 	/**
 	 * Appends the current symbol in the lookahead buffer to a derivation tree node
 	 * (typically the node of the derivation tree that is currently being expanded
@@ -63,10 +127,10 @@ public class SynAn extends Phase {
 	 *             parser.
 	 */
 	private void add(DerNode node) {
-		if (currSymb == null)
+		if (currSymb == null && tokens == null)
 			throw new Report.InternalError();
-		node.add(new DerLeaf(currSymb));
-		currSymb = lexAn.lexer();
+		node.add(new DerLeaf(currSymbol()));
+		nextSymb();
 	}
 
 	/**
@@ -82,17 +146,17 @@ public class SynAn extends Phase {
 	 * @param errorMsg The error message.
 	 */
 	private void add(DerNode node, Symbol.Term token, String errorMsg) {
-		if (currSymb == null)
+		if (currSymb == null && tokens == null)
 			throw new Report.InternalError();
-		if (currSymb.token == token) {
-			node.add(new DerLeaf(currSymb));
-			currSymb = lexAn.lexer();
+		if (currToken() == token) {
+			node.add(new DerLeaf(currSymbol()));
+			nextSymb();
 		} else
-			throw new Report.Error(currSymb, errorMsg);
+			throw new Report.Error(currSymbol(), errorMsg);
 	}
 
 	private DerNode parseSource() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Source);
 
 		switch (cur) {
@@ -109,7 +173,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseDeclarations() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Declarations);
 
 		switch (cur) {
@@ -127,7 +191,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseDeclarationsP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.DeclarationsP);
 
 		switch (cur) {
@@ -148,7 +212,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseDeclaration() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Declaration);
 
 		switch (cur) {
@@ -185,7 +249,7 @@ public class SynAn extends Phase {
 	}
 	
 	private DerNode parseStatement() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Statement);
 		
 		switch (cur) {
@@ -231,7 +295,7 @@ public class SynAn extends Phase {
 	}
 	
 	private DerNode parseStatementP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.StatementP);
 
 		switch (cur) {
@@ -249,7 +313,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Expression);
 
 		switch (cur) {
@@ -279,7 +343,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseORXORExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ORXORExpression);
 
 		switch (cur) {
@@ -310,7 +374,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseORXORExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ORXORExpressionP);
 
 		switch (cur) {
@@ -343,7 +407,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseANDExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ANDExpression);
 
 		switch (cur) {
@@ -374,7 +438,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseANDExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ANDExpressionP);
 
 		switch (cur) {
@@ -404,7 +468,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseRelationalExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.RelationalExpression);
 
 		switch (cur) {
@@ -435,7 +499,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseRelationalExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.RelationalExpressionP);
 
 		switch (cur) {
@@ -485,7 +549,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseADDSUBExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ADDSUBExpression);
 
 		switch (cur) {
@@ -516,7 +580,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseADDSUBExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ADDSUBExpressionP);
 
 		switch (cur) {
@@ -558,7 +622,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseMULDIVExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.MULDIVExpression);
 
 		switch (cur) {
@@ -589,7 +653,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseMULDIVExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.MULDIVExpressionP);
 
 		switch (cur) {
@@ -638,7 +702,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parsePrefixExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.PrefixExpression);
 
 		switch (cur) {
@@ -693,7 +757,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parsePostfixExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.PostfixExpression);
 
 		switch (cur) {
@@ -721,7 +785,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parsePostfixExpressionPP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.PostfixExpressionPP);
 
 		switch (cur) {
@@ -743,7 +807,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parsePostfixExpressionP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.PostfixExpressionP);
 
 		switch (cur) {
@@ -791,7 +855,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseAtomicExpression() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.AtomicExpression);
 
 		switch (cur) {
@@ -833,7 +897,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseType() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Type);
 
 		switch (cur) {
@@ -882,7 +946,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseFunctionBodyOpt() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.FunctionBodyOpt);
 
 		switch (cur) {
@@ -900,7 +964,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseParametersOpt() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ParametersOpt);
 
 		switch (cur) {
@@ -917,7 +981,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseParameters() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Parameters);
 
 		switch (cur) {
@@ -935,7 +999,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseParametersP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ParametersP);
 
 		switch (cur) {
@@ -956,7 +1020,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseStatements() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Statements);
 
 		switch (cur) {
@@ -990,7 +1054,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseStatementsP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.StatementsP);
 
 		switch (cur) {
@@ -1028,7 +1092,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseWhereOpt() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.WhereOpt);
 
 		switch (cur) {
@@ -1046,7 +1110,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseArgumentsOpt() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ArgumentsOpt);
 
 		switch (cur) {
@@ -1089,7 +1153,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseArgumentsOptP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ArgumentsOptP);
 
 		switch (cur) {
@@ -1123,7 +1187,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseArguments() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.Arguments);
 
 		switch (cur) {
@@ -1154,7 +1218,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseArgumentsP() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ArgumentsP);
 
 		switch (cur) {
@@ -1173,7 +1237,7 @@ public class SynAn extends Phase {
 	}
 
 	private DerNode parseElseOpt() {
-		Symbol.Term cur = currSymb.token;
+		Symbol.Term cur = currToken();
 		DerNode node = new DerNode(DerNode.Nont.ElseOpt);
 
 		switch (cur) {
@@ -0,0 +1,100 @@
+/**
+ * @author sliva
+ */
+package compiler.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * The client of the compile server.
+ *
+ * The client accepts the same command line arguments as the compiler itself,
+ * forwards them to the {@link Server} together with its working directory,
+ * prints out whatever the compiler has printed out and exits with status 0 if
+ * the program has been compiled successfully or 1 otherwise. Every request
+ * carries the token the server has written to its token file (see
+ * {@link Server#tokenFile}), so only the owner of the server can use it.
+ *
+ * Usage: {@code java compiler.server.Client [--port=PORT] [--stop-server]
+ * ARGS...}
+ *
+ * @author sliva
+ */
+public class Client {
+
+	/**
+	 * The client's {@code main} method.
+	 *
+	 * @param args Command line arguments.
+	 */
+	public static void main(String[] args) {
+		int port = Server.DEFAULT_PORT;
+		boolean stop = false;
+		Vector<String> cmdLine = new Vector<String>();
+		for (String arg : args) {
+			if (arg.matches("--port=[0-9]+"))
+				port = Integer.parseInt(arg.replaceFirst("^[^=]*=", ""));
+			else if (arg.equals("--stop-server"))
+				stop = true;
+			else
+				cmdLine.add(arg);
+		}
+
+		String token;
+		try {
+			token = new String(Files.readAllBytes(Server.tokenFile(port).toPath()), StandardCharsets.UTF_8).trim();
+		} catch (IOException ex) {
+			System.err.println(":-( Cannot read the token of the compile server on port " + port + ": " + ex.getMessage());
+			System.exit(1);
+			return;
+		}
+
+		int status = 1;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			out.writeUTF(token);
+			if (stop) {
+				out.writeInt(Server.STOP);
+			} else {
+				out.writeInt(Server.COMPILE);
+				out.writeUTF(System.getProperty("user.dir"));
+				out.writeInt(cmdLine.size());
+				for (String arg : cmdLine)
+					out.writeUTF(arg);
+			}
+			out.flush();
+
+			status = in.readInt();
+			if (stop && status != 0)
+				System.err.println(":-( The compile server has refused to stop.");
+			if (!stop) {
+				System.out.write(readBytes(in));
+				System.out.flush();
+				System.err.write(readBytes(in));
+				System.err.flush();
+			}
+		} catch (IOException ex) {
+			System.err.println(":-( Cannot reach the compile server on port " + port + ": " + ex.getMessage());
+		}
+		System.exit(status);
+	}
+
+	/**
+	 * Reads a block of bytes preceded by its length.
+	 *
+	 * @param in The stream the bytes are read from.
+	 * @return The bytes read.
+	 * @throws IOException If the bytes cannot be read.
+	 */
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+}
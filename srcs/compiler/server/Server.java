@@ -0,0 +1,245 @@
+/**
+ * @author sliva
+ */
+package compiler.server;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * The compile server.
+ *
+ * The server keeps a single virtual machine running and compiles programs on
+ * request of {@link Client}s. Requests are served concurrently, each within
+ * its own compilation context. Each request carries the working directory of
+ * the client and the command line arguments; relative file names are resolved
+ * against the client's working directory. Everything the compiler prints out
+ * is sent back to the client together with the outcome of the compilation.
+ *
+ * As the server compiles with the permissions of its owner, every request
+ * must start with a random token the server writes to a file only its owner
+ * can read (see {@link #tokenFile}); requests without the right token are
+ * refused.
+ *
+ * Usage: {@code java compiler.server.Server [--port=PORT]}
+ *
+ * @author sliva
+ */
+public class Server {
+
+	/** The default port the server listens on. */
+	public static final int DEFAULT_PORT = 4019;
+
+	/** Request to compile a program. */
+	public static final int COMPILE = 0;
+
+	/** Request to stop the server. */
+	public static final int STOP = 1;
+
+	/**
+	 * Returns the file holding the token of the server listening on the specified
+	 * port. The file is placed in the directory {@code .prev-server} within the
+	 * home directory of the user.
+	 *
+	 * @param port The port the server listens on.
+	 * @return The file holding the token.
+	 */
+	public static File tokenFile(int port) {
+		return new File(new File(System.getProperty("user.home"), ".prev-server"), port + ".token");
+	}
+
+	/**
+	 * Generates a new token and writes it to a file that only the owner of the
+	 * server can read. The directory of the file is made accessible only to the
+	 * owner as well.
+	 *
+	 * @param file The file the token is written to.
+	 * @return The token.
+	 * @throws IOException If the token cannot be written.
+	 */
+	private static String writeToken(File file) throws IOException {
+		byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder token = new StringBuilder();
+		for (byte b : bytes)
+			token.append(String.format("%02x", b));
+
+		Path dir = file.getParentFile().toPath();
+		Path tmpFile = dir.resolve(file.getName() + ".tmp");
+		boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+		if (posix) {
+			Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+			Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwx------"));
+			Files.deleteIfExists(tmpFile);
+			Files.createFile(tmpFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createDirectories(dir);
+			Files.deleteIfExists(tmpFile);
+			Files.createFile(tmpFile);
+			File tmp = tmpFile.toFile();
+			tmp.setReadable(false, false);
+			tmp.setWritable(false, false);
+			tmp.setReadable(true, true);
+			tmp.setWritable(true, true);
+		}
+		Files.write(tmpFile, token.toString().getBytes(StandardCharsets.UTF_8));
+		Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return token.toString();
+	}
+
+	/**
+	 * The server's {@code main} method.
+	 *
+	 * @param args Command line arguments.
+	 */
+	public static void main(String[] args) {
+		int port = DEFAULT_PORT;
+		for (String arg : args) {
+			if (arg.matches("--port=[0-9]+"))
+				port = Integer.parseInt(arg.replaceFirst("^[^=]*=", ""));
+			else
+				System.err.println(":-o Command line argument '" + arg + "' ignored.");
+		}
+
+		File tokenFile = tokenFile(port);
+		try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+			String token;
+			try {
+				token = writeToken(tokenFile);
+			} catch (IOException ex) {
+				System.err.println(":-( Cannot write token file '" + tokenFile + "': " + ex.getMessage());
+				return;
+			}
+			System.out.println(":-) PREV compile server listening on port " + port + ".");
+			ExecutorService requests = Executors.newCachedThreadPool();
+			while (true) {
+				Socket socket;
+				try {
+					socket = serverSocket.accept();
+				} catch (SocketException __) {
+					// The server socket has been closed by a stop request.
+					break;
+				}
+				requests.execute(() -> handle(serverSocket, socket, token));
+			}
+			requests.shutdown();
+		} catch (IOException ex) {
+			System.err.println(":-( Cannot listen on port " + port + ": " + ex.getMessage());
+		} finally {
+			tokenFile.delete();
+		}
+	}
+
+	/**
+	 * Handles a single request.
+	 *
+	 * @param serverSocket The server socket (closed on a stop request).
+	 * @param socket       The socket connected to the client.
+	 * @param token        The token of the server.
+	 */
+	private static void handle(ServerSocket serverSocket, Socket socket, String token) {
+		try (socket) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			boolean authorized = MessageDigest.isEqual(in.readUTF().getBytes(StandardCharsets.UTF_8),
+					token.getBytes(StandardCharsets.UTF_8));
+			int request = in.readInt();
+			if (!authorized) {
+				out.writeInt(1);
+				if (request != STOP) {
+					byte[] message = ":-( Request refused: wrong token.\n".getBytes(StandardCharsets.UTF_8);
+					out.writeInt(0);
+					out.writeInt(message.length);
+					out.write(message);
+				}
+				out.flush();
+				return;
+			}
+			if (request == STOP) {
+				out.writeInt(0);
+				out.flush();
+				serverSocket.close();
+				return;
+			}
+			String workDir = in.readUTF();
+			String[] cmdLine = new String[in.readInt()];
+			for (int arg = 0; arg < cmdLine.length; arg++)
+				cmdLine[arg] = in.readUTF();
+			serve(workDir, cmdLine, out);
+			out.flush();
+		} catch (IOException ex) {
+			System.err.println(":-o Request failed: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Compiles a program and sends back the outcome of the compilation, the
+	 * standard output and the standard error output of the compiler.
+	 *
+	 * @param workDir The client's working directory.
+	 * @param cmdLine The client's command line arguments.
+	 * @param out     The stream the response is sent to.
+	 * @throws IOException If the response cannot be sent.
+	 */
+	private static void serve(String workDir, String[] cmdLine, DataOutputStream out) throws IOException {
+		ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+		ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+		PrintStream outStream = new PrintStream(stdout, true, "UTF-8");
+		PrintStream errStream = new PrintStream(stderr, true, "UTF-8");
+		boolean done = false;
+		try {
+			done = compiler.Main.compile(resolve(workDir, cmdLine), outStream, errStream);
+		} catch (Throwable ex) {
+			ex.printStackTrace(errStream);
+		}
+		outStream.flush();
+		errStream.flush();
+		out.writeInt(done ? 0 : 1);
+		out.writeInt(stdout.size());
+		stdout.writeTo(out);
+		out.writeInt(stderr.size());
+		stderr.writeTo(out);
+	}
+
+	/**
+	 * Resolves file names in command line arguments against the client's working
+	 * directory. The XSL directory is left unchanged since it is only referred to
+	 * from within the XML files.
+	 *
+	 * @param workDir The client's working directory.
+	 * @param cmdLine The client's command line arguments.
+	 * @return The command line arguments with all file names resolved.
+	 */
+	private static String[] resolve(String workDir, String[] cmdLine) {
+		Vector<String> args = new Vector<String>();
+		for (String arg : cmdLine) {
+			if (!arg.startsWith("--"))
+				args.add(resolve(workDir, "", arg));
+			else if (arg.matches("--(xml|dst-file-name|stats|cache)=.*"))
+				args.add(resolve(workDir, arg.replaceFirst("=.*$", "="), arg.replaceFirst("^[^=]*=", "")));
+			else
+				args.add(arg);
+		}
+		return args.toArray(new String[0]);
+	}
+
+	/**
+	 * Resolves a file name against the client's working directory.
+	 *
+	 * @param workDir  The client's working directory.
+	 * @param prefix   The command line switch the file name belongs to.
+	 * @param fileName The file name.
+	 * @return The command line switch followed by the resolved file name.
+	 */
+	private static String resolve(String workDir, String prefix, String fileName) {
+		File file = new File(fileName);
+		return prefix + (file.isAbsolute() ? file : new File(workDir, fileName)).getPath();
+	}
+
+}
@@ -0,0 +1,6 @@
+/**
+ * Compile server and its client.
+ * 
+ * @author sliva
+ */
+package compiler.server;